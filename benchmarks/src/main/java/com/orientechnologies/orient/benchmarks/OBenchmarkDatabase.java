@@ -0,0 +1,127 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Dataset shared by benchmarks. Documents of class {@link #CLASS_NAME} are generated from a fixed seed, so every run of the
+ * benchmarks, on every release, works on the same data.
+ * <p>
+ * Databases are created in "target/benchmark-databases", the directory can be changed with the "benchmarks.directory" system
+ * property.
+ */
+public final class OBenchmarkDatabase {
+  public static final String CLASS_NAME = "Person";
+
+  /**
+   * Unique SB-tree index on "id".
+   */
+  public static final String ID_INDEX = "Person.id";
+
+  /**
+   * Unique hash index on "id".
+   */
+  public static final String ID_HASH_INDEX = "Person.idHash";
+
+  /**
+   * Not unique SB-tree index on "city".
+   */
+  public static final String CITY_INDEX = "Person.city";
+
+  public static final long SEED = 42;
+
+  public static final String[] CITIES = { "Rome", "London", "Berlin", "Madrid", "Paris", "Vienna", "Prague", "Warsaw", "Lisbon",
+      "Dublin", "Athens", "Oslo", "Stockholm", "Helsinki", "Amsterdam", "Brussels" };
+
+  private OBenchmarkDatabase() {
+  }
+
+  /**
+   * Creates the database, dropping the one left by previous runs, and fills it with <code>records</code> documents.
+   */
+  public static ODatabaseDocumentTx create(String name, int records) {
+    final String path = System.getProperty("benchmarks.directory", "target" + File.separator + "benchmark-databases");
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("plocal:" + path + File.separator + name);
+    if (db.exists()) {
+      db.open("admin", "admin");
+      db.drop();
+      db = new ODatabaseDocumentTx("plocal:" + path + File.separator + name);
+    }
+    db.create();
+
+    final OClass person = db.getMetadata().getSchema().createClass(CLASS_NAME);
+    person.createProperty("id", OType.INTEGER);
+    person.createProperty("name", OType.STRING);
+    person.createProperty("age", OType.INTEGER);
+    person.createProperty("city", OType.STRING);
+    person.createProperty("salary", OType.DOUBLE);
+    person.createProperty("tags", OType.EMBEDDEDLIST, OType.STRING);
+
+    final Random random = new Random(SEED);
+    db.declareIntent(new OIntentMassiveInsert());
+    for (int i = 0; i < records; i++) {
+      db.save(createPerson(i, random));
+    }
+    db.declareIntent(null);
+
+    person.createIndex(ID_INDEX, OClass.INDEX_TYPE.UNIQUE, "id");
+    person.createIndex(ID_HASH_INDEX, OClass.INDEX_TYPE.UNIQUE_HASH_INDEX, "id");
+    person.createIndex(CITY_INDEX, OClass.INDEX_TYPE.NOTUNIQUE, "city");
+
+    return db;
+  }
+
+  /**
+   * Generates a document, the same <code>id</code> and state of <code>random</code> always generate the same document.
+   */
+  public static ODocument createPerson(int id, Random random) {
+    final ODocument document = new ODocument(CLASS_NAME);
+    document.field("id", id);
+    document.field("name", "name" + random.nextInt(1000000));
+    document.field("age", 18 + random.nextInt(70));
+    document.field("city", CITIES[random.nextInt(CITIES.length)]);
+    document.field("salary", 1000 + random.nextDouble() * 9000);
+
+    final List<String> tags = new ArrayList<>();
+    final int tagsCount = random.nextInt(5);
+    for (int i = 0; i < tagsCount; i++) {
+      tags.add("tag" + random.nextInt(100));
+    }
+    document.field("tags", tags);
+
+    return document;
+  }
+
+  public static void drop(ODatabaseDocumentTx db) {
+    db.activateOnCurrentThread();
+    db.drop();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.OConstants;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the same options as the JMH runner, but writes the results in JSON to
+ * "jmh-result-&lt;version&gt;.json" unless another format or file is passed, so that results of different releases can be
+ * compared.
+ */
+public class OBenchmarksRunner {
+  public static void main(String[] args) throws Exception {
+    final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+    if (commandLineOptions.shouldHelp()) {
+      commandLineOptions.showHelp();
+      return;
+    }
+
+    final ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLineOptions);
+    if (!commandLineOptions.getResultFormat().hasValue())
+      builder.resultFormat(ResultFormatType.JSON);
+    if (!commandLineOptions.getResult().hasValue())
+      builder.result("jmh-result-" + OConstants.getRawVersion() + ".json");
+
+    final Runner runner = new Runner(builder.build());
+    if (commandLineOptions.shouldList())
+      runner.list();
+    else
+      runner.run();
+  }
+}
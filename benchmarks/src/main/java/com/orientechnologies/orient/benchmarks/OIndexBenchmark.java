@@ -0,0 +1,111 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.storage.index.hashindex.local.OLocalHashTable;
+import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTree;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups, insertions and range queries on the unique SB-tree index ({@link OSBTree}) and the unique hash index ({@link
+ * OLocalHashTable}) of the benchmark dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OIndexBenchmark {
+  @Param("100000")
+  public int records;
+
+  @Param("100")
+  public int rangeSize;
+
+  private ODatabaseDocumentTx db;
+  private OIndex<?>           sbTreeIndex;
+  private OIndex<?>           hashIndex;
+  private OIdentifiable       value;
+  private Random              random;
+  private int                 nextKey;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = OBenchmarkDatabase.create("index", records);
+
+    final OIndexManager indexManager = db.getMetadata().getIndexManager();
+    sbTreeIndex = indexManager.getIndex(OBenchmarkDatabase.ID_INDEX);
+    hashIndex = indexManager.getIndex(OBenchmarkDatabase.ID_HASH_INDEX);
+
+    value = db.browseClass(OBenchmarkDatabase.CLASS_NAME).next().getIdentity();
+    random = new Random(OBenchmarkDatabase.SEED);
+    nextKey = records;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OBenchmarkDatabase.drop(db);
+  }
+
+  @Benchmark
+  public Object sbTreeGet() {
+    db.activateOnCurrentThread();
+    return sbTreeIndex.get(random.nextInt(records));
+  }
+
+  @Benchmark
+  public Object sbTreePut() {
+    db.activateOnCurrentThread();
+    return sbTreeIndex.put(nextKey++, value);
+  }
+
+  @Benchmark
+  public void sbTreeRange(Blackhole blackhole) {
+    db.activateOnCurrentThread();
+    final int from = random.nextInt(records - rangeSize);
+    final OIndexCursor cursor = sbTreeIndex.iterateEntriesBetween(from, true, from + rangeSize, false, true);
+    Object entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      blackhole.consume(entry);
+    }
+  }
+
+  @Benchmark
+  public Object hashTableGet() {
+    db.activateOnCurrentThread();
+    return hashIndex.get(random.nextInt(records));
+  }
+
+  @Benchmark
+  public Object hashTablePut() {
+    db.activateOnCurrentThread();
+    return hashIndex.put(nextKey++, value);
+  }
+}
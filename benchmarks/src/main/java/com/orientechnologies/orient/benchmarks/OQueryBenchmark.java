@@ -0,0 +1,88 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes representative SQL queries on the benchmark dataset: lookups on unique and not unique indexes, a full scan with
+ * filter, a top-N sort and an aggregation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OQueryBenchmark {
+  @Param("100000")
+  public int records;
+
+  @Param({ "uniqueIndexLookup", "indexLookup", "fullScanFilter", "orderByLimit", "groupBy" })
+  public String query;
+
+  private ODatabaseDocumentTx db;
+  private Random              random;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = OBenchmarkDatabase.create("query", records);
+    random = new Random(OBenchmarkDatabase.SEED);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OBenchmarkDatabase.drop(db);
+  }
+
+  @Benchmark
+  public void execute(Blackhole blackhole) {
+    db.activateOnCurrentThread();
+    try (OResultSet resultSet = executeQuery()) {
+      while (resultSet.hasNext()) {
+        blackhole.consume(resultSet.next());
+      }
+    }
+  }
+
+  private OResultSet executeQuery() {
+    switch (query) {
+    case "uniqueIndexLookup":
+      return db.query("select from Person where id = ?", random.nextInt(records));
+    case "indexLookup":
+      return db.query("select from Person where city = ? limit 100",
+          OBenchmarkDatabase.CITIES[random.nextInt(OBenchmarkDatabase.CITIES.length)]);
+    case "fullScanFilter":
+      return db.query("select from Person where age = ? and salary > ?", 18 + random.nextInt(70), 9000);
+    case "orderByLimit":
+      return db.query("select from Person order by salary desc limit 10");
+    case "groupBy":
+      return db.query("select city, count(*), avg(salary) from Person group by city");
+    default:
+      throw new IllegalArgumentException("Unknown query " + query);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OShardedReadCache;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OPaginatedCluster;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads random pages of a cluster through {@link O2QCache} ("2q") or {@link OShardedReadCache} ("sharded"). In the "hit"
+ * benchmarks all pages of the cluster are in the cache, in the "miss" benchmark the cache holds only 16 pages, so almost every page
+ * is loaded from the write cache. The "contendedHit" benchmark loads cached pages from several threads at once, which is the case
+ * the sharded cache is meant for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OReadCacheBenchmark {
+  private static final int MISS_CACHE_PAGES = 16;
+  private static final int CACHE_SHARDS     = 8;
+  private static final int THREADS          = 8;
+
+  @Param("100000")
+  public int records;
+
+  @Param({ "2q", "sharded" })
+  public String cache;
+
+  private ODatabaseDocumentTx db;
+  private OWriteCache         writeCache;
+  private OReadCache          hitCache;
+  private OReadCache          missCache;
+  private long                fileId;
+  private int                 pages;
+
+  /**
+   * Page indexes are generated by each thread, so that the threads of "contendedHit" do not contend on a shared random.
+   */
+  @State(Scope.Thread)
+  public static class ThreadRandom {
+    private final Random random = new Random(OBenchmarkDatabase.SEED + Thread.currentThread().getId());
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    db = OBenchmarkDatabase.create("readCache", records);
+
+    writeCache = ((OAbstractPaginatedStorage) db.getStorage()).getWriteCache();
+
+    final int clusterId = db.getMetadata().getSchema().getClass(OBenchmarkDatabase.CLASS_NAME).getDefaultClusterId();
+    fileId = writeCache.fileIdByName(db.getClusterNameById(clusterId) + OPaginatedCluster.DEF_EXTENSION);
+    pages = (int) writeCache.getFilledUpTo(fileId);
+
+    final int pageSize = writeCache.pageSize();
+    hitCache = createCache(2L * pages * pageSize, pageSize);
+    missCache = createCache(MISS_CACHE_PAGES * (long) pageSize, pageSize);
+
+    for (int i = 0; i < pages; i++) {
+      hitCache.releaseFromRead(hitCache.loadForRead(fileId, i, false, writeCache, 1, false), writeCache);
+    }
+  }
+
+  private OReadCache createCache(long maxMemory, int pageSize) {
+    switch (cache) {
+    case "2q":
+      return new O2QCache(maxMemory, pageSize, false, 20);
+    case "sharded":
+      return new OShardedReadCache(maxMemory, pageSize, false, 20, 0, 0, CACHE_SHARDS);
+    default:
+      throw new IllegalArgumentException("Unknown cache implementation " + cache);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    closeCache(hitCache);
+    closeCache(missCache);
+    OBenchmarkDatabase.drop(db);
+  }
+
+  private static void closeCache(OReadCache readCache) {
+    readCache.clear();
+    if (readCache instanceof O2QCache) {
+      ((O2QCache) readCache).shutdown();
+    } else if (readCache instanceof OShardedReadCache) {
+      ((OShardedReadCache) readCache).shutdown();
+    }
+  }
+
+  @Benchmark
+  public OCacheEntry hit(ThreadRandom random) throws IOException {
+    return load(hitCache, random);
+  }
+
+  @Benchmark
+  @Threads(THREADS)
+  public OCacheEntry contendedHit(ThreadRandom random) throws IOException {
+    return load(hitCache, random);
+  }
+
+  @Benchmark
+  public OCacheEntry miss(ThreadRandom random) throws IOException {
+    return load(missCache, random);
+  }
+
+  private OCacheEntry load(OReadCache readCache, ThreadRandom random) throws IOException {
+    final OCacheEntry cacheEntry = readCache.loadForRead(fileId, random.random.nextInt(pages), false, writeCache, 1, false);
+    readCache.releaseFromRead(cacheEntry, writeCache);
+    return cacheEntry;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and deserializes documents of the benchmark dataset with the given version of the binary record serializer (1 is
+ * {@link com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinaryV1}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ORecordSerializerBenchmark {
+  private static final int DOCUMENTS = 1024;
+
+  @Param({ "0", "1" })
+  public int serializerVersion;
+
+  private ODatabaseDocumentTx     db;
+  private ORecordSerializerBinary serializer;
+  private ODocument[]             documents;
+  private byte[][]                serialized;
+  private int                     next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = OBenchmarkDatabase.create("recordSerializer", 0);
+    serializer = new ORecordSerializerBinary((byte) serializerVersion);
+
+    final Random random = new Random(OBenchmarkDatabase.SEED);
+    documents = new ODocument[DOCUMENTS];
+    serialized = new byte[DOCUMENTS][];
+    for (int i = 0; i < DOCUMENTS; i++) {
+      documents[i] = OBenchmarkDatabase.createPerson(i, random);
+      serialized[i] = serializer.toStream(documents[i], false);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OBenchmarkDatabase.drop(db);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    db.activateOnCurrentThread();
+    return serializer.toStream(documents[next++ & (DOCUMENTS - 1)], false);
+  }
+
+  @Benchmark
+  public ORecord deserialize() {
+    db.activateOnCurrentThread();
+    return serializer.fromStream(serialized[next++ & (DOCUMENTS - 1)], new ODocument(), null);
+  }
+}
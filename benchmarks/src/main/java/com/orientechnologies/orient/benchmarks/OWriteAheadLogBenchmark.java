@@ -0,0 +1,76 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OOperationUnitId;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdatePageRecord;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChangesTree;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends page update records, with <code>changeSize</code> bytes of changes, to the write ahead log of an empty database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OWriteAheadLogBenchmark {
+  @Param({ "64", "1024" })
+  public int changeSize;
+
+  private ODatabaseDocumentTx db;
+  private OWriteAheadLog      writeAheadLog;
+  private OWALChanges         changes;
+  private long                pageIndex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = OBenchmarkDatabase.create("writeAheadLog", 0);
+    writeAheadLog = ((OAbstractPaginatedStorage) db.getStorage()).getWALInstance();
+
+    final byte[] content = new byte[changeSize];
+    new Random(OBenchmarkDatabase.SEED).nextBytes(content);
+
+    changes = new OWALChangesTree();
+    changes.setBinaryValue(null, content, 0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OBenchmarkDatabase.drop(db);
+  }
+
+  @Benchmark
+  public OLogSequenceNumber append() throws IOException {
+    return writeAheadLog
+        .log(new OUpdatePageRecord(pageIndex++, 0, OOperationUnitId.generateId(), changes, new OLogSequenceNumber(0, 0)));
+  }
+}
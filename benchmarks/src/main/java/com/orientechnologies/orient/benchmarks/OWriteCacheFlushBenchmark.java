@@ -0,0 +1,87 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.benchmarks;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes the write cache after <code>updates</code> random documents were updated, only the flush itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OWriteCacheFlushBenchmark {
+  @Param("100000")
+  public int records;
+
+  @Param({ "100", "1000" })
+  public int updates;
+
+  private ODatabaseDocumentTx db;
+  private OWriteCache         writeCache;
+  private List<ORID>          rids;
+  private Random              random;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    db = OBenchmarkDatabase.create("writeCacheFlush", records);
+    writeCache = ((OAbstractPaginatedStorage) db.getStorage()).getWriteCache();
+
+    rids = new ArrayList<>(records);
+    for (ODocument document : db.browseClass(OBenchmarkDatabase.CLASS_NAME)) {
+      rids.add(document.getIdentity());
+    }
+
+    random = new Random(OBenchmarkDatabase.SEED);
+  }
+
+  @Setup(Level.Invocation)
+  public void updateDocuments() {
+    db.activateOnCurrentThread();
+    for (int i = 0; i < updates; i++) {
+      final ODocument document = db.load(rids.get(random.nextInt(rids.size())));
+      document.field("salary", 1000 + random.nextDouble() * 9000);
+      db.save(document);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    OBenchmarkDatabase.drop(db);
+  }
+
+  @Benchmark
+  public void flush() {
+    writeCache.flush();
+  }
+}
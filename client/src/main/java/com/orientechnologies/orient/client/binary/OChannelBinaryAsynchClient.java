@@ -43,6 +43,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.Map;
 
 public class OChannelBinaryAsynchClient extends OChannelBinary {
@@ -53,6 +54,18 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
   private         int    currentSessionId;
   private         byte   currentMessage;
 
+  /**
+   * If true, requests of several threads may wait for their responses on this channel at once, responses are read in the order in
+   * which requests were sent.
+   */
+  private final boolean    pipelined;
+  private final Object     responseOrder   = new Object();
+  private final ThreadLocal<Long> pendingResponse = new ThreadLocal<Long>();
+  private       long       sentRequests;     // GUARDED BY THE WRITE LOCK
+  private       long       readResponses;    // GUARDED BY responseOrder
+  private       Thread     responseReader;   // GUARDED BY responseOrder
+  private       ReadCountingInputStream readCounter;
+
   public OChannelBinaryAsynchClient(final String remoteHost, final int remotePort, final String iDatabaseName,
       final OContextConfiguration iConfig, final int iProtocolVersion) throws IOException {
     super(OSocketFactory.instance(iConfig).createSocket(), iConfig);
@@ -62,6 +75,7 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
       if (iDatabaseName != null)
         serverURL += "/" + iDatabaseName;
       socketTimeout = iConfig.getValueAsInteger(OGlobalConfiguration.NETWORK_SOCKET_TIMEOUT);
+      pipelined = iConfig.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS) > 1;
 
       try {
         socket.connect(new InetSocketAddress(remoteHost, remotePort), getSocketTimeout());
@@ -79,7 +93,8 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
           outStream = new BufferedOutputStream(socket.getOutputStream());
         }
 
-        in = new DataInputStream(inStream);
+        readCounter = new ReadCountingInputStream(inStream);
+        in = new DataInputStream(readCounter);
         out = new DataOutputStream(outStream);
 
         srvProtocolVersion = readShort();
@@ -155,6 +170,9 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
 
   public byte[] beginResponse(final int iRequesterId, final long iTimeout, final boolean token) throws IOException {
     try {
+      if (pipelined)
+        waitResponseTurn();
+
       // WAIT FOR THE RESPONSE
       if (iTimeout <= 0)
         acquireReadLock();
@@ -207,13 +225,70 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
       OLogManager.instance().debug(this, "Error on unlocking network channel after reading response");
     }
 
+    if (pipelined)
+      synchronized (responseOrder) {
+        if (responseReader == Thread.currentThread()) {
+          // PASS THE TURN TO THE REQUEST SENT NEXT
+          responseReader = null;
+          readResponses++;
+          responseOrder.notifyAll();
+        }
+      }
   }
 
   public void endRequest() throws IOException {
+    endRequest(true);
+  }
+
+  /**
+   * Flushes the request and unlocks the write lock.
+   *
+   * @param expectResponse false if the server does not send any response to the request, for example to the asynchronous requests
+   *                       without callback.
+   */
+  public void endRequest(final boolean expectResponse) throws IOException {
     flush();
+    if (pipelined && expectResponse)
+      pendingResponse.set(sentRequests++);
     releaseWriteLock();
   }
 
+  /**
+   * Detaches the response of the last request sent by the current thread, so the response may be read by another thread once the
+   * result of {@link #attachPendingResponse(Object)} is passed to it.
+   */
+  public Object detachPendingResponse() {
+    final Long response = pendingResponse.get();
+    pendingResponse.remove();
+    return response;
+  }
+
+  /**
+   * Makes the current thread the reader of the response detached by {@link #detachPendingResponse()}.
+   */
+  public void attachPendingResponse(final Object response) {
+    if (response != null)
+      pendingResponse.set((Long) response);
+  }
+
+  /**
+   * @return true if the last request sent by the current thread waits for a response which was not read yet.
+   */
+  public boolean hasPendingResponse() {
+    return pipelined && pendingResponse.get() != null;
+  }
+
+  /**
+   * @return amount of bytes of responses read from the channel so far.
+   */
+  public long getReadBytes() {
+    return readCounter.count;
+  }
+
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
   @Override
   public void close() {
     try {
@@ -221,6 +296,12 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     } catch (Exception e) {
       // IGNORE IT
     }
+
+    if (pipelined)
+      synchronized (responseOrder) {
+        // WAKE UP THE THREADS WAITING FOR THEIR TURN, THEY FAIL BECAUSE THE CHANNEL IS CLOSED
+        responseOrder.notifyAll();
+      }
   }
 
   @Override
@@ -290,6 +371,50 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     }
   }
 
+  /**
+   * Waits until responses of all the requests sent before the last request of the current thread are read. The wait fails if no
+   * response is read in {@link OGlobalConfiguration#NETWORK_REQUEST_TIMEOUT}, for example because the thread which should read it
+   * has failed.
+   */
+  private void waitResponseTurn() throws IOException {
+    final Long request = pendingResponse.get();
+    if (request == null)
+      // THE REQUEST WAS NOT SENT THROUGH endRequest(): NO ORDER TO RESPECT
+      return;
+
+    pendingResponse.remove();
+
+    final long timeout = OGlobalConfiguration.NETWORK_REQUEST_TIMEOUT.getValueAsInteger();
+    synchronized (responseOrder) {
+      long lastRead = readResponses;
+      long deadline = System.currentTimeMillis() + timeout;
+
+      while (responseReader != null || readResponses != request) {
+        if (!isConnected())
+          throw new IOException("Channel is closed");
+
+        if (readResponses != lastRead) {
+          // PREVIOUS RESPONSES ARE BEING READ: RESTART THE TIMEOUT
+          lastRead = readResponses;
+          deadline = System.currentTimeMillis() + timeout;
+        }
+
+        final long remaining = deadline - System.currentTimeMillis();
+        if (timeout > 0 && remaining <= 0)
+          throw new SocketTimeoutException("Timeout on waiting for responses of previous requests on channel " + serverURL);
+
+        try {
+          responseOrder.wait(timeout > 0 ? remaining : 0);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted on waiting for responses of previous requests on channel " + serverURL, e);
+        }
+      }
+
+      responseReader = Thread.currentThread();
+    }
+  }
+
   private void setReadResponseTimeout() throws SocketException {
     final Socket s = socket;
     if (s != null && s.isConnected() && !s.isClosed())
@@ -356,4 +481,37 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     this.socketTimeout = socketTimeout;
   }
 
+  /**
+   * Counts bytes read from the channel, it is accessed only by the thread which reads a response.
+   */
+  private static final class ReadCountingInputStream extends FilterInputStream {
+    private long count;
+
+    private ReadCountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int value = super.read();
+      if (value >= 0)
+        count++;
+      return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read > 0)
+        count += read;
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
 }
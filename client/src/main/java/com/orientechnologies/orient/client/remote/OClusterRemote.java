@@ -167,6 +167,11 @@ public class OClusterRemote implements OCluster {
     return 0;
   }
 
+  @Override
+  public long[][] getPositionSplits(int maxSplits) {
+    throw new UnsupportedOperationException("getPositionSplits()");
+  }
+
   @Override
   public String getFileName() {
     throw new UnsupportedOperationException("getFileName()");
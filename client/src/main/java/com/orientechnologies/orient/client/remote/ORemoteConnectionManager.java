@@ -57,6 +57,19 @@ public class ORemoteConnectionManager {
   }
 
   public OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration) {
+    return acquire(iServerURL, clientConfiguration, false);
+  }
+
+  /**
+   * Acquires a connection which may be used by requests of other threads at the same time, if pipelining of requests is enabled by
+   * {@link OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS}.
+   */
+  public OChannelBinaryAsynchClient acquireShared(String iServerURL, final OContextConfiguration clientConfiguration) {
+    return acquire(iServerURL, clientConfiguration, true);
+  }
+
+  private OChannelBinaryAsynchClient acquire(String iServerURL, final OContextConfiguration clientConfiguration,
+      final boolean shared) {
     if (iServerURL.startsWith(OEngineRemote.PREFIX))
       iServerURL = iServerURL.substring(OEngineRemote.PREFIX.length());
 
@@ -68,6 +81,8 @@ public class ORemoteConnectionManager {
     ORemoteConnectionPool pool = connections.get(iServerURL);
     if (pool == null) {
       int maxPool = clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL);
+      final int maxPipelinedRequests = clientConfiguration
+          .getValueAsInteger(OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS);
 
       if (clientConfiguration != null) {
         final Object max = clientConfiguration.getValue(OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL);
@@ -79,7 +94,7 @@ public class ORemoteConnectionManager {
           localTimeout = Integer.parseInt(netLockTimeout.toString());
       }
 
-      pool = new ORemoteConnectionPool(maxPool);
+      pool = new ORemoteConnectionPool(maxPool, maxPipelinedRequests);
       final ORemoteConnectionPool prev = connections.putIfAbsent(iServerURL, pool);
       if (prev != null) {
         // ALREADY PRESENT, DESTROY IT AND GET THE ALREADY EXISTENT OBJ
@@ -90,7 +105,9 @@ public class ORemoteConnectionManager {
 
     try {
       // RETURN THE RESOURCE
-      OChannelBinaryAsynchClient ret = pool.acquire(iServerURL, localTimeout, clientConfiguration);
+      OChannelBinaryAsynchClient ret = shared ?
+          pool.acquireShared(iServerURL, localTimeout, clientConfiguration) :
+          pool.acquire(iServerURL, localTimeout, clientConfiguration);
       return ret;
 
     } catch (RuntimeException e) {
@@ -103,6 +120,24 @@ public class ORemoteConnectionManager {
     return null;
   }
 
+  /**
+   * @return a connection which is not used by other requests, or null if it would leave too few connections to other requests,
+   * see {@link ORemoteConnectionPool#tryAcquireSpare(String, OContextConfiguration)}.
+   */
+  public OChannelBinaryAsynchClient tryAcquireSpare(String iServerURL, final OContextConfiguration clientConfiguration) {
+    if (iServerURL.startsWith(OEngineRemote.PREFIX))
+      iServerURL = iServerURL.substring(OEngineRemote.PREFIX.length());
+
+    if (iServerURL.endsWith("/"))
+      iServerURL = iServerURL.substring(0, iServerURL.length() - 1);
+
+    final ORemoteConnectionPool pool = connections.get(iServerURL);
+    if (pool == null)
+      return null;
+
+    return pool.tryAcquireSpare(iServerURL, clientConfiguration);
+  }
+
   public void release(final OChannelBinaryAsynchClient conn) {
     if (conn == null)
       return;
@@ -112,7 +147,11 @@ public class ORemoteConnectionManager {
       if (!conn.isConnected()) {
         OLogManager.instance().debug(this, "Network connection pool is receiving a closed connection to reuse: discard it");
         remove(conn);
-      } else {
+      } else if (conn.hasPendingResponse()) {
+        // THE ORDER OF RESPONSES CANNOT BE RESTORED IF THE RESPONSE IS NOT READ
+        OLogManager.instance().debug(this, "Network connection pool is receiving a connection with an unread response: discard it");
+        remove(conn);
+      } else if (!pool.releaseShared(conn)) {
         pool.getPool().returnResource(conn);
       }
     }
@@ -126,6 +165,7 @@ public class ORemoteConnectionManager {
     if (pool == null)
       throw new IllegalStateException("Connection cannot be released because the pool doesn't exist anymore");
 
+    pool.removeShared(conn);
     pool.getPool().remove(conn);
 
     try {
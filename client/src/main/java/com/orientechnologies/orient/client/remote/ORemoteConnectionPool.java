@@ -1,5 +1,7 @@
 package com.orientechnologies.orient.client.remote;
 
+import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.concur.resource.OResourcePool;
 import com.orientechnologies.common.concur.resource.OResourcePoolListener;
 import com.orientechnologies.common.exception.OException;
@@ -9,15 +11,32 @@ import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * Created by tglman on 01/10/15.
  */
 public class ORemoteConnectionPool implements OResourcePoolListener<String, OChannelBinaryAsynchClient> {
 
+  private static final long SHARED_WAIT_INTERVAL = 100;
+
   private OResourcePool<String, OChannelBinaryAsynchClient> pool;
+  private final int maxPipelinedRequests;
+
+  /**
+   * Connections acquired by {@link #acquireShared(String, long, OContextConfiguration)} with the amount of requests which use them.
+   * Shared connections are not returned to the pool, they stay acquired until they are removed.
+   */
+  private final Map<OChannelBinaryAsynchClient, Integer> sharedConnections = new IdentityHashMap<>();
 
   public ORemoteConnectionPool(int iMaxResources) {
+    this(iMaxResources, 1);
+  }
+
+  public ORemoteConnectionPool(int iMaxResources, int iMaxPipelinedRequests) {
     pool = new OResourcePool<>(iMaxResources, this);
+    maxPipelinedRequests = iMaxPipelinedRequests;
   }
 
   protected OChannelBinaryAsynchClient createNetworkConnection(String iServerURL, final OContextConfiguration clientConfiguration)
@@ -89,5 +108,106 @@ public class ORemoteConnectionPool implements OResourcePoolListener<String, OCha
       final OContextConfiguration clientConfiguration) {
     return pool.getResource(iServerURL, timeout, clientConfiguration);
   }
-  
+
+  /**
+   * Acquires a connection which may be used by requests of other threads at the same time. The least used connection is chosen
+   * among the shared ones, a new connection is acquired from the pool only if all of them are used by
+   * {@link com.orientechnologies.orient.core.config.OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS} requests. If
+   * pipelining of requests is disabled an exclusive connection is returned.
+   */
+  public OChannelBinaryAsynchClient acquireShared(final String iServerURL, final long timeout,
+      final OContextConfiguration clientConfiguration) {
+    if (maxPipelinedRequests <= 1)
+      return acquire(iServerURL, timeout, clientConfiguration);
+
+    final long deadline = System.currentTimeMillis() + timeout;
+    synchronized (sharedConnections) {
+      while (true) {
+        OChannelBinaryAsynchClient leastUsed = null;
+        int leastRequests = maxPipelinedRequests;
+        for (Map.Entry<OChannelBinaryAsynchClient, Integer> entry : sharedConnections.entrySet()) {
+          if (entry.getValue() < leastRequests && entry.getKey().isConnected()) {
+            leastUsed = entry.getKey();
+            leastRequests = entry.getValue();
+          }
+        }
+
+        if (leastUsed != null) {
+          sharedConnections.put(leastUsed, leastRequests + 1);
+          return leastUsed;
+        }
+
+        if (pool.getAvailableResources() > 0)
+          break;
+
+        // ALL THE CONNECTIONS ARE BUSY: WAIT FOR A REQUEST TO COMPLETE
+        final long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0)
+          throw new OLockException(
+              "No more resources available in pool (max=" + pool.getMaxResources() + "). Requested resource: " + iServerURL);
+
+        try {
+          // RETURN OF EXCLUSIVE CONNECTIONS TO THE POOL IS NOT NOTIFIED, SO THE AVAILABILITY OF THE POOL IS CHECKED PERIODICALLY
+          sharedConnections.wait(Math.min(remaining, SHARED_WAIT_INTERVAL));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(new OInterruptedException("Acquiring of resources was interrupted"), e);
+        }
+      }
+    }
+
+    final OChannelBinaryAsynchClient connection = pool.getResource(iServerURL, timeout, clientConfiguration);
+    synchronized (sharedConnections) {
+      sharedConnections.put(connection, 1);
+    }
+    return connection;
+  }
+
+  /**
+   * Acquires a connection for an optional request, like the prefetching of the next page of a query, which keeps the connection
+   * till its response is read. The connection is returned only if more than half of the pool stays available to other requests, so
+   * such requests can not exhaust the pool. The call never waits.
+   *
+   * @return null if no connection may be used.
+   */
+  public OChannelBinaryAsynchClient tryAcquireSpare(final String iServerURL, final OContextConfiguration clientConfiguration) {
+    if (pool.getAvailableResources() <= pool.getMaxResources() / 2)
+      return null;
+
+    try {
+      return pool.getResource(iServerURL, 0, clientConfiguration);
+    } catch (OLockException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Releases the connection acquired by {@link #acquireShared(String, long, OContextConfiguration)}, the connection stays open to
+   * be shared by next requests.
+   *
+   * @return false if the connection is not a shared one.
+   */
+  public boolean releaseShared(final OChannelBinaryAsynchClient connection) {
+    synchronized (sharedConnections) {
+      final Integer requests = sharedConnections.get(connection);
+      if (requests == null)
+        return false;
+
+      // THE COUNTER IS ONLY USED TO BALANCE THE LOAD, SO IT IS ENOUGH TO KEEP IT NOT NEGATIVE IF THE CONNECTION IS RELEASED TWICE
+      sharedConnections.put(connection, Math.max(requests - 1, 0));
+      sharedConnections.notifyAll();
+      return true;
+    }
+  }
+
+  /**
+   * Stops sharing of the connection, it is called before removal of the connection from the pool.
+   */
+  public void removeShared(final OChannelBinaryAsynchClient connection) {
+    synchronized (sharedConnections) {
+      if (sharedConnections.remove(connection) != null)
+        sharedConnections.notifyAll();
+    }
+  }
+
 }
@@ -469,7 +469,7 @@ public class OServerAdmin {
       String serverUrl = storage.getNextAvailableServerURL(false, session);
       do {
         try {
-          network = storage.getNetwork(serverUrl);
+          network = storage.getNetwork(serverUrl, true);
         } catch (OException e) {
           serverUrl = storage.useNewServerURL(serverUrl);
           if (serverUrl == null)
@@ -166,7 +166,8 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         network.beginRequest(request.getCommand(), session);
         request.write(network, session);
       } finally {
-        network.endRequest();
+        // NO RESPONSE IS SENT TO THE ASYNCHRONOUS REQUEST WITHOUT CALLBACK
+        network.endRequest(pMode != 2);
       }
       final T response = request.createResponse();
       T ret = null;
@@ -182,8 +183,10 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         connectionManager.release(network);
       } else if (pMode == 1) {
         // ASYNC
+        final Object pendingResponse = network.detachPendingResponse();
         asynchExecutor.submit(() -> {
           try {
+            network.attachPendingResponse(pendingResponse);
             try {
               beginResponse(network, session);
               response.read(network, session);
@@ -243,6 +246,85 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     return networkOperationRetryTimeout(request, errorMessage, connectionRetry, 0);
   }
 
+  /**
+   * Sends the request without reading its response, so the server executes it while the current thread does something else. The
+   * request holds its own channel till the response is read by {@link #readResponse(OStorageRemotePendingResponse, String)}, which
+   * has to be called in any case. The request is sent only if enough channels stay available to other requests, see
+   * {@link ORemoteConnectionManager#tryAcquireSpare(String, OContextConfiguration)}, so requests sent in advance can not exhaust
+   * the pool.
+   *
+   * @return null if the request is not sent, in such case it has to be executed as a regular network operation.
+   */
+  public <T extends OBinaryResponse> OStorageRemotePendingResponse<T> trySendRequest(final OBinaryRequest<T> request) {
+    final OStorageRemoteSession session = getCurrentSession();
+    if (session.commandExecuting)
+      return null;
+
+    final OChannelBinaryAsynchClient network = connectionManager
+        .tryAcquireSpare(getNextAvailableServerURL(false, session), clientConfiguration);
+    if (network == null)
+      return null;
+
+    if (!network.tryLock()) {
+      connectionManager.remove(network);
+      return null;
+    }
+
+    final OStorageRemoteNodeSession nodeSession = session.getServerSession(network.getServerURL());
+    if (nodeSession == null || !nodeSession.isValid()) {
+      // THE SESSION IS OPENED BY REGULAR NETWORK OPERATIONS, WHICH ALSO HANDLE ITS ERRORS
+      network.unlock();
+      connectionManager.release(network);
+      return null;
+    }
+
+    session.commandExecuting = true;
+    try {
+      try {
+        network.beginRequest(request.getCommand(), session);
+        request.write(network, session);
+      } finally {
+        network.endRequest();
+      }
+      return new OStorageRemotePendingResponse<T>(request, network, session, network.detachPendingResponse());
+    } catch (IOException | RuntimeException e) {
+      OLogManager.instance().debug(this, "Error on sending of request in advance, it is executed when it is needed", e);
+      connectionManager.remove(network);
+      return null;
+    } finally {
+      session.commandExecuting = false;
+    }
+  }
+
+  /**
+   * Reads the response of the request sent by {@link #trySendRequest(OBinaryRequest)} and releases its channel.
+   */
+  public <T extends OBinaryResponse> T readResponse(final OStorageRemotePendingResponse<T> pending, final String errorMessage) {
+    final OChannelBinaryAsynchClient network = pending.getNetwork();
+    final OStorageRemoteSession session = pending.getSession();
+    final T response = pending.getRequest().createResponse();
+    try {
+      network.attachPendingResponse(pending.getResponseTurn());
+      final long readBytes = network.getReadBytes();
+      try {
+        beginResponse(network, session);
+        response.read(network, session);
+      } finally {
+        endResponse(network);
+      }
+      pending.setResponseSize(network.getReadBytes() - readBytes);
+    } catch (IOException | OIOException e) {
+      connectionManager.remove(network);
+      throw OException.wrapException(new OIOException(errorMessage), e);
+    } catch (RuntimeException e) {
+      connectionManager.release(network);
+      throw e;
+    }
+
+    connectionManager.release(network);
+    return response;
+  }
+
   public <T> T baseNetworkOperation(final OStorageRemoteOperation<T> operation, final String errorMessage, int retry) {
     OStorageRemoteSession session = getCurrentSession();
     if (session.commandExecuting)
@@ -258,7 +340,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
 
       do {
         try {
-          network = getNetwork(serverUrl);
+          network = getNetwork(serverUrl, true);
         } catch (OException e) {
           if (session.isStickToSession()) {
             throw e;
@@ -452,11 +534,12 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
         for (OStorageRemoteNodeSession nodeSession : nodes) {
           OChannelBinaryAsynchClient network = null;
           try {
-            network = getNetwork(nodeSession.getServerURL());
+            network = getNetwork(nodeSession.getServerURL(), true);
             OCloseRequest request = new OCloseRequest();
             network.beginRequest(request.getCommand(), session);
             request.write(network, session);
-            endRequest(network);
+            // THE SERVER DOES NOT SEND ANY RESPONSE TO THE CLOSE
+            network.endRequest(false);
             connectionManager.release(network);
           } catch (OIOException ex) {
             // IGNORING IF THE SERVER IS DOWN OR NOT REACHABLE THE SESSION IS AUTOMATICALLY CLOSED.
@@ -775,6 +858,14 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     return response.getPos();
   }
 
+  /**
+   * Splits are not supported on the remote protocol, the whole cluster is returned as one range.
+   */
+  @Override
+  public long[][] getClusterDataSplits(final int clusterId, final int maxSplits) {
+    return new long[][] { { ORID.CLUSTER_POS_INVALID, ORID.CLUSTER_POS_INVALID } };
+  }
+
   @Override
   public OPhysicalPosition[] higherPhysicalPositions(final int iClusterId, final OPhysicalPosition iClusterPosition) {
     OHigherPhysicalPositionsRequest request = new OHigherPhysicalPositionsRequest(iClusterId, iClusterPosition);
@@ -950,12 +1041,32 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (recordsPerPage <= 0) {
       recordsPerPage = 100;
     }
+    fetchNextPage(database, rs, recordsPerPage);
+  }
+
+  public void fetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs, int recordsPerPage) {
     OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
     OQueryResponse response = networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
 
     rs.fetched(response.getResult(), response.isHasNextPage(), response.getExecutionPlan(), response.getQueryStats());
   }
 
+  /**
+   * @return null if the request is not sent, see {@link #trySendRequest(OBinaryRequest)}.
+   */
+  public OStorageRemotePendingResponse<OQueryResponse> requestNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs,
+      int recordsPerPage) {
+    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
+    return trySendRequest(request);
+  }
+
+  public void readNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs,
+      OStorageRemotePendingResponse<OQueryResponse> nextPage) {
+    OQueryResponse response = readResponse(nextPage, "Error on fetching next page for statment: " + rs.getQueryId());
+
+    rs.fetched(response.getResult(), response.isHasNextPage(), response.getExecutionPlan(), response.getQueryStats());
+  }
+
   public List<ORecordOperation> commit(final OTransactionInternal iTx) {
     try {
       OCommit37Request request = new OCommit37Request(iTx.getId(), true, iTx.isUsingLog(), iTx.getRecordOperations(),
@@ -1146,8 +1257,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     if (iNetwork == null)
       return;
 
-    iNetwork.flush();
-    iNetwork.releaseWriteLock();
+    iNetwork.endRequest();
 
   }
 
@@ -1280,7 +1390,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     String currentURL = getCurrentServerURL();
     do {
       do {
-        final OChannelBinaryAsynchClient network = getNetwork(currentURL);
+        final OChannelBinaryAsynchClient network = getNetwork(currentURL, true);
         try {
           OStorageRemoteSession session = getCurrentSession();
           OStorageRemoteNodeSession nodeSession = session.getOrCreateServerSession(network.getServerURL());
@@ -1475,7 +1585,7 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
       do {
         OChannelBinaryAsynchClient network = null;
         try {
-          network = getNetwork(currentURL);
+          network = getNetwork(currentURL, true);
           openRemoteDatabase(network);
           return;
         } catch (ODistributedRedirectException e) {
@@ -1753,17 +1863,34 @@ public class OStorageRemote extends OStorageAbstract implements OStorageProxy, O
     }
   }
 
+  /**
+   * Returns a channel which is used only by the current thread till it is released, like the channel of the push thread.
+   */
   public OChannelBinaryAsynchClient getNetwork(final String iCurrentURL) {
+    return getNetwork(iCurrentURL, false);
+  }
+
+  /**
+   * @param shared if true the returned channel may be used by requests of other threads at the same time, see
+   *               {@link OGlobalConfiguration#CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS}.
+   */
+  public OChannelBinaryAsynchClient getNetwork(final String iCurrentURL, final boolean shared) {
     OChannelBinaryAsynchClient network;
     do {
       try {
-        network = connectionManager.acquire(iCurrentURL, clientConfiguration);
+        if (shared)
+          network = connectionManager.acquireShared(iCurrentURL, clientConfiguration);
+        else
+          network = connectionManager.acquire(iCurrentURL, clientConfiguration);
       } catch (OIOException cause) {
         throw cause;
       } catch (Exception cause) {
         throw OException.wrapException(new OStorageException("Cannot open a connection to remote server: " + iCurrentURL), cause);
       }
-      if (!network.tryLock()) {
+      if (shared && network.isPipelined()) {
+        // OTHER THREADS MAY WRITE THEIR REQUESTS TO THE SHARED CHANNEL, WAIT FOR THEM
+        network.acquireWriteLock();
+      } else if (!network.tryLock()) {
         // CANNOT LOCK IT, MAYBE HASN'T BE CORRECTLY UNLOCKED BY PREVIOUS USER?
         OLogManager.instance()
             .error(this, "Removing locked network channel '%s' (connected=%s)...", null, iCurrentURL, network.isConnected());
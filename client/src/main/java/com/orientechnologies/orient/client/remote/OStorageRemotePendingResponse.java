@@ -0,0 +1,69 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+
+/**
+ * Request sent by {@link OStorageRemote#trySendRequest(OBinaryRequest)} whose response is not read yet. The channel is used
+ * only by this request till its response is read by {@link OStorageRemote#readResponse(OStorageRemotePendingResponse, String)}.
+ */
+public final class OStorageRemotePendingResponse<T extends OBinaryResponse> {
+  private final OBinaryRequest<T>          request;
+  private final OChannelBinaryAsynchClient network;
+  private final OStorageRemoteSession      session;
+  private final Object                     responseTurn;
+  private       long                       responseSize;
+
+  OStorageRemotePendingResponse(final OBinaryRequest<T> request, final OChannelBinaryAsynchClient network,
+      final OStorageRemoteSession session, final Object responseTurn) {
+    this.request = request;
+    this.network = network;
+    this.session = session;
+    this.responseTurn = responseTurn;
+  }
+
+  OBinaryRequest<T> getRequest() {
+    return request;
+  }
+
+  OChannelBinaryAsynchClient getNetwork() {
+    return network;
+  }
+
+  OStorageRemoteSession getSession() {
+    return session;
+  }
+
+  Object getResponseTurn() {
+    return responseTurn;
+  }
+
+  void setResponseSize(final long responseSize) {
+    this.responseSize = responseSize;
+  }
+
+  /**
+   * @return size in bytes of the response, it is known once the response is read.
+   */
+  public long getResponseSize() {
+    return responseSize;
+  }
+}
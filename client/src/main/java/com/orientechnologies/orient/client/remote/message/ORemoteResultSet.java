@@ -1,5 +1,7 @@
 package com.orientechnologies.orient.client.remote.message;
 
+import com.orientechnologies.orient.client.remote.OStorageRemotePendingResponse;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResult;
@@ -12,6 +14,15 @@ import java.util.Optional;
 
 /**
  * Created by luigidellaquila on 05/12/16.
+ * <p>
+ * If {@link OGlobalConfiguration#QUERY_REMOTE_RESULTSET_PREFETCH} is enabled, the next page is requested as soon as the current
+ * one is received, so the server executes the query and sends the results while the current page is processed. The page size is
+ * doubled if the processing of the page does not hide the time to receive the next one and is halved (not below
+ * {@link OGlobalConfiguration#QUERY_REMOTE_RESULTSET_PAGE_SIZE}) if the next page is always received much earlier than it is
+ * needed. The size is limited by {@link OGlobalConfiguration#QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES} according to the
+ * size of already received records. The next page is requested in advance only if enough channels of the pool stay available to
+ * other requests, otherwise it is fetched synchronously once the current page is processed, so result sets which are not read
+ * till the end do not exhaust the pool of channels.
  */
 public class ORemoteResultSet implements OResultSet {
 
@@ -22,6 +33,12 @@ public class ORemoteResultSet implements OResultSet {
   private       Map<String, Long>        queryStats;
   private       boolean                  hasNextPage;
 
+  private final boolean                                       prefetch;
+  private final int                                           minPageSize;
+  private       int                                           pageSize;
+  private       OStorageRemotePendingResponse<OQueryResponse> nextPage;
+  private       long                                          pageReceived = System.nanoTime();
+
   public ORemoteResultSet(ODatabaseDocumentRemote db, String queryId, List<OResultInternal> currentPage,
       Optional<OExecutionPlan> executionPlan, Map<String, Long> queryStats, boolean hasNextPage) {
     this.db = db;
@@ -30,6 +47,13 @@ public class ORemoteResultSet implements OResultSet {
     this.executionPlan = executionPlan;
     this.queryStats = queryStats;
     this.hasNextPage = hasNextPage;
+    this.prefetch = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH.getValueAsBoolean();
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    if (recordsPerPage <= 0) {
+      recordsPerPage = 100;
+    }
+    this.minPageSize = recordsPerPage;
+    this.pageSize = recordsPerPage;
     db.queryStarted(queryId, this);
     for (OResultInternal result : currentPage) {
       result.bindToCache(db);
@@ -39,6 +63,7 @@ public class ORemoteResultSet implements OResultSet {
   @Override
   public boolean hasNext() {
     if (!currentPage.isEmpty()) {
+      requestNextPage();
       return true;
     }
     if (!hasNextPage()) {
@@ -49,7 +74,49 @@ public class ORemoteResultSet implements OResultSet {
   }
 
   private void fetchNextPage() {
-    db.fetchNextPage(this);
+    if (!prefetch) {
+      db.fetchNextPage(this);
+      return;
+    }
+
+    requestNextPage();
+    if (nextPage == null) {
+      db.fetchNextPage(this, pageSize);
+      return;
+    }
+
+    final long processingTime = System.nanoTime() - pageReceived;
+    final OStorageRemotePendingResponse<OQueryResponse> page = nextPage;
+    nextPage = null;
+
+    final long waitingStart = System.nanoTime();
+    db.readNextPage(this, page);
+    adaptPageSize(processingTime, System.nanoTime() - waitingStart, page.getResponseSize());
+  }
+
+  /**
+   * Sends the request of the next page, if it is not sent yet, the response is read once the current page is processed.
+   */
+  private void requestNextPage() {
+    if (prefetch && hasNextPage && nextPage == null) {
+      nextPage = db.requestNextPage(this, pageSize);
+    }
+  }
+
+  private void adaptPageSize(final long processingTime, final long waitingTime, final long responseSize) {
+    if (waitingTime > processingTime / 8) {
+      // PROCESSING OF THE PAGE DOES NOT HIDE THE TIME TO RECEIVE THE NEXT ONE
+      pageSize = (int) Math.min(2L * pageSize, Integer.MAX_VALUE);
+    } else if (waitingTime < processingTime / 64) {
+      pageSize = Math.max(pageSize / 2, minPageSize);
+    }
+
+    final int records = currentPage.size();
+    if (records > 0 && responseSize > 0) {
+      final long recordSize = Math.max(responseSize / records, 1);
+      final long maxRecords = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES.getValueAsInteger() / recordSize;
+      pageSize = (int) Math.max(Math.min(pageSize, maxRecords), 1);
+    }
   }
 
   @Override
@@ -63,11 +130,20 @@ public class ORemoteResultSet implements OResultSet {
     if (currentPage.isEmpty()) {
       throw new IllegalStateException();
     }
+    requestNextPage();
     return currentPage.remove(0);
   }
 
   @Override
   public void close() {
+    if (nextPage != null) {
+      // THE RESPONSE HAS TO BE READ TO RELEASE ITS CHANNEL, IT ALSO TELLS IF THE QUERY IS STILL OPEN ON THE SERVER
+      final OStorageRemotePendingResponse<OQueryResponse> page = nextPage;
+      nextPage = null;
+      db.readNextPage(this, page);
+      currentPage.clear();
+    }
+
     if (hasNextPage) {
       // CLOSES THE QUERY SERVER SIDE ONLY IF THERE IS ANOTHER PAGE. THE SERVER ALREADY AUTOMATICALLY CLOSES THE QUERY AFTER SENDING THE LAST PAGE
       db.closeQuery(queryId);
@@ -96,10 +172,18 @@ public class ORemoteResultSet implements OResultSet {
     return queryId;
   }
 
+  /**
+   * @return the number of records requested for the next page.
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
   public void fetched(List<OResultInternal> result, boolean hasNextPage, Optional<OExecutionPlan> executionPlan,
       Map<String, Long> queryStats) {
     this.currentPage = result;
     this.hasNextPage = hasNextPage;
+    this.pageReceived = System.nanoTime();
 
     if (queryStats != null) {
       this.queryStats = queryStats;
@@ -27,6 +27,8 @@ import com.orientechnologies.orient.client.remote.OLiveQueryClientListener;
 import com.orientechnologies.orient.client.remote.ORemoteQueryResult;
 import com.orientechnologies.orient.client.remote.OStorageRemote;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.client.remote.OStorageRemotePendingResponse;
+import com.orientechnologies.orient.client.remote.message.OQueryResponse;
 import com.orientechnologies.orient.client.remote.message.ORemoteResultSet;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.cache.OLocalRecordCache;
@@ -426,6 +428,18 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     storage.fetchNextPage(this, rs);
   }
 
+  public void fetchNextPage(ORemoteResultSet rs, int recordsPerPage) {
+    storage.fetchNextPage(this, rs, recordsPerPage);
+  }
+
+  public OStorageRemotePendingResponse<OQueryResponse> requestNextPage(ORemoteResultSet rs, int recordsPerPage) {
+    return storage.requestNextPage(this, rs, recordsPerPage);
+  }
+
+  public void readNextPage(ORemoteResultSet rs, OStorageRemotePendingResponse<OQueryResponse> nextPage) {
+    storage.readNextPage(this, rs, nextPage);
+  }
+
   @Override
   public OLiveQueryMonitor live(String query, OLiveQueryResultListener listener, Object... args) {
     return storage.liveQuery(this, query, new OLiveQueryClientListener(this.copy(), listener), args);
@@ -103,6 +103,37 @@ public class OUnsafeByteArrayComparator implements Comparator<byte[]> {
     return 0;
   }
 
+  /**
+   * Compares given regions of arrays byte by byte, bytes are compared like unsigned bytes.
+   *
+   * @return negative, zero or positive number if region of the first array is less than, equal to or greater than region of the
+   * second array.
+   */
+  public static int compare(byte[] arrayOne, int offsetOne, byte[] arrayTwo, int offsetTwo, int length) {
+    final int WORDS = length / LONG_SIZE;
+
+    for (int i = 0; i < WORDS * LONG_SIZE; i += LONG_SIZE) {
+      final long wOne = unsafe.getLong(arrayOne, (long) (offsetOne + i + BYTE_ARRAY_OFFSET));
+      final long wTwo = unsafe.getLong(arrayTwo, (long) (offsetTwo + i + BYTE_ARRAY_OFFSET));
+
+      if (wOne == wTwo)
+        continue;
+
+      if (littleEndian)
+        return lessThanUnsigned(Long.reverseBytes(wOne), Long.reverseBytes(wTwo)) ? -1 : 1;
+
+      return lessThanUnsigned(wOne, wTwo) ? -1 : 1;
+    }
+
+    for (int i = WORDS * LONG_SIZE; i < length; i++) {
+      int diff = compareUnsignedByte(arrayOne[offsetOne + i], arrayTwo[offsetTwo + i]);
+      if (diff != 0)
+        return diff;
+    }
+
+    return 0;
+  }
+
   private static boolean lessThanUnsigned(long longOne, long longTwo) {
     return (longOne + Long.MIN_VALUE) < (longTwo + Long.MIN_VALUE);
   }
@@ -27,7 +27,9 @@ import javax.management.ObjectName;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -37,6 +39,11 @@ import java.util.concurrent.atomic.*;
  * Object of this class works at the same time as factory for <code>DirectByteBuffer</code> objects and pool for
  * <code>DirectByteBuffer</code> objects which were used and now are free to be reused by other parts of the code.
  * All <code>DirectByteBuffer</code> objects have the same size which is specified in objects constructor as "page size".
+ * <p>
+ * Released pages are cached in two tiers. The first one is a small cache owned by each thread, so pages which are released and
+ * acquired again by the same thread do not touch any shared state. When a thread cache is full, half of it is moved to the second
+ * tier, a lock-free queue shared by all threads, which in its turn frees direct memory once it is full. Hits and misses of both
+ * tiers are exposed through {@link OByteBufferPoolMXBean}.
  *
  * @see ODirectMemoryAllocator
  */
@@ -57,6 +64,11 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
    */
   private final int poolSize;
 
+  /**
+   * Limit of direct memory pointers are hold inside of cache of each thread, 0 if thread caches are not used
+   */
+  private final int threadCacheSize;
+
   /**
    * Name of JMX memory bean
    */
@@ -98,6 +110,22 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
    */
   private final AtomicInteger                   pointersPoolSize = new AtomicInteger();
 
+  /**
+   * Cache of pages of the current thread.
+   */
+  private final ThreadLocal<ThreadCache> threadCache = ThreadLocal.withInitial(this::createThreadCache);
+
+  /**
+   * All thread caches created by this pool, to free their memory on {@link #clear()} and to return pages of terminated threads to
+   * the pool.
+   */
+  private final ConcurrentLinkedQueue<ThreadCache> threadCaches = new ConcurrentLinkedQueue<>();
+
+  private final LongAdder threadCacheHits   = new LongAdder();
+  private final LongAdder threadCacheMisses = new LongAdder();
+  private final LongAdder poolHits          = new LongAdder();
+  private final LongAdder poolMisses        = new LongAdder();
+
   /**
    * Direct memory allocator.
    */
@@ -110,17 +138,31 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
     this.pageSize = pageSize;
     this.allocator = ODirectMemoryAllocator.instance();
     this.poolSize = OGlobalConfiguration.DIRECT_MEMORY_POOL_LIMIT.getValueAsInteger();
+    this.threadCacheSize = OGlobalConfiguration.DIRECT_MEMORY_POOL_THREAD_CACHE_SIZE.getValueAsInteger();
   }
 
   /**
+   * Creates pool without thread caches.
+   *
    * @param allocator Direct memory allocator to use.
    * @param pageSize  Size of single page (instance of <code>DirectByteBuffer</code>) returned by pool.
    * @param poolSize  Size of the page pool
    */
   public OByteBufferPool(int pageSize, ODirectMemoryAllocator allocator, int poolSize) {
+    this(pageSize, allocator, poolSize, 0);
+  }
+
+  /**
+   * @param allocator       Direct memory allocator to use.
+   * @param pageSize        Size of single page (instance of <code>DirectByteBuffer</code>) returned by pool.
+   * @param poolSize        Size of the page pool
+   * @param threadCacheSize Size of the page cache of each thread, 0 to not use thread caches
+   */
+  public OByteBufferPool(int pageSize, ODirectMemoryAllocator allocator, int poolSize, int threadCacheSize) {
     this.pageSize = pageSize;
     this.allocator = allocator;
     this.poolSize = poolSize;
+    this.threadCacheSize = threadCacheSize;
   }
 
   /**
@@ -133,11 +175,25 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
    * @return Direct memory buffer instance.
    */
   public ByteBuffer acquireDirect(boolean clear) {
-    OPointer pointer = pointersPool.poll();
-    if (pointer != null) {
-      pointersPoolSize.decrementAndGet();
-    } else {
-      pointer = allocator.allocate(pageSize);
+    OPointer pointer = null;
+    if (threadCacheSize > 0) {
+      pointer = threadCache.get().poll();
+      if (pointer != null) {
+        threadCacheHits.increment();
+      } else {
+        threadCacheMisses.increment();
+      }
+    }
+
+    if (pointer == null) {
+      pointer = pointersPool.poll();
+      if (pointer != null) {
+        pointersPoolSize.decrementAndGet();
+        poolHits.increment();
+      } else {
+        poolMisses.increment();
+        pointer = allocator.allocate(pageSize);
+      }
     }
 
     if (clear) {
@@ -165,13 +221,40 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
       throw new IllegalArgumentException(String.format("Buffer %X is not acquired", System.identityHashCode(buffer)));
     }
 
+    if (threadCacheSize > 0) {
+      threadCache.get().add(holder.pointer);
+    } else {
+      releaseToPool(holder.pointer);
+    }
+  }
+
+  private void releaseToPool(OPointer pointer) {
     long poolSize = pointersPoolSize.incrementAndGet();
     if (poolSize > this.poolSize) {
       pointersPoolSize.decrementAndGet();
-      allocator.deallocate(holder.pointer);
+      allocator.deallocate(pointer);
     } else {
-      pointersPool.add(holder.pointer);
+      pointersPool.add(pointer);
+    }
+  }
+
+  private ThreadCache createThreadCache() {
+    // PAGES OF TERMINATED THREADS ARE RETURNED TO THE POOL, SO THEY ARE NOT LOST TILL THE POOL IS CLEARED
+    final Iterator<ThreadCache> iterator = threadCaches.iterator();
+    while (iterator.hasNext()) {
+      final ThreadCache cache = iterator.next();
+      final Thread owner = cache.owner.get();
+      if (owner == null || !owner.isAlive()) {
+        iterator.remove();
+        for (OPointer pointer : cache.drain()) {
+          releaseToPool(pointer);
+        }
+      }
     }
+
+    final ThreadCache cache = new ThreadCache(Thread.currentThread(), threadCacheSize);
+    threadCaches.add(cache);
+    return cache;
   }
 
   /**
@@ -179,7 +262,43 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
    */
   @Override
   public int getPoolSize() {
-    return pointersPoolSize.get();
+    int size = pointersPoolSize.get();
+    for (ThreadCache cache : threadCaches) {
+      size += cache.size();
+    }
+    return size;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getThreadCacheHits() {
+    return threadCacheHits.sum();
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getThreadCacheMisses() {
+    return threadCacheMisses.sum();
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getPoolHits() {
+    return poolHits.sum();
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getPoolMisses() {
+    return poolMisses.sum();
   }
 
   /**
@@ -225,6 +344,12 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
    * Clears pool and dealocates memory.
    */
   public void clear() {
+    for (ThreadCache cache : threadCaches) {
+      for (OPointer pointer : cache.drain()) {
+        allocator.deallocate(pointer);
+      }
+    }
+
     for (OPointer pointer : pointersPool) {
       allocator.deallocate(pointer);
     }
@@ -286,6 +411,59 @@ public class OByteBufferPool implements OByteBufferPoolMXBean {
     }
   }
 
+  /**
+   * Pages cached by single thread. Only the owner thread adds and removes pages, the lock is taken by other threads only to free
+   * pages on {@link #clear()} or once the owner is terminated, so it is never contended during normal work.
+   */
+  private final class ThreadCache {
+    private final WeakReference<Thread> owner;
+    private final OPointer[]            pointers;
+    private       int                   size;
+
+    ThreadCache(Thread owner, int capacity) {
+      this.owner = new WeakReference<>(owner);
+      this.pointers = new OPointer[capacity];
+    }
+
+    synchronized OPointer poll() {
+      if (size == 0) {
+        return null;
+      }
+
+      final OPointer pointer = pointers[--size];
+      pointers[size] = null;
+      return pointer;
+    }
+
+    synchronized void add(OPointer pointer) {
+      if (size == pointers.length) {
+        // HALF OF THE PAGES ARE MOVED TO THE SHARED POOL, THE OTHER HALF IS KEPT FOR THE NEXT ACQUISITIONS
+        final int newSize = size / 2;
+        for (int i = newSize; i < size; i++) {
+          releaseToPool(pointers[i]);
+          pointers[i] = null;
+        }
+        size = newSize;
+      }
+
+      pointers[size++] = pointer;
+    }
+
+    synchronized OPointer[] drain() {
+      final OPointer[] result = new OPointer[size];
+      System.arraycopy(pointers, 0, result, 0, size);
+      for (int i = 0; i < size; i++) {
+        pointers[i] = null;
+      }
+      size = 0;
+      return result;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+  }
+
   /**
    * Holder which is used to compare byte buffers by object's identity not by content
    */
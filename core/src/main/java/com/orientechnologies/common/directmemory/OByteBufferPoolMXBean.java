@@ -28,4 +28,24 @@ public interface OByteBufferPoolMXBean {
    * @return Current size of the memory pool
    */
   int getPoolSize();
+
+  /**
+   * @return Amount of pages acquired from the cache of the acquiring thread
+   */
+  long getThreadCacheHits();
+
+  /**
+   * @return Amount of pages acquired when the cache of the acquiring thread was empty
+   */
+  long getThreadCacheMisses();
+
+  /**
+   * @return Amount of pages acquired from the pool shared by all threads
+   */
+  long getPoolHits();
+
+  /**
+   * @return Amount of pages allocated because there were no free pages in the pool
+   */
+  long getPoolMisses();
 }
@@ -0,0 +1,293 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.common.directmemory;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares single budget of direct memory between registered memory pools (read cache, exclusive pages of write caches) and memory
+ * reserved by queries.
+ * <p>
+ * Every time the sum of limits of pools and of query memory exceeds the budget, limits of pools are decreased, so read cache
+ * evicts its coldest pages and write caches flush their exclusive pages earlier. Once memory is released, limits of pools are
+ * increased back up to their configured values. If memory requested by a query can not be taken from the pools, the reservation is
+ * denied and the query keeps its data on heap, as {@link com.orientechnologies.orient.core.sql.executor.OOffHeapRidSet} does.
+ * <p>
+ * If the budget is not set (the default), pools keep their configured limits and query reservations are only counted.
+ *
+ * @see OGlobalConfiguration#MEMORY_BUDGET
+ */
+public class OMemoryBudgetManager implements OMemoryBudgetManagerMXBean {
+  /**
+   * Name of JMX bean
+   */
+  private static final String MBEAN_NAME = "com.orientechnologies.common.directmemory:type=OMemoryBudgetManagerMXBean";
+
+  /**
+   * Holder for singleton instance
+   */
+  private static final AtomicReference<OMemoryBudgetManager> INSTANCE_HOLDER = new AtomicReference<>();
+
+  /**
+   * Registered memory pools, the ones registered first are the first to be shrunk.
+   */
+  private final List<OMemoryPool> pools = new CopyOnWriteArrayList<>();
+
+  /**
+   * Amount of memory reserved by queries, guarded by instance lock.
+   */
+  private long queryMemory;
+
+  private final LongAdder deniedQueryReservations = new LongAdder();
+
+  /**
+   * @return singleton instance.
+   */
+  public static OMemoryBudgetManager instance() {
+    final OMemoryBudgetManager inst = INSTANCE_HOLDER.get();
+    if (inst != null) {
+      return inst;
+    }
+
+    final OMemoryBudgetManager newManager = new OMemoryBudgetManager();
+    if (INSTANCE_HOLDER.compareAndSet(null, newManager)) {
+      return newManager;
+    }
+
+    return INSTANCE_HOLDER.get();
+  }
+
+  OMemoryBudgetManager() {
+  }
+
+  /**
+   * Adds pool to the budget, its limit is decreased at once if budget is exceeded.
+   */
+  public void registerPool(OMemoryPool pool) {
+    pools.add(pool);
+    rebalance();
+  }
+
+  /**
+   * Removes pool from the budget, memory committed to it is given to the other pools.
+   */
+  public void unregisterPool(OMemoryPool pool) {
+    if (pools.remove(pool)) {
+      rebalance();
+    }
+  }
+
+  /**
+   * Reserves memory for a query, decreasing limits of memory pools if needed. Memory has to be returned by {@link
+   * #releaseQueryMemory(long)} once it is not used anymore.
+   *
+   * @param amount Amount of memory in bytes
+   *
+   * @return <code>true</code> if memory was reserved, <code>false</code> if budget is exhausted and query should keep its data on
+   * heap.
+   */
+  public synchronized boolean reserveQueryMemory(long amount) {
+    final long budget = getMemoryBudget();
+    if (budget > 0) {
+      final long excess = getCommittedMemory() + amount - budget;
+      if (excess > 0 && shrinkPools(excess) < excess) {
+        deniedQueryReservations.increment();
+        // GIVE BACK WHAT WAS RELEASED IN VAIN
+        rebalance();
+        return false;
+      }
+    }
+
+    queryMemory += amount;
+    return true;
+  }
+
+  /**
+   * Returns memory reserved by {@link #reserveQueryMemory(long)}, memory pools may grow back.
+   *
+   * @param amount Amount of memory in bytes
+   */
+  public synchronized void releaseQueryMemory(long amount) {
+    queryMemory -= amount;
+    assert queryMemory >= 0;
+
+    rebalance();
+  }
+
+  /**
+   * Shrinks memory pools if budget is exceeded or grows them if there is free memory in budget. Called when budget is changed.
+   */
+  public synchronized void rebalance() {
+    final long budget = getMemoryBudget();
+    if (budget <= 0) {
+      // BUDGET IS DISABLED, ALL POOLS GET THEIR CONFIGURED LIMITS
+      growPools(Long.MAX_VALUE);
+      return;
+    }
+
+    final long committed = getCommittedMemory();
+    if (committed > budget) {
+      final long excess = committed - budget;
+      if (shrinkPools(excess) < excess) {
+        OLogManager.instance()
+            .warnNoDb(this, "Memory budget of %d bytes is exceeded by %d bytes, memory pools can not be shrunk any more", budget,
+                excess);
+      }
+    } else if (committed < budget) {
+      growPools(budget - committed);
+    }
+  }
+
+  private long shrinkPools(long amount) {
+    long released = 0;
+    for (OMemoryPool pool : pools) {
+      if (released >= amount) {
+        break;
+      }
+
+      released += pool.shrink(amount - released);
+    }
+
+    return released;
+  }
+
+  private void growPools(long amount) {
+    long granted = 0;
+    for (OMemoryPool pool : pools) {
+      if (granted >= amount) {
+        break;
+      }
+
+      granted += pool.grow(amount - granted);
+    }
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getMemoryBudget() {
+    return OGlobalConfiguration.MEMORY_BUDGET.getValueAsLong() * 1024 * 1024;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public synchronized long getCommittedMemory() {
+    long committed = queryMemory;
+    for (OMemoryPool pool : pools) {
+      committed += pool.getMemoryLimit();
+    }
+
+    return committed;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public synchronized long getUsedMemory() {
+    long used = queryMemory;
+    for (OMemoryPool pool : pools) {
+      used += pool.getUsedMemory();
+    }
+
+    return used;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public synchronized long getQueryMemory() {
+    return queryMemory;
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public long getDeniedQueryReservations() {
+    return deniedQueryReservations.sum();
+  }
+
+  /**
+   * @inheritDoc
+   */
+  @Override
+  public String[] getPoolsUsage() {
+    final OMemoryPool[] currentPools = pools.toArray(new OMemoryPool[0]);
+    final String[] usage = new String[currentPools.length];
+    for (int i = 0; i < currentPools.length; i++) {
+      usage[i] = currentPools[i].getName() + ": " + currentPools[i].getUsedMemory() + " / " + currentPools[i].getMemoryLimit();
+    }
+
+    return usage;
+  }
+
+  /**
+   * Registers the MBean for this memory budget manager.
+   *
+   * @see OMemoryBudgetManagerMXBean
+   */
+  public void registerMBean() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mbeanName = new ObjectName(MBEAN_NAME);
+
+      if (!server.isRegistered(mbeanName)) {
+        server.registerMBean(this, mbeanName);
+      } else {
+        OLogManager.instance().warnNoDb(this,
+            "MBean with name %s has already registered. Probably your system was not shutdown correctly"
+                + " or you have several running applications which use OrientDB engine inside", mbeanName.getCanonicalName());
+      }
+
+    } catch (Exception e) {
+      OLogManager.instance().errorNoDb(this, "Error during MBean registration", e);
+    }
+  }
+
+  /**
+   * Unregisters the MBean for this memory budget manager.
+   *
+   * @see OMemoryBudgetManagerMXBean
+   */
+  public void unregisterMBean() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mbeanName = new ObjectName(MBEAN_NAME);
+      server.unregisterMBean(mbeanName);
+    } catch (Exception e) {
+      OLogManager.instance().errorNoDb(this, "Error during MBean de-registration", e);
+    }
+  }
+}
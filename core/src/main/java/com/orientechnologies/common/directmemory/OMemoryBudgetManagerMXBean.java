@@ -0,0 +1,56 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.common.directmemory;
+
+/**
+ * JMX statistics of {@link OMemoryBudgetManager}.
+ */
+public interface OMemoryBudgetManagerMXBean {
+  /**
+   * @return Total amount of memory in bytes shared by memory pools and queries, 0 if memory budget is disabled.
+   */
+  long getMemoryBudget();
+
+  /**
+   * @return Sum of limits of all registered memory pools and of memory reserved by queries in bytes.
+   */
+  long getCommittedMemory();
+
+  /**
+   * @return Sum of memory in bytes used by all registered memory pools and of memory reserved by queries.
+   */
+  long getUsedMemory();
+
+  /**
+   * @return Amount of memory in bytes reserved by queries.
+   */
+  long getQueryMemory();
+
+  /**
+   * @return Number of times query memory was not reserved because budget was exhausted, so queries kept their data on heap.
+   */
+  long getDeniedQueryReservations();
+
+  /**
+   * @return Usage of each registered memory pool, formatted as "name: used / limit" in bytes.
+   */
+  String[] getPoolsUsage();
+}
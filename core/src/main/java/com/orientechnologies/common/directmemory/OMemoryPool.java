@@ -0,0 +1,63 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.common.directmemory;
+
+/**
+ * Component which keeps data in direct memory up to a limit which can be changed at runtime, like the read cache or the exclusive
+ * pages of write cache. Pools are registered in {@link OMemoryBudgetManager} which shrinks them when memory is needed by other
+ * components and grows them back when memory is released.
+ */
+public interface OMemoryPool {
+  /**
+   * @return Name of the pool, used in JMX statistics.
+   */
+  String getName();
+
+  /**
+   * @return Amount of memory in bytes which is used by the pool now.
+   */
+  long getUsedMemory();
+
+  /**
+   * @return Maximum amount of memory in bytes which may be used by the pool now.
+   */
+  long getMemoryLimit();
+
+  /**
+   * Decreases limit of memory of the pool. Memory above the new limit may be released in background, like write cache does when it
+   * flushes its exclusive pages.
+   *
+   * @param amount Amount of memory in bytes by which limit should be decreased.
+   *
+   * @return Amount of memory in bytes by which limit was really decreased, may be less than requested if pool already reached its
+   * minimum size.
+   */
+  long shrink(long amount);
+
+  /**
+   * Increases limit of memory of the pool, the limit is never increased above the one configured for the pool.
+   *
+   * @param amount Amount of memory in bytes by which limit should be increased.
+   *
+   * @return Amount of memory in bytes by which limit was really increased.
+   */
+  long grow(long amount);
+}
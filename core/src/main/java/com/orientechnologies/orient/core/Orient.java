@@ -36,6 +36,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.OMemoryBudgetManager;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.listener.OListenerManger;
 import com.orientechnologies.common.log.OLogManager;
@@ -255,6 +256,7 @@ public class Orient extends OListenerManger<OOrientListener> {
 
       OByteBufferPool.instance().registerMBean();
       ODirectMemoryAllocator.instance().registerMBean();
+      OMemoryBudgetManager.instance().registerMBean();
 
       profiler = new OProfilerStub(false);
 
@@ -397,6 +399,7 @@ public class Orient extends OListenerManger<OOrientListener> {
 
       OByteBufferPool.instance().unregisterMBean();
       ODirectMemoryAllocator.instance().unregisterMBean();
+      OMemoryBudgetManager.instance().unregisterMBean();
 
       OLogManager.instance().info(this, "OrientDB Engine shutdown complete");
       OLogManager.instance().flush();
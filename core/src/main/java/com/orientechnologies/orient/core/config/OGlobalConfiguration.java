@@ -19,6 +19,7 @@
  */
 package com.orientechnologies.orient.core.config;
 
+import com.orientechnologies.common.directmemory.OMemoryBudgetManager;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.profiler.OProfiler;
@@ -91,6 +92,20 @@ public enum OGlobalConfiguration {
   DIRECT_MEMORY_POOL_LIMIT("memory.pool.limit",
       "Limit of the pages cached inside of direct memory pool to avoid frequent reallocation of memory in OS", Integer.class, 256),
 
+  DIRECT_MEMORY_POOL_THREAD_CACHE_SIZE("memory.pool.threadCacheSize",
+      "Limit of the pages cached by each thread on top of the shared direct memory pool, so that pages released and acquired again by "
+          + "the same thread do not go through the shared pool. 0 disables the thread cache", Integer.class, 16),
+
+  MEMORY_BUDGET("memory.budget",
+      "Size in megabytes of direct memory shared by read cache, write cache and off-heap RID sets of DISTINCT and TRAVERSE. If the "
+          + "budget is exceeded, caches are shrunk down to a quarter of their configured size and new RID sets are kept on heap. "
+          + "Heap based ORDER BY and GROUP BY are not part of the budget. 0 means no budget, each cache keeps its own limit", Long.class, 0L, new OConfigurationChangeCallback() {
+    @Override
+    public void change(Object currentValue, Object newValue) {
+      OMemoryBudgetManager.instance().rebalance();
+    }
+  }),
+
   DIRECT_MEMORY_TRACK_MODE("memory.directMemory.trackMode",
       "Activates the direct memory pool [leak detector](Leak-Detector.md). This detector causes a large overhead and should be used for debugging "
           + "purposes only. It's also a good idea to pass the "
@@ -122,6 +137,17 @@ public enum OGlobalConfiguration {
       + " if this percent is reached next pages will be left in unpinned state. You can not set value more than 50", Integer.class,
       20, false),
 
+  DISK_CACHE_READ_AHEAD_WINDOW("storage.diskCache.readAheadWindow",
+      "Amount of pages which are read asynchronously in advance when sequential reads of the same file are detected, "
+          + "0 disables read-ahead", Integer.class, 32),
+
+  DISK_CACHE_READ_AHEAD_THREADS("storage.diskCache.readAheadThreads",
+      "Maximum amount of threads used by the disk cache to read pages in advance", Integer.class, 4),
+
+  DISK_CACHE_SHARDS("storage.diskCache.shards",
+      "Amount of independent parts the disk cache is split into to decrease contention between threads which access different pages, "
+          + "1 means that a single 2Q cache is used", Integer.class, 1),
+
   DISK_CACHE_SIZE("storage.diskCache.bufferSize", "Size of disk buffer in megabytes, disk size may be changed at runtime, "
       + "but if does not enough to contain all pinned pages exception will be thrown", Integer.class, 4 * 1024,
       new OConfigurationChangeCallback() {
@@ -230,6 +256,10 @@ public enum OGlobalConfiguration {
 
   USE_WAL("storage.useWAL", "Whether WAL should be used in paginated storage", Boolean.class, true),
 
+  STORAGE_MAPPED_READ_ONLY("storage.mappedReadOnly", "Opens paginated storage in read-only mode. Pages are read from the data files "
+      + "mapped in memory and are not copied in the disk cache, write ahead log is not used. Any modification of data is prohibited. "
+      + "Storage which was not closed correctly can not be opened in this mode", Boolean.class, false),
+
   WAL_SYNC_ON_PAGE_FLUSH("storage.wal.syncOnPageFlush", "Indicates whether a force sync should be performed during WAL page flush",
       Boolean.class, true),
 
@@ -250,6 +280,22 @@ public enum OGlobalConfiguration {
 
   WAL_COMMIT_TIMEOUT("storage.wal.commitTimeout", "Maximum interval between WAL commits (in ms.)", Integer.class, 1000),
 
+  WAL_GROUP_COMMIT("storage.wal.groupCommit", "If enabled, commit of atomic operation is completed only after its WAL records are "
+      + "synced on disk. Syncs requested by concurrent commits are grouped, so WAL is synced only once for the whole group",
+      Boolean.class, false),
+
+  WAL_GROUP_COMMIT_MAX_DELAY("storage.wal.groupCommitMaxDelay",
+      "Maximum time (in microseconds) during which commits are collected in a group before WAL is synced, "
+          + "used only if storage.wal.groupCommit is enabled", Integer.class, 500),
+
+  WAL_GROUP_COMMIT_MAX_BATCH("storage.wal.groupCommitMaxBatch",
+      "Maximum amount of commits in a group, WAL is synced immediately once this amount of commits is collected, "
+          + "used only if storage.wal.groupCommit is enabled", Integer.class, 64),
+
+  WAL_COMPRESSION_THRESHOLD("storage.wal.compressionThreshold",
+      "Size in bytes starting from which WAL records are compressed before being written, a compressed record is written only if "
+          + "it is smaller than the original one (0 by default, which means that records are never compressed)", Integer.class, 0),
+
   WAL_SHUTDOWN_TIMEOUT("storage.wal.shutdownTimeout", "Maximum wait interval between events, when the background flush thread"
       + "receives a shutdown command and when the background flush will be stopped (in ms.)", Integer.class, 10000),
 
@@ -263,6 +309,11 @@ public enum OGlobalConfiguration {
   WAL_RESTORE_BATCH_SIZE("storage.wal.restore.batchSize",
       "Amount of WAL records, which are read at once in a single batch during a restore procedure", Integer.class, 1000),
 
+  WAL_RESTORE_THREADS("storage.wal.restore.threads",
+      "Number of threads which apply the page changes read from WAL during a restore procedure. Changes of the same page are "
+          + "always applied by the same thread in the order of the log (1 by default, which means that changes are applied by the "
+          + "thread which opens the storage)", Integer.class, 1),
+
   @Deprecated WAL_READ_CACHE_SIZE("storage.wal.readCacheSize", "Size of WAL read cache in amount of pages", Integer.class, 1000),
 
   WAL_FUZZY_CHECKPOINT_SHUTDOWN_TIMEOUT("storage.wal.fuzzyCheckpointShutdownWait",
@@ -288,6 +339,10 @@ public enum OGlobalConfiguration {
   DISK_CACHE_CHUNK_SIZE("storage.diskCache.chunkSize",
       "Maximum distance between two pages after which they are not treated as single continous chunk", Integer.class, 256),
 
+  DISK_CACHE_BATCHED_FILE_FLUSH("storage.diskCache.batchedFileFlush",
+      "Flush dirty pages of a file in batches of positional writes instead of one write per page when the whole file is flushed "
+          + "(for example during checkpoints). Can be set per storage", Boolean.class, true),
+
   DISK_CACHE_EXCLUSIVE_PAGES_BOUNDARY("storage.diskCache.exclusiveBoundary",
       "Portion of exclusive pages in write cache after which we will start to flush only exclusive pages", Float.class, 0.7),
 
@@ -396,6 +451,23 @@ public enum OGlobalConfiguration {
 
   INDEX_CURSOR_PREFETCH_SIZE("index.cursor.prefetchSize", "Default prefetch size of index cursor", Integer.class, 10000),
 
+  INDEX_BULK_LOAD("index.bulkLoad",
+      "Build unique and dictionary SBTree indexes bottom-up from sorted keys during index creation and rebuild, "
+          + "instead of insertion of keys one by one (true by default)", Boolean.class, true),
+
+  INDEX_BULK_LOAD_FILL_FACTOR("index.bulkLoad.fillFactor",
+      "Percent of space of SBTree buckets which is filled during bulk load of index, the rest of space is left for later "
+          + "insertions (90 by default)", Integer.class, 90),
+
+  INDEX_BULK_LOAD_SORT_BUFFER_SIZE("index.bulkLoad.sortBufferSize",
+      "Maximum number of index entries which are kept in memory during bulk load of index, sorted runs of entries are written "
+          + "to temporary files when it is exceeded (500000 by default)", Integer.class, 500000),
+
+  INDEX_REBUILD_THREADS("index.rebuild.threads",
+      "Number of threads which scan the indexed clusters and extract the keys during index creation and rebuild. Clusters are "
+          + "split in ranges of positions browsed in parallel, entries are put in the index by the calling thread "
+          + "(1 by default, which means that clusters are scanned by the calling thread)", Integer.class, 1),
+
   // SBTREE
   SBTREE_MAX_DEPTH("sbtree.maxDepth",
       "Maximum depth of sbtree, which will be traversed during key look up until it will be treated as broken (64 by default)",
@@ -498,6 +570,18 @@ public enum OGlobalConfiguration {
   NETWORK_BINARY_DEBUG("network.binary.debug", "Debug mode: print all data incoming on the binary channel", Boolean.class, false,
       true),
 
+  NETWORK_BINARY_NIO("network.binary.nio",
+      "Serve connections of the binary protocol by the non-blocking transport, so idle connections do not occupy threads. "
+          + "Not used for SSL sockets", Boolean.class, false),
+
+  NETWORK_BINARY_NIO_WORKERS("network.binary.nio.workers",
+      "Number of threads which execute requests of the binary protocol served by the non-blocking transport. "
+          + "If 0, eight threads per CPU core are used", Integer.class, 0),
+
+  NETWORK_BINARY_NIO_READ_TIMEOUT("network.binary.nio.readTimeout",
+      "Maximum time (in ms) a worker of the non-blocking transport waits for the rest of a partially received request. "
+          + "If it elapses the connection is dropped, so slow clients cannot hold all the workers", Integer.class, 1000),
+
   // HTTP
 
   /**
@@ -641,6 +725,16 @@ public enum OGlobalConfiguration {
       "The size of a remote ResultSet page, ie. the number of records"
           + "that are fetched together during remote query execution. This has to be set on the client.", Integer.class, 100),
 
+  QUERY_REMOTE_RESULTSET_PREFETCH("query.remoteResultSet.prefetch",
+      "Request the next page of a remote ResultSet while the current page is processed. The page size starts from "
+          + "query.remoteResultSet.pageSize and adapts to the speed of processing of the results and to their size. "
+          + "This has to be set on the client.", Boolean.class, false),
+
+  QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES("query.remoteResultSet.prefetch.maxPageBytes",
+      "Maximum size in bytes of a page of a remote ResultSet requested in advance, the number of records of the page is limited "
+          + "according to the size of already fetched records. This has to be set on the client.", Integer.class,
+      8 * 1024 * 1024),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN("query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default", Boolean.class, false),
 
@@ -653,6 +747,26 @@ public enum OGlobalConfiguration {
       "Size of the queue that holds results on parallel execution. The queue is blocking, so in case the queue is full, the query threads will be in a wait state",
       Integer.class, 20000),
 
+  QUERY_PARALLEL_SUB_PLANS("query.parallelSubPlans",
+      "Maximum number of sub-plans of a parallel execution step (eg. the scan of a class with many subclasses or clusters) that are executed concurrently, each one with its own database instance. Results are collected in a queue bounded by 'query.parallelResultQueueSize'. Use 1 to execute the sub-plans sequentially on the caller thread",
+      Integer.class, 1),
+
+  QUERY_ORDER_BY_MAX_IN_MEMORY("query.orderBy.maxInMemoryRecords",
+      "Maximum number of records that an ORDER BY without LIMIT keeps on the heap. When exceeded, sorted runs are written to temporary files and merged while the result is fetched. Use 0 to always sort in memory",
+      Integer.class, 500000),
+
+  QUERY_GROUP_BY_MAX_IN_MEMORY("query.groupBy.maxInMemoryGroups",
+      "Maximum number of groups that a GROUP BY keeps on the heap. When exceeded, the records of the other groups are hash partitioned to temporary files and aggregated one partition at a time. Use 0 to always aggregate in memory",
+      Integer.class, 500000),
+
+  QUERY_RID_SET_OFF_HEAP_THRESHOLD("query.ridSet.offHeapThreshold",
+      "Number of RIDs after which the RID sets used by DISTINCT and TRAVERSE are moved to off-heap memory. Use 0 to always keep them on heap",
+      Integer.class, 1000000),
+
+  QUERY_RID_SET_MAX_OFF_HEAP_MEMORY("query.ridSet.maxOffHeapMemory",
+      "Maximum amount of off-heap memory (in megabytes) used by a single RID set of DISTINCT and TRAVERSE. When exceeded, further RIDs are kept on heap",
+      Integer.class, 512),
+
   QUERY_SCAN_PREFETCH_PAGES("query.scanPrefetchPages",
       "Pages to prefetch during scan. Setting this value higher makes scans faster, because it reduces the number of I/O operations, though it consumes more memory. (Use 0 to disable)",
       Integer.class, 20),
@@ -686,6 +800,15 @@ public enum OGlobalConfiguration {
   CLIENT_CHANNEL_MAX_POOL("client.channel.maxPool",
       "Maximum size of pool of network channels between client and server. A channel is a TCP/IP connection", Integer.class, 100),
 
+  /**
+   * Maximum number of requests which wait for their responses on a single network channel between client and server.
+   */
+  CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS("client.channel.maxPipelinedRequests",
+      "Maximum number of requests which wait for their responses on a single network channel between client and server. If greater "
+          + "than 1, requests of different threads are written to the same channel one after another without waiting for the "
+          + "responses of previous requests, and a new channel is opened only when all channels have so many pending requests",
+      Integer.class, 1),
+
   /**
    * Maximum time, where the client should wait for a connection from the pool, when all connections busy.
    */
@@ -758,6 +881,10 @@ public enum OGlobalConfiguration {
   DISTRIBUTED_DEPLOYDB_TASK_COMPRESSION("distributed.deployDbTaskCompression",
       "Compression level (between 0 and 9) to use in backup for database deployment", Integer.class, 7, true),
 
+  DISTRIBUTED_DEPLOYDB_TASK_BUFFERED_CHUNKS("distributed.deployDbTaskBufferedChunks",
+      "Number of database chunks received from the network and kept in memory ahead of the restore during database deployment",
+      Integer.class, 4, true),
+
   DISTRIBUTED_ASYNCH_QUEUE_SIZE("distributed.asynchQueueSize",
       "Queue size to handle distributed asynchronous operations. The bigger is the queue, the more operation are buffered, but also more memory it's consumed. 0 = dynamic allocation, which means up to 2^31-1 entries",
       Integer.class, 0),
@@ -88,6 +88,13 @@ public abstract class OSharedContext extends OListenerManger<OMetadataUpdateList
     return queryStats;
   }
 
+  /**
+   * @return <code>true</code> once schema, indexes and security of the database are created or loaded.
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
   public abstract void load(ODatabaseDocumentInternal oDatabaseDocumentInternal);
 
   public abstract void reload(ODatabaseDocumentInternal database);
@@ -152,6 +152,18 @@ public interface ODatabaseDocument extends ODatabase<ORecord> {
   <REC extends ORecord> ORecordIteratorCluster<REC> browseCluster(String iClusterName, long startClusterPosition,
       long endClusterPosition, boolean loadTombstones);
 
+  /**
+   * Splits the specified cluster in at most <code>maxSplits</code> contiguous ranges of positions of similar size. Every range is a
+   * pair <code>{start, end}</code> that can be passed to {@link #browseCluster(String, long, long, boolean)}, so that each range
+   * is browsed by a different thread with its own database instance.
+   *
+   * @param iClusterName Cluster name to split
+   * @param maxSplits    Maximum number of ranges
+   *
+   * @return the ranges, that together cover all the records of the cluster
+   */
+  long[][] getClusterSplits(String iClusterName, int maxSplits);
+
   /**
    * Browses all the records of the specified cluster of the passed record type.
    *
@@ -1896,6 +1896,21 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
         endClusterPosition, loadTombstones, OStorage.LOCKING_STRATEGY.DEFAULT);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long[][] getClusterSplits(final String iClusterName, final int maxSplits) {
+    checkSecurity(ORule.ResourceGeneric.CLUSTER, ORole.PERMISSION_READ, iClusterName);
+    checkIfActive();
+
+    final int clusterId = getClusterIdByName(iClusterName);
+    if (clusterId < 0)
+      throw new IllegalArgumentException("Cluster '" + iClusterName + "' was not found");
+
+    return getStorage().getClusterDataSplits(clusterId, maxSplits);
+  }
+
   /**
    * Saves a document to the database. Behavior depends by the current running transaction if any. If no transaction is running then
    * changes apply immediately. If an Optimistic transaction is running then the record will be changed at commit time. The current
@@ -786,6 +786,12 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     return internal.browseCluster(iClusterName, startClusterPosition, endClusterPosition, loadTombstones);
   }
 
+  @Override
+  public long[][] getClusterSplits(String iClusterName, int maxSplits) {
+    checkOpenness();
+    return internal.getClusterSplits(iClusterName, maxSplits);
+  }
+
   @Override
   public <REC extends ORecord> ORecordIteratorCluster<REC> browseCluster(String iClusterName, Class<REC> iRecordClass) {
     checkOpenness();
@@ -22,6 +22,8 @@ package com.orientechnologies.orient.core.engine.local;
 
 import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.directmemory.OMemoryBudgetManager;
+import com.orientechnologies.common.directmemory.OMemoryPool;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.jna.ONative;
@@ -31,7 +33,9 @@ import com.orientechnologies.orient.core.engine.OEngineAbstract;
 import com.orientechnologies.orient.core.engine.OMemoryAndLocalPaginatedEnginesInitializer;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OShardedReadCache;
 import com.orientechnologies.orient.core.storage.fs.OFileClassic;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 import com.sun.jna.Native;
@@ -46,7 +50,9 @@ import java.util.Map;
 public class OEngineLocalPaginated extends OEngineAbstract {
   public static final String NAME = "plocal";
 
-  private volatile O2QCache readCache;
+  private volatile OReadCache readCache;
+
+  private final ReadCacheMemoryPool readCacheMemoryPool = new ReadCacheMemoryPool();
 
   protected final OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<>(getOpenFilesLimit());
 
@@ -71,9 +77,23 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     OMemoryAndLocalPaginatedEnginesInitializer.INSTANCE.initialize();
     super.startup();
 
-    readCache = new O2QCache(calculateReadCacheMaxMemory(OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024),
-        OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024, true,
-        OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger());
+    final long readCacheMaxMemory = calculateReadCacheMaxMemory(
+        OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024);
+    final int shards = OGlobalConfiguration.DISK_CACHE_SHARDS.getValueAsInteger();
+
+    if (shards > 1)
+      readCache = new OShardedReadCache(readCacheMaxMemory, OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024,
+          true, OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger(),
+          OGlobalConfiguration.DISK_CACHE_READ_AHEAD_WINDOW.getValueAsInteger(),
+          OGlobalConfiguration.DISK_CACHE_READ_AHEAD_THREADS.getValueAsInteger(), shards);
+    else
+      readCache = new O2QCache(readCacheMaxMemory, OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024, true,
+          OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger(),
+          OGlobalConfiguration.DISK_CACHE_READ_AHEAD_WINDOW.getValueAsInteger(),
+          OGlobalConfiguration.DISK_CACHE_READ_AHEAD_THREADS.getValueAsInteger());
+
+    readCacheMemoryPool.configure(readCacheMaxMemory);
+    OMemoryBudgetManager.instance().registerPool(readCacheMemoryPool);
   }
 
   private long calculateReadCacheMaxMemory(final long cacheSize) {
@@ -84,12 +104,25 @@ public class OEngineLocalPaginated extends OEngineAbstract {
    * @param cacheSize Cache size in bytes.
    *
    * @see O2QCache#changeMaximumAmountOfMemory(long)
+   * @see OShardedReadCache#changeMaximumAmountOfMemory(long)
    */
   public void changeCacheSize(final long cacheSize) {
-    if (readCache != null)
-      readCache.changeMaximumAmountOfMemory(calculateReadCacheMaxMemory(cacheSize));
+    if (readCache == null)
+      //otherwise memory size will be set during cache initialization.
+      return;
+
+    readCacheMemoryPool.configure(calculateReadCacheMaxMemory(cacheSize));
+    //limit of cache may be lowered again if memory budget is exceeded
+    OMemoryBudgetManager.instance().rebalance();
+  }
+
+  private void changeReadCacheMemory(final long readCacheMaxMemory) {
+    final OReadCache readCache = this.readCache;
 
-    //otherwise memory size will be set during cache initialization.
+    if (readCache instanceof O2QCache)
+      ((O2QCache) readCache).changeMaximumAmountOfMemory(readCacheMaxMemory);
+    else if (readCache instanceof OShardedReadCache)
+      ((OShardedReadCache) readCache).changeMaximumAmountOfMemory(readCacheMaxMemory);
   }
 
   public OStorage createStorage(final String dbName, final Map<String, String> configuration) {
@@ -109,7 +142,7 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     return NAME;
   }
 
-  public O2QCache getReadCache() {
+  public OReadCache getReadCache() {
     return readCache;
   }
 
@@ -121,10 +154,82 @@ public class OEngineLocalPaginated extends OEngineAbstract {
   @Override
   public void shutdown() {
     try {
+      OMemoryBudgetManager.instance().unregisterPool(readCacheMemoryPool);
       readCache.clear();
+
+      if (readCache instanceof O2QCache)
+        ((O2QCache) readCache).shutdown();
+      else if (readCache instanceof OShardedReadCache)
+        ((OShardedReadCache) readCache).shutdown();
       files.clear();
     } finally {
       super.shutdown();
     }
   }
+
+  /**
+   * Lets {@link OMemoryBudgetManager} shrink read cache down to a quarter of its configured size when memory is needed by other
+   * pools or by queries.
+   */
+  private final class ReadCacheMemoryPool implements OMemoryPool {
+    private long configuredMemory;
+    private long memoryLimit;
+
+    private synchronized void configure(final long readCacheMaxMemory) {
+      final long previousLimit = memoryLimit;
+
+      configuredMemory = readCacheMaxMemory;
+      memoryLimit = readCacheMaxMemory;
+
+      if (previousLimit > 0 && previousLimit != readCacheMaxMemory)
+        changeReadCacheMemory(readCacheMaxMemory);
+    }
+
+    @Override
+    public String getName() {
+      return "read cache";
+    }
+
+    @Override
+    public long getUsedMemory() {
+      final OReadCache readCache = OEngineLocalPaginated.this.readCache;
+      return readCache == null ? 0 : readCache.getUsedMemory();
+    }
+
+    @Override
+    public synchronized long getMemoryLimit() {
+      return memoryLimit;
+    }
+
+    @Override
+    public synchronized long shrink(final long amount) {
+      final long newLimit = Math.max(configuredMemory / 4, memoryLimit - amount);
+      return changeLimit(newLimit);
+    }
+
+    @Override
+    public synchronized long grow(final long amount) {
+      final long newLimit = amount >= configuredMemory - memoryLimit ? configuredMemory : memoryLimit + amount;
+      return -changeLimit(newLimit);
+    }
+
+    /**
+     * @return amount of released memory, negative if limit was increased
+     */
+    private long changeLimit(final long newLimit) {
+      if (newLimit == memoryLimit)
+        return 0;
+
+      try {
+        changeReadCacheMemory(newLimit);
+      } catch (IllegalStateException e) {
+        //too many pinned pages, cache can not be shrunk
+        return 0;
+      }
+
+      final long released = memoryLimit - newLimit;
+      memoryLimit = newLimit;
+      return released;
+    }
+  }
 }
@@ -27,6 +27,7 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
@@ -45,6 +46,7 @@ import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OIndexEngineCallback;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTreeBulkLoader;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OIndexRIDContainer;
 import com.orientechnologies.orient.core.tx.OTransactionIndexChanges;
 import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
@@ -82,6 +84,12 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
   private volatile boolean             rebuilding       = false;
   private          Map<String, String> engineProperties = new HashMap<String, String>();
 
+  /**
+   * Loader which collects entries of the index during {@link #fillIndex(OProgressListener, boolean)}, <code>null</code> if entries
+   * are put in the index one by one.
+   */
+  private OSBTreeBulkLoader<Object, Object> bulkLoader;
+
   public OIndexAbstract(String name, final String type, final String algorithm, final String valueContainerAlgorithm,
       final ODocument metadata, final int version, final OStorage storage) {
     acquireExclusiveLock();
@@ -496,11 +504,40 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
       if (iProgressListener != null)
         iProgressListener.onBegin(this, documentTotal, rebuild);
 
-      // INDEX ALL CLUSTERS
-      for (final String clusterName : clustersToIndex) {
-        final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
-        documentNum = metrics[0];
-        documentIndexed = metrics[1];
+      bulkLoader = createBulkLoader();
+      try {
+        final int threads = storage.getConfiguration().getContextConfiguration()
+            .getValueAsInteger(OGlobalConfiguration.INDEX_REBUILD_THREADS);
+        // JOBS OPEN COPIES OF THE DATABASE, WHICH IS NOT POSSIBLE TILL ITS METADATA IS CREATED OR LOADED
+        if (threads > 1 && documentTotal > 0 && !clustersToIndex.isEmpty() && !getDatabase().getTransaction().isActive()
+            && getDatabase().getSharedContext().isLoaded()) {
+          // INDEX ALL CLUSTERS IN PARALLEL
+          if (indexDefinition == null)
+            throw new OConfigurationException(
+                "Index '" + name + "' cannot be rebuilt because has no a valid definition (" + indexDefinition + ")");
+
+          final long[] metrics = new OParallelIndexBuilder(this, indexDefinition, clustersToIndex, threads, iProgressListener,
+              documentTotal).fill(getDatabase());
+          documentNum = metrics[0];
+          documentIndexed = metrics[1];
+        } else {
+          // INDEX ALL CLUSTERS
+          for (final String clusterName : clustersToIndex) {
+            final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
+            documentNum = metrics[0];
+            documentIndexed = metrics[1];
+          }
+        }
+
+        if (bulkLoader != null)
+          storage.bulkLoadIndex(indexId, bulkLoader);
+      } catch (OInvalidIndexEngineIdException e) {
+        throw OException.wrapException(new OIndexException("Engine of index '" + name + "' was changed during bulk load"), e);
+      } finally {
+        if (bulkLoader != null) {
+          bulkLoader.close();
+          bulkLoader = null;
+        }
       }
 
       if (iProgressListener != null)
@@ -832,13 +869,28 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
 
   protected abstract OBinarySerializer determineValueSerializer();
 
+  /**
+   * @return loader which collects entries of the index during index creation and rebuild, so they are loaded in the index sorted
+   * by key, or <code>null</code> if entries are put in the index one by one.
+   */
+  protected OSBTreeBulkLoader<Object, Object> createBulkLoader() {
+    return null;
+  }
+
   protected void populateIndex(ODocument doc, Object fieldValue) {
     if (fieldValue instanceof Collection) {
       for (final Object fieldValueItem : (Collection<?>) fieldValue) {
-        put(fieldValueItem, doc);
+        populateIndexEntry(fieldValueItem, doc);
       }
     } else
-      put(fieldValue, doc);
+      populateIndexEntry(fieldValue, doc);
+  }
+
+  private void populateIndexEntry(Object key, ODocument doc) {
+    if (bulkLoader != null)
+      bulkLoader.add(getCollatingValue(key), doc.getIdentity());
+    else
+      put(key, doc);
   }
 
   public Object getCollatingValue(final Object key) {
@@ -931,18 +983,7 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
           final Object fieldValue = indexDefinition.getDocumentValueToIndex(doc);
 
           if (fieldValue != null || !indexDefinition.isNullValuesIgnored()) {
-            try {
-              populateIndex(doc, fieldValue);
-            } catch (OTooBigIndexKeyException e) {
-              OLogManager.instance().error(this,
-                  "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
-                      + " Rebuild will continue from this point", e, fieldValue, doc.getIdentity());
-            } catch (OIndexException e) {
-              OLogManager.instance().error(this,
-                  "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
-                      + " Rebuild will continue from this point", e, fieldValue, doc.getIdentity());
-            }
-
+            indexDocument(doc, fieldValue);
             ++documentIndexed;
           }
         }
@@ -958,6 +999,24 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T> {
     return new long[] { documentNum, documentIndexed };
   }
 
+  /**
+   * Puts the value extracted from the document in the index during index creation or rebuild, an error on a single entry is
+   * logged and does not stop the build.
+   */
+  protected void indexDocument(final ODocument doc, final Object fieldValue) {
+    try {
+      populateIndex(doc, fieldValue);
+    } catch (OTooBigIndexKeyException e) {
+      OLogManager.instance().error(this,
+          "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
+              + " Rebuild will continue from this point", e, fieldValue, doc.getIdentity());
+    } catch (OIndexException e) {
+      OLogManager.instance().error(this,
+          "Exception during index rebuild. Exception was caused by following key/ value pair - key %s, value %s."
+              + " Rebuild will continue from this point", e, fieldValue, doc.getIdentity());
+    }
+  }
+
   protected void releaseExclusiveLock() {
     rwLock.releaseWriteLock();
   }
@@ -197,6 +197,14 @@ public abstract class OIndexManagerAbstract extends ODocumentWrapperNoClass impl
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Returns all the indexes without checking the permissions of the current user. It is used by metadata listeners, which can be
+   * notified when no database is bound to the current thread.
+   */
+  public Collection<? extends OIndex<?>> getIndexesWithoutSecurityCheck() {
+    return new ArrayList<OIndex<?>>(indexes.values());
+  }
+
   public OIndex<?> getIndex(final String iName) {
     final Locale locale = getServerLocale();
 
@@ -28,6 +28,7 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerRID;
 import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTreeBulkLoader;
 
 import java.util.*;
 
@@ -74,6 +75,23 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
     }
   }
 
+  @Override
+  protected OSBTreeBulkLoader<Object, Object> createBulkLoader() {
+    while (true)
+      try {
+        return storage.createIndexBulkLoader(indexId, getBulkLoadValidator());
+      } catch (OInvalidIndexEngineIdException ignore) {
+        doReloadIndexEngine();
+      }
+  }
+
+  /**
+   * @return validator of bulk loaded entries with equal keys, <code>null</code> means that the last entry is loaded.
+   */
+  protected OIndexEngine.Validator<Object, OIdentifiable> getBulkLoadValidator() {
+    return null;
+  }
+
   public OIndexOneValue create(final String name, final OIndexDefinition indexDefinition, final String clusterIndexName,
       final Set<String> clustersToIndex, boolean rebuild, final OProgressListener progressListener) {
     return (OIndexOneValue) super
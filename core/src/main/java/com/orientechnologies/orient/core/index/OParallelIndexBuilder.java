@@ -0,0 +1,244 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.listener.OProgressListener;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OStorage;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills an index during its creation or rebuild scanning the indexed clusters in parallel.
+ * <p>
+ * Clusters are split in ranges of positions (see {@link OStorage#getClusterDataSplits(int, int)}) which are browsed by a pool of
+ * jobs, each one with its own copy of the database. Jobs load the records and extract their keys with {@link
+ * OIndexDefinition#getDocumentValueToIndex(ODocument)}, the most expensive part of the build, then pass them through a bounded
+ * queue to the thread which called {@link #fill(ODatabaseDocumentInternal)}. That thread is the only one which puts entries in the
+ * index (or in its bulk loader, which sorts them), so index engines do not need to support concurrent puts.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#INDEX_REBUILD_THREADS
+ */
+class OParallelIndexBuilder {
+  private static final int QUEUE_SIZE = 10000;
+
+  private static final IndexEntry END_OF_JOB = new IndexEntry(null, null, false);
+
+  private final OIndexAbstract<?>  index;
+  private final OIndexDefinition   indexDefinition;
+  private final Collection<String> clusters;
+  private final int                threads;
+  private final OProgressListener  progressListener;
+  private final long               documentTotal;
+
+  private final BlockingQueue<IndexEntry> entries = new ArrayBlockingQueue<IndexEntry>(QUEUE_SIZE);
+
+  private volatile boolean          running = true;
+  private volatile RuntimeException jobException;
+
+  OParallelIndexBuilder(OIndexAbstract<?> index, OIndexDefinition indexDefinition, Collection<String> clusters, int threads,
+      OProgressListener progressListener, long documentTotal) {
+    this.index = index;
+    this.indexDefinition = indexDefinition;
+    this.clusters = clusters;
+    this.threads = threads;
+    this.progressListener = progressListener;
+    this.documentTotal = documentTotal;
+  }
+
+  /**
+   * Scans the clusters and puts the extracted entries in the index.
+   *
+   * @param database database of the current thread
+   *
+   * @return the number of browsed documents and the number of indexed ones
+   */
+  long[] fill(final ODatabaseDocumentInternal database) {
+    final Queue<ClusterRange> ranges = new ConcurrentLinkedQueue<ClusterRange>();
+    final OStorage storage = database.getStorage();
+    for (final String clusterName : clusters) {
+      for (final long[] split : storage.getClusterDataSplits(database.getClusterIdByName(clusterName), threads))
+        ranges.add(new ClusterRange(clusterName, split[0], split[1]));
+    }
+
+    final int jobs = Math.min(threads, ranges.size());
+    try {
+      for (int i = 0; i < jobs; i++) {
+        // THE COPY HAS TO BE CREATED ON THE CALLER THREAD
+        final ODatabaseDocumentInternal localDatabase = database.copy();
+        Orient.instance().submit(new Runnable() {
+          @Override
+          public void run() {
+            executeJob(localDatabase, ranges);
+          }
+        });
+      }
+
+      return consume(jobs);
+    } finally {
+      running = false;
+      entries.clear();
+      // THE COPY CHANGES THE DATABASE OF THE CURRENT THREAD AND DOES NOT RESTORE IT IF IT FAILS
+      database.activateOnCurrentThread();
+    }
+  }
+
+  private long[] consume(int runningJobs) {
+    long documentNum = 0;
+    long documentIndexed = 0;
+
+    while (runningJobs > 0) {
+      checkJobException();
+
+      final IndexEntry entry;
+      try {
+        entry = entries.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw OException.wrapException(new OCommandExecutionException("The index rebuild has been interrupted"), e);
+      }
+
+      if (entry == null)
+        continue;
+
+      if (entry == END_OF_JOB) {
+        runningJobs--;
+        continue;
+      }
+
+      if (entry.indexed) {
+        index.indexDocument(entry.document, entry.fieldValue);
+        ++documentIndexed;
+      }
+      documentNum++;
+
+      if (progressListener != null)
+        progressListener.onProgress(index, documentNum, (float) (documentNum * 100.0 / documentTotal));
+    }
+    checkJobException();
+
+    return new long[] { documentNum, documentIndexed };
+  }
+
+  private void executeJob(final ODatabaseDocumentInternal localDatabase, final Queue<ClusterRange> ranges) {
+    try {
+      localDatabase.activateOnCurrentThread();
+
+      ClusterRange range;
+      while (running && (range = ranges.poll()) != null) {
+        for (final ORecord record : localDatabase.browseCluster(range.clusterName, range.first, range.last, false)) {
+          if (!running)
+            return;
+
+          final IndexEntry entry;
+          if (record instanceof ODocument) {
+            final ODocument document = (ODocument) record;
+            final Object fieldValue = indexDefinition.getDocumentValueToIndex(document);
+            entry = new IndexEntry(document, fieldValue, fieldValue != null || !indexDefinition.isNullValuesIgnored());
+          } else
+            entry = new IndexEntry(null, null, false);
+
+          if (!enqueue(entry, false))
+            return;
+        }
+      }
+    } catch (RuntimeException e) {
+      if (jobException == null)
+        jobException = e;
+      running = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    } finally {
+      try {
+        localDatabase.close();
+      } catch (RuntimeException e) {
+        OLogManager.instance().error(this, "Error on closing database of parallel index build", e);
+      }
+      ODatabaseRecordThreadLocal.instance().remove();
+      try {
+        enqueue(END_OF_JOB, true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Puts an entry in the queue, waiting for space to become available until the build is stopped.
+   *
+   * @return true if the entry was enqueued
+   */
+  private boolean enqueue(IndexEntry entry, boolean endOfJob) throws InterruptedException {
+    while (running || endOfJob) {
+      if (entries.offer(entry, 100, TimeUnit.MILLISECONDS))
+        return true;
+
+      if (endOfJob && !running)
+        // NOBODY IS WAITING FOR THE ENTRIES ANYMORE
+        return false;
+    }
+    return false;
+  }
+
+  private void checkJobException() {
+    final RuntimeException e = jobException;
+    if (e != null) {
+      running = false;
+      throw e;
+    }
+  }
+
+  private static final class ClusterRange {
+    private final String clusterName;
+    private final long   first;
+    private final long   last;
+
+    private ClusterRange(String clusterName, long first, long last) {
+      this.clusterName = clusterName;
+      this.first = first;
+      this.last = last;
+    }
+  }
+
+  private static final class IndexEntry {
+    private final ODocument document;
+    private final Object    fieldValue;
+    private final boolean   indexed;
+
+    private IndexEntry(ODocument document, Object fieldValue, boolean indexed) {
+      this.document = document;
+      this.fieldValue = fieldValue;
+      this.indexed = indexed;
+    }
+  }
+}
@@ -561,6 +561,19 @@ public abstract class OSchemaShared extends ODocumentWrapperNoClass implements O
     }
   }
 
+  /**
+   * Returns all the classes without checking the permissions of the current user. It is used by metadata listeners, which can be
+   * notified when no database is bound to the current thread.
+   */
+  public Collection<OClass> getClassesWithoutSecurityCheck() {
+    acquireSchemaReadLock();
+    try {
+      return new HashSet<OClass>(classes.values());
+    } finally {
+      releaseSchemaReadLock();
+    }
+  }
+
   public Set<OClass> getClassesRelyOnCluster(ODatabaseDocumentInternal database, final String clusterName) {
     database.checkSecurity(ORule.ResourceGeneric.SCHEMA, ORole.PERMISSION_READ);
 
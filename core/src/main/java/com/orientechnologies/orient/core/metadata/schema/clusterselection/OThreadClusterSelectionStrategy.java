@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2018 OrientDB LTD (info(-at-)orientdb.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.orientechnologies.orient.core.metadata.schema.clusterselection;
+
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Returns always the same cluster for the same thread, spreading the threads between all configured clusters.
+ * <p>
+ * A transaction commit locks exclusively every cluster in which it creates, updates or deletes records till the end of the commit.
+ * With {@link ORoundRobinClusterSelectionStrategy} the records created by a transaction end up in all the clusters of the class,
+ * so concurrent transactions inserting into the same class are committed one at a time. With this strategy the transactions of
+ * different threads write in different clusters, as long as the class has at least as many clusters as the writing threads.
+ * <p>
+ * Only the cluster locks are spread: a commit still locks exclusively every index it changes, so the commits run in parallel only
+ * for classes without indexes.
+ */
+public class OThreadClusterSelectionStrategy implements OClusterSelectionStrategy {
+  public static final String NAME = "thread";
+
+  private final AtomicInteger        nextSlot   = new AtomicInteger();
+  private final ThreadLocal<Integer> threadSlot = ThreadLocal.withInitial(() -> nextSlot.getAndIncrement() & Integer.MAX_VALUE);
+
+  public int getCluster(final OClass iClass, final ODocument doc) {
+    return getCluster(iClass, iClass.getClusterIds(), doc);
+  }
+
+  public int getCluster(final OClass iClass, final int[] clusters, final ODocument doc) {
+    if (clusters.length == 1)
+      // ONLY ONE: RETURN THE FIRST ONE
+      return clusters[0];
+
+    return clusters[threadSlot.get() % clusters.length];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+}
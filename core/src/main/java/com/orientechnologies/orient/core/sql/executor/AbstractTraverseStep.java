@@ -2,7 +2,6 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
-import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.sql.parser.OInteger;
 import com.orientechnologies.orient.core.sql.parser.OTraverseProjectionItem;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
@@ -22,7 +21,7 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
   protected List<OResult> results     = new ArrayList<>();
   private   long          cost        = 0;
 
-  Set<ORID> traversed = new ORidSet();
+  OOffHeapRidSet traversed;
 
   public AbstractTraverseStep(List<OTraverseProjectionItem> projections, OWhereClause whileClause, OInteger maxDepth,
       OCommandContext ctx, boolean profilingEnabled) {
@@ -30,6 +29,7 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
     this.whileClause = whileClause;
     this.maxDepth = maxDepth;
     this.projections = projections.stream().map(x -> x.copy()).collect(Collectors.toList());
+    this.traversed = OOffHeapRidSet.create(ctx);
   }
 
   @Override
@@ -101,6 +101,8 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
         fetchNextEntryPoints(ctx, nRecords);
       }
       if (this.entryPoints.isEmpty()) {
+        // TRAVERSAL IS FINISHED, RELEASE THE VISITED RIDS
+        traversed.close();
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
@@ -122,6 +124,12 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
     return entryPoints != null && entryPoints.isEmpty() && results.isEmpty();
   }
 
+  @Override
+  public void close() {
+    traversed.close();
+    super.close();
+  }
+
   @Override
   public long getCost() {
     return cost;
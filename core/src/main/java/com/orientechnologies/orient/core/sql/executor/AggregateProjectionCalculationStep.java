@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
@@ -11,16 +13,33 @@ import com.orientechnologies.orient.core.sql.parser.OProjectionItem;
 import java.util.*;
 
 /**
+ * Calculates aggregate projections, grouping the upstream results by the GROUP BY expressions.
+ * <p>
+ * Groups are aggregated in memory up to {@link OGlobalConfiguration#QUERY_GROUP_BY_MAX_IN_MEMORY} groups (hybrid hash
+ * aggregation): when the limit is reached the upstream records that belong to groups not in memory yet are hash partitioned to
+ * temporary files, so that each group is entirely contained in one partition. The partitions are aggregated one at a time, after
+ * the in-memory groups have been returned, and are partitioned again (with a different hash) if they still exceed the limit.
+ * <p>
  * Created by luigidellaquila on 12/07/16.
  */
 public class AggregateProjectionCalculationStep extends ProjectionCalculationStep {
 
+  private static final int SPILL_PARTITIONS = 16;
+  private static final int MAX_SPILL_DEPTH  = 8;
+
   private final OGroupBy groupBy;
 
   //the key is the GROUP BY key, the value is the (partially) aggregated value
   private Map<List, OResultInternal> aggregateResults = new LinkedHashMap<>();
   private List<OResultInternal>      finalResults     = null;
 
+  private int maxGroups;
+  private int spillDepth = 0;
+
+  private OResultSpillFile[]        partitions;
+  private Deque<OResultSpillFile>   pendingPartitions      = new ArrayDeque<>();
+  private Deque<Integer>            pendingPartitionDepths = new ArrayDeque<>();
+
   private int  nextItem = 0;
   private long cost     = 0;
 
@@ -36,49 +55,28 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
       executeAggregation(ctx, nRecords);
     }
 
-    return new OResultSet() {
-      int localNext = 0;
-
-      @Override
-      public boolean hasNext() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
-          return false;
-        }
-        return true;
-      }
-
-      @Override
-      public OResult next() {
-        if (localNext > nRecords || nextItem >= finalResults.size()) {
-          throw new IllegalStateException();
+    OInternalResultSet result = new OInternalResultSet();
+    int count = 0;
+    while (count < nRecords) {
+      if (nextItem >= finalResults.size()) {
+        if (pendingPartitions.isEmpty()) {
+          break;
         }
-        OResult result = finalResults.get(nextItem);
-        nextItem++;
-        localNext++;
-        return result;
-      }
-
-      @Override
-      public void close() {
-
-      }
-
-      @Override
-      public Optional<OExecutionPlan> getExecutionPlan() {
-        return null;
+        aggregateNextPartition(ctx);
+        continue;
       }
-
-      @Override
-      public Map<String, Long> getQueryStats() {
-        return null;
-      }
-    };
+      result.add(finalResults.get(nextItem));
+      finalResults.set(nextItem++, null);
+      count++;
+    }
+    return result;
   }
 
   private void executeAggregation(OCommandContext ctx, int nRecords) {
     if (!prev.isPresent()) {
       throw new OCommandExecutionException("Cannot execute an aggregation or a GROUP BY without a previous result");
     }
+    maxGroups = getMaxInMemoryGroups(ctx);
     OExecutionStepInternal prevStep = prev.get();
     OResultSet lastRs = prevStep.syncPull(ctx, nRecords);
     while (lastRs.hasNext()) {
@@ -87,7 +85,41 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
         lastRs = prevStep.syncPull(ctx, nRecords);
       }
     }
+    completeAggregation();
+  }
+
+  private int getMaxInMemoryGroups(OCommandContext ctx) {
+    if (groupBy == null) {
+      return 0;
+    }
+    ODatabase db = ctx.getDatabase();
+    if (db == null) {
+      return OGlobalConfiguration.QUERY_GROUP_BY_MAX_IN_MEMORY.getValueAsInteger();
+    }
+    if (db.getTransaction().isActive()) {
+      // RECORDS CREATED OR CHANGED IN TX CANNOT BE REPLACED BY A COPY
+      return 0;
+    }
+    return db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_GROUP_BY_MAX_IN_MEMORY);
+  }
+
+  private void aggregateNextPartition(OCommandContext ctx) {
+    OResultSpillFile partition = pendingPartitions.poll();
+    spillDepth = pendingPartitionDepths.poll();
+    try {
+      partition.openForRead();
+      while (partition.hasNext()) {
+        aggregate(partition.next(), ctx);
+      }
+    } finally {
+      partition.delete();
+    }
+    completeAggregation();
+  }
+
+  private void completeAggregation() {
     finalResults = new ArrayList<>();
+    nextItem = 0;
     finalResults.addAll(aggregateResults.values());
     aggregateResults.clear();
     for (OResultInternal item : finalResults) {
@@ -98,6 +130,15 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
         }
       }
     }
+    if (partitions != null) {
+      for (OResultSpillFile partition : partitions) {
+        if (partition != null) {
+          pendingPartitions.add(partition);
+          pendingPartitionDepths.add(spillDepth + 1);
+        }
+      }
+      partitions = null;
+    }
   }
 
   private void aggregate(OResult next, OCommandContext ctx) {
@@ -112,6 +153,10 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
       }
       OResultInternal preAggr = aggregateResults.get(key);
       if (preAggr == null) {
+        if (maxGroups > 0 && spillDepth < MAX_SPILL_DEPTH && aggregateResults.size() >= maxGroups) {
+          spill(key, next);
+          return;
+        }
         preAggr = new OResultInternal();
         aggregateResults.put(key, preAggr);
       }
@@ -136,6 +181,43 @@ public class AggregateProjectionCalculationStep extends ProjectionCalculationSte
     }
   }
 
+  private void spill(List<Object> key, OResult next) {
+    if (partitions == null) {
+      partitions = new OResultSpillFile[SPILL_PARTITIONS];
+    }
+    int partition = partitionOf(key);
+    if (partitions[partition] == null) {
+      partitions[partition] = new OResultSpillFile("groupby_");
+    }
+    partitions[partition].write(next);
+  }
+
+  private int partitionOf(List<Object> key) {
+    // A DIFFERENT HASH AT EACH DEPTH, TO SPLIT PARTITIONS THAT ARE STILL TOO BIG
+    int h = key.hashCode() ^ (spillDepth * 0x9E3779B9);
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return Math.floorMod(h, SPILL_PARTITIONS);
+  }
+
+  @Override
+  public void close() {
+    if (partitions != null) {
+      for (OResultSpillFile partition : partitions) {
+        if (partition != null) {
+          partition.delete();
+        }
+      }
+      partitions = null;
+    }
+    for (OResultSpillFile partition : pendingPartitions) {
+      partition.delete();
+    }
+    pendingPartitions.clear();
+    pendingPartitionDepths.clear();
+    super.close();
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -14,8 +14,8 @@ import java.util.Set;
  */
 public class DistinctExecutionStep extends AbstractExecutionStep {
 
-  Set<OResult> pastItems = new HashSet<>();
-  ORidSet      pastRids  = new ORidSet();
+  Set<OResult>   pastItems = new HashSet<>();
+  OOffHeapRidSet pastRids;
 
   OResultSet lastResult = null;
   OResult nextValue;
@@ -24,6 +24,7 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   public DistinctExecutionStep(OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
+    pastRids = OOffHeapRidSet.create(ctx);
   }
 
   @Override
@@ -89,6 +90,9 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
         lastResult = getPrev().get().syncPull(ctx, nRecords);
       }
       if (lastResult == null || !lastResult.hasNext()) {
+        // UPSTREAM IS EXHAUSTED, NO NEED TO KEEP THE VISITED ITEMS ANYMORE
+        pastRids.close();
+        pastItems.clear();
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
@@ -139,6 +143,7 @@ public class DistinctExecutionStep extends AbstractExecutionStep {
 
   @Override
   public void close() {
+    pastRids.close();
     prev.ifPresent(x -> x.close());
   }
 
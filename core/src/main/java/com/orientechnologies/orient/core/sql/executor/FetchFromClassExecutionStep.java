@@ -3,6 +3,7 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 
@@ -69,9 +70,13 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     clusterIds[clusterIds.length - 1] = -1;//temporary cluster, data in tx
 
     sortClusers(clusterIds);
+    boolean parallel = !orderByRidAsc && !orderByRidDesc
+        && ctx.getDatabase().getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS) > 1;
     for (int i = 0; i < clusterIds.length; i++) {
       int clusterId = clusterIds[i];
-      if (clusterId > 0) {
+      if (clusterId > 0 && parallel) {
+        getSubSteps().add(new ParallelFetchFromClusterExecutionStep(clusterId, planningInfo, ctx, profilingEnabled));
+      } else if (clusterId > 0) {
         FetchFromClusterExecutionStep step = new FetchFromClusterExecutionStep(clusterId, planningInfo, ctx, profilingEnabled);
         if (orderByRidAsc) {
           step.setOrder(FetchFromClusterExecutionStep.ORDER_ASC);
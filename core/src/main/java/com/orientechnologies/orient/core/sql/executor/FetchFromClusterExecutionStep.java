@@ -25,6 +25,8 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
 
   private int    clusterId;
   private Object order;
+  private long firstPosition = ORID.CLUSTER_POS_INVALID;
+  private long lastPosition  = ORID.CLUSTER_POS_INVALID;
 
   private ORecordIteratorCluster iterator;
   private long cost = 0;
@@ -48,6 +50,13 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
       if (iterator == null) {
         long minClusterPosition = calculateMinClusterPosition();
         long maxClusterPosition = calculateMaxClusterPosition();
+        if (firstPosition != ORID.CLUSTER_POS_INVALID) {
+          minClusterPosition = Math.max(minClusterPosition, firstPosition);
+        }
+        if (lastPosition != ORID.CLUSTER_POS_INVALID) {
+          maxClusterPosition =
+              maxClusterPosition == ORID.CLUSTER_POS_INVALID ? lastPosition : Math.min(maxClusterPosition, lastPosition);
+        }
         iterator = new ORecordIteratorCluster((ODatabaseDocumentInternal) ctx.getDatabase(),
             (ODatabaseDocumentInternal) ctx.getDatabase(), clusterId, minClusterPosition, maxClusterPosition);
         if (ORDER_DESC == order) {
@@ -209,6 +218,10 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
         OExecutionStepInternal.getIndent(depth, indent) + "+ FETCH FROM CLUSTER " + clusterId + " " + (ORDER_DESC.equals(order) ?
             "DESC" :
             "ASC");
+    if (firstPosition != ORID.CLUSTER_POS_INVALID || lastPosition != ORID.CLUSTER_POS_INVALID) {
+      result += " POSITIONS " + (firstPosition == ORID.CLUSTER_POS_INVALID ? "*" : firstPosition) + " - " + (
+          lastPosition == ORID.CLUSTER_POS_INVALID ? "*" : lastPosition);
+    }
     if (profilingEnabled) {
       result += " (" + getCostFormatted() + ")";
     }
@@ -219,6 +232,18 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     this.order = order;
   }
 
+  /**
+   * restricts the fetch to a range of cluster positions, eg. one of the splits returned by {@link
+   * com.orientechnologies.orient.core.storage.OStorage#getClusterDataSplits(int, int)}
+   *
+   * @param firstPosition the first position (inclusive), -1 for no lower bound
+   * @param lastPosition  the last position (inclusive), -1 for no upper bound
+   */
+  public void setPositionRange(long firstPosition, long lastPosition) {
+    this.firstPosition = firstPosition;
+    this.lastPosition = lastPosition;
+  }
+
   @Override
   public long getCost() {
     return cost;
@@ -229,6 +254,8 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     OResultInternal result = OExecutionStepInternal.basicSerialize(this);
     result.setProperty("clusterId", clusterId);
     result.setProperty("order", order);
+    result.setProperty("firstPosition", firstPosition);
+    result.setProperty("lastPosition", lastPosition);
     return result;
   }
 
@@ -241,6 +268,10 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
       if (orderProp != null) {
         this.order = ORDER_ASC.equals(fromResult.getProperty("order")) ? ORDER_ASC : ORDER_DESC;
       }
+      Number firstPositionProp = fromResult.getProperty("firstPosition");
+      Number lastPositionProp = fromResult.getProperty("lastPosition");
+      this.firstPosition = firstPositionProp == null ? ORID.CLUSTER_POS_INVALID : firstPositionProp.longValue();
+      this.lastPosition = lastPositionProp == null ? ORID.CLUSTER_POS_INVALID : lastPositionProp.longValue();
     } catch (Exception e) {
       throw OException.wrapException(new OCommandExecutionException(""), e);
     }
@@ -255,6 +286,7 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
   public OExecutionStep copy(OCommandContext ctx) {
     FetchFromClusterExecutionStep result = new FetchFromClusterExecutionStep(this.clusterId,
         this.queryPlanning == null ? null : this.queryPlanning.copy(), ctx, profilingEnabled);
+    result.setPositionRange(firstPosition, lastPosition);
     return result;
   }
 }
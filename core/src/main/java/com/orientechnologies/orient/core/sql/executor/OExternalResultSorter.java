@@ -0,0 +1,135 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.Orient;
+
+import java.util.*;
+
+/**
+ * Sorts an arbitrary number of results keeping at most <code>maxInMemory</code> results on the heap.
+ * <p>
+ * Results are collected in memory until the limit is reached, then the buffer is sorted and written to a temporary file (a
+ * <i>run</i>, see {@link OResultSpillFile}) in {@link Orient#getTempPath()}. When all the results have been added, the runs are
+ * merged lazily while the results are fetched, keeping only one result per run in memory.
+ */
+public class OExternalResultSorter {
+  private final Comparator<OResult> comparator;
+  private final int                 maxInMemory;
+
+  private List<OResult>          buffer = new ArrayList<>();
+  private List<OResultSpillFile> runs   = new ArrayList<>();
+
+  private Iterator<OResult>  inMemoryIterator;
+  private PriorityQueue<Run> mergeQueue;
+
+  /**
+   * @param comparator  the comparator that defines the sort order
+   * @param maxInMemory maximum number of results to keep in memory before spilling a sorted run to disk, zero or negative means
+   *                    that results are never spilled
+   */
+  public OExternalResultSorter(Comparator<OResult> comparator, int maxInMemory) {
+    this.comparator = comparator;
+    this.maxInMemory = maxInMemory;
+  }
+
+  public void add(OResult item) {
+    if (buffer == null) {
+      throw new IllegalStateException("Results are already sorted");
+    }
+    buffer.add(item);
+    if (maxInMemory > 0 && buffer.size() >= maxInMemory) {
+      spill();
+    }
+  }
+
+  /**
+   * Ends the collection of the results and prepares the sorted iteration
+   */
+  public void sort() {
+    if (buffer == null) {
+      return;
+    }
+    if (runs.isEmpty()) {
+      buffer.sort(comparator);
+      inMemoryIterator = buffer.iterator();
+    } else {
+      if (!buffer.isEmpty()) {
+        spill();
+      }
+      mergeQueue = new PriorityQueue<>(runs.size(), (a, b) -> comparator.compare(a.current, b.current));
+      for (OResultSpillFile file : runs) {
+        file.openForRead();
+        Run run = new Run(file);
+        if (run.advance()) {
+          mergeQueue.add(run);
+        }
+      }
+    }
+    buffer = null;
+  }
+
+  public boolean hasNext() {
+    if (inMemoryIterator != null) {
+      return inMemoryIterator.hasNext();
+    }
+    return mergeQueue != null && !mergeQueue.isEmpty();
+  }
+
+  public OResult next() {
+    if (inMemoryIterator != null) {
+      return inMemoryIterator.next();
+    }
+    if (mergeQueue == null || mergeQueue.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    Run run = mergeQueue.poll();
+    OResult result = run.current;
+    if (run.advance()) {
+      mergeQueue.add(run);
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of sorted runs written to disk
+   */
+  public int getSpilledRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Releases the resources and deletes the temporary files
+   */
+  public void close() {
+    for (OResultSpillFile run : runs) {
+      run.delete();
+    }
+    runs.clear();
+    buffer = null;
+    mergeQueue = null;
+    inMemoryIterator = null;
+  }
+
+  private void spill() {
+    buffer.sort(comparator);
+    OResultSpillFile run = new OResultSpillFile("orderby_");
+    runs.add(run);
+    for (OResult item : buffer) {
+      run.write(item);
+    }
+    buffer = new ArrayList<>();
+  }
+
+  private static class Run {
+    private final OResultSpillFile file;
+    private       OResult          current;
+
+    Run(OResultSpillFile file) {
+      this.file = file;
+    }
+
+    boolean advance() {
+      current = file.hasNext() ? file.next() : null;
+      return current != null;
+    }
+  }
+}
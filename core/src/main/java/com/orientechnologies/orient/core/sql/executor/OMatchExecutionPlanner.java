@@ -110,7 +110,13 @@ public class OMatchExecutionPlanner {
       }
 
       if (this.orderBy != null) {
-        result.chain(new OrderByStep(orderBy, context, enableProfiling));
+        int skipSize = this.skip == null ? 0 : Math.max(0, skip.getValue(context));
+        int limitSize = this.limit == null ? -1 : limit.getValue(context);
+        if (this.unwind == null && limitSize >= 0) {
+          result.chain(new TopKOrderByStep(orderBy, skipSize + limitSize, context, enableProfiling));
+        } else {
+          result.chain(new OrderByStep(orderBy, context, enableProfiling));
+        }
       }
 
       if (this.unwind != null) {
@@ -0,0 +1,361 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.OMemoryBudgetManager;
+import com.orientechnologies.common.directmemory.OPointer;
+import com.orientechnologies.common.exception.ODirectMemoryAllocationFailedException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of RIDs that moves its content out of the heap when it becomes big.
+ * <p>
+ * RIDs are kept in an {@link ORidSet} until <code>offHeapThreshold</code> RIDs are added, then they are moved to an open addressing
+ * (linear probing) hash table allocated through the {@link ODirectMemoryAllocator}, where each RID takes a single <code>long</code>
+ * slot. The off-heap table never grows beyond <code>maxOffHeapMemory</code> bytes: when the limit is reached, further RIDs are kept
+ * on heap again, as they are when the {@link OMemoryBudgetManager} denies the memory for a new table. RIDs that cannot be encoded in a
+ * slot (cluster id or position too big) are kept on heap as well.
+ * <p>
+ * Off-heap memory is released by {@link #close()}, the set is empty after that but can still be used.
+ */
+public class OOffHeapRidSet extends AbstractSet<ORID> implements AutoCloseable {
+  private static final int    SLOT_SIZE        = 8;
+  private static final int    MIN_CAPACITY     = 1 << 12;
+  private static final int    MAX_CAPACITY     = 1 << 27;
+  private static final double MAX_LOAD_FACTOR  = 0.6;
+  private static final long   EMPTY            = 0;
+  private static final int    POSITION_BITS    = 48;
+  private static final long   MAX_POSITION     = (1L << POSITION_BITS) - 1;
+  private static final int    MAX_CLUSTER_ID   = (1 << (63 - POSITION_BITS)) - 2;
+
+  private final int  offHeapThreshold;
+  private final long maxOffHeapMemory;
+
+  private ORidSet heapSet = new ORidSet();
+
+  private OPointer   pointer;
+  private ByteBuffer table;
+  private int        capacity;
+  private int        tableSize;
+
+  private boolean offHeapLimitReached = false;
+
+  /**
+   * @param offHeapThreshold number of RIDs after which the content is moved off-heap, zero or negative to keep everything on heap
+   * @param maxOffHeapMemory maximum amount of off-heap memory, in bytes, used by this set
+   */
+  public OOffHeapRidSet(int offHeapThreshold, long maxOffHeapMemory) {
+    this.offHeapThreshold = offHeapThreshold;
+    this.maxOffHeapMemory = maxOffHeapMemory;
+  }
+
+  /**
+   * Creates a set configured with {@link OGlobalConfiguration#QUERY_RID_SET_OFF_HEAP_THRESHOLD} and {@link
+   * OGlobalConfiguration#QUERY_RID_SET_MAX_OFF_HEAP_MEMORY} of the database of the context.
+   */
+  public static OOffHeapRidSet create(OCommandContext ctx) {
+    ODatabase db = ctx == null ? null : ctx.getDatabase();
+    OContextConfiguration config = db == null ? new OContextConfiguration() : db.getConfiguration();
+    return new OOffHeapRidSet(config.getValueAsInteger(OGlobalConfiguration.QUERY_RID_SET_OFF_HEAP_THRESHOLD),
+        config.getValueAsLong(OGlobalConfiguration.QUERY_RID_SET_MAX_OFF_HEAP_MEMORY) * 1024 * 1024);
+  }
+
+  @Override
+  public int size() {
+    long size = (long) tableSize + heapSet.size();
+    return size <= Integer.MAX_VALUE ? (int) size : Integer.MAX_VALUE;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return tableSize == 0 && heapSet.isEmpty();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof ORID)) {
+      throw new IllegalArgumentException();
+    }
+    ORID rid = (ORID) o;
+    if (table != null) {
+      long key = encode(rid);
+      if (key != EMPTY && findSlot(key) >= 0) {
+        return true;
+      }
+    }
+    return heapSet.contains(rid);
+  }
+
+  @Override
+  public boolean add(ORID rid) {
+    if (rid == null) {
+      throw new IllegalArgumentException();
+    }
+    long key = encode(rid);
+    if (key != EMPTY) {
+      if (table == null && offHeapThreshold > 0 && !offHeapLimitReached && heapSet.size() >= offHeapThreshold) {
+        moveOffHeap();
+      }
+      if (table != null) {
+        if (findSlot(key) >= 0) {
+          return false;
+        }
+        if (!heapSet.contains(rid) && ensureCapacity(tableSize + 1)) {
+          insert(key);
+          return true;
+        }
+      }
+    }
+    return heapSet.add(rid);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!(o instanceof ORID)) {
+      throw new IllegalArgumentException();
+    }
+    ORID rid = (ORID) o;
+    if (table != null) {
+      long key = encode(rid);
+      if (key != EMPTY) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+          deleteSlot(slot);
+          return true;
+        }
+      }
+    }
+    if (heapSet.contains(rid)) {
+      heapSet.remove(rid);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<ORID> iterator() {
+    Iterator<ORID> heapIterator = heapSet.iterator();
+    return new Iterator<ORID>() {
+      int nextSlot = nextUsedSlot(0);
+
+      @Override
+      public boolean hasNext() {
+        return nextSlot >= 0 || heapIterator.hasNext();
+      }
+
+      @Override
+      public ORID next() {
+        if (nextSlot >= 0) {
+          ORID result = decode(table.getLong(nextSlot * SLOT_SIZE));
+          nextSlot = nextUsedSlot(nextSlot + 1);
+          return result;
+        }
+        if (heapIterator.hasNext()) {
+          return heapIterator.next();
+        }
+        throw new NoSuchElementException();
+      }
+    };
+  }
+
+  @Override
+  public void clear() {
+    releaseTable();
+    heapSet.clear();
+    offHeapLimitReached = false;
+  }
+
+  /**
+   * @return the amount of off-heap memory, in bytes, currently used by this set
+   */
+  public long getOffHeapMemoryUsage() {
+    return table == null ? 0 : (long) capacity * SLOT_SIZE;
+  }
+
+  /**
+   * Releases the off-heap memory, the set is empty after this call.
+   */
+  @Override
+  public void close() {
+    clear();
+  }
+
+  private void moveOffHeap() {
+    if (!allocate(capacityFor(heapSet.size() + 1))) {
+      return;
+    }
+    ORidSet oldHeapSet = heapSet;
+    heapSet = new ORidSet();
+    for (ORID rid : oldHeapSet) {
+      long key = encode(rid);
+      if (key != EMPTY && ensureCapacity(tableSize + 1)) {
+        insert(key);
+      } else {
+        heapSet.add(rid);
+      }
+    }
+  }
+
+  private boolean ensureCapacity(int size) {
+    if (size <= capacity * MAX_LOAD_FACTOR) {
+      return true;
+    }
+    if (offHeapLimitReached) {
+      return false;
+    }
+    ByteBuffer oldTable = table;
+    OPointer oldPointer = pointer;
+    int oldCapacity = capacity;
+    if (!allocate(capacityFor(size))) {
+      return false;
+    }
+    for (int i = 0; i < oldCapacity; i++) {
+      long key = oldTable.getLong(i * SLOT_SIZE);
+      if (key != EMPTY) {
+        insert(key);
+      }
+    }
+    ODirectMemoryAllocator.instance().deallocate(oldPointer);
+    OMemoryBudgetManager.instance().releaseQueryMemory((long) oldCapacity * SLOT_SIZE);
+    return true;
+  }
+
+  /**
+   * Allocates a new empty table, if allowed by the memory limit. The old table, if any, has to be released by the caller.
+   */
+  private boolean allocate(int newCapacity) {
+    if (newCapacity <= capacity || (long) newCapacity * SLOT_SIZE > maxOffHeapMemory) {
+      offHeapLimitReached = true;
+      return false;
+    }
+    final OMemoryBudgetManager memoryBudgetManager = OMemoryBudgetManager.instance();
+    if (!memoryBudgetManager.reserveQueryMemory((long) newCapacity * SLOT_SIZE)) {
+      offHeapLimitReached = true;
+      return false;
+    }
+    OPointer newPointer;
+    try {
+      newPointer = ODirectMemoryAllocator.instance().allocate(newCapacity * SLOT_SIZE);
+    } catch (ODirectMemoryAllocationFailedException e) {
+      memoryBudgetManager.releaseQueryMemory((long) newCapacity * SLOT_SIZE);
+      OLogManager.instance().warn(this, "Cannot allocate off-heap memory for a RID set, RIDs will be kept on heap", e);
+      offHeapLimitReached = true;
+      return false;
+    }
+    newPointer.clear();
+    pointer = newPointer;
+    table = newPointer.getNativeByteBuffer().order(ByteOrder.nativeOrder());
+    capacity = newCapacity;
+    tableSize = 0;
+    return true;
+  }
+
+  private void releaseTable() {
+    if (pointer != null) {
+      ODirectMemoryAllocator.instance().deallocate(pointer);
+      OMemoryBudgetManager.instance().releaseQueryMemory((long) capacity * SLOT_SIZE);
+    }
+    pointer = null;
+    table = null;
+    capacity = 0;
+    tableSize = 0;
+  }
+
+  private static int capacityFor(int size) {
+    int result = MIN_CAPACITY;
+    while (result < MAX_CAPACITY && size > result * MAX_LOAD_FACTOR) {
+      result <<= 1;
+    }
+    return result;
+  }
+
+  private void insert(long key) {
+    int slot = hash(key) & (capacity - 1);
+    while (table.getLong(slot * SLOT_SIZE) != EMPTY) {
+      slot = (slot + 1) & (capacity - 1);
+    }
+    table.putLong(slot * SLOT_SIZE, key);
+    tableSize++;
+  }
+
+  private int findSlot(long key) {
+    int slot = hash(key) & (capacity - 1);
+    while (true) {
+      long current = table.getLong(slot * SLOT_SIZE);
+      if (current == key) {
+        return slot;
+      }
+      if (current == EMPTY) {
+        return -1;
+      }
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  /**
+   * Removes the content of a slot shifting back the following entries of the same probe sequence, so that no tombstones are needed
+   */
+  private void deleteSlot(int slot) {
+    int mask = capacity - 1;
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (true) {
+      long key = table.getLong(next * SLOT_SIZE);
+      if (key == EMPTY) {
+        break;
+      }
+      int home = hash(key) & mask;
+      // MOVE THE ENTRY IF ITS HOME SLOT IS NOT BETWEEN THE HOLE (EXCLUSIVE) AND ITS CURRENT SLOT (INCLUSIVE)
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        table.putLong(hole * SLOT_SIZE, key);
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    table.putLong(hole * SLOT_SIZE, EMPTY);
+    tableSize--;
+  }
+
+  private int nextUsedSlot(int from) {
+    if (table == null) {
+      return -1;
+    }
+    for (int i = from; i < capacity; i++) {
+      if (table.getLong(i * SLOT_SIZE) != EMPTY) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static long encode(ORID rid) {
+    int cluster = rid.getClusterId();
+    long position = rid.getClusterPosition();
+    if (cluster < 0 || cluster > MAX_CLUSTER_ID || position < 0 || position > MAX_POSITION) {
+      return EMPTY;
+    }
+    return ((long) (cluster + 1) << POSITION_BITS) | position;
+  }
+
+  private static ORID decode(long key) {
+    return new ORecordId((int) (key >>> POSITION_BITS) - 1, key & MAX_POSITION);
+  }
+
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
@@ -0,0 +1,193 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
+
+import java.io.*;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Temporary file in {@link Orient#getTempPath()} used by query operators to move results out of the heap. Results are first
+ * written sequentially, then read back in the same order. Records are written with the binary record serializer together with
+ * their identity and version, projections with the result serializer.
+ */
+public class OResultSpillFile {
+  private static final byte PROJECTION = 0;
+  private static final byte RECORD     = 1;
+
+  private static final OResultSerializerNetwork RESULT_SERIALIZER = new OResultSerializerNetwork();
+
+  private final File             file;
+  private       DataOutputStream out;
+  private       DataInputStream  in;
+  private       long             size = 0;
+  private       long             read = 0;
+
+  public OResultSpillFile(String prefix) {
+    File dir = new File(Orient.getTempPath());
+    try {
+      dir.mkdirs();
+      file = File.createTempFile(prefix, ".tmp", dir);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot create temporary file in " + dir), e);
+    }
+  }
+
+  public void write(OResult item) {
+    if (out == null) {
+      throw new IllegalStateException("Temporary file " + file + " is not open for writing");
+    }
+    try {
+      writeResult(item, out);
+      size++;
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot write temporary file " + file), e);
+    }
+  }
+
+  /**
+   * Ends the writes and prepares the file to be read from the beginning
+   */
+  public void openForRead() {
+    try {
+      if (out != null) {
+        out.close();
+        out = null;
+      }
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot read temporary file " + file), e);
+    }
+  }
+
+  public boolean hasNext() {
+    return in != null && read < size;
+  }
+
+  public OResult next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      OResult result = readResult(in);
+      read++;
+      if (read == size) {
+        closeStreams();
+      }
+      return result;
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Cannot read temporary file " + file), e);
+    }
+  }
+
+  /**
+   * @return the number of results written in the file
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Closes the file and deletes it
+   */
+  public void delete() {
+    closeStreams();
+    if (!file.delete() && file.exists()) {
+      OLogManager.instance().warn(this, "Cannot delete temporary file %s", file);
+    }
+  }
+
+  private void closeStreams() {
+    try {
+      if (out != null) {
+        out.close();
+      }
+      if (in != null) {
+        in.close();
+      }
+    } catch (IOException e) {
+      OLogManager.instance().warn(this, "Cannot close temporary file %s", e, file);
+    } finally {
+      out = null;
+      in = null;
+    }
+  }
+
+  private static void writeResult(OResult item, DataOutputStream out) throws IOException {
+    Optional<ORecord> record = item.getRecord();
+    if (record.isPresent()) {
+      out.writeByte(RECORD);
+      ORecord rec = record.get();
+      ORID rid = rec.getIdentity();
+      out.writeByte(ORecordInternal.getRecordType(rec));
+      out.writeInt(rid.getClusterId());
+      out.writeLong(rid.getClusterPosition());
+      out.writeInt(rec.getVersion());
+      writeBytes(ORecordSerializerBinary.INSTANCE.toStream(rec, false), out);
+
+      OResultInternal metadata = new OResultInternal();
+      for (String key : item.getMetadataKeys()) {
+        metadata.setMetadata(key, item.getMetadata(key));
+      }
+      writeProjection(metadata, out);
+    } else {
+      out.writeByte(PROJECTION);
+      writeProjection(item, out);
+    }
+  }
+
+  private static void writeProjection(OResult item, DataOutputStream out) throws IOException {
+    BytesContainer bytes = new BytesContainer();
+    RESULT_SERIALIZER.serialize(item, bytes);
+    writeBytes(bytes.fitBytes(), out);
+  }
+
+  private static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static OResult readResult(DataInputStream in) throws IOException {
+    byte kind = in.readByte();
+    if (kind == PROJECTION) {
+      return RESULT_SERIALIZER.deserialize(new BytesContainer(readBytes(in)));
+    }
+    byte recordType = in.readByte();
+    int clusterId = in.readInt();
+    long clusterPosition = in.readLong();
+    int version = in.readInt();
+    byte[] content = readBytes(in);
+
+    ORecord record = Orient.instance().getRecordFactoryManager()
+        .newInstance(recordType, clusterId, ODatabaseRecordThreadLocal.instance().getIfDefined());
+    ORecordInternal.setIdentity(record, clusterId, clusterPosition);
+    ORecordInternal.setVersion(record, version);
+    ORecordSerializerBinary.INSTANCE.fromStream(content, record, null);
+    ORecordInternal.unsetDirty(record);
+
+    OResultInternal result = new OResultInternal();
+    result.setElement(record);
+    OResultInternal metadata = RESULT_SERIALIZER.deserialize(new BytesContainer(readBytes(in)));
+    for (String key : metadata.getMetadataKeys()) {
+      result.setMetadata(key, metadata.getMetadata(key));
+    }
+    return result;
+  }
+}
@@ -3,6 +3,7 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
@@ -102,11 +103,28 @@ public class OSelectExecutionPlanner {
 
     if (!enableProfiling && statement.executinPlanCanBeCached() && result.canBeCached()
         && OExecutionPlanCache.getLastInvalidation(db) < planningStart) {
-      OExecutionPlanCache.put(statement.getOriginalStatement(), result, (ODatabaseDocumentInternal) ctx.getDatabase());
+      OExecutionPlanCache.put(statement.getOriginalStatement(), result, calculatePlanDependencies(info),
+          (ODatabaseDocumentInternal) ctx.getDatabase());
     }
     return result;
   }
 
+  /**
+   * @return the names of the classes the plan depends on, or null if the plan has to be invalidated on any schema or index change
+   * (targets that are not classes, subqueries and LET blocks, that are extracted to LET blocks during planning)
+   */
+  private static Set<String> calculatePlanDependencies(QueryPlanningInfo info) {
+    if (info.globalLetClause != null || info.perRecordLetClause != null || info.target == null
+        || info.target.getItem() == null) {
+      return null;
+    }
+    OIdentifier identifier = info.target.getItem().getIdentifier();
+    if (identifier == null || identifier.getStringValue().startsWith("$")) {
+      return null;
+    }
+    return Collections.singleton(identifier.getStringValue().toLowerCase(Locale.ENGLISH));
+  }
+
   private void handleLockRecord(OSelectExecutionPlan result, QueryPlanningInfo info, OCommandContext ctx, boolean enableProfiling) {
     if (info.lockRecord != null) {
       result.chain(new LockRecordStep(info.lockRecord, ctx, enableProfiling));
@@ -1407,7 +1425,11 @@ public class OSelectExecutionPlanner {
       maxResults = null;
     }
     if (!info.orderApplied && info.orderBy != null && info.orderBy.getItems() != null && info.orderBy.getItems().size() > 0) {
-      plan.chain(new OrderByStep(info.orderBy, maxResults, ctx, profilingEnabled));
+      if (maxResults == null) {
+        plan.chain(new OrderByStep(info.orderBy, ctx, profilingEnabled));
+      } else {
+        plan.chain(new TopKOrderByStep(info.orderBy, maxResults, ctx, profilingEnabled));
+      }
       if (info.projectionAfterOrderBy != null) {
         plan.chain(new ProjectionCalculationStep(info.projectionAfterOrderBy, ctx, profilingEnabled));
       }
@@ -2321,13 +2343,17 @@ public class OSelectExecutionPlanner {
       if (clusterId == null) {
         throw new OCommandExecutionException("Cluster " + cluster + " does not exist");
       }
-      FetchFromClusterExecutionStep step = new FetchFromClusterExecutionStep(clusterId, ctx, profilingEnabled);
-      if (Boolean.TRUE.equals(orderByRidAsc)) {
-        step.setOrder(FetchFromClusterExecutionStep.ORDER_ASC);
-      } else if (Boolean.FALSE.equals(orderByRidAsc)) {
-        step.setOrder(FetchFromClusterExecutionStep.ORDER_DESC);
+      if (orderByRidAsc == null && db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS) > 1) {
+        plan.chain(new ParallelFetchFromClusterExecutionStep(clusterId, null, ctx, profilingEnabled));
+      } else {
+        FetchFromClusterExecutionStep step = new FetchFromClusterExecutionStep(clusterId, ctx, profilingEnabled);
+        if (Boolean.TRUE.equals(orderByRidAsc)) {
+          step.setOrder(FetchFromClusterExecutionStep.ORDER_ASC);
+        } else if (Boolean.FALSE.equals(orderByRidAsc)) {
+          step.setOrder(FetchFromClusterExecutionStep.ORDER_DESC);
+        }
+        plan.chain(step);
       }
-      plan.chain(step);
     } else {
       int[] clusterIds = new int[clusters.size()];
       for (int i = 0; i < clusters.size(); i++) {
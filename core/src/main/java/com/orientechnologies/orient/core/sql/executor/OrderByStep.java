@@ -2,98 +2,73 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
 
-import java.util.*;
-
 /**
+ * Sorts the upstream results.
+ * <p>
+ * If the upstream returns more than {@link OGlobalConfiguration#QUERY_ORDER_BY_MAX_IN_MEMORY} records (and no transaction is
+ * active) the sort is delegated to an {@link OExternalResultSorter}, that spills sorted runs to disk and merges them lazily while
+ * the results are fetched. When the number of results is bounded by SKIP/LIMIT, {@link TopKOrderByStep} is used instead.
+ * <p>
  * Created by luigidellaquila on 11/07/16.
  */
 public class OrderByStep extends AbstractExecutionStep {
   private final OOrderBy orderBy;
-  private       Integer  maxResults;
 
   private long cost = 0;
 
-  List<OResult> cachedResult = null;
-  int           nextElement  = 0;
+  private OExternalResultSorter sorter;
 
   public OrderByStep(OOrderBy orderBy, OCommandContext ctx, boolean profilingEnabled) {
-    this(orderBy, null, ctx, profilingEnabled);
-  }
-
-  public OrderByStep(OOrderBy orderBy, Integer maxResults, OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
     this.orderBy = orderBy;
-    this.maxResults = maxResults;
-    if (this.maxResults != null && this.maxResults < 0) {
-      this.maxResults = null;
-    }
   }
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
-    if (cachedResult == null) {
-      cachedResult = new ArrayList<>();
+    if (sorter == null) {
+      sorter = new OExternalResultSorter((a, b) -> orderBy.compare(a, b, ctx), getMaxInMemory(ctx));
       prev.ifPresent(p -> init(p, ctx));
-    }
-
-    return new OResultSet() {
-      int currentBatchReturned = 0;
-      int offset = nextElement;
-
-      @Override
-      public boolean hasNext() {
-        if (currentBatchReturned >= nRecords) {
-          return false;
-        }
-        if (cachedResult.size() <= nextElement) {
-          return false;
-        }
-        return true;
-      }
-
-      @Override
-      public OResult next() {
-        long begin = profilingEnabled ? System.nanoTime() : 0;
-        try {
-          if (currentBatchReturned >= nRecords) {
-            throw new IllegalStateException();
-          }
-          if (cachedResult.size() <= nextElement) {
-            throw new IllegalStateException();
-          }
-          OResult result = cachedResult.get(offset + currentBatchReturned);
-          nextElement++;
-          currentBatchReturned++;
-          return result;
-        } finally {
-          if (profilingEnabled) {
-            cost += (System.nanoTime() - begin);
-          }
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        sorter.sort();
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
         }
       }
+    }
 
-      @Override
-      public void close() {
-        prev.ifPresent(p -> p.close());
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      OInternalResultSet result = new OInternalResultSet();
+      for (int i = 0; i < nRecords && sorter.hasNext(); i++) {
+        result.add(sorter.next());
       }
-
-      @Override
-      public Optional<OExecutionPlan> getExecutionPlan() {
-        return Optional.empty();
+      return result;
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
       }
+    }
+  }
 
-      @Override
-      public Map<String, Long> getQueryStats() {
-        return new HashMap<>();
-      }
-    };
+  private int getMaxInMemory(OCommandContext ctx) {
+    ODatabase db = ctx.getDatabase();
+    if (db == null) {
+      return OGlobalConfiguration.QUERY_ORDER_BY_MAX_IN_MEMORY.getValueAsInteger();
+    }
+    if (db.getTransaction().isActive()) {
+      // RECORDS CREATED OR CHANGED IN TX CANNOT BE REPLACED BY A COPY
+      return 0;
+    }
+    return db.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_ORDER_BY_MAX_IN_MEMORY);
   }
 
   private void init(OExecutionStepInternal p, OCommandContext ctx) {
-
-    boolean sorted = true;
     do {
       OResultSet lastBatch = p.syncPull(ctx, 100);
       if (!lastBatch.hasNext()) {
@@ -106,14 +81,7 @@ public class OrderByStep extends AbstractExecutionStep {
         OResult item = lastBatch.next();
         long begin = profilingEnabled ? System.nanoTime() : 0;
         try {
-          cachedResult.add(item);
-          sorted = false;
-          //compact, only at twice as the buffer, to avoid to do it at each add
-          if (this.maxResults != null && maxResults * 2 < cachedResult.size()) {
-            cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-            cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-            sorted = true;
-          }
+          sorter.add(item);
         } finally {
           if (profilingEnabled) {
             cost += (System.nanoTime() - begin);
@@ -123,31 +91,15 @@ public class OrderByStep extends AbstractExecutionStep {
       if (timedOut) {
         break;
       }
-      long begin = profilingEnabled ? System.nanoTime() : 0;
-      try {
-        //compact at each batch, if needed
-        if (!sorted && this.maxResults != null && maxResults < cachedResult.size()) {
-          cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-          cachedResult = new ArrayList<>(cachedResult.subList(0, maxResults));
-          sorted = true;
-        }
-      } finally {
-        if (profilingEnabled) {
-          cost += (System.nanoTime() - begin);
-        }
-      }
     } while (true);
-    long begin = profilingEnabled ? System.nanoTime() : 0;
-    try {
-      if (!sorted) {
-        cachedResult.sort((a, b) -> orderBy.compare(a, b, ctx));
-      }
-    } finally {
-      if (profilingEnabled) {
-        cost += (System.nanoTime() - begin);
-      }
-    }
+  }
 
+  @Override
+  public void close() {
+    if (sorter != null) {
+      sorter.close();
+    }
+    super.close();
   }
 
   @Override
@@ -156,7 +108,6 @@ public class OrderByStep extends AbstractExecutionStep {
     if (profilingEnabled) {
       result += " (" + getCostFormatted() + ")";
     }
-    result += (maxResults != null ? "\n  (buffer size: " + maxResults + ")" : "");
     return result;
   }
 
@@ -1,22 +1,59 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.exception.OCommandInterruptedException;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
+ * Executes a list of sub-plans and returns the union of their results.
+ * <p>
+ * If {@link OGlobalConfiguration#QUERY_PARALLEL_SUB_PLANS} is greater than 1 the sub-plans are executed concurrently by a bounded
+ * number of jobs, each one with its own copy of the database, that push the results in a blocking queue (bounded by {@link
+ * OGlobalConfiguration#QUERY_PARALLEL_RESULT_QUEUE_SIZE}) drained by {@link #syncPull(OCommandContext, int)}. The copies of the
+ * database stay open till the step is closed, because the results still refer to them. Inside an active transaction, or if the
+ * sub-plans cannot be copied, the sub-plans are executed sequentially on the caller thread.
+ *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class ParallelExecStep extends AbstractExecutionStep {
+  private static final OResult END_OF_JOB = new OResultInternal();
+
   private final List<OInternalExecutionPlan> subExecutionPlans;
 
   int current = 0;
   private OResultSet currentResultSet = null;
 
+  private boolean                                  inited       = false;
+  private BlockingQueue<OResult>                   resultQueue;
+  private int                                      runningJobs;
+  private volatile boolean                         running;
+  private final AtomicReference<RuntimeException> jobException = new AtomicReference<>();
+  private List<ODatabaseDocumentInternal>          jobDatabases;
+  private CountDownLatch                           endedJobs;
+
   public ParallelExecStep(List<OInternalExecutionPlan> subExecuitonPlans, OCommandContext ctx, boolean profilingEnabled) {
     super(ctx, profilingEnabled);
     this.subExecutionPlans = subExecuitonPlans;
@@ -25,6 +62,13 @@ public class ParallelExecStep extends AbstractExecutionStep {
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (!inited) {
+      inited = true;
+      startJobs(ctx, nRecords);
+    }
+    if (resultQueue != null) {
+      return parallelPull(nRecords);
+    }
     return new OResultSet() {
       int localCount = 0;
 
@@ -87,6 +131,228 @@ public class ParallelExecStep extends AbstractExecutionStep {
     } while (!currentResultSet.hasNext());
   }
 
+  private void startJobs(OCommandContext ctx, int batchSize) {
+    ODatabase db = ctx.getDatabase();
+    if (!(db instanceof ODatabaseDocumentInternal) || subExecutionPlans.size() < 2) {
+      return;
+    }
+    ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) db;
+    int maxJobs = database.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS);
+    if (maxJobs < 2 || database.getTransaction().isActive() || !canBeCached()) {
+      return;
+    }
+    int nJobs = Math.min(maxJobs, subExecutionPlans.size());
+    int queueSize = Math.max(1, database.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE));
+
+    resultQueue = new ArrayBlockingQueue<>(queueSize);
+    runningJobs = nJobs;
+    running = true;
+    jobDatabases = new ArrayList<>(nJobs);
+    endedJobs = new CountDownLatch(nJobs);
+
+    AtomicInteger nextPlan = new AtomicInteger();
+    for (int i = 0; i < nJobs; i++) {
+      // THE COPY HAS TO BE CREATED ON THE CALLER THREAD, IT RE-ACTIVATES THE CURRENT DATABASE
+      ODatabaseDocumentInternal localDatabase = database.copy();
+      jobDatabases.add(localDatabase);
+      OBasicCommandContext jobContext = createJobContext(ctx, localDatabase);
+      Orient.instance().submit(() -> executeJob(localDatabase, jobContext, nextPlan, batchSize));
+    }
+  }
+
+  /**
+   * The caller context is not thread safe, so it cannot be the parent of the job contexts: each job gets a snapshot of the
+   * variables visible from the caller context instead.
+   */
+  private static OBasicCommandContext createJobContext(OCommandContext ctx, ODatabaseDocumentInternal localDatabase) {
+    Deque<OCommandContext> hierarchy = new ArrayDeque<>();
+    for (OCommandContext current = ctx; current != null; current = current.getParent()) {
+      hierarchy.push(current);
+    }
+
+    OBasicCommandContext jobContext = new OBasicCommandContext();
+    // FROM THE ROOT DOWN, SO THAT THE VARIABLES OF THE NEAREST CONTEXT WIN
+    for (OCommandContext current : hierarchy) {
+      for (Map.Entry<String, Object> variable : current.getVariables().entrySet()) {
+        jobContext.setVariable(variable.getKey(), variable.getValue());
+      }
+    }
+    jobContext.setInputParameters(ctx.getInputParameters());
+    jobContext.setRecordingMetrics(ctx.isRecordingMetrics());
+    jobContext.setDatabase(localDatabase);
+    return jobContext;
+  }
+
+  private void executeJob(ODatabaseDocumentInternal localDatabase, OCommandContext jobContext, AtomicInteger nextPlan,
+      int batchSize) {
+    try {
+      localDatabase.activateOnCurrentThread();
+
+      int planIndex;
+      while (running && (planIndex = nextPlan.getAndIncrement()) < subExecutionPlans.size()) {
+        OInternalExecutionPlan plan = subExecutionPlans.get(planIndex).copy(jobContext);
+        try {
+          executePlan(plan, batchSize);
+        } finally {
+          plan.close();
+        }
+      }
+    } catch (RuntimeException e) {
+      jobException.compareAndSet(null, e);
+      running = false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    } finally {
+      // THE DATABASE IS CLOSED BY close(), THE RESULTS CAN STILL LOAD THEIR CONTENT FROM IT
+      ODatabaseRecordThreadLocal.instance().remove();
+      try {
+        enqueue(END_OF_JOB, true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        endedJobs.countDown();
+      }
+    }
+  }
+
+  private void executePlan(OInternalExecutionPlan plan, int batchSize) throws InterruptedException {
+    while (running) {
+      OResultSet block = plan.fetchNext(batchSize);
+      if (!block.hasNext()) {
+        return;
+      }
+      while (block.hasNext()) {
+        if (!enqueue(block.next(), false)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * puts an item in the result queue, waiting for space to become available (backpressure) until the execution is stopped
+   *
+   * @param item    the item to enqueue
+   * @param endOfJob true if the item marks the end of a job
+   *
+   * @return true if the item was enqueued
+   */
+  private boolean enqueue(OResult item, boolean endOfJob) throws InterruptedException {
+    while (running || endOfJob) {
+      if (resultQueue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+      if (endOfJob && !running) {
+        // NOBODY IS WAITING FOR THE RESULTS ANYMORE
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private OResultSet parallelPull(int nRecords) {
+    OInternalResultSet result = new OInternalResultSet();
+    for (int i = 0; i < nRecords; i++) {
+      OResult item = takeNext();
+      if (item == null) {
+        break;
+      }
+      result.add(item);
+    }
+    return result;
+  }
+
+  private OResult takeNext() {
+    while (runningJobs > 0) {
+      checkJobException();
+      if (timedOut) {
+        return null;
+      }
+      OResult item;
+      try {
+        item = resultQueue.poll(100, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        running = false;
+        throw OException.wrapException(new OCommandInterruptedException("Parallel execution has been interrupted"), e);
+      }
+      if (item == END_OF_JOB) {
+        runningJobs--;
+      } else if (item != null) {
+        return item;
+      }
+    }
+    checkJobException();
+    return null;
+  }
+
+  private void checkJobException() {
+    RuntimeException e = jobException.get();
+    if (e != null) {
+      running = false;
+      if (e instanceof OException) {
+        throw e;
+      }
+      throw OException.wrapException(new OCommandExecutionException("Error on executing parallel sub-plans"), e);
+    }
+  }
+
+  @Override
+  public void sendTimeout() {
+    running = false;
+    for (OInternalExecutionPlan plan : subExecutionPlans) {
+      List<OExecutionStep> steps = plan.getSteps();
+      if (!steps.isEmpty()) {
+        // THE LAST STEP PROPAGATES THE TIMEOUT UPSTREAM
+        ((OExecutionStepInternal) steps.get(steps.size() - 1)).sendTimeout();
+      }
+    }
+    super.sendTimeout();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    if (resultQueue != null) {
+      resultQueue.clear();
+    }
+    closeJobDatabases();
+    super.close();
+  }
+
+  private void closeJobDatabases() {
+    if (jobDatabases == null) {
+      return;
+    }
+    try {
+      // THE JOBS STOP AT THE NEXT RESULT, NOW THAT running IS FALSE
+      endedJobs.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    ODatabaseDocumentInternal callerDatabase = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    try {
+      for (ODatabaseDocumentInternal localDatabase : jobDatabases) {
+        try {
+          localDatabase.activateOnCurrentThread();
+          localDatabase.close();
+        } catch (RuntimeException e) {
+          OLogManager.instance().error(this, "Error on closing database of parallel sub-plan execution", e);
+        }
+      }
+    } finally {
+      jobDatabases = null;
+      if (callerDatabase != null) {
+        callerDatabase.activateOnCurrentThread();
+      } else {
+        ODatabaseRecordThreadLocal.instance().remove();
+      }
+    }
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String result = "";
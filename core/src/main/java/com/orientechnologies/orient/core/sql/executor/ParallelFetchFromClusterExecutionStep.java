@@ -0,0 +1,138 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fetches all the records of a cluster, splitting its positions in ranges (see {@link com.orientechnologies.orient.core.storage.OStorage#getClusterDataSplits(int,
+ * int)}) that are fetched concurrently by a {@link ParallelExecStep}, one sub-plan per range.
+ * <p>
+ * The ranges are calculated when the step is executed for the first time, so that they fit the current size of the cluster even
+ * if the plan is cached. The cluster is fetched sequentially, as {@link FetchFromClusterExecutionStep} does, if {@link
+ * OGlobalConfiguration#QUERY_PARALLEL_SUB_PLANS} is less than 2, inside an active transaction or if the cluster has less than
+ * {@link OGlobalConfiguration#QUERY_PARALLEL_MINIMUM_RECORDS} records. The order of the results is not defined.
+ */
+public class ParallelFetchFromClusterExecutionStep extends AbstractExecutionStep {
+
+  private final QueryPlanningInfo queryPlanning;
+
+  private int clusterId;
+
+  private AbstractExecutionStep fetchStep;
+
+  public ParallelFetchFromClusterExecutionStep(int clusterId, QueryPlanningInfo queryPlanning, OCommandContext ctx,
+      boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    this.clusterId = clusterId;
+    this.queryPlanning = queryPlanning;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
+    if (fetchStep == null) {
+      fetchStep = createFetchStep(ctx);
+    }
+    return fetchStep.syncPull(ctx, nRecords);
+  }
+
+  private AbstractExecutionStep createFetchStep(OCommandContext ctx) {
+    long[][] splits = calculateSplits(ctx);
+    if (splits.length < 2) {
+      return new FetchFromClusterExecutionStep(clusterId, queryPlanning, ctx, profilingEnabled);
+    }
+    List<OInternalExecutionPlan> subPlans = new ArrayList<>();
+    for (long[] split : splits) {
+      FetchFromClusterExecutionStep step = new FetchFromClusterExecutionStep(clusterId,
+          queryPlanning == null ? null : queryPlanning.copy(), ctx, profilingEnabled);
+      step.setPositionRange(split[0], split[1]);
+      OSelectExecutionPlan subPlan = new OSelectExecutionPlan(ctx);
+      subPlan.chain(step);
+      subPlans.add(subPlan);
+    }
+    return new ParallelExecStep(subPlans, ctx, profilingEnabled);
+  }
+
+  private long[][] calculateSplits(OCommandContext ctx) {
+    ODatabase db = ctx.getDatabase();
+    if (!(db instanceof ODatabaseDocumentInternal)) {
+      return new long[0][];
+    }
+    ODatabaseDocumentInternal database = (ODatabaseDocumentInternal) db;
+    int maxSplits = database.getConfiguration().getValueAsInteger(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS);
+    if (maxSplits < 2 || database.getTransaction().isActive()) {
+      return new long[0][];
+    }
+    long minRecords = database.getConfiguration().getValueAsLong(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS);
+    if (database.countClusterElements(clusterId) < minRecords) {
+      return new long[0][];
+    }
+    return database.getStorage().getClusterDataSplits(clusterId, maxSplits);
+  }
+
+  @Override
+  public void sendTimeout() {
+    if (fetchStep != null) {
+      fetchStep.sendTimeout();
+    }
+    super.sendTimeout();
+  }
+
+  @Override
+  public void close() {
+    if (fetchStep != null) {
+      fetchStep.close();
+    }
+    super.close();
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String result = OExecutionStepInternal.getIndent(depth, indent) + "+ FETCH FROM CLUSTER " + clusterId + " IN PARALLEL";
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    return result;
+  }
+
+  @Override
+  public long getCost() {
+    return fetchStep == null ? 0 : fetchStep.getCost();
+  }
+
+  @Override
+  public OResult serialize() {
+    OResultInternal result = OExecutionStepInternal.basicSerialize(this);
+    result.setProperty("clusterId", clusterId);
+    return result;
+  }
+
+  @Override
+  public void deserialize(OResult fromResult) {
+    try {
+      OExecutionStepInternal.basicDeserialize(fromResult, this);
+      this.clusterId = fromResult.getProperty("clusterId");
+    } catch (Exception e) {
+      throw OException.wrapException(new OCommandExecutionException(""), e);
+    }
+  }
+
+  @Override
+  public boolean canBeCached() {
+    return true;
+  }
+
+  @Override
+  public OExecutionStep copy(OCommandContext ctx) {
+    return new ParallelFetchFromClusterExecutionStep(clusterId, queryPlanning == null ? null : queryPlanning.copy(), ctx,
+        profilingEnabled);
+  }
+}
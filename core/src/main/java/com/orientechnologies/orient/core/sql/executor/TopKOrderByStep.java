@@ -0,0 +1,132 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.sql.parser.OOrderBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the upstream results when only the first <code>maxResults</code> results are needed (ORDER BY ... SKIP/LIMIT).
+ * <p>
+ * The best results are kept in a bounded heap whose head is the worst result retained so far, so every upstream result is
+ * compared once with the head and discarded immediately if it cannot be part of the first <code>maxResults</code>. Ties are
+ * broken by arrival order, so the output is the same of a stable sort of the whole upstream.
+ */
+public class TopKOrderByStep extends AbstractExecutionStep {
+  private final OOrderBy orderBy;
+  private final int      maxResults;
+
+  private long cost = 0;
+
+  private List<OResult> sortedResult = null;
+  private int           nextElement  = 0;
+
+  public TopKOrderByStep(OOrderBy orderBy, int maxResults, OCommandContext ctx, boolean profilingEnabled) {
+    super(ctx, profilingEnabled);
+    if (maxResults < 0) {
+      throw new IllegalArgumentException("Invalid number of results: " + maxResults);
+    }
+    this.orderBy = orderBy;
+    this.maxResults = maxResults;
+  }
+
+  @Override
+  public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    if (sortedResult == null) {
+      sortedResult = new ArrayList<>();
+      prev.ifPresent(p -> init(p, ctx));
+    }
+
+    OInternalResultSet result = new OInternalResultSet();
+    for (int i = 0; i < nRecords && nextElement < sortedResult.size(); i++) {
+      result.add(sortedResult.get(nextElement));
+      // RELEASE THE RESULT AS SOON AS IT'S RETURNED
+      sortedResult.set(nextElement++, null);
+    }
+    return result;
+  }
+
+  private void init(OExecutionStepInternal p, OCommandContext ctx) {
+    Comparator<HeapEntry> comparator = (a, b) -> {
+      int cmp = orderBy.compare(a.result, b.result, ctx);
+      return cmp != 0 ? cmp : Long.compare(a.sequence, b.sequence);
+    };
+    // THE HEAD OF THE HEAP IS THE WORST RESULT
+    PriorityQueue<HeapEntry> heap = new PriorityQueue<>(Math.max(1, Math.min(maxResults, 1024)), comparator.reversed());
+    long sequence = 0;
+    do {
+      OResultSet lastBatch = p.syncPull(ctx, 100);
+      if (!lastBatch.hasNext()) {
+        break;
+      }
+      while (lastBatch.hasNext()) {
+        if (this.timedOut) {
+          break;
+        }
+        OResult item = lastBatch.next();
+        long begin = profilingEnabled ? System.nanoTime() : 0;
+        try {
+          if (heap.size() < maxResults) {
+            heap.add(new HeapEntry(item, sequence++));
+          } else if (maxResults > 0 && orderBy.compare(item, heap.peek().result, ctx) < 0) {
+            HeapEntry worst = heap.poll();
+            worst.result = item;
+            worst.sequence = sequence++;
+            heap.add(worst);
+          }
+        } finally {
+          if (profilingEnabled) {
+            cost += (System.nanoTime() - begin);
+          }
+        }
+      }
+      if (timedOut) {
+        break;
+      }
+    } while (true);
+
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      HeapEntry[] entries = new HeapEntry[heap.size()];
+      for (int i = entries.length - 1; i >= 0; i--) {
+        entries[i] = heap.poll();
+      }
+      for (HeapEntry entry : entries) {
+        sortedResult.add(entry.result);
+      }
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String result = OExecutionStepInternal.getIndent(depth, indent) + "+ " + orderBy;
+    if (profilingEnabled) {
+      result += " (" + getCostFormatted() + ")";
+    }
+    result += "\n" + OExecutionStepInternal.getIndent(depth, indent) + "  (top " + maxResults + ")";
+    return result;
+  }
+
+  @Override
+  public long getCost() {
+    return cost;
+  }
+
+  private static class HeapEntry {
+    private OResult result;
+    private long    sequence;
+
+    HeapEntry(OResult result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
+}
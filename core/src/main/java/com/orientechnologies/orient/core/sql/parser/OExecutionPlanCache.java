@@ -1,41 +1,61 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.config.OStorageClusterConfiguration;
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.config.OStorageEntryConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.db.OSharedContext;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
 import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * This class is an LRU cache for already prepared SQL execution plans. It stores itself in the storage as a resource. It also acts
  * an an entry point for the SQL executor.
+ * <p>
+ * The cache can be read and updated concurrently without a global lock. Plans can declare the classes they depend on: when the
+ * schema or the indexes change, only the plans that depend on the changed classes (or on their subclasses) are removed, while
+ * plans without declared dependencies are removed on any change.
  *
  * @author Luigi Dell'Aquila (l.dellaquila-(at)-orientdb.com)
  */
 public class OExecutionPlanCache implements OMetadataUpdateListener {
 
-  Map<String, OInternalExecutionPlan> map;
-  int                                 mapSize;
+  ConcurrentLinkedHashMap<String, CachedPlan> map;
+  int                                         mapSize;
 
-  protected long lastInvalidation = -1;
+  protected volatile long lastInvalidation = -1;
+
+  /**
+   * Signatures of the classes and of their indexes at the last metadata update, used to detect which classes changed. Accessed only
+   * under instance lock, but always calculated outside of it: metadata listeners are called under the schema lock.
+   */
+  private Map<String, ClassSignature> classSignatures;
+  private Map<String, String>         indexSignatures;
+
+  /**
+   * Signature of the storage configuration without its index engines, which are tracked by {@link #indexSignatures}.
+   */
+  private String storageSignature;
 
   /**
    * @param size the size of the cache
    */
   public OExecutionPlanCache(int size) {
     this.mapSize = size;
-    map = new LinkedHashMap<String, OInternalExecutionPlan>(size) {
-      protected boolean removeEldestEntry(final Map.Entry<String, OInternalExecutionPlan> eldest) {
-        return super.size() > mapSize;
-      }
-    };
+    map = new ConcurrentLinkedHashMap.Builder<String, CachedPlan>().maximumWeightedCapacity(size).build();
   }
 
   public static long getLastInvalidation(ODatabaseDocumentInternal db) {
@@ -44,9 +64,7 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     }
 
     OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
-    synchronized (resource) {
-      return resource.lastInvalidation;
-    }
+    return resource.lastInvalidation;
   }
 
   /**
@@ -55,9 +73,7 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
    * @return true if the corresponding executor is present in the cache
    */
   public boolean contains(String statement) {
-    synchronized (map) {
-      return map.containsKey(statement);
-    }
+    return map.containsKey(statement);
   }
 
   /**
@@ -79,22 +95,35 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     return result;
   }
 
-
   public static void put(String statement, OExecutionPlan plan, ODatabaseDocumentInternal db) {
+    put(statement, plan, null, db);
+  }
+
+  /**
+   * @param dependencies names of the classes the plan depends on, in lower case, or null if the plan has to be invalidated on any
+   *                     schema or index change
+   */
+  public static void put(String statement, OExecutionPlan plan, Set<String> dependencies, ODatabaseDocumentInternal db) {
     if (db == null) {
       throw new IllegalArgumentException("DB cannot be null");
     }
 
-    OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
-    resource.putInternal(statement, plan);
+    OSharedContext sharedContext = db.getSharedContext();
+    OExecutionPlanCache resource = sharedContext.getExecutionPlanCache();
+    if (dependencies != null) {
+      resource.initSignatures(sharedContext, db.getStorage().getConfiguration());
+    }
+    resource.putInternal(statement, plan, dependencies);
   }
 
   public void putInternal(String statement, OExecutionPlan plan) {
-    synchronized (map) {
-      OInternalExecutionPlan internal = (OInternalExecutionPlan) plan;
-      internal = internal.copy(null);
-      map.put(statement, internal);
-    }
+    putInternal(statement, plan, null);
+  }
+
+  public void putInternal(String statement, OExecutionPlan plan, Set<String> dependencies) {
+    OInternalExecutionPlan internal = (OInternalExecutionPlan) plan;
+    internal = internal.copy(null);
+    map.put(statement, new CachedPlan(internal, dependencies));
   }
 
   /**
@@ -104,36 +133,111 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
    * @return the corresponding executor, taking it from the internal cache, if it exists
    */
   public OExecutionPlan getInternal(String statement, OCommandContext ctx, ODatabaseDocumentInternal db) {
-    OInternalExecutionPlan result;
-    synchronized (map) {
-      //LRU
-      result = map.remove(statement);
-      if (result != null) {
-        map.put(statement, result);
-        result = result.copy(ctx);
-      }
+    CachedPlan cached = map.get(statement);
+    if (cached == null) {
+      return null;
     }
 
-    return result;
+    // THE CACHED PLAN IS NEVER EXECUTED, EACH EXECUTION WORKS ON ITS OWN COPY
+    return cached.plan.copy(ctx);
   }
 
   public void invalidate() {
+    map.clear();
+    lastInvalidation = System.currentTimeMillis();
+  }
+
+  /**
+   * Removes the plans that depend on the passed classes or that have no declared dependencies.
+   *
+   * @param classNames names of the changed classes, in lower case
+   */
+  public void invalidate(Set<String> classNames) {
+    if (!classNames.isEmpty()) {
+      for (Map.Entry<String, CachedPlan> entry : map.entrySet()) {
+        if (entry.getValue().dependsOnAny(classNames)) {
+          map.remove(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    lastInvalidation = System.currentTimeMillis();
+  }
+
+  /**
+   * Takes the first snapshot of the metadata, so that the first change after the database is opened is already detected
+   * selectively.
+   */
+  private void initSignatures(OSharedContext sharedContext, OStorageConfiguration storageConfiguration) {
     synchronized (this) {
-      synchronized (map) {
-        map.clear();
+      if (classSignatures != null && indexSignatures != null && storageSignature != null) {
+        return;
+      }
+    }
+
+    final Map<String, ClassSignature> currentClassSignatures =
+        sharedContext.getSchema() == null ? null : calculateClassSignatures(sharedContext.getSchema());
+    final Map<String, String> currentIndexSignatures =
+        sharedContext.getIndexManager() == null ? null : calculateIndexSignatures(sharedContext.getIndexManager());
+    final String currentStorageSignature =
+        storageConfiguration == null ? null : calculateStorageSignature(storageConfiguration);
+
+    synchronized (this) {
+      if (classSignatures == null) {
+        classSignatures = currentClassSignatures;
+      }
+      if (indexSignatures == null) {
+        indexSignatures = currentIndexSignatures;
+      }
+      if (storageSignature == null) {
+        storageSignature = currentStorageSignature;
       }
-      lastInvalidation = System.currentTimeMillis();
     }
   }
 
   @Override
   public void onSchemaUpdate(String database, OSchemaShared schema) {
-    invalidate();
+    final Map<String, ClassSignature> current = calculateClassSignatures(schema);
+    final Set<String> changed;
+    synchronized (this) {
+      final Map<String, ClassSignature> previous = classSignatures;
+      classSignatures = current;
+      changed = previous == null ? null : changedClasses(previous, classSignatures);
+    }
+
+    if (changed == null) {
+      invalidate();
+    } else {
+      invalidate(changed);
+    }
   }
 
   @Override
   public void onIndexManagerUpdate(String database, OIndexManager indexManager) {
-    invalidate();
+    final Map<String, String> current =
+        indexManager instanceof OIndexManagerAbstract ? calculateIndexSignatures((OIndexManagerAbstract) indexManager) : null;
+    final Set<String> changed;
+    synchronized (this) {
+      final Map<String, String> previous = indexSignatures;
+      indexSignatures = current;
+      if (previous == null || classSignatures == null) {
+        changed = null;
+      } else {
+        changed = new HashSet<>();
+        final Set<String> classNames = new HashSet<>(previous.keySet());
+        classNames.addAll(indexSignatures.keySet());
+        for (String className : classNames) {
+          if (!Objects.equals(previous.get(className), indexSignatures.get(className))) {
+            addWithSuperClasses(className, classSignatures, changed);
+          }
+        }
+      }
+    }
+
+    if (changed == null) {
+      invalidate();
+    } else {
+      invalidate(changed);
+    }
   }
 
   @Override
@@ -146,9 +250,22 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     invalidate();
   }
 
+  /**
+   * Index engines are registered in the storage configuration when indexes are created or dropped, such changes are handled
+   * selectively by {@link #onIndexManagerUpdate(String, OIndexManager)}. Any other change invalidates all the plans.
+   */
   @Override
   public void onStorageConfigurationUpdate(String database, OStorageConfiguration update) {
-    invalidate();
+    final String current = calculateStorageSignature(update);
+    final boolean changed;
+    synchronized (this) {
+      changed = storageSignature == null || !storageSignature.equals(current);
+      storageSignature = current;
+    }
+
+    if (changed) {
+      invalidate();
+    }
   }
 
   public static OExecutionPlanCache instance(ODatabaseDocumentTx db) {
@@ -159,4 +276,133 @@ public class OExecutionPlanCache implements OMetadataUpdateListener {
     OExecutionPlanCache resource = db.getSharedContext().getExecutionPlanCache();
     return resource;
   }
+
+  private static Set<String> changedClasses(Map<String, ClassSignature> previous, Map<String, ClassSignature> current) {
+    final Set<String> changed = new HashSet<>();
+    final Set<String> classNames = new HashSet<>(previous.keySet());
+    classNames.addAll(current.keySet());
+    for (String className : classNames) {
+      final ClassSignature previousSignature = previous.get(className);
+      final ClassSignature currentSignature = current.get(className);
+      if (previousSignature == null || currentSignature == null || !previousSignature.signature
+          .equals(currentSignature.signature)) {
+        // SUPERCLASSES ARE TAKEN FROM BOTH VERSIONS, POLYMORPHIC PLANS OF THE OLD AND OF THE NEW ONES ARE AFFECTED
+        addWithSuperClasses(className, previous, changed);
+        addWithSuperClasses(className, current, changed);
+      }
+    }
+    return changed;
+  }
+
+  private static void addWithSuperClasses(String className, Map<String, ClassSignature> signatures, Set<String> result) {
+    result.add(className);
+    final ClassSignature signature = signatures.get(className);
+    if (signature != null) {
+      result.addAll(signature.superClasses);
+    }
+  }
+
+  /**
+   * @return signatures by lower case class name
+   */
+  private static Map<String, ClassSignature> calculateClassSignatures(OSchemaShared schema) {
+    final Map<String, ClassSignature> result = new HashMap<>();
+    for (OClass clazz : schema.getClassesWithoutSecurityCheck()) {
+      final StringBuilder builder = new StringBuilder();
+      builder.append(clazz.getName()).append(clazz.getSuperClassesNames()).append(clazz.isAbstract())
+          .append(clazz.isStrictMode()).append(Arrays.toString(clazz.getPolymorphicClusterIds()));
+
+      final List<OProperty> properties = new ArrayList<>(clazz.declaredProperties());
+      properties.sort(Comparator.comparing(OProperty::getName));
+      for (OProperty property : properties) {
+        builder.append(',').append(property.getName()).append(':').append(property.getType()).append(':')
+            .append(property.getLinkedType()).append(':')
+            .append(property.getLinkedClass() == null ? null : property.getLinkedClass().getName()).append(':')
+            .append(property.getCollate() == null ? null : property.getCollate().getName());
+      }
+
+      final Set<String> superClasses = new HashSet<>();
+      for (OClass superClass : clazz.getAllSuperClasses()) {
+        superClasses.add(superClass.getName().toLowerCase(Locale.ENGLISH));
+      }
+
+      result.put(clazz.getName().toLowerCase(Locale.ENGLISH), new ClassSignature(builder.toString(), superClasses));
+    }
+    return result;
+  }
+
+  /**
+   * @return signatures of the indexes of each class by lower case class name
+   */
+  private static Map<String, String> calculateIndexSignatures(OIndexManagerAbstract indexManager) {
+    final Map<String, SortedSet<String>> indexesByClass = new HashMap<>();
+    for (OIndex<?> index : indexManager.getIndexesWithoutSecurityCheck()) {
+      final OIndexDefinition definition = index.getDefinition();
+      final String className = definition == null || definition.getClassName() == null ?
+          "" :
+          definition.getClassName().toLowerCase(Locale.ENGLISH);
+      indexesByClass.computeIfAbsent(className, k -> new TreeSet<>())
+          .add(index.getName() + ':' + index.getType() + ':' + (definition == null ? null : definition.getFields()));
+    }
+
+    final Map<String, String> result = new HashMap<>();
+    for (Map.Entry<String, SortedSet<String>> entry : indexesByClass.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().toString());
+    }
+    return result;
+  }
+
+  /**
+   * @return signature of the storage configuration, index engines excluded
+   */
+  private static String calculateStorageSignature(OStorageConfiguration configuration) {
+    final StringBuilder builder = new StringBuilder();
+    for (OStorageClusterConfiguration cluster : configuration.getClusters()) {
+      if (cluster != null) {
+        builder.append(cluster.getId()).append(':').append(cluster.getName()).append(',');
+      }
+    }
+    builder.append(configuration.getDateFormat()).append(',').append(configuration.getDateTimeFormat()).append(',')
+        .append(configuration.getTimeZone() == null ? null : configuration.getTimeZone().getID()).append(',')
+        .append(configuration.getLocaleCountry()).append(',').append(configuration.getLocaleLanguage()).append(',')
+        .append(configuration.getCharset()).append(',').append(configuration.isStrictSql()).append(',')
+        .append(configuration.getClusterSelection()).append(',').append(configuration.getConflictStrategy()).append(',')
+        .append(configuration.isValidationEnabled());
+    for (OStorageEntryConfiguration property : configuration.getProperties()) {
+      builder.append(',').append(property.name).append('=').append(property.value);
+    }
+    return builder.toString();
+  }
+
+  private static final class CachedPlan {
+    private final OInternalExecutionPlan plan;
+    private final Set<String>            dependencies;
+
+    private CachedPlan(OInternalExecutionPlan plan, Set<String> dependencies) {
+      this.plan = plan;
+      this.dependencies = dependencies;
+    }
+
+    private boolean dependsOnAny(Set<String> classNames) {
+      if (dependencies == null) {
+        return true;
+      }
+      for (String dependency : dependencies) {
+        if (classNames.contains(dependency)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class ClassSignature {
+    private final String      signature;
+    private final Set<String> superClasses;
+
+    private ClassSignature(String signature, Set<String> superClasses) {
+      this.signature = signature;
+      this.superClasses = superClasses;
+    }
+  }
 }
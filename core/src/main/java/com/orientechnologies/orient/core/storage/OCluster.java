@@ -114,6 +114,19 @@ public interface OCluster {
 
   long getNextPosition() throws IOException;
 
+  /**
+   * Splits the positions of the cluster in at most <code>maxSplits</code> contiguous ranges of similar size, that can be browsed
+   * independently, for example by different threads. Every range is an array of two inclusive bounds <code>{first, last}</code>,
+   * where {@link com.orientechnologies.orient.core.id.ORID#CLUSTER_POS_INVALID} means no bound: the first range has no lower
+   * bound and the last one has no upper bound, so the ranges cover all the positions of the cluster, even the ones allocated
+   * after the call.
+   *
+   * @param maxSplits the maximum number of ranges to return
+   *
+   * @return the ranges, at least one
+   */
+  long[][] getPositionSplits(int maxSplits) throws IOException;
+
   String getFileName();
 
   int getId();
@@ -195,6 +195,15 @@ public interface OStorage extends OBackupable, OSharedContainer {
    */
   long[] getClusterDataRange(int currentClusterId);
 
+  /**
+   * Splits the positions of the requested cluster in at most <code>maxSplits</code> contiguous ranges that can be browsed by
+   * independent threads. See {@link OCluster#getPositionSplits(int)}.
+   *
+   * @param clusterId Cluster id
+   * @param maxSplits Maximum number of ranges
+   */
+  long[][] getClusterDataSplits(int clusterId, int maxSplits);
+
   <V> V callInLock(Callable<V> iCallable, boolean iExclusiveLock);
 
   OPhysicalPosition[] higherPhysicalPositions(int clusterId, OPhysicalPosition physicalPosition);
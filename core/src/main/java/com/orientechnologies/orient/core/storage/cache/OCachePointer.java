@@ -53,6 +53,13 @@ public class OCachePointer {
   private final long fileId;
   private final long pageIndex;
 
+  /**
+   * @param buffer     Content of the page.
+   * @param bufferPool Pool to which buffer is returned once pointer is not used any more, or <code>null</code> if buffer is not
+   *                   acquired from the pool, like views of memory mapped files.
+   * @param fileId     Id of the file which contains the page.
+   * @param pageIndex  Index of the page inside of the file.
+   */
   public OCachePointer(final ByteBuffer buffer, final OByteBufferPool bufferPool, final long fileId, final long pageIndex) {
     this.buffer = buffer;
     this.bufferPool = bufferPool;
@@ -178,7 +185,7 @@ public class OCachePointer {
 
   public void decrementReferrer() {
     final int rf = referrersCount.decrementAndGet();
-    if (rf == 0 && buffer != null) {
+    if (rf == 0 && buffer != null && bufferPool != null) {
       bufferPool.release(buffer);
     }
 
@@ -249,10 +256,10 @@ public class OCachePointer {
       OLogManager.instance().error(this, "OCachePointer.finalize: writers != 0", null);
     }
 
-    if (needInfo && buffer != null)
+    if (needInfo && buffer != null && bufferPool != null)
       bufferPool.logTrackedBufferInfo("finalizing", buffer);
 
-    if (referrersCount.get() > 0 && buffer != null) {
+    if (referrersCount.get() > 0 && buffer != null && bufferPool != null) {
       if (!needInfo) // not logged yet
         bufferPool.logTrackedBufferInfo("finalizing", buffer);
       bufferPool.release(buffer);
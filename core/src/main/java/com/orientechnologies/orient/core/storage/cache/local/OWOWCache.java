@@ -26,6 +26,8 @@ import com.orientechnologies.common.concur.lock.OLockManager;
 import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
 import com.orientechnologies.common.concur.lock.OReadersWriterSpinLock;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.directmemory.OMemoryBudgetManager;
+import com.orientechnologies.common.directmemory.OMemoryPool;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
@@ -35,6 +37,7 @@ import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.thread.OScheduledThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableBoolean;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.common.util.OTriple;
 import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
@@ -105,7 +108,7 @@ import java.util.zip.CRC32;
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
  * @since 7/23/13
  */
-public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCachePointer.WritersListener {
+public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCachePointer.WritersListener, OMemoryPool {
   /**
    * If distance between last WAL log record and WAL record changes of which are for sure present in data files bigger than this
    * value we switch flush mode to {@link FLUSH_MODE#LSN} if current mode is {@link FLUSH_MODE#IDLE}
@@ -378,9 +381,20 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
   private FileChannel nameIdMapHolder;
 
   /**
-   * Maximum amount of exclusive pages which is allowed to be hold by write cache
+   * Maximum amount of exclusive pages which is allowed to be hold by write cache, it may be lowered by {@link OMemoryBudgetManager}
+   * down to a quarter of {@link #configuredExclusiveWriteCacheMaxSize}
    */
-  private final int exclusiveWriteCacheMaxSize;
+  private volatile int exclusiveWriteCacheMaxSize;
+
+  /**
+   * Maximum amount of exclusive pages which was set for write cache on creation
+   */
+  private final int configuredExclusiveWriteCacheMaxSize;
+
+  /**
+   * Guards changes of {@link #exclusiveWriteCacheMaxSize} done by {@link OMemoryBudgetManager}
+   */
+  private final Object memoryLimitLock = new Object();
 
   /**
    * Value of next internal id to be set when file is added. If storage is loaded from disk this value equals to maximum absolute
@@ -407,6 +421,21 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   private volatile OChecksumMode checksumMode;
 
+  /**
+   * If <code>true</code> flush of all pages of the file writes pages in batches, see {@link OFileClassic#write(List)}.
+   *
+   * @see OGlobalConfiguration#DISK_CACHE_BATCHED_FILE_FLUSH
+   */
+  private final boolean batchedFileFlush;
+
+  /**
+   * If <code>true</code> pages are not copied from the files but are read-only views of the files mapped in memory, see {@link
+   * OFileClassic#map(long, int)}. Could be used only if files are not modified.
+   *
+   * @see OGlobalConfiguration#STORAGE_MAPPED_READ_ONLY
+   */
+  private final boolean mappedReadOnly;
+
   /**
    * Current mode of data flush in {@link PeriodicFlushTask}.
    */
@@ -426,6 +455,17 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
   public OWOWCache(int pageSize, OByteBufferPool bufferPool, OWriteAheadLog writeAheadLog, long pageFlushInterval,
       long exclusiveWriteCacheMaxSize, OLocalPaginatedStorage storageLocal, boolean checkMinSize,
       OClosableLinkedContainer<Long, OFileClassic> files, int id, OChecksumMode checksumMode) {
+    this(pageSize, bufferPool, writeAheadLog, pageFlushInterval, exclusiveWriteCacheMaxSize, storageLocal, checkMinSize, files, id,
+        checksumMode, OGlobalConfiguration.DISK_CACHE_BATCHED_FILE_FLUSH.getValueAsBoolean(), false);
+  }
+
+  public OWOWCache(int pageSize, OByteBufferPool bufferPool, OWriteAheadLog writeAheadLog, long pageFlushInterval,
+      long exclusiveWriteCacheMaxSize, OLocalPaginatedStorage storageLocal, boolean checkMinSize,
+      OClosableLinkedContainer<Long, OFileClassic> files, int id, OChecksumMode checksumMode, boolean batchedFileFlush,
+      boolean mappedReadOnly) {
+    this.batchedFileFlush = batchedFileFlush;
+    this.mappedReadOnly = mappedReadOnly;
+
     filesLock.acquireWriteLock();
     try {
       this.id = id;
@@ -442,6 +482,7 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
         exclusiveWriteNormalizedSize = MIN_CACHE_SIZE;
 
       this.exclusiveWriteCacheMaxSize = exclusiveWriteNormalizedSize;
+      this.configuredExclusiveWriteCacheMaxSize = exclusiveWriteNormalizedSize;
 
       this.storageLocal = storageLocal;
 
@@ -469,6 +510,8 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     } finally {
       filesLock.releaseWriteLock();
     }
+
+    OMemoryBudgetManager.instance().registerPool(this);
   }
 
   /**
@@ -1378,6 +1421,8 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   @Override
   public long[] close() throws IOException {
+    OMemoryBudgetManager.instance().unregisterPool(this);
+
     flush();
 
     if (!commitExecutor.isShutdown()) {
@@ -1591,6 +1636,8 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   @Override
   public long[] delete() throws IOException {
+    OMemoryBudgetManager.instance().unregisterPool(this);
+
     final List<Long> result = new ArrayList<>();
     filesLock.acquireWriteLock();
     try {
@@ -1673,6 +1720,62 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     return exclusiveWriteCacheSize.get();
   }
 
+  @Override
+  public String getName() {
+    return "write cache of " + storageLocal.getName();
+  }
+
+  @Override
+  public long getUsedMemory() {
+    return exclusiveWriteCacheSize.get() * pageSize;
+  }
+
+  @Override
+  public long getMemoryLimit() {
+    return ((long) exclusiveWriteCacheMaxSize) * pageSize;
+  }
+
+  /**
+   * Lowers limit of exclusive pages and starts their flush at once if the new limit is exceeded, so writers are not blocked for long
+   * when they exceed the new limit.
+   */
+  @Override
+  public long shrink(long amount) {
+    synchronized (memoryLimitLock) {
+      final int minSize = Math
+          .min(configuredExclusiveWriteCacheMaxSize, Math.max(configuredExclusiveWriteCacheMaxSize / 4, MIN_CACHE_SIZE));
+      final int newSize = (int) Math.max(minSize, exclusiveWriteCacheMaxSize - amount / pageSize);
+      if (newSize >= exclusiveWriteCacheMaxSize)
+        return 0;
+
+      final long released = ((long) (exclusiveWriteCacheMaxSize - newSize)) * pageSize;
+      exclusiveWriteCacheMaxSize = newSize;
+
+      if (((double) exclusiveWriteCacheSize.get()) / newSize > EXCLUSIVE_PAGES_BOUNDARY && !commitExecutor.isShutdown()) {
+        try {
+          commitExecutor.submit(new PeriodicFlushTask());
+        } catch (RejectedExecutionException e) {
+          //cache is closed, pages are flushed anyway
+        }
+      }
+
+      return released;
+    }
+  }
+
+  @Override
+  public long grow(long amount) {
+    synchronized (memoryLimitLock) {
+      final int newSize = (int) Math.min(configuredExclusiveWriteCacheMaxSize, exclusiveWriteCacheMaxSize + amount / pageSize);
+      if (newSize <= exclusiveWriteCacheMaxSize)
+        return 0;
+
+      final long granted = ((long) (newSize - exclusiveWriteCacheMaxSize)) * pageSize;
+      exclusiveWriteCacheMaxSize = newSize;
+      return granted;
+    }
+  }
+
   private void openFile(final OFileClassic fileClassic) {
     if (fileClassic.exists()) {
       if (!fileClassic.isOpen())
@@ -2103,6 +2206,13 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
           int pagesRead = 0;
 
           try {
+            if (mappedReadOnly) {
+              final OCachePointer[] dataPointers = loadMappedContent(fileClassic, fileId, startPageIndex, pageCount,
+                  verifyChecksums);
+              pagesRead = dataPointers.length;
+              return dataPointers;
+            }
+
             if (pageCount == 1) {
               final ByteBuffer buffer = bufferPool.acquireDirect(false);
               assert buffer.position() == 0;
@@ -2158,6 +2268,32 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     }
   }
 
+  /**
+   * Creates pointers to the pages of the file mapped in memory, pages are not copied and are not acquired from the buffer pool.
+   */
+  private OCachePointer[] loadMappedContent(final OFileClassic fileClassic, final long fileId, final long startPageIndex,
+      final int pageCount, final boolean verifyChecksums) throws IOException {
+    final long firstPageStartPosition = startPageIndex * pageSize;
+    final long maxPageCount = (fileClassic.getFileSize() - firstPageStartPosition) / pageSize;
+    final int realPageCount = (int) Math.min(maxPageCount, pageCount);
+
+    final OCachePointer[] dataPointers = new OCachePointer[realPageCount];
+    for (int n = 0; n < realPageCount; n++) {
+      final ByteBuffer buffer = fileClassic.map(firstPageStartPosition + (long) n * pageSize, pageSize)
+          .order(ByteOrder.nativeOrder());
+
+      if (verifyChecksums && (checksumMode == OChecksumMode.StoreAndVerify || checksumMode == OChecksumMode.StoreAndThrow
+          || checksumMode == OChecksumMode.StoreAndSwitchReadOnlyMode))
+        //mapped pages do not belong to the pool, so there is nothing to release if verification fails
+        verifyMagicAndChecksum(buffer, fileId, startPageIndex + n, new ByteBuffer[0]);
+
+      buffer.position(0);
+      dataPointers[n] = new OCachePointer(buffer, null, fileId, startPageIndex + n);
+    }
+
+    return dataPointers;
+  }
+
   private void addMagicAndChecksum(final ByteBuffer buffer) {
     assert buffer.order() == ByteOrder.nativeOrder();
 
@@ -2941,6 +3077,25 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       final Iterator<Map.Entry<PageKey, OCachePointer>> entryIterator = writeCachePages.subMap(firstKey, true, lastKey, true)
           .entrySet().iterator();
 
+      if (batchedFileFlush) {
+        flushInBatches(entryIterator);
+      } else {
+        flushPageByPage(entryIterator);
+      }
+
+      final long finalId = composeFileId(id, fileId);
+      final OClosableEntry<Long, OFileClassic> entry = files.acquire(finalId);
+      try {
+        entry.get().synch();
+      } finally {
+        files.release(entry);
+      }
+
+      return null;
+    }
+
+    private void flushPageByPage(Iterator<Map.Entry<PageKey, OCachePointer>> entryIterator)
+        throws IOException, InterruptedException {
       while (entryIterator.hasNext()) {
         Map.Entry<PageKey, OCachePointer> entry = entryIterator.next();
         final PageKey pageKey = entry.getKey();
@@ -2970,16 +3125,109 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
         writeCacheSize.decrement();
       }
+    }
 
-      final long finalId = composeFileId(id, fileId);
-      final OClosableEntry<Long, OFileClassic> entry = files.acquire(finalId);
+    /**
+     * Copies pages into temporary buffers and writes them by batches of {@link #CHUNK_SIZE} pages. Pages are removed from write
+     * cache only if they were not changed after copy, the same way as during background flush.
+     */
+    private void flushInBatches(Iterator<Map.Entry<PageKey, OCachePointer>> entryIterator)
+        throws IOException, InterruptedException {
+      final List<OTriple<Long, ByteBuffer, OCachePointer>> batch = new ArrayList<>(CHUNK_SIZE);
+
+      while (entryIterator.hasNext()) {
+        final Map.Entry<PageKey, OCachePointer> entry = entryIterator.next();
+        final PageKey pageKey = entry.getKey();
+        final OCachePointer pagePointer = entry.getValue();
+
+        final ByteBuffer copy;
+        final long version;
+
+        final Lock groupLock = lockManager.acquireExclusiveLock(pageKey);
+        try {
+          if (!pagePointer.tryAcquireSharedLock())
+            continue;
+
+          try {
+            version = pagePointer.getVersion();
+
+            final ByteBuffer buffer = pagePointer.getBufferDuplicate();
+            buffer.position(0);
+
+            copy = bufferPool.acquireDirect(false);
+            copy.position(0);
+            copy.put(buffer);
+
+            removeFromDirtyPages(pageKey);
+          } finally {
+            pagePointer.releaseSharedLock();
+          }
+        } finally {
+          groupLock.unlock();
+        }
+
+        flushWALTillPageLSN(copy);
+        batch.add(new OTriple<>(version, copy, pagePointer));
+
+        if (batch.size() >= CHUNK_SIZE) {
+          writeBatch(batch);
+        }
+      }
+
+      writeBatch(batch);
+    }
+
+    private void writeBatch(List<OTriple<Long, ByteBuffer, OCachePointer>> batch) throws IOException, InterruptedException {
+      if (batch.isEmpty())
+        return;
+
+      final List<ORawPair<Long, ByteBuffer>> buffers = new ArrayList<>(batch.size());
+      for (OTriple<Long, ByteBuffer, OCachePointer> triple : batch) {
+        final ByteBuffer buffer = triple.getValue().getKey();
+
+        addMagicAndChecksum(buffer);
+        buffer.position(0);
+
+        buffers.add(new ORawPair<>(triple.getValue().getValue().getPageIndex() * pageSize, buffer));
+      }
+
+      final OClosableEntry<Long, OFileClassic> fileEntry = files.acquire(composeFileId(id, fileId));
       try {
-        entry.get().synch();
+        fileEntry.get().write(buffers);
       } finally {
-        files.release(entry);
+        files.release(fileEntry);
       }
 
-      return null;
+      for (ORawPair<Long, ByteBuffer> buffer : buffers) {
+        bufferPool.release(buffer.getSecond());
+      }
+
+      for (OTriple<Long, ByteBuffer, OCachePointer> triple : batch) {
+        final OCachePointer pointer = triple.getValue().getValue();
+        final PageKey pageKey = new PageKey(fileId, pointer.getPageIndex());
+
+        final Lock lock = lockManager.acquireExclusiveLock(pageKey);
+        try {
+          if (!pointer.tryAcquireSharedLock())
+            continue;
+
+          try {
+            if (triple.getKey() == pointer.getVersion()) {
+              writeCachePages.remove(pageKey);
+              writeCacheSize.decrement();
+
+              pointer.decrementWritersReferrer();
+              pointer.setWritersListener(null);
+            }
+          } finally {
+            pointer.releaseSharedLock();
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      batch.clear();
     }
   }
 
@@ -25,12 +25,15 @@ import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
 import com.orientechnologies.common.concur.lock.OReadersWriterSpinLock;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutorWithLogging;
 import com.orientechnologies.common.types.OModifiableBoolean;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OAllCacheEntriesAreUsedException;
 import com.orientechnologies.orient.core.exception.OLoadCacheStateException;
 import com.orientechnologies.orient.core.exception.OReadCacheException;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.*;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 
@@ -41,9 +44,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -72,6 +80,11 @@ public class O2QCache implements OReadCache {
 
   private static final int MAX_CACHE_OVERFLOW = Runtime.getRuntime().availableProcessors() * 8;
 
+  /**
+   * Amount of consecutive reads of sequential pages after which pages of file are read in advance.
+   */
+  private static final int READ_AHEAD_TRIGGER = 4;
+
   /**
    * File which contains stored state of disk cache after storage close.
    */
@@ -113,6 +126,29 @@ public class O2QCache implements OReadCache {
 
   private final AtomicBoolean coldPagesRemovalInProgress = new AtomicBoolean();
 
+  /**
+   * Amount of pages which are read in advance once sequential access to the file is detected, 0 if read-ahead is disabled.
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_READ_AHEAD_WINDOW
+   */
+  private final int readAheadWindow;
+
+  /**
+   * If positive, pages read in advance never cross the boundary of a range of <code>pageStripe</code> pages, used when cache is a
+   * shard of {@link OShardedReadCache}.
+   */
+  private final int pageStripe;
+
+  /**
+   * Executor which loads pages in advance, <code>null</code> if read-ahead is disabled.
+   */
+  private final ThreadPoolExecutor readAheadExecutor;
+
+  /**
+   * Sequential access detectors for files which are read through this cache.
+   */
+  private final ConcurrentMap<Long, ReadAheadState> readAheadStates = new ConcurrentHashMap<>();
+
   /**
    * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
    * @param pageSize             Cache page size in bytes.
@@ -122,11 +158,38 @@ public class O2QCache implements OReadCache {
    * @see #MAX_PERCENT_OF_PINED_PAGES
    */
   public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, 0, 0);
+  }
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link #MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param readAheadWindow      Amount of pages which are loaded asynchronously in advance when sequential reads of the same file
+   *                             are detected, 0 disables read-ahead.
+   * @param readAheadThreads     Maximum amount of threads which load pages in advance.
+   *
+   * @see #MAX_PERCENT_OF_PINED_PAGES
+   */
+  public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages,
+      final int readAheadWindow, final int readAheadThreads) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, readAheadWindow,
+        readAheadWindow > 0 && readAheadThreads > 0 ? createReadAheadExecutor(readAheadThreads) : null, 0);
+  }
+
+  /**
+   * @param readAheadExecutor Executor which loads pages in advance, may be shared between several caches, <code>null</code>
+   *                          disables read-ahead.
+   */
+  O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages,
+      final int readAheadWindow, final ThreadPoolExecutor readAheadExecutor, final int pageStripe) {
     if (percentOfPinnedPages > MAX_PERCENT_OF_PINED_PAGES)
       throw new IllegalArgumentException(
           "Percent of pinned pages cannot be more than " + percentOfPinnedPages + " but passed value is " + percentOfPinnedPages);
 
     this.percentOfPinnedPages = percentOfPinnedPages;
+    this.pageStripe = pageStripe;
 
     cacheLock.acquireWriteLock();
     try {
@@ -148,6 +211,31 @@ public class O2QCache implements OReadCache {
     } finally {
       cacheLock.releaseWriteLock();
     }
+
+    if (readAheadWindow > 0 && readAheadExecutor != null) {
+      this.readAheadWindow = readAheadWindow;
+      this.readAheadExecutor = readAheadExecutor;
+    } else {
+      this.readAheadWindow = 0;
+      this.readAheadExecutor = null;
+    }
+  }
+
+  /**
+   * @param readAheadThreads Maximum amount of threads which load pages in advance.
+   *
+   * @return Executor which loads pages in advance.
+   */
+  static ThreadPoolExecutor createReadAheadExecutor(final int readAheadThreads) {
+    // READ-AHEAD IS ONLY A HINT, REQUESTS WHICH CAN NOT BE QUEUED ARE REJECTED AND DROPPED BY scheduleReadAhead
+    final ThreadPoolExecutor executor = new OThreadPoolExecutorWithLogging(readAheadThreads, readAheadThreads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(readAheadThreads * 16), new ReadAheadThreadFactory());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  ThreadPoolExecutor getReadAheadExecutor() {
+    return readAheadExecutor;
   }
 
   LRUList getAm() {
@@ -290,6 +378,10 @@ public class O2QCache implements OReadCache {
 
     if (cacheEntry != null) {
       cacheEntry.acquireSharedLock();
+
+      if (readAheadExecutor != null && pageCount == 1) {
+        scheduleReadAhead(cacheEntry.getFileId(), pageIndex, writeCache, verifyChecksums);
+      }
     }
 
     return cacheEntry;
@@ -576,12 +668,24 @@ public class O2QCache implements OReadCache {
   public void clear() {
     cacheLock.acquireWriteLock();
     try {
+      readAheadStates.clear();
       clearCacheContent();
     } finally {
       cacheLock.releaseWriteLock();
     }
   }
 
+  /**
+   * Stops threads which load pages in advance. Read-ahead requests which are still queued are dropped, cache itself may be used
+   * till the end of its life but pages are not read in advance anymore.
+   */
+  public void shutdown() {
+    if (readAheadExecutor != null) {
+      readAheadExecutor.shutdown();
+      readAheadExecutor.getQueue().clear();
+    }
+  }
+
   @Override
   public void truncateFile(long fileId, OWriteCache writeCache) throws IOException {
     Lock fileLock;
@@ -592,6 +696,7 @@ public class O2QCache implements OReadCache {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
 
+        readAheadStates.remove(fileId);
         writeCache.truncateFile(fileId);
 
         clearFile(fileId);
@@ -659,6 +764,7 @@ public class O2QCache implements OReadCache {
     try {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
+        readAheadStates.remove(fileId);
         writeCache.close(fileId, flush);
 
         clearFile(fileId);
@@ -682,6 +788,7 @@ public class O2QCache implements OReadCache {
     try {
       fileLock = fileLockManager.acquireExclusiveLock(fileId);
       try {
+        readAheadStates.remove(fileId);
         clearFile(fileId);
         filePages.remove(fileId);
         writeCache.deleteFile(fileId);
@@ -693,6 +800,50 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Removes all pages of the file from this cache, file itself is not touched.
+   *
+   * @param fileId      Id of the file.
+   * @param removeFile  If <code>true</code> cache also forgets about the file, used when file is deleted.
+   */
+  void evictFile(long fileId, boolean removeFile) {
+    Lock fileLock;
+
+    cacheLock.acquireReadLock();
+    try {
+      fileLock = fileLockManager.acquireExclusiveLock(fileId);
+      try {
+        readAheadStates.remove(fileId);
+        clearFile(fileId);
+
+        if (removeFile)
+          filePages.remove(fileId);
+      } finally {
+        fileLock.unlock();
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * Removes all pages of all files of the write cache from this cache, files themselves are not touched.
+   */
+  void evictStorage(OWriteCache writeCache) {
+    cacheLock.acquireWriteLock();
+    try {
+      for (long fileId : filePages.keySet()) {
+        if (OAbstractWriteCache.extractStorageId(fileId) == writeCache.getId()) {
+          readAheadStates.remove(fileId);
+          clearFile(fileId);
+          filePages.remove(fileId);
+        }
+      }
+    } finally {
+      cacheLock.releaseWriteLock();
+    }
+  }
+
   /**
    * Performs following steps:
    * <ol>
@@ -712,8 +863,10 @@ public class O2QCache implements OReadCache {
     try {
       final long[] filesToClear = writeCache.close();
 
-      for (long fileId : filesToClear)
+      for (long fileId : filesToClear) {
+        readAheadStates.remove(fileId);
         clearFile(fileId);
+      }
 
     } finally {
       cacheLock.releaseWriteLock();
@@ -1054,8 +1207,10 @@ public class O2QCache implements OReadCache {
     cacheLock.acquireWriteLock();
     try {
       final long[] filesToClear = writeCache.delete();
-      for (long fileId : filesToClear)
+      for (long fileId : filesToClear) {
+        readAheadStates.remove(fileId);
         clearFile(fileId);
+      }
 
       final Path rootDirectory = writeCache.getRootDirectory();
       final Path stateFile = rootDirectory.resolve(CACHE_STATE_FILE);
@@ -1069,6 +1224,118 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Tracks reads of the file and, once {@link #READ_AHEAD_TRIGGER} sequential pages were read, schedules asynchronous load of the
+   * next {@link #readAheadWindow} pages. Next read-ahead is scheduled when reader consumed half of the pages read in advance.
+   */
+  private void scheduleReadAhead(final long fileId, final long pageIndex, final OWriteCache writeCache,
+      final boolean verifyChecksums) {
+    ReadAheadState state = readAheadStates.get(fileId);
+    if (state == null) {
+      state = new ReadAheadState();
+      final ReadAheadState oldState = readAheadStates.putIfAbsent(fileId, state);
+      if (oldState != null)
+        state = oldState;
+    }
+
+    final long startPageIndex;
+    final int pageCount;
+
+    synchronized (state) {
+      if (pageIndex == state.lastPageIndex + 1) {
+        state.sequentialReads++;
+      } else if (pageIndex != state.lastPageIndex) {
+        state.sequentialReads = 0;
+        state.readAheadEnd = pageIndex + 1;
+      }
+      state.lastPageIndex = pageIndex;
+
+      if (state.sequentialReads < READ_AHEAD_TRIGGER || state.inProgress || state.readAheadEnd - pageIndex > readAheadWindow / 2)
+        return;
+
+      startPageIndex = Math.max(state.readAheadEnd, pageIndex + 1);
+      long endPageIndex = pageIndex + 1 + readAheadWindow;
+      if (pageStripe > 0)
+        endPageIndex = Math.min(endPageIndex, (pageIndex / pageStripe + 1) * pageStripe);
+
+      pageCount = (int) (endPageIndex - startPageIndex);
+      if (pageCount <= 0)
+        return;
+
+      state.readAheadEnd = startPageIndex + pageCount;
+      state.inProgress = true;
+    }
+
+    final ReadAheadState readAheadState = state;
+    try {
+      readAheadExecutor.execute(() -> readAhead(readAheadState, fileId, startPageIndex, pageCount, writeCache, verifyChecksums));
+    } catch (RejectedExecutionException e) {
+      //queue is full or cache is shut down, pages will be read-ahead again once reader reaches them
+      synchronized (state) {
+        state.readAheadEnd = startPageIndex;
+        state.inProgress = false;
+      }
+    }
+  }
+
+  private void readAhead(final ReadAheadState state, final long fileId, final long startPageIndex, final int pageCount,
+      final OWriteCache writeCache, final boolean verifyChecksums) {
+    try {
+      boolean removeColdPages = false;
+
+      cacheLock.acquireReadLock();
+      try {
+        final Lock fileLock = fileLockManager.acquireSharedLock(fileId);
+        try {
+          //file was closed, truncated or deleted after read-ahead was scheduled
+          if (readAheadStates.get(fileId) != state)
+            return;
+
+          final PageKey[] pageKeys = new PageKey[pageCount];
+          for (int i = 0; i < pageKeys.length; i++) {
+            pageKeys[i] = new PageKey(fileId, startPageIndex + i);
+          }
+
+          final Lock[] pageLocks = pageLockManager.acquireExclusiveLocksInBatch(pageKeys);
+          try {
+            //skip pages which are already loaded
+            int loaded = 0;
+            while (loaded < pageCount && (am.get(fileId, startPageIndex + loaded) != null
+                || a1in.get(fileId, startPageIndex + loaded) != null || pinnedPages
+                .containsKey(new PinnedPage(fileId, startPageIndex + loaded)))) {
+              loaded++;
+            }
+
+            if (loaded < pageCount) {
+              final OCachePointer[] dataPointers = writeCache
+                  .load(fileId, startPageIndex + loaded, pageCount - loaded, false, new OModifiableBoolean(), verifyChecksums);
+              for (OCachePointer dataPointer : dataPointers) {
+                removeColdPages = processFetchedPage(removeColdPages, dataPointer);
+              }
+            }
+          } finally {
+            for (Lock pageLock : pageLocks) {
+              pageLock.unlock();
+            }
+          }
+        } finally {
+          fileLock.unlock();
+        }
+      } finally {
+        cacheLock.releaseReadLock();
+      }
+
+      if (removeColdPages)
+        removeColdestPagesIfNeeded();
+    } catch (Exception e) {
+      OLogManager.instance().debug(this, "Error during read-ahead of pages of file %d", e, fileId);
+    } finally {
+      synchronized (state) {
+        state.inProgress = false;
+      }
+    }
+  }
+
   private OCacheEntry get(long fileId, long pageIndex) {
     OCacheEntry cacheEntry = am.get(fileId, pageIndex);
 
@@ -1658,4 +1925,30 @@ public class O2QCache implements OReadCache {
       return maxSize - pinnedPages;
     }
   }
+
+  /**
+   * Detector of sequential reads of a single file.
+   */
+  private static final class ReadAheadState {
+    private long    lastPageIndex = -2;
+    private int     sequentialReads;
+    /**
+     * Index of the page which follows the last page read in advance.
+     */
+    private long    readAheadEnd;
+    private boolean inProgress;
+  }
+
+  private static final class ReadAheadThreadFactory implements ThreadFactory {
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB Disk Cache Read Ahead Task " + counter.incrementAndGet());
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
 }
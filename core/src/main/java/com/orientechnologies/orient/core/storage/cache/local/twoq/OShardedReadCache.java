@@ -0,0 +1,263 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Read cache which splits pages between several independent {@link O2QCache} instances (shards), so concurrent readers of
+ * different pages do not contend on the same LRU lists and cache lock.
+ * <p>
+ * Pages are assigned to shards by ranges of {@link #PAGE_STRIPE} consecutive pages of the same file, so sequential scans still
+ * profit from batch loads and read-ahead inside of each range. Every page is contained in a single shard only: loads of several
+ * pages are trimmed at the range boundary. Operations on files and storages are performed on all shards, the first shard is the
+ * one which forwards them to the write cache.
+ * <p>
+ * State of the cache is not stored between storage close and open, see {@link O2QCache#storeCacheState(OWriteCache)}.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_SHARDS
+ */
+public class OShardedReadCache implements OReadCache {
+  /**
+   * Amount of consecutive pages of the same file which are kept by the same shard.
+   */
+  static final int PAGE_STRIPE = 64;
+
+  private final O2QCache[] shards;
+
+  /**
+   * Executor which loads pages in advance for all shards, <code>null</code> if read-ahead is disabled.
+   */
+  private final ThreadPoolExecutor readAheadExecutor;
+
+  /**
+   * Serializes allocation of new pages of the same file, because new page may belong to any of shards.
+   */
+  private final OPartitionedLockManager<Long> allocationLockManager = new OPartitionedLockManager<>();
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by all shards in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of each shard may be {@link O2QCache#MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by each shard.
+   * @param readAheadWindow      Amount of pages which are loaded in advance when sequential reads are detected, 0 disables read-ahead.
+   * @param readAheadThreads     Maximum amount of threads which load pages in advance, threads are shared by all shards.
+   * @param shardsCount          Amount of shards.
+   */
+  public OShardedReadCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize,
+      final int percentOfPinnedPages, final int readAheadWindow, final int readAheadThreads, final int shardsCount) {
+    if (shardsCount < 1)
+      throw new IllegalArgumentException("Amount of shards should be not less than 1 but passed value is " + shardsCount);
+
+    if (readAheadWindow > 0 && readAheadThreads > 0)
+      readAheadExecutor = O2QCache.createReadAheadExecutor(readAheadThreads);
+    else
+      readAheadExecutor = null;
+
+    shards = new O2QCache[shardsCount];
+    for (int i = 0; i < shardsCount; i++) {
+      shards[i] = new O2QCache(readCacheMaxMemory / shardsCount, pageSize, checkMinSize, percentOfPinnedPages, readAheadWindow,
+          readAheadExecutor, PAGE_STRIPE);
+    }
+  }
+
+  @Override
+  public long addFile(String fileName, OWriteCache writeCache) throws IOException {
+    return shards[0].addFile(fileName, writeCache);
+  }
+
+  @Override
+  public long addFile(String fileName, long fileId, OWriteCache writeCache) throws IOException {
+    return shards[0].addFile(fileName, fileId, writeCache);
+  }
+
+  @Override
+  public OCacheEntry loadForWrite(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
+      boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    return shard(fileId, pageIndex)
+        .loadForWrite(fileId, pageIndex, checkPinnedPages, writeCache, trimPageCount(pageIndex, pageCount), verifyChecksums);
+  }
+
+  @Override
+  public OCacheEntry loadForRead(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount,
+      boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    return shard(fileId, pageIndex)
+        .loadForRead(fileId, pageIndex, checkPinnedPages, writeCache, trimPageCount(pageIndex, pageCount), verifyChecksums);
+  }
+
+  @Override
+  public void releaseFromRead(OCacheEntry cacheEntry, OWriteCache writeCache) {
+    shard(cacheEntry.getFileId(), cacheEntry.getPageIndex()).releaseFromRead(cacheEntry, writeCache);
+  }
+
+  @Override
+  public void releaseFromWrite(OCacheEntry cacheEntry, OWriteCache writeCache) {
+    shard(cacheEntry.getFileId(), cacheEntry.getPageIndex()).releaseFromWrite(cacheEntry, writeCache);
+  }
+
+  @Override
+  public void pinPage(OCacheEntry cacheEntry) {
+    shard(cacheEntry.getFileId(), cacheEntry.getPageIndex()).pinPage(cacheEntry);
+  }
+
+  @Override
+  public OCacheEntry allocateNewPage(long fileId, OWriteCache writeCache, boolean verifyChecksums) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final Lock allocationLock = allocationLockManager.acquireExclusiveLock(fileId);
+    try {
+      //index of new page is not changed till lock is held, so shard which is going to contain new page is known in advance
+      final long filledUpTo = writeCache.getFilledUpTo(fileId);
+      return shard(fileId, filledUpTo).allocateNewPage(fileId, writeCache, verifyChecksums);
+    } finally {
+      allocationLock.unlock();
+    }
+  }
+
+  @Override
+  public long getUsedMemory() {
+    long usedMemory = 0;
+    for (O2QCache shard : shards) {
+      usedMemory += shard.getUsedMemory();
+    }
+    return usedMemory;
+  }
+
+  /**
+   * @param readCacheMaxMemory New maximum amount of direct memory which can allocated by all shards in bytes.
+   *
+   * @see O2QCache#changeMaximumAmountOfMemory(long)
+   */
+  public void changeMaximumAmountOfMemory(final long readCacheMaxMemory) throws IllegalStateException {
+    for (O2QCache shard : shards) {
+      shard.changeMaximumAmountOfMemory(readCacheMaxMemory / shards.length);
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (O2QCache shard : shards) {
+      shard.clear();
+    }
+  }
+
+  /**
+   * @see O2QCache#shutdown()
+   */
+  public void shutdown() {
+    if (readAheadExecutor != null) {
+      readAheadExecutor.shutdown();
+      readAheadExecutor.getQueue().clear();
+    }
+  }
+
+  @Override
+  public void truncateFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    shards[0].truncateFile(fileId, writeCache);
+    for (int i = 1; i < shards.length; i++) {
+      shards[i].evictFile(fileId, false);
+    }
+  }
+
+  @Override
+  public void closeFile(long fileId, boolean flush, OWriteCache writeCache) {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    shards[0].closeFile(fileId, flush, writeCache);
+    for (int i = 1; i < shards.length; i++) {
+      shards[i].evictFile(fileId, false);
+    }
+  }
+
+  @Override
+  public void deleteFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    for (int i = 1; i < shards.length; i++) {
+      shards[i].evictFile(fileId, true);
+    }
+    shards[0].deleteFile(fileId, writeCache);
+  }
+
+  @Override
+  public void deleteStorage(OWriteCache writeCache) throws IOException {
+    for (int i = 1; i < shards.length; i++) {
+      shards[i].evictStorage(writeCache);
+    }
+    shards[0].deleteStorage(writeCache);
+  }
+
+  @Override
+  public void closeStorage(OWriteCache writeCache) throws IOException {
+    if (writeCache == null)
+      return;
+
+    for (int i = 1; i < shards.length; i++) {
+      shards[i].evictStorage(writeCache);
+    }
+    shards[0].closeStorage(writeCache);
+  }
+
+  /**
+   * State of sharded cache is not stored, so there is nothing to load.
+   */
+  @Override
+  public void loadCacheState(OWriteCache writeCache) {
+  }
+
+  /**
+   * State of shards can not be restored without duplication of pages between shards, so it is not stored.
+   */
+  @Override
+  public void storeCacheState(OWriteCache writeCache) {
+  }
+
+  O2QCache[] getShards() {
+    return shards;
+  }
+
+  private O2QCache shard(long fileId, long pageIndex) {
+    long hash = fileId * 31 + pageIndex / PAGE_STRIPE;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return shards[(int) ((hash & Long.MAX_VALUE) % shards.length)];
+  }
+
+  /**
+   * @return amount of pages which can be loaded starting from given page without crossing range of pages of the same shard
+   */
+  private static int trimPageCount(long pageIndex, int pageCount) {
+    return (int) Math.min(pageCount, PAGE_STRIPE - pageIndex % PAGE_STRIPE);
+  }
+}
@@ -19,9 +19,12 @@
  */
 package com.orientechnologies.orient.core.storage.fs;
 
+import com.orientechnologies.common.util.ORawPair;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Interface to represent low-level File access.
@@ -104,4 +107,20 @@ public interface OFile {
   void write(long offset, ByteBuffer buffer) throws IOException;
 
   void write(long offset, ByteBuffer[] buffers) throws IOException;
+
+  /**
+   * Writes several buffers at different positions of the file as a single batch.
+   *
+   * @param buffers pairs of offset and buffer to write, sorted by offset
+   */
+  void write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException;
+
+  /**
+   * Returns read-only view of the file content mapped in memory. View is valid till the file is not shrunk or its content is not
+   * replaced, so it should be used only for files which are not modified.
+   *
+   * @param offset position of the first byte of the view
+   * @param length size of the view in bytes
+   */
+  ByteBuffer map(long offset, int length) throws IOException;
 }
@@ -24,6 +24,7 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.serialization.OBinaryProtocol;
 
@@ -33,11 +34,13 @@ import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -54,6 +57,11 @@ public class OFileClassic implements OFile, OClosableItem {
 
   private static final int OPEN_RETRY_MAX = 10;
 
+  /**
+   * Size of the regions in which file content is mapped in memory by {@link #map(long, int)}.
+   */
+  private static final int MAPPED_SEGMENT_SIZE = 1 << 30;
+
   private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private volatile Path osFile;
@@ -66,6 +74,12 @@ public class OFileClassic implements OFile, OClosableItem {
 
   private volatile long size;
 
+  /**
+   * Regions of the file mapped in memory, index of the region is the offset of its first byte divided by {@link
+   * #MAPPED_SEGMENT_SIZE}. Mapping is released by GC once there are no views which reference it.
+   */
+  private volatile MappedByteBuffer[] mappedSegments = new MappedByteBuffer[0];
+
   /**
    * Map which calculates which files are opened and how many users they have
    */
@@ -118,6 +132,7 @@ public class OFileClassic implements OFile, OClosableItem {
           //noinspection resource
           channel.truncate(HEADER_SIZE + size);
           this.size = size;
+          mappedSegments = new MappedByteBuffer[0];
 
           assert this.size >= 0;
           break;
@@ -265,6 +280,109 @@ public class OFileClassic implements OFile, OClosableItem {
     }
   }
 
+  /**
+   * Buffers which follow each other in the file are written by a single gathering write, the lock of the file is acquired only
+   * once for the whole batch.
+   */
+  @Override
+  public void write(List<ORawPair<Long, ByteBuffer>> buffers) throws IOException {
+    int attempts = 0;
+
+    while (true) {
+      try {
+        acquireWriteLock();
+        try {
+          int start = 0;
+          while (start < buffers.size()) {
+            final long startOffset = buffers.get(start).getFirst();
+            long endOffset = startOffset + buffers.get(start).getSecond().limit();
+
+            int end = start + 1;
+            while (end < buffers.size() && buffers.get(end).getFirst() == endOffset) {
+              endOffset += buffers.get(end).getSecond().limit();
+              end++;
+            }
+
+            if (end - start == 1) {
+              writeByteBuffer(buffers.get(start).getSecond(), channel, startOffset + HEADER_SIZE);
+            } else {
+              final ByteBuffer[] region = new ByteBuffer[end - start];
+              for (int i = 0; i < region.length; i++) {
+                region[i] = buffers.get(start + i).getSecond();
+              }
+
+              //noinspection resource
+              channel.position(startOffset + HEADER_SIZE);
+              writeByteBuffers(region, channel, endOffset - startOffset);
+            }
+
+            start = end;
+          }
+
+          setDirty();
+
+          break;
+        } finally {
+          releaseWriteLock();
+          attempts++;
+        }
+      } catch (IOException e) {
+        OLogManager.instance().error(this, "Error during data write for file '" + getName() + "' " + attempts + "-th attempt", e);
+        reopenFile(attempts, e);
+      }
+    }
+  }
+
+  @Override
+  public ByteBuffer map(long offset, int length) throws IOException {
+    acquireReadLock();
+    try {
+      final long position = checkRegions(offset, length);
+
+      final int segmentIndex = (int) (offset / MAPPED_SEGMENT_SIZE);
+      final int segmentOffset = (int) (offset % MAPPED_SEGMENT_SIZE);
+
+      //region crosses the border of segments, so it is mapped separately
+      if (segmentOffset + length > MAPPED_SEGMENT_SIZE)
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+      final ByteBuffer view = mappedSegment(segmentIndex, segmentOffset + length).duplicate();
+      view.limit(segmentOffset + length);
+      view.position(segmentOffset);
+
+      return view.slice();
+    } finally {
+      releaseReadLock();
+    }
+  }
+
+  /**
+   * @return region of the file mapped in memory which contains at least <code>minSize</code> bytes, region is remapped if file
+   * has grown since it was mapped
+   */
+  private MappedByteBuffer mappedSegment(int segmentIndex, int minSize) throws IOException {
+    MappedByteBuffer[] segments = mappedSegments;
+    if (segmentIndex < segments.length && segments[segmentIndex] != null && segments[segmentIndex].capacity() >= minSize)
+      return segments[segmentIndex];
+
+    synchronized (this) {
+      segments = mappedSegments;
+      if (segmentIndex < segments.length && segments[segmentIndex] != null && segments[segmentIndex].capacity() >= minSize)
+        return segments[segmentIndex];
+
+      final long segmentStart = (long) segmentIndex * MAPPED_SEGMENT_SIZE;
+      final long segmentSize = Math.min(MAPPED_SEGMENT_SIZE, size - segmentStart);
+
+      final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart + HEADER_SIZE, segmentSize);
+
+      final MappedByteBuffer[] newSegments = Arrays.copyOf(segments, Math.max(segments.length, segmentIndex + 1));
+      newSegments[segmentIndex] = segment;
+      mappedSegments = newSegments;
+
+      return segment;
+    }
+  }
+
   @Override
   public void write(long iOffset, byte[] iData, int iSize, int iArrayOffset) throws IOException {
     int attempts = 0;
@@ -843,6 +961,7 @@ public class OFileClassic implements OFile, OClosableItem {
       close();
 
       Files.copy(newContentFile, osFile, StandardCopyOption.REPLACE_EXISTING);
+      mappedSegments = new MappedByteBuffer[0];
 
       open();
     } finally {
@@ -82,6 +82,7 @@ import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerforman
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 import com.orientechnologies.orient.core.storage.index.engine.OHashTableIndexEngine;
 import com.orientechnologies.orient.core.storage.index.engine.OSBTreeIndexEngine;
+import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTreeBulkLoader;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OIndexRIDContainerSBTree;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManagerAbstract;
@@ -175,6 +176,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
    */
   private final AtomicReference<Error> jvmError = new AtomicReference<>();
 
+  /**
+   * Serializes the allocation of new pages when the changes read from WAL are applied by several threads.
+   */
+  private final Object restorePageAllocationLock = new Object();
+
   @SuppressWarnings("WeakerAccess")
   protected final OSBTreeCollectionManagerShared sbTreeCollectionManager;
 
@@ -197,6 +203,12 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private volatile   boolean                  wereNonTxOperationsPerformedInPreviousOpen = false;
   private volatile   OLowDiskSpaceInformation lowDiskSpace                               = null;
   private volatile   boolean                  pessimisticLock                            = false;
+  /**
+   * Storage is opened in read-only mode with pages mapped in memory.
+   *
+   * @see OGlobalConfiguration#STORAGE_MAPPED_READ_ONLY
+   */
+  private volatile   boolean                  mappedReadOnly                             = false;
   /**
    * Set of pages which were detected as broken and need to be repaired.
    */
@@ -267,6 +279,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           throw new OStorageException("Cannot open the storage '" + name + "' because it does not exist in path: " + url);
 
         pessimisticLock = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_PESSIMISTIC_LOCKING);
+        mappedReadOnly = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_MAPPED_READ_ONLY);
 
         fuzzyCheckpointExecutor = new OScheduledThreadPoolExecutorWithLogging(1, new FuzzyCheckpointThreadFactory());
         fuzzyCheckpointExecutor.setMaximumPoolSize(1);
@@ -456,6 +469,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           throw new OStorageExistsException("Cannot create new storage '" + getURL() + "' because it already exists");
 
         pessimisticLock = contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_PESSIMISTIC_LOCKING);
+        mappedReadOnly = false;
 
         fuzzyCheckpointExecutor = new OScheduledThreadPoolExecutorWithLogging(1, new FuzzyCheckpointThreadFactory());
         fuzzyCheckpointExecutor.setMaximumPoolSize(1);
@@ -934,6 +948,32 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  @Override
+  public long[][] getClusterDataSplits(final int clusterId, final int maxSplits) {
+    try {
+      if (clusterId == -1)
+        return new long[][] { { ORID.CLUSTER_POS_INVALID, ORID.CLUSTER_POS_INVALID } };
+
+      checkOpenness();
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        return doGetAndCheckCluster(clusterId).getPositionSplits(maxSplits);
+      } catch (IOException ioe) {
+        throw OException.wrapException(new OStorageException("Cannot split data range of cluster " + clusterId), ioe);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
   public OLogSequenceNumber getLSN() {
     try {
       if (writeAheadLog == null)
@@ -2483,6 +2523,91 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   }
 
+  /**
+   * Creates loader which collects entries of the index and loads them sorted by key, so the index is built bottom-up instead of
+   * insertion of entries one by one.
+   *
+   * @param indexId   the index id of the index to load.
+   * @param validator validator of entries with equal keys, <code>null</code> means that the last added entry is loaded.
+   *
+   * @return the loader or <code>null</code> if bulk load is disabled by {@link OGlobalConfiguration#INDEX_BULK_LOAD} or is not
+   * supported by the engine of the index.
+   *
+   * @see #bulkLoadIndex(int, OSBTreeBulkLoader)
+   */
+  public OSBTreeBulkLoader<Object, Object> createIndexBulkLoader(int indexId,
+      OIndexEngine.Validator<Object, OIdentifiable> validator) throws OInvalidIndexEngineIdException {
+    try {
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        checkIndexId(indexId);
+
+        final OIndexEngine engine = indexEngines.get(indexId);
+        final OContextConfiguration contextConfiguration = getConfiguration().getContextConfiguration();
+
+        if (!(engine instanceof OSBTreeIndexEngine) || !contextConfiguration
+            .getValueAsBoolean(OGlobalConfiguration.INDEX_BULK_LOAD))
+          return null;
+
+        return ((OSBTreeIndexEngine) engine)
+            .createBulkLoader(contextConfiguration.getValueAsInteger(OGlobalConfiguration.INDEX_BULK_LOAD_SORT_BUFFER_SIZE),
+                contextConfiguration.getValueAsInteger(OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR), validator);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
+  /**
+   * Loads entries collected by the loader in the index.
+   *
+   * @param indexId the index id of the index to load.
+   * @param loader  the loader created by {@link #createIndexBulkLoader(int, OIndexEngine.Validator)}.
+   *
+   * @return amount of loaded entries.
+   */
+  public long bulkLoadIndex(int indexId, OSBTreeBulkLoader<Object, Object> loader) throws OInvalidIndexEngineIdException {
+    try {
+      checkOpenness();
+
+      stateLock.acquireReadLock();
+      try {
+        checkOpenness();
+
+        checkLowDiskSpaceRequestsAndReadOnlyConditions();
+
+        checkIndexId(indexId);
+
+        makeStorageDirty();
+        return loader.load();
+      } catch (IOException e) {
+        throw OException.wrapException(new OStorageException("Error during bulk load of index"), e);
+      } finally {
+        stateLock.releaseReadLock();
+      }
+    } catch (OInvalidIndexEngineIdException ie) {
+      throw logAndPrepareForRethrow(ie);
+    } catch (RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Error ee) {
+      throw logAndPrepareForRethrow(ee);
+    } catch (Throwable t) {
+      throw logAndPrepareForRethrow(t);
+    }
+  }
+
   public Object getIndexValue(int indexId, Object key) throws OInvalidIndexEngineIdException {
     try {
       if (transaction.get() != null)
@@ -4006,6 +4131,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * @return <code>true</code> if storage is opened in read-only mode with pages mapped in memory
+   *
+   * @see OGlobalConfiguration#STORAGE_MAPPED_READ_ONLY
+   */
+  public boolean isMappedReadOnly() {
+    return mappedReadOnly;
+  }
+
   public long getFullCheckpointCount() {
     return fullCheckpointCount.sum();
   }
@@ -4139,6 +4273,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   private void recoverIfNeeded() throws Exception {
     if (isDirty()) {
+      if (mappedReadOnly)
+        throw new OStorageException(
+            "Storage '" + name + "' was not closed properly and can not be opened in read-only mode till it is not recovered");
+
       OLogManager.instance().warn(this, "Storage '" + name + "' was not closed properly. Will try to recover from write ahead log");
       try {
         wereDataRestoredAfterOpen = restoreFromWAL() != null;
@@ -5040,6 +5178,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     final int reportBatchSize = OGlobalConfiguration.WAL_REPORT_AFTER_OPERATIONS_DURING_RESTORE.getValueAsInteger();
     final Map<OOperationUnitId, List<OWALRecord>> operationUnits = new HashMap<>();
 
+    final int restoreThreads = OGlobalConfiguration.WAL_RESTORE_THREADS.getValueAsInteger();
+    final OParallelPageRestore pageRestore =
+        restoreThreads > 1 ? new OParallelPageRestore(name, restoreThreads, this::restorePage) : null;
+
     long lastReportTime = 0;
 
     try {
@@ -5055,7 +5197,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           // in case of data restore from fuzzy checkpoint part of operations may be already flushed to the disk
           if (atomicUnit != null) {
             atomicUnit.add(walRecord);
-            restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate);
+            restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate, pageRestore);
           }
 
         } else if (walRecord instanceof OAtomicUnitStartRecord) {
@@ -5102,6 +5244,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         lsn = writeAheadLog.next(lsn);
       }
 
+      if (pageRestore != null)
+        pageRestore.await();
+
       OLogManager.instance()
           .infoNoDb(this, "There are %d unfinished atomic operations left, they will be rolled back", operationUnits.size());
 
@@ -5120,6 +5265,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
               + " Please report issue about this exception to bug tracker and provide WAL files which are backed up in 'wal_backup' directory.",
           e);
       backUpWAL(e);
+    } finally {
+      if (pageRestore != null)
+        pageRestore.shutdown();
     }
 
     if (atLeastOnePageUpdate.getValue())
@@ -5266,13 +5414,26 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
   @SuppressWarnings("WeakerAccess")
   protected void restoreAtomicUnit(List<OWALRecord> atomicUnit, OModifiableBoolean atLeastOnePageUpdate) throws IOException {
+    restoreAtomicUnit(atomicUnit, atLeastOnePageUpdate, null);
+  }
+
+  /**
+   * Restores the atomic unit, submitting its page changes to {@code pageRestore} if it is not {@code null}. Files are created and
+   * deleted by the current thread, waiting for the pending page changes before a file is deleted.
+   */
+  private void restoreAtomicUnit(List<OWALRecord> atomicUnit, OModifiableBoolean atLeastOnePageUpdate,
+      OParallelPageRestore pageRestore) throws IOException {
     assert atomicUnit.get(atomicUnit.size() - 1) instanceof OAtomicUnitEndRecord;
 
     for (OWALRecord walRecord : atomicUnit) {
       if (walRecord instanceof OFileDeletedWALRecord) {
         OFileDeletedWALRecord fileDeletedWALRecord = (OFileDeletedWALRecord) walRecord;
-        if (writeCache.exists(fileDeletedWALRecord.getFileId()))
+        if (writeCache.exists(fileDeletedWALRecord.getFileId())) {
+          if (pageRestore != null)
+            pageRestore.await();
+
           readCache.deleteFile(fileDeletedWALRecord.getFileId(), writeCache);
+        }
       } else if (walRecord instanceof OFileCreatedWALRecord) {
         OFileCreatedWALRecord fileCreatedCreatedWALRecord = (OFileCreatedWALRecord) walRecord;
 
@@ -5298,23 +5459,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         final long pageIndex = updatePageRecord.getPageIndex();
         fileId = writeCache.externalFileId(writeCache.internalFileId(fileId));
 
-        OCacheEntry cacheEntry = readCache.loadForWrite(fileId, pageIndex, true, writeCache, 1, false);
-        if (cacheEntry == null) {
-          do {
-            if (cacheEntry != null)
-              readCache.releaseFromWrite(cacheEntry, writeCache);
-
-            cacheEntry = readCache.allocateNewPage(fileId, writeCache, false);
-          } while (cacheEntry.getPageIndex() != pageIndex);
-        }
-
-        try {
-          ODurablePage durablePage = new ODurablePage(cacheEntry);
-          durablePage.restoreChanges(updatePageRecord.getChanges());
-          durablePage.setLsn(updatePageRecord.getLsn());
-        } finally {
-          readCache.releaseFromWrite(cacheEntry, writeCache);
-        }
+        if (pageRestore != null)
+          pageRestore.submit(fileId, pageIndex, updatePageRecord);
+        else
+          restorePage(fileId, pageIndex, updatePageRecord);
 
         atLeastOnePageUpdate.setValue(true);
       } else if (walRecord instanceof OAtomicUnitStartRecord) {
@@ -5332,6 +5480,32 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  private void restorePage(long fileId, long pageIndex, OUpdatePageRecord updatePageRecord) throws IOException {
+    OCacheEntry cacheEntry = readCache.loadForWrite(fileId, pageIndex, true, writeCache, 1, false);
+    if (cacheEntry == null) {
+      // PAGES MAY BE RESTORED BY SEVERAL THREADS, ONLY ONE OF THEM AT A TIME CAN APPEND PAGES TO THE FILES
+      synchronized (restorePageAllocationLock) {
+        cacheEntry = readCache.loadForWrite(fileId, pageIndex, true, writeCache, 1, false);
+        if (cacheEntry == null) {
+          do {
+            if (cacheEntry != null)
+              readCache.releaseFromWrite(cacheEntry, writeCache);
+
+            cacheEntry = readCache.allocateNewPage(fileId, writeCache, false);
+          } while (cacheEntry.getPageIndex() != pageIndex);
+        }
+      }
+    }
+
+    try {
+      ODurablePage durablePage = new ODurablePage(cacheEntry);
+      durablePage.restoreChanges(updatePageRecord.getChanges());
+      durablePage.setLsn(updatePageRecord.getLsn());
+    } finally {
+      readCache.releaseFromWrite(cacheEntry, writeCache);
+    }
+  }
+
   /**
    * Method which is called before any data modification operation to check alarm conditions such as: <ol> <li>Low disk space</li>
    * <li>Exception during data flush in background threads</li> <li>Broken files</li> </ol>
@@ -5376,6 +5550,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   }
 
   public void checkReadOnlyConditions() {
+    if (mappedReadOnly) {
+      throw new OStorageException("Storage '" + name + "' is opened in read-only mode, data modification is prohibited");
+    }
+
     if (dataFlushException != null) {
       throw OException.wrapException(new OStorageException(
               "Error in data flush background thread, please restart database and send full stack trace inside of bug report"),
@@ -5458,6 +5636,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     return ridsPerCluster;
   }
 
+  /**
+   * Locks the indexes changed by a transaction till the end of its atomic operation, in the order of their names and, for
+   * partitioned indexes, of the names of their partitions, so two commits can not deadlock. The lock scope is chosen by the index
+   * engine, see {@link com.orientechnologies.orient.core.index.OIndexEngine#acquireAtomicExclusiveLock(Object)}: only engines which
+   * keep keys in independent partitions lock the partitions of the changed keys. Locks of single keys are not taken instead of the
+   * engine lock, because the SB-tree and hash table keep their page changes in the atomic operation like clusters do, and lock
+   * themselves as a whole on every change anyway, so two transactions can not change the same tree even if they change different
+   * keys.
+   */
   private void lockIndexes(final TreeMap<String, OTransactionIndexChanges> indexes) {
     for (OTransactionIndexChanges changes : indexes.values()) {
       assert changes.changesPerKey instanceof TreeMap;
@@ -5483,6 +5670,13 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Locks the clusters touched by a transaction till the end of its atomic operation. Changes of the cluster pages are kept in the
+   * atomic operation and applied on commit, so two transactions can not change the same cluster at the same time. Classes written
+   * by many threads can use {@link com.orientechnologies.orient.core.metadata.schema.clusterselection.OThreadClusterSelectionStrategy}
+   * to let their transactions take different cluster locks. Each index changed by a transaction is still locked as a whole by
+   * {@link #lockIndexes(TreeMap)}, so transactions inserting into a class with indexes are committed one at a time anyway.
+   */
   private void lockClusters(final TreeMap<Integer, OCluster> clustersToLock) {
     for (OCluster cluster : clustersToLock.values())
       cluster.acquireAtomicExclusiveLock();
@@ -0,0 +1,200 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdatePageRecord;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies the page changes read from WAL during a data restore using several threads.
+ * <p>
+ * Changes are partitioned by page, so the changes of the same page are always applied by the same thread in the order in which
+ * they were submitted, which is the order of the log. The thread which reads WAL keeps handling file creation and deletion, it has
+ * to call {@link #await()} before any operation which may conflict with the pending page changes.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_RESTORE_THREADS
+ */
+final class OParallelPageRestore {
+  private static final int QUEUE_SIZE = 1024;
+
+  private static final PageChange STOP = new PageChange(-1, -1, null);
+
+  interface PageRestorer {
+    void restorePage(long fileId, long pageIndex, OUpdatePageRecord updatePageRecord) throws IOException;
+  }
+
+  private final PageRestorer restorer;
+  private final Worker[]     workers;
+
+  private final AtomicLong pending      = new AtomicLong();
+  private final Object     pendingMutex = new Object();
+
+  private volatile Throwable failure;
+
+  OParallelPageRestore(final String storageName, final int threads, final PageRestorer restorer) {
+    this.restorer = restorer;
+
+    workers = new Worker[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Worker();
+      workers[i].setName("OrientDB WAL restore storage=" + storageName + " #" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  /**
+   * Submits the change of a page to the thread which is responsible for that page, waiting if its queue is full.
+   */
+  void submit(final long fileId, final long pageIndex, final OUpdatePageRecord updatePageRecord) throws IOException {
+    checkFailure();
+
+    int hash = Long.hashCode(fileId) * 31 + Long.hashCode(pageIndex);
+    hash ^= hash >>> 16;
+
+    final Worker worker = workers[Math.floorMod(hash, workers.length)];
+    final PageChange change = new PageChange(fileId, pageIndex, updatePageRecord);
+
+    pending.incrementAndGet();
+    try {
+      while (!worker.queue.offer(change, 100, TimeUnit.MILLISECONDS)) {
+        if (failure != null) {
+          pending.decrementAndGet();
+          checkFailure();
+        }
+      }
+    } catch (InterruptedException e) {
+      pending.decrementAndGet();
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(new OStorageException("Data restore was interrupted"), e);
+    }
+  }
+
+  /**
+   * Waits till all the submitted changes are applied.
+   */
+  void await() throws IOException {
+    synchronized (pendingMutex) {
+      while (pending.get() > 0) {
+        try {
+          pendingMutex.wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw OException.wrapException(new OStorageException("Data restore was interrupted"), e);
+        }
+      }
+    }
+
+    checkFailure();
+  }
+
+  /**
+   * Stops the threads once the submitted changes are applied.
+   */
+  void shutdown() {
+    for (Worker worker : workers) {
+      try {
+        worker.queue.put(STOP);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        worker.interrupt();
+      }
+    }
+
+    for (Worker worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    final Throwable e = failure;
+    if (e == null)
+      return;
+
+    if (e instanceof IOException)
+      throw (IOException) e;
+    if (e instanceof RuntimeException)
+      throw (RuntimeException) e;
+    if (e instanceof Error)
+      throw (Error) e;
+
+    throw OException.wrapException(new OStorageException("Error during data restore"), e);
+  }
+
+  private final class Worker extends Thread {
+    private final BlockingQueue<PageChange> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    @Override
+    public void run() {
+      while (true) {
+        final PageChange change;
+        try {
+          change = queue.take();
+        } catch (InterruptedException e) {
+          return;
+        }
+
+        if (change == STOP)
+          return;
+
+        try {
+          // ONCE A CHANGE IS FAILED THE REST OF THE QUEUE IS ONLY DRAINED, THE RESTORE IS GOING TO BE STOPPED
+          if (failure == null)
+            restorer.restorePage(change.fileId, change.pageIndex, change.updatePageRecord);
+        } catch (Exception | Error e) {
+          synchronized (pendingMutex) {
+            if (failure == null)
+              failure = e;
+          }
+        } finally {
+          if (pending.decrementAndGet() == 0) {
+            synchronized (pendingMutex) {
+              pendingMutex.notifyAll();
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static final class PageChange {
+    private final long              fileId;
+    private final long              pageIndex;
+    private final OUpdatePageRecord updatePageRecord;
+
+    private PageChange(long fileId, long pageIndex, OUpdatePageRecord updatePageRecord) {
+      this.fileId = fileId;
+      this.pageIndex = pageIndex;
+      this.updatePageRecord = updatePageRecord;
+    }
+  }
+}
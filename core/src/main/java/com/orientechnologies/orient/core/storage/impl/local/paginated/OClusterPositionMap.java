@@ -821,6 +821,30 @@ public class OClusterPositionMap extends ODurableComponent {
     }
   }
 
+  /**
+   * Returns the number of buckets (pages) of the map. Bucket <code>i</code> holds the positions from
+   * <code>i * OClusterPositionMapBucket.MAX_ENTRIES</code> to <code>(i + 1) * OClusterPositionMapBucket.MAX_ENTRIES - 1</code>.
+   */
+  public long getBucketsCount() throws IOException {
+    startOperation();
+    try {
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+          return getFilledUpTo(atomicOperation, fileId);
+        } finally {
+          releaseSharedLock();
+        }
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
   public long getFileId() {
     return fileId;
   }
@@ -183,6 +183,11 @@ public class OOfflineCluster implements OCluster {
     return ORID.CLUSTER_POS_INVALID;
   }
 
+  @Override
+  public long[][] getPositionSplits(int maxSplits) throws IOException {
+    return new long[][] { { ORID.CLUSTER_POS_INVALID, ORID.CLUSTER_POS_INVALID } };
+  }
+
   @Override
   public String getFileName() {
     throw new OOfflineClusterException("Cannot return filename of offline cluster '" + name + "'");
@@ -1525,6 +1525,47 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
     }
   }
 
+  @Override
+  public long[][] getPositionSplits(final int maxSplits) throws IOException {
+    startOperation();
+    try {
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          final long buckets = clusterPositionMap.getBucketsCount();
+          final int splits = (int) Math.max(1, Math.min(maxSplits, buckets));
+
+          final long bucketsPerSplit = buckets / splits;
+          final long remainder = buckets % splits;
+
+          final long[][] result = new long[splits][];
+          long firstBucket = 0;
+          for (int i = 0; i < splits; i++) {
+            final long splitBuckets = bucketsPerSplit + (i < remainder ? 1 : 0);
+
+            // THE FIRST AND THE LAST SPLIT ARE OPEN, SO THE SPLITS COVER ALSO POSITIONS ALLOCATED LATER
+            final long first = i == 0 ? ORID.CLUSTER_POS_INVALID : firstBucket * OClusterPositionMapBucket.MAX_ENTRIES;
+            final long last = i == splits - 1 ?
+                ORID.CLUSTER_POS_INVALID :
+                (firstBucket + splitBuckets) * OClusterPositionMapBucket.MAX_ENTRIES - 1;
+
+            result[i] = new long[] { first, last };
+            firstBucket += splitBuckets;
+          }
+
+          return result;
+        } finally {
+          releaseSharedLock();
+        }
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
   @Override
   public String getFileName() {
     startOperation();
@@ -426,6 +426,10 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
         currentOperation.set(null);
       }
 
+      //components are already unlocked, so concurrent operations are able to join the same group commit
+      if (lsn != null && !rollback && !operation.isRollback())
+        writeAheadLog.flushOnCommit(lsn);
+
     } else {
       lsn = null;
       operation.decrementCounter();
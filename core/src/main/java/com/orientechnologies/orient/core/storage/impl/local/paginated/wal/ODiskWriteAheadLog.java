@@ -57,7 +57,10 @@ import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 import java.util.zip.CRC32;
 
@@ -124,6 +127,50 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
   private final ConcurrentNavigableMap<OLogSequenceNumber, Runnable> events = new ConcurrentSkipListMap<>();
 
+  /**
+   * If <code>true</code> commit of atomic operation waits till WAL is synced, see {@link #flushOnCommit(OLogSequenceNumber)}.
+   *
+   * @see OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  private final boolean groupCommit;
+
+  /**
+   * Maximum time in microseconds during which commits are collected in a single group.
+   */
+  private final int groupCommitMaxDelay;
+
+  /**
+   * Maximum amount of commits in a single group.
+   */
+  private final int groupCommitMaxBatch;
+
+  /**
+   * Executor which syncs WAL for collected groups of commits, <code>null</code> if group commit is switched off.
+   */
+  private final OScheduledThreadPoolExecutorWithLogging groupCommitExecutor;
+
+  private final Lock        groupCommitLock = new ReentrantLock();
+  /**
+   * Group of commits which is collected at the moment, <code>null</code> if there are no commits waiting for WAL sync.
+   */
+  private       GroupCommit pendingGroupCommit;
+
+  private final    LongAdder groupCommitCount        = new LongAdder();
+  private final    LongAdder groupCommitRequestCount = new LongAdder();
+  private volatile int       maxGroupCommitSize;
+
+  /**
+   * Size in bytes starting from which records are compressed, <code>0</code> or a negative value if records are never compressed.
+   *
+   * @see OGlobalConfiguration#WAL_COMPRESSION_THRESHOLD
+   */
+  private final int compressionThreshold;
+
+  private final LongAdder compressedRecordsCount = new LongAdder();
+  private final LongAdder uncompressedBytes      = new LongAdder();
+  private final LongAdder compressedBytes        = new LongAdder();
+  private final LongAdder compressionTime        = new LongAdder();
+
   public ODiskWriteAheadLog(OLocalPaginatedStorage storage) throws IOException {
     this(storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_CACHE_SIZE),
         storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_COMMIT_TIMEOUT),
@@ -131,7 +178,11 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         storage.getConfiguration().getContextConfiguration().getValueAsString(OGlobalConfiguration.WAL_LOCATION), true, storage,
         storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_SEGMENT_BUFFER_SIZE)
             * ONE_MB,
-        storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_FILE_AUTOCLOSE_INTERVAL));
+        storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_FILE_AUTOCLOSE_INTERVAL),
+        storage.getConfiguration().getContextConfiguration().getValueAsBoolean(OGlobalConfiguration.WAL_GROUP_COMMIT),
+        storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_DELAY),
+        storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BATCH),
+        storage.getConfiguration().getContextConfiguration().getValueAsInteger(OGlobalConfiguration.WAL_COMPRESSION_THRESHOLD));
   }
 
   @Override
@@ -174,7 +225,24 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
   public ODiskWriteAheadLog(int maxPagesCacheSize, int commitDelay, long maxSegmentSize, final String walPath,
       boolean filterWALFiles, final OLocalPaginatedStorage storage, int segmentBufferSize, int fileTTL) throws IOException {
+    this(maxPagesCacheSize, commitDelay, maxSegmentSize, walPath, filterWALFiles, storage, segmentBufferSize, fileTTL, false, 0, 0);
+  }
+
+  public ODiskWriteAheadLog(int maxPagesCacheSize, int commitDelay, long maxSegmentSize, final String walPath,
+      boolean filterWALFiles, final OLocalPaginatedStorage storage, int segmentBufferSize, int fileTTL, boolean groupCommit,
+      int groupCommitMaxDelay, int groupCommitMaxBatch) throws IOException {
+    this(maxPagesCacheSize, commitDelay, maxSegmentSize, walPath, filterWALFiles, storage, segmentBufferSize, fileTTL, groupCommit,
+        groupCommitMaxDelay, groupCommitMaxBatch, 0);
+  }
+
+  public ODiskWriteAheadLog(int maxPagesCacheSize, int commitDelay, long maxSegmentSize, final String walPath,
+      boolean filterWALFiles, final OLocalPaginatedStorage storage, int segmentBufferSize, int fileTTL, boolean groupCommit,
+      int groupCommitMaxDelay, int groupCommitMaxBatch, int compressionThreshold) throws IOException {
     this.fileTTL = fileTTL;
+    this.compressionThreshold = compressionThreshold;
+    this.groupCommit = groupCommit;
+    this.groupCommitMaxDelay = groupCommitMaxDelay;
+    this.groupCommitMaxBatch = groupCommitMaxBatch;
     this.segmentBufferSize = segmentBufferSize;
     this.maxPagesCacheSize = maxPagesCacheSize;
     this.commitDelay = commitDelay;
@@ -199,6 +267,19 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     });
     commitExecutor.setMaximumPoolSize(1);
 
+    if (groupCommit) {
+      groupCommitExecutor = new OScheduledThreadPoolExecutorWithLogging(1, r -> {
+        final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+        thread.setDaemon(true);
+        thread.setName("OrientDB WAL Group Commit Task (" + getStorage().getName() + ")");
+        thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+        return thread;
+      });
+      groupCommitExecutor.setMaximumPoolSize(1);
+    } else {
+      groupCommitExecutor = null;
+    }
+
     try {
       this.walLocation = calculateWalPath(this.storage, walPath);
       this.fileStore = Files.getFileStore(walLocation);
@@ -469,6 +550,113 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     last.flush();
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Commits which are performed concurrently are collected in a group, the group is closed once {@link
+   * OGlobalConfiguration#WAL_GROUP_COMMIT_MAX_DELAY} is elapsed since the first commit of the group or once {@link
+   * OGlobalConfiguration#WAL_GROUP_COMMIT_MAX_BATCH} commits are collected. Then WAL is synced once for all commits of the group.
+   */
+  @Override
+  public void flushOnCommit(OLogSequenceNumber lsn) {
+    if (!groupCommit || lsn == null)
+      return;
+
+    final OLogSequenceNumber flushed = flushedLsn;
+    if (flushed != null && flushed.compareTo(lsn) >= 0)
+      return;
+
+    final GroupCommit group;
+    groupCommitLock.lock();
+    try {
+      if (pendingGroupCommit == null) {
+        final GroupCommit newGroup = new GroupCommit();
+        try {
+          groupCommitExecutor.schedule(newGroup, groupCommitMaxDelay, TimeUnit.MICROSECONDS);
+        } catch (RejectedExecutionException e) {
+          throw OException.wrapException(new OStorageException("WAL of storage '" + storage.getName() + "' is closed"), e);
+        }
+
+        pendingGroupCommit = newGroup;
+      }
+
+      group = pendingGroupCommit;
+      group.size++;
+      if (group.lsn == null || group.lsn.compareTo(lsn) < 0)
+        group.lsn = lsn;
+
+      //group is full, it is not needed to wait any more
+      if (group.size >= groupCommitMaxBatch) {
+        pendingGroupCommit = null;
+        try {
+          groupCommitExecutor.execute(group);
+        } catch (RejectedExecutionException ignore) {
+          //WAL is closed, delayed start of the group is still executed after shutdown
+        }
+      }
+    } finally {
+      groupCommitLock.unlock();
+    }
+
+    try {
+      group.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(new OInterruptedException("Waiting for WAL sync was interrupted"), e);
+    } catch (ExecutionException e) {
+      throw OException.wrapException(new OStorageException("Error during WAL sync of storage '" + storage.getName() + "'"),
+          e.getCause());
+    }
+  }
+
+  /**
+   * @return Amount of times when WAL was synced for a group of commits.
+   */
+  public long getGroupCommitCount() {
+    return groupCommitCount.sum();
+  }
+
+  /**
+   * @return Amount of commits which waited for WAL sync in all groups.
+   */
+  public long getGroupCommitRequestCount() {
+    return groupCommitRequestCount.sum();
+  }
+
+  /**
+   * @return Maximum amount of commits in a single group.
+   */
+  public int getMaxGroupCommitSize() {
+    return maxGroupCommitSize;
+  }
+
+  /**
+   * @return Amount of records which were compressed before being written.
+   *
+   * @see OGlobalConfiguration#WAL_COMPRESSION_THRESHOLD
+   */
+  public long getCompressedRecordsCount() {
+    return compressedRecordsCount.sum();
+  }
+
+  /**
+   * @return Size of the compressed records in percents of their original size, or <code>-1</code> if no record was compressed.
+   */
+  public long getCompressionRatio() {
+    final long uncompressed = uncompressedBytes.sum();
+    if (uncompressed == 0)
+      return -1;
+
+    return compressedBytes.sum() * 100 / uncompressed;
+  }
+
+  /**
+   * @return Time in nanoseconds spent to compress records, including the attempts which did not make records smaller.
+   */
+  public long getCompressionTime() {
+    return compressionTime.sum();
+  }
+
   @Override
   public OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException {
     final OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
@@ -477,7 +665,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       statistic.startWALLogRecordTimer();
     try {
       OAtomicUnitStartRecord record = new OAtomicUnitStartRecord(isRollbackSupported, unitId);
-      byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+      byte[] content = serializeRecord(record);
       syncObject.lock();
       try {
         checkForClose();
@@ -503,7 +691,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       statistic.startWALLogRecordTimer();
     try {
       OAtomicUnitEndRecord record = new OAtomicUnitEndRecord(operationUnitId, rollback, atomicOperationMetadata);
-      byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+      byte[] content = serializeRecord(record);
       syncObject.lock();
       try {
         checkForClose();
@@ -527,7 +715,7 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     if (statistic != null)
       statistic.startWALLogRecordTimer();
     try {
-      return internalLog(record, OWALRecordsFactory.INSTANCE.toStream(record));
+      return internalLog(record, serializeRecord(record));
     } finally {
       if (statistic != null)
         statistic.stopWALRecordTimer(false, false);
@@ -535,6 +723,28 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
   }
 
+  /**
+   * Serializes the record, compressing it if it is not smaller than {@link #compressionThreshold}.
+   */
+  private byte[] serializeRecord(OWALRecord record) {
+    final byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+    if (compressionThreshold <= 0 || content.length < compressionThreshold)
+      return content;
+
+    final long start = System.nanoTime();
+    final byte[] compressed = OWALRecordsFactory.INSTANCE.compress(content);
+    compressionTime.add(System.nanoTime() - start);
+
+    if (compressed == null)
+      return content;
+
+    compressedRecordsCount.increment();
+    uncompressedBytes.add(content.length);
+    compressedBytes.add(compressed.length);
+
+    return compressed;
+  }
+
   /**
    * it log a record getting the serialized content as parameter.
    */
@@ -787,6 +997,10 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
         }
       }
 
+      //groups which are not synced yet will find that their data is already flushed by close
+      if (groupCommitExecutor != null)
+        groupCommitExecutor.shutdown();
+
       if (!events.isEmpty()) {
         OLogManager.instance().warn(this, "There are unfired events left waiting to happen after the shutdown.");
         assert false;
@@ -1225,6 +1439,58 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     }
   }
 
+  /**
+   * Group of commits which wait for WAL sync.
+   */
+  private final class GroupCommit implements Runnable {
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    //fields are guarded by groupCommitLock
+    private int                size;
+    private OLogSequenceNumber lsn;
+    private boolean            started;
+
+    @Override
+    public void run() {
+      final int groupSize;
+      final OLogSequenceNumber groupLsn;
+
+      groupCommitLock.lock();
+      try {
+        //group may be started twice, once it is full and once delay is elapsed
+        if (started)
+          return;
+
+        started = true;
+        if (pendingGroupCommit == this)
+          pendingGroupCommit = null;
+
+        groupSize = size;
+        groupLsn = lsn;
+      } finally {
+        groupCommitLock.unlock();
+      }
+
+      try {
+        flush();
+      } catch (RuntimeException | Error e) {
+        //WAL may be closed concurrently, in such case data are flushed during close
+        final OLogSequenceNumber flushed = flushedLsn;
+        if (flushed == null || flushed.compareTo(groupLsn) < 0) {
+          future.completeExceptionally(e);
+          return;
+        }
+      }
+
+      groupCommitCount.increment();
+      groupCommitRequestCount.add(groupSize);
+      if (groupSize > maxGroupCommitSize)
+        maxGroupCommitSize = groupSize;
+
+      future.complete(null);
+    }
+  }
+
   private void fireEventsFor(OLogSequenceNumber lsn) {
     // may be executed by only one thread at every instant of time
 
@@ -20,8 +20,14 @@
 
 package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
@@ -33,6 +39,16 @@ public class OWALRecordsFactory {
 
   public static final OWALRecordsFactory INSTANCE    = new OWALRecordsFactory();
 
+  /**
+   * Type of the records compressed by {@link #compress(byte[])}. It is followed by the type of the original record, by the size of
+   * its content and by the deflated content.
+   */
+  private static final byte COMPRESSED_RECORD      = 14;
+  private static final int  COMPRESSED_HEADER_SIZE = 2 + OIntegerSerializer.INT_SIZE;
+
+  private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+  private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
   public byte[] toStream(OWALRecord walRecord) {
     int contentSize = walRecord.serializedSize() + 1;
     byte[] content = new byte[contentSize];
@@ -69,7 +85,46 @@ public class OWALRecordsFactory {
     return content;
   }
 
+  /**
+   * Compresses a record serialized by {@link #toStream(OWALRecord)}. Compressed records are restored transparently by {@link
+   * #fromStream(byte[])}.
+   *
+   * @return the compressed record or <code>null</code> if the compression does not make the record smaller
+   */
+  public byte[] compress(byte[] content) {
+    if (content.length <= COMPRESSED_HEADER_SIZE + 1)
+      return null;
+
+    final Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    deflater.setInput(content, 1, content.length - 1);
+    deflater.finish();
+
+    // THE COMPRESSED RECORD IS USEFUL ONLY IF IT IS SMALLER THAN THE ORIGINAL ONE
+    final byte[] compressed = new byte[content.length - 1];
+    compressed[0] = COMPRESSED_RECORD;
+    compressed[1] = content[0];
+    OIntegerSerializer.INSTANCE.serializeNative(content.length - 1, compressed, 2);
+
+    int size = COMPRESSED_HEADER_SIZE;
+    while (!deflater.finished() && size < compressed.length) {
+      final int deflated = deflater.deflate(compressed, size, compressed.length - size);
+      if (deflated == 0)
+        break;
+
+      size += deflated;
+    }
+
+    if (!deflater.finished())
+      return null;
+
+    return Arrays.copyOf(compressed, size);
+  }
+
   public OWALRecord fromStream(byte[] content) {
+    if (content[0] == COMPRESSED_RECORD)
+      content = decompress(content);
+
     OWALRecord walRecord;
     switch (content[0]) {
     case 0:
@@ -121,7 +176,42 @@ public class OWALRecordsFactory {
     return walRecord;
   }
 
+  private static byte[] decompress(byte[] compressed) {
+    final int contentSize = OIntegerSerializer.INSTANCE.deserializeNative(compressed, 2);
+    final byte[] content = new byte[contentSize + 1];
+    content[0] = compressed[1];
+
+    final Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(compressed, COMPRESSED_HEADER_SIZE, compressed.length - COMPRESSED_HEADER_SIZE);
+
+    try {
+      int size = 1;
+      while (size < content.length) {
+        final int inflated = inflater.inflate(content, size, content.length - size);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+          break;
+
+        size += inflated;
+      }
+
+      if (size < content.length)
+        throw new IllegalStateException("Cannot decompress wal record, its content is truncated.");
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Cannot decompress wal record.", e);
+    }
+
+    return content;
+  }
+
+  /**
+   * Registers the type of records which are not known by the factory, the id {@value #COMPRESSED_RECORD} is reserved for compressed
+   * records.
+   */
   public void registerNewRecord(byte id, Class<? extends OWALRecord> type) {
+    if (id == COMPRESSED_RECORD)
+      throw new IllegalArgumentException("Id " + id + " is reserved for compressed wal records and cannot be registered.");
+
     typeToIdMap.put(type, id);
     idToTypeMap.put(id, type);
   }
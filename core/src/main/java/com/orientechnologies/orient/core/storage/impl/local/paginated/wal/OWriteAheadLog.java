@@ -52,6 +52,14 @@ public interface OWriteAheadLog {
 
   void flush();
 
+  /**
+   * Called once atomic operation is committed. If WAL works in group commit mode method returns only after WAL content is synced
+   * on disk at least till passed in LSN, otherwise method returns immediately.
+   *
+   * @param lsn LSN of the record which completes atomic operation.
+   */
+  void flushOnCommit(OLogSequenceNumber lsn);
+
   OLogSequenceNumber logAtomicOperationStartRecord(boolean isRollbackSupported, OOperationUnitId unitId) throws IOException;
 
   OLogSequenceNumber logAtomicOperationEndRecord(OOperationUnitId operationUnitId, boolean rollback, OLogSequenceNumber startLsn,
@@ -30,6 +30,7 @@ import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
 import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
 import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OShardedReadCache;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.ODiskWriteAheadLog;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
@@ -181,6 +182,48 @@ public class OPerformanceStatisticManager {
    */
   private long walCacheOverflowCount = -1;
 
+  /**
+   * Amount of times when WAL was synced for a group of commits.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walGroupCommitCount = -1;
+
+  /**
+   * Amount of commits which waited for WAL sync in all groups.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walGroupCommitRequestCount = -1;
+
+  /**
+   * Maximum amount of commits in a single group of commits.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walMaxGroupCommitSize = -1;
+
+  /**
+   * Amount of WAL records which were compressed before being written.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walCompressedRecordsCount = -1;
+
+  /**
+   * Size of compressed WAL records in percents of their original size.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walCompressionRatio = -1;
+
+  /**
+   * Time in nanoseconds spent to compress WAL records.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walCompressionTime = -1;
+
   /**
    * Size of read cache in bytes.
    * Value is updated on demand if monitoring is switched on.
@@ -236,7 +279,7 @@ public class OPerformanceStatisticManager {
    * disk based storage.
    * Initialized on demand.
    */
-  private volatile O2QCache readCache;
+  private volatile OReadCache readCache;
 
   /**
    * Flags which indicates whether {@link #writeAheadLog} field is initialized on demand.
@@ -283,13 +326,13 @@ public class OPerformanceStatisticManager {
   /**
    * @return Returns current instance of read cache and initializes local reference if such one is not initialized yet.
    */
-  private O2QCache gerReadCache() {
+  private OReadCache gerReadCache() {
     if (readCacheInitialized)
       return readCache;
 
     final OReadCache cache = storage.getReadCache();
-    if (cache instanceof O2QCache) {
-      this.readCache = (O2QCache) cache;
+    if (cache instanceof O2QCache || cache instanceof OShardedReadCache) {
+      this.readCache = cache;
     } else {
       this.readCache = null;
     }
@@ -927,7 +970,7 @@ public class OPerformanceStatisticManager {
     switchLock.acquireReadLock();
     try {
       if (enabled) {
-        final O2QCache cache = gerReadCache();
+        final OReadCache cache = gerReadCache();
         if (cache != null)
           readCacheSize = cache.getUsedMemory();
 
@@ -1047,6 +1090,139 @@ public class OPerformanceStatisticManager {
     }
   }
 
+  /**
+   * @return Amount of times when WAL was synced for a group of commits or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  public long getWALGroupCommitCount() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walGroupCommitCount = wal.getGroupCommitCount();
+
+        return walGroupCommitCount;
+      } else {
+        return walGroupCommitCount;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Amount of commits which waited for WAL sync in all groups or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  public long getWALGroupCommitRequestCount() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walGroupCommitRequestCount = wal.getGroupCommitRequestCount();
+
+        return walGroupCommitRequestCount;
+      } else {
+        return walGroupCommitRequestCount;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Maximum amount of commits in a single group of commits or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  public long getWALMaxGroupCommitSize() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walMaxGroupCommitSize = wal.getMaxGroupCommitSize();
+
+        return walMaxGroupCommitSize;
+      } else {
+        return walMaxGroupCommitSize;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Amount of WAL records which were compressed before being written or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_COMPRESSION_THRESHOLD
+   */
+  public long getWALCompressedRecordsCount() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walCompressedRecordsCount = wal.getCompressedRecordsCount();
+
+        return walCompressedRecordsCount;
+      } else {
+        return walCompressedRecordsCount;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Size of compressed WAL records in percents of their original size or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_COMPRESSION_THRESHOLD
+   */
+  public long getWALCompressionRatio() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walCompressionRatio = wal.getCompressionRatio();
+
+        return walCompressionRatio;
+      } else {
+        return walCompressionRatio;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Time in nanoseconds spent to compress WAL records or <code>-1</code> if value is undefined
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#WAL_COMPRESSION_THRESHOLD
+   */
+  public long getWALCompressionTime() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walCompressionTime = wal.getCompressionTime();
+
+        return walCompressionTime;
+      } else {
+        return walCompressionTime;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+
   /**
    * @return time which is spent on logging of single record or <code>-1</code> if value is undefined.
    */
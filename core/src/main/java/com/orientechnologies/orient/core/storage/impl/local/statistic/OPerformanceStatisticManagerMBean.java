@@ -132,6 +132,36 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
    */
   private static final String WAL_CACHE_OVERFLOW_COUNT = "walCacheOverflowCount";
 
+  /**
+   * Name of "walGroupCommitCount" performance attribute
+   */
+  private static final String WAL_GROUP_COMMIT_COUNT = "walGroupCommitCount";
+
+  /**
+   * Name of "walGroupCommitRequestCount" performance attribute
+   */
+  private static final String WAL_GROUP_COMMIT_REQUEST_COUNT = "walGroupCommitRequestCount";
+
+  /**
+   * Name of "walMaxGroupCommitSize" performance attribute
+   */
+  private static final String WAL_MAX_GROUP_COMMIT_SIZE = "walMaxGroupCommitSize";
+
+  /**
+   * Name of "walCompressedRecordsCount" performance attribute
+   */
+  private static final String WAL_COMPRESSED_RECORDS_COUNT = "walCompressedRecordsCount";
+
+  /**
+   * Name of "walCompressionRatio" performance attribute
+   */
+  private static final String WAL_COMPRESSION_RATIO = "walCompressionRatio";
+
+  /**
+   * Name of "walCompressionTime" performance attribute
+   */
+  private static final String WAL_COMPRESSION_TIME = "walCompressionTime";
+
   /**
    * Name of "walLogTime" performance attribute
    */
@@ -291,6 +321,42 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
       else
         throwComponentsAreNotSupported(WAL_CACHE_OVERFLOW_COUNT);
       break;
+    case WAL_GROUP_COMMIT_COUNT:
+      if (componentName == null)
+        return manager.getWALGroupCommitCount();
+      else
+        throwComponentsAreNotSupported(WAL_GROUP_COMMIT_COUNT);
+      break;
+    case WAL_GROUP_COMMIT_REQUEST_COUNT:
+      if (componentName == null)
+        return manager.getWALGroupCommitRequestCount();
+      else
+        throwComponentsAreNotSupported(WAL_GROUP_COMMIT_REQUEST_COUNT);
+      break;
+    case WAL_MAX_GROUP_COMMIT_SIZE:
+      if (componentName == null)
+        return manager.getWALMaxGroupCommitSize();
+      else
+        throwComponentsAreNotSupported(WAL_MAX_GROUP_COMMIT_SIZE);
+      break;
+    case WAL_COMPRESSED_RECORDS_COUNT:
+      if (componentName == null)
+        return manager.getWALCompressedRecordsCount();
+      else
+        throwComponentsAreNotSupported(WAL_COMPRESSED_RECORDS_COUNT);
+      break;
+    case WAL_COMPRESSION_RATIO:
+      if (componentName == null)
+        return manager.getWALCompressionRatio();
+      else
+        throwComponentsAreNotSupported(WAL_COMPRESSION_RATIO);
+      break;
+    case WAL_COMPRESSION_TIME:
+      if (componentName == null)
+        return manager.getWALCompressionTime();
+      else
+        throwComponentsAreNotSupported(WAL_COMPRESSION_TIME);
+      break;
     case WAL_LOG_TIME:
       if (componentName == null)
         return manager.getWALLogRecordTime();
@@ -433,6 +499,12 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
 
     populateWALSize(performanceAttributes);
     populateWALCacheOverflowCount(performanceAttributes);
+    populateWALGroupCommitCount(performanceAttributes);
+    populateWALGroupCommitRequestCount(performanceAttributes);
+    populateWALMaxGroupCommitSize(performanceAttributes);
+    populateWALCompressedRecordsCount(performanceAttributes);
+    populateWALCompressionRatio(performanceAttributes);
+    populateWALCompressionTime(performanceAttributes);
     populateWALLogTime(performanceAttributes);
     populateWALEndAOLogTime(performanceAttributes);
     populateWALStartAOLogTime(performanceAttributes);
@@ -582,6 +654,48 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
     performanceAttributes.add(walCacheOverflowCount);
   }
 
+  private void populateWALGroupCommitCount(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walGroupCommitCount = new ModelMBeanAttributeInfo(WAL_GROUP_COMMIT_COUNT, long.class.getName(),
+        "Count of times when WAL was synced for a group of commits", true, false, false);
+
+    performanceAttributes.add(walGroupCommitCount);
+  }
+
+  private void populateWALGroupCommitRequestCount(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walGroupCommitRequestCount = new ModelMBeanAttributeInfo(WAL_GROUP_COMMIT_REQUEST_COUNT, long.class.getName(),
+        "Count of commits which waited for WAL sync in all groups of commits", true, false, false);
+
+    performanceAttributes.add(walGroupCommitRequestCount);
+  }
+
+  private void populateWALMaxGroupCommitSize(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walMaxGroupCommitSize = new ModelMBeanAttributeInfo(WAL_MAX_GROUP_COMMIT_SIZE, long.class.getName(),
+        "Maximum count of commits in a single group of commits", true, false, false);
+
+    performanceAttributes.add(walMaxGroupCommitSize);
+  }
+
+  private void populateWALCompressedRecordsCount(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walCompressedRecordsCount = new ModelMBeanAttributeInfo(WAL_COMPRESSED_RECORDS_COUNT, long.class.getName(),
+        "Count of WAL records which were compressed before being written", true, false, false);
+
+    performanceAttributes.add(walCompressedRecordsCount);
+  }
+
+  private void populateWALCompressionRatio(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walCompressionRatio = new ModelMBeanAttributeInfo(WAL_COMPRESSION_RATIO, long.class.getName(),
+        "Size of compressed WAL records in percents of their original size", true, false, false);
+
+    performanceAttributes.add(walCompressionRatio);
+  }
+
+  private void populateWALCompressionTime(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walCompressionTime = new ModelMBeanAttributeInfo(WAL_COMPRESSION_TIME, long.class.getName(),
+        "Time in nanoseconds spent to compress WAL records", true, false, false);
+
+    performanceAttributes.add(walCompressionTime);
+  }
+
   private void populateWALLogTime(List<MBeanAttributeInfo> performanceAttributes) {
     final MBeanAttributeInfo walLogTime = new ModelMBeanAttributeInfo(WAL_LOG_TIME, long.class.getName(),
         "Time which is spent to log single record in WAL", true, false, false);
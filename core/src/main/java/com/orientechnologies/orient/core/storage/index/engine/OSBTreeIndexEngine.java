@@ -24,6 +24,7 @@ import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTree;
+import com.orientechnologies.orient.core.storage.index.sbtree.local.OSBTreeBulkLoader;
 import com.orientechnologies.orient.core.iterator.OEmptyIterator;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -38,7 +39,10 @@ import java.util.Set;
  * @since 8/30/13
  */
 public class OSBTreeIndexEngine implements OIndexEngine {
-  public static final int VERSION = 1;
+  /**
+   * Trees of indexes created since version 2 keep keys in normalized prefix compressed form if types of keys allow that.
+   */
+  public static final int VERSION = 2;
 
   public static final String DATA_FILE_EXTENSION        = ".sbt";
   public static final String NULL_BUCKET_FILE_EXTENSION = ".nbt";
@@ -51,7 +55,7 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     this.name = name;
     this.version = version;
 
-    sbTree = new OSBTree<>(name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage);
+    sbTree = new OSBTree<>(name, DATA_FILE_EXTENSION, NULL_BUCKET_FILE_EXTENSION, storage, version >= 2);
   }
 
   @Override
@@ -166,6 +170,15 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     return sbTree.validatedPut(key, value, (Validator) validator);
   }
 
+  /**
+   * @see OSBTreeBulkLoader
+   */
+  @SuppressWarnings("unchecked")
+  public OSBTreeBulkLoader<Object, Object> createBulkLoader(int maxInMemory, int fillFactor,
+      Validator<Object, OIdentifiable> validator) {
+    return new OSBTreeBulkLoader<>(sbTree, maxInMemory, fillFactor, (Validator) validator);
+  }
+
   @Override
   public Object getFirstKey() {
     return sbTree.firstKey();
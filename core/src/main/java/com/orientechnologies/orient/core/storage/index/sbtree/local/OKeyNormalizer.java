@@ -0,0 +1,386 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.comparator.OUnsafeByteArrayComparator;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
+import com.orientechnologies.orient.core.index.OAlwaysLessKey;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Converts keys of {@link OSBTree} into binary form which preserves order of keys, so keys may be compared byte by byte without
+ * deserialization (as unsigned bytes), and restores keys from this form.
+ * <p>
+ * Keys which consist of single value of one of supported types and composite keys which consist of values of supported types are
+ * normalized. Numbers are stored in big-endian order with inverted sign bit, strings are stored as sequence of UTF-16 characters
+ * each of them is encoded with UTF-8 like variable length code and terminated by zero byte. Every item of composite key is
+ * preceded by marker which places <code>null</code> before all values and {@link OAlwaysLessKey}/{@link OAlwaysGreaterKey} before
+ * and after all values.
+ * <p>
+ * If one normalized key is prefix of another they are considered to be equal, this is the way how partial composite keys are
+ * compared with {@link OCompositeKey#compareTo(OCompositeKey)}.
+ * <p>
+ * Format of normalized keys is part of on-disk format of {@link OSBTree} buckets, so set of supported types and their encoding can
+ * not be changed without change of version of the tree.
+ */
+final class OKeyNormalizer<K> {
+  private static final byte ALWAYS_LESS    = 0;
+  private static final byte NULL           = 1;
+  private static final byte NOT_NULL       = 2;
+  private static final byte ALWAYS_GREATER = (byte) 0xFF;
+
+  private final OType[] types;
+  private final boolean composite;
+
+  private OKeyNormalizer(OType[] types, boolean composite) {
+    this.types = types;
+    this.composite = composite;
+  }
+
+  /**
+   * @return normalizer of keys of the tree or <code>null</code> if keys of tree can not be normalized.
+   */
+  static <K> OKeyNormalizer<K> create(OBinarySerializer<K> keySerializer, OType[] keyTypes) {
+    if (keyTypes == null || keyTypes.length == 0)
+      return null;
+
+    for (OType keyType : keyTypes) {
+      if (!isSupported(keyType))
+        return null;
+    }
+
+    if (keySerializer.getId() == OCompositeKeySerializer.ID)
+      return new OKeyNormalizer<K>(Arrays.copyOf(keyTypes, keyTypes.length), true);
+
+    if (keyTypes.length == 1
+        && OBinarySerializerFactory.getInstance().getObjectSerializer(keyTypes[0]).getId() == keySerializer.getId())
+      return new OKeyNormalizer<K>(Arrays.copyOf(keyTypes, 1), false);
+
+    return null;
+  }
+
+  private static boolean isSupported(OType type) {
+    if (type == null)
+      return false;
+
+    switch (type) {
+    case BOOLEAN:
+    case BYTE:
+    case SHORT:
+    case INTEGER:
+    case LONG:
+    case FLOAT:
+    case DOUBLE:
+    case DATE:
+    case DATETIME:
+    case STRING:
+    case LINK:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  byte[] normalize(K key) {
+    final Output output = new Output();
+
+    if (composite) {
+      final List<Object> keys = ((OCompositeKey) key).getKeys();
+      // items which are absent in the tree keys are ignored the same way as it is done by OCompositeKey#compareTo
+      final int size = Math.min(keys.size(), types.length);
+
+      for (int i = 0; i < size; i++) {
+        final Object item = keys.get(i);
+
+        if (item == null)
+          output.write(NULL);
+        else if (item instanceof OAlwaysLessKey)
+          output.write(ALWAYS_LESS);
+        else if (item instanceof OAlwaysGreaterKey)
+          output.write(ALWAYS_GREATER);
+        else {
+          output.write(NOT_NULL);
+          normalize(types[i], item, output);
+        }
+      }
+    } else
+      normalize(types[0], key, output);
+
+    return output.toByteArray();
+  }
+
+  @SuppressWarnings("unchecked")
+  K denormalize(byte[] normalizedKey) {
+    final Input input = new Input(normalizedKey);
+
+    if (composite) {
+      final OCompositeKey compositeKey = new OCompositeKey();
+
+      for (OType type : types) {
+        if (input.read() == NULL)
+          compositeKey.addKey(null);
+        else
+          compositeKey.addKey(denormalize(type, input));
+      }
+
+      return (K) compositeKey;
+    }
+
+    return (K) denormalize(types[0], input);
+  }
+
+  /**
+   * Compares normalized keys.
+   */
+  static int compare(byte[] keyOne, int offsetOne, byte[] keyTwo, int offsetTwo) {
+    final int length = Math.min(keyOne.length - offsetOne, keyTwo.length - offsetTwo);
+    return OUnsafeByteArrayComparator.compare(keyOne, offsetOne, keyTwo, offsetTwo, length);
+  }
+
+  /**
+   * @return length of common prefix of given normalized keys.
+   */
+  static int commonPrefix(byte[] keyOne, byte[] keyTwo, int maxLength) {
+    final int length = Math.min(maxLength, Math.min(keyOne.length, keyTwo.length));
+    for (int i = 0; i < length; i++) {
+      if (keyOne[i] != keyTwo[i])
+        return i;
+    }
+
+    return length;
+  }
+
+  private static void normalize(OType type, Object value, Output output) {
+    switch (type) {
+    case BOOLEAN:
+      output.write((Boolean) value ? (byte) 1 : (byte) 0);
+      break;
+    case BYTE:
+      output.write((byte) (integralValue(type, value, Byte.MIN_VALUE, Byte.MAX_VALUE) ^ Byte.MIN_VALUE));
+      break;
+    case SHORT:
+      output.writeShort((short) (integralValue(type, value, Short.MIN_VALUE, Short.MAX_VALUE) ^ Short.MIN_VALUE));
+      break;
+    case INTEGER:
+      output.writeInt((int) integralValue(type, value, Integer.MIN_VALUE, Integer.MAX_VALUE) ^ Integer.MIN_VALUE);
+      break;
+    case LONG:
+      output.writeLong(integralValue(type, value, Long.MIN_VALUE, Long.MAX_VALUE) ^ Long.MIN_VALUE);
+      break;
+    case FLOAT:
+      final int floatBits = Float.floatToIntBits(((Number) value).floatValue());
+      output.writeInt(floatBits ^ ((floatBits >> 31) | Integer.MIN_VALUE));
+      break;
+    case DOUBLE:
+      final long doubleBits = Double.doubleToLongBits(((Number) value).doubleValue());
+      output.writeLong(doubleBits ^ ((doubleBits >> 63) | Long.MIN_VALUE));
+      break;
+    case DATE:
+    case DATETIME:
+      output.writeLong(((Date) value).getTime() ^ Long.MIN_VALUE);
+      break;
+    case STRING:
+      final String string = (String) value;
+      for (int i = 0; i < string.length(); i++) {
+        // characters are shifted by one, so zero byte is never used by them and terminates string
+        final int code = string.charAt(i) + 1;
+
+        if (code < 0x80)
+          output.write((byte) code);
+        else if (code < 0x800) {
+          output.write((byte) (0xC0 | (code >> 6)));
+          output.write((byte) (0x80 | (code & 0x3F)));
+        } else if (code < 0x10000) {
+          output.write((byte) (0xE0 | (code >> 12)));
+          output.write((byte) (0x80 | ((code >> 6) & 0x3F)));
+          output.write((byte) (0x80 | (code & 0x3F)));
+        } else {
+          output.write((byte) (0xF0 | (code >> 18)));
+          output.write((byte) (0x80 | ((code >> 12) & 0x3F)));
+          output.write((byte) (0x80 | ((code >> 6) & 0x3F)));
+          output.write((byte) (0x80 | (code & 0x3F)));
+        }
+      }
+      output.write((byte) 0);
+      break;
+    case LINK:
+      final ORID rid = ((OIdentifiable) value).getIdentity();
+      output.writeShort((short) (rid.getClusterId() ^ Short.MIN_VALUE));
+      output.writeLong(rid.getClusterPosition() ^ Long.MIN_VALUE);
+      break;
+    default:
+      throw new IllegalStateException("Keys of type " + type + " can not be normalized");
+    }
+  }
+
+  /**
+   * @return value of the number if it is integral and fits into the range of the key type. Values are never truncated, because
+   * truncated key would be placed at the wrong position of the tree.
+   */
+  private static long integralValue(OType type, Object value, long min, long max) {
+    final long result;
+
+    if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long)
+      result = ((Number) value).longValue();
+    else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE)
+      result = ((BigInteger) value).longValue();
+    else if (value instanceof BigDecimal) {
+      try {
+        result = ((BigDecimal) value).longValueExact();
+      } catch (ArithmeticException e) {
+        throw new IllegalArgumentException("Value " + value + " can not be normalized as key of type " + type, e);
+      }
+    } else if (value instanceof Float || value instanceof Double) {
+      final double doubleValue = ((Number) value).doubleValue();
+      if (doubleValue != Math.rint(doubleValue) || doubleValue < min || doubleValue > max)
+        throw new IllegalArgumentException("Value " + value + " can not be normalized as key of type " + type);
+
+      result = (long) doubleValue;
+    } else
+      throw new IllegalArgumentException("Value " + value + " can not be normalized as key of type " + type);
+
+    if (result < min || result > max)
+      throw new IllegalArgumentException("Value " + value + " can not be normalized as key of type " + type);
+
+    return result;
+  }
+
+  private static Object denormalize(OType type, Input input) {
+    switch (type) {
+    case BOOLEAN:
+      return input.read() != 0;
+    case BYTE:
+      return (byte) (input.read() ^ Byte.MIN_VALUE);
+    case SHORT:
+      return (short) (input.readShort() ^ Short.MIN_VALUE);
+    case INTEGER:
+      return input.readInt() ^ Integer.MIN_VALUE;
+    case LONG:
+      return input.readLong() ^ Long.MIN_VALUE;
+    case FLOAT:
+      final int floatBits = input.readInt();
+      return Float.intBitsToFloat(floatBits < 0 ? floatBits ^ Integer.MIN_VALUE : ~floatBits);
+    case DOUBLE:
+      final long doubleBits = input.readLong();
+      return Double.longBitsToDouble(doubleBits < 0 ? doubleBits ^ Long.MIN_VALUE : ~doubleBits);
+    case DATE:
+    case DATETIME:
+      return new Date(input.readLong() ^ Long.MIN_VALUE);
+    case STRING:
+      final StringBuilder builder = new StringBuilder();
+      while (true) {
+        final int lead = input.read() & 0xFF;
+        final int code;
+
+        if (lead == 0)
+          break;
+        else if (lead < 0x80)
+          code = lead;
+        else if (lead < 0xE0)
+          code = ((lead & 0x1F) << 6) | (input.read() & 0x3F);
+        else if (lead < 0xF0)
+          code = ((lead & 0x0F) << 12) | ((input.read() & 0x3F) << 6) | (input.read() & 0x3F);
+        else
+          code = ((lead & 0x07) << 18) | ((input.read() & 0x3F) << 12) | ((input.read() & 0x3F) << 6) | (input.read() & 0x3F);
+
+        builder.append((char) (code - 1));
+      }
+      return builder.toString();
+    case LINK:
+      final int clusterId = (short) (input.readShort() ^ Short.MIN_VALUE);
+      return new ORecordId(clusterId, input.readLong() ^ Long.MIN_VALUE);
+    default:
+      throw new IllegalStateException("Keys of type " + type + " can not be normalized");
+    }
+  }
+
+  private static final class Output {
+    private byte[] buffer = new byte[32];
+    private int    size;
+
+    private void ensureCapacity(int capacity) {
+      if (buffer.length < capacity)
+        buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+    }
+
+    void write(byte value) {
+      ensureCapacity(size + 1);
+      buffer[size++] = value;
+    }
+
+    void writeShort(short value) {
+      write((byte) (value >>> 8));
+      write((byte) value);
+    }
+
+    void writeInt(int value) {
+      writeShort((short) (value >>> 16));
+      writeShort((short) value);
+    }
+
+    void writeLong(long value) {
+      writeInt((int) (value >>> 32));
+      writeInt((int) value);
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  private static final class Input {
+    private final byte[] buffer;
+    private       int    position;
+
+    private Input(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    byte read() {
+      return buffer[position++];
+    }
+
+    short readShort() {
+      return (short) (((read() & 0xFF) << 8) | (read() & 0xFF));
+    }
+
+    int readInt() {
+      return ((readShort() & 0xFFFF) << 16) | (readShort() & 0xFFFF);
+    }
+
+    long readLong() {
+      return ((readInt() & 0xFFFFFFFFL) << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+  }
+}
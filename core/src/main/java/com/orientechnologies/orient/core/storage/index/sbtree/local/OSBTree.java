@@ -24,6 +24,9 @@ import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OByteSerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
 import com.orientechnologies.orient.core.index.*;
@@ -73,6 +76,11 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   private static final int MAX_PATH_LENGTH = OGlobalConfiguration.SBTREE_MAX_DEPTH.getValueAsInteger();
 
+  /**
+   * Maximum amount of buckets which are written by single atomic operation during {@link #bulkLoad(Iterator, int)}.
+   */
+  private static final int BULK_LOAD_PAGES_PER_OPERATION = 256;
+
   private final static long                  ROOT_INDEX       = 0;
   private final        Comparator<? super K> comparator       = ODefaultComparator.INSTANCE;
   private final        String                nullFileExtension;
@@ -84,12 +92,25 @@ public class OSBTree<K, V> extends ODurableComponent {
   private              OBinarySerializer<V>  valueSerializer;
   private              boolean               nullPointerSupport;
   private final        AtomicLong            bonsayFileId     = new AtomicLong(0);
+  private final        boolean               compressKeys;
+  private              OKeyNormalizer<K>     keyNormalizer;
 
   public OSBTree(String name, String dataFileExtension, String nullFileExtension, OAbstractPaginatedStorage storage) {
+    this(name, dataFileExtension, nullFileExtension, storage, false);
+  }
+
+  /**
+   * @param compressKeys If this flag is set and keys of the tree can be normalized by {@link OKeyNormalizer}, buckets of the tree
+   *                     contain normalized keys without their common prefix. Value of the flag should be the same for every load
+   *                     of the tree.
+   */
+  public OSBTree(String name, String dataFileExtension, String nullFileExtension, OAbstractPaginatedStorage storage,
+      boolean compressKeys) {
     super(storage, name, dataFileExtension, name + dataFileExtension);
     acquireExclusiveLock();
     try {
       this.nullFileExtension = nullFileExtension;
+      this.compressKeys = compressKeys;
     } finally {
       releaseExclusiveLock();
     }
@@ -117,6 +138,7 @@ public class OSBTree<K, V> extends ODurableComponent {
           this.keyTypes = null;
 
         this.keySerializer = keySerializer;
+        this.keyNormalizer = compressKeys ? OKeyNormalizer.create(keySerializer, this.keyTypes) : null;
 
         this.valueSerializer = valueSerializer;
         this.nullPointerSupport = nullPointerSupport;
@@ -129,7 +151,8 @@ public class OSBTree<K, V> extends ODurableComponent {
         OCacheEntry rootCacheEntry = addPage(atomicOperation, fileId);
         try {
 
-          OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, true, keySerializer, keyTypes, valueSerializer);
+          OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, true, keySerializer, keyTypes,
+              valueSerializer, keyNormalizer);
           rootBucket.setTreeSize(0);
 
         } finally {
@@ -159,6 +182,18 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  OBinarySerializer<K> getKeySerializer() {
+    return keySerializer;
+  }
+
+  OBinarySerializer<V> getValueSerializer() {
+    return valueSerializer;
+  }
+
+  OType[] getKeyTypes() {
+    return keyTypes;
+  }
+
   public boolean isNullPointerSupport() {
     acquireSharedLock();
     try {
@@ -192,7 +227,7 @@ public class OSBTree<K, V> extends ODurableComponent {
             OCacheEntry keyBucketCacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
             try {
               OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes,
-                  valueSerializer);
+                  valueSerializer, keyNormalizer);
 
               OSBTreeBucket.SBTreeEntry<K, V> treeEntry = keyBucket.getEntry(bucketSearchResult.itemIndex);
               return readValue(treeEntry.value, atomicOperation);
@@ -271,12 +306,14 @@ public class OSBTree<K, V> extends ODurableComponent {
                 getName());
 
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
+          checkNormalizedKeySize(key);
           long valueLink = -1;
 
           BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
 
           OCacheEntry keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false);
-          OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer);
+          OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer,
+              keyNormalizer);
           final V oldValue = bucketSearchResult.itemIndex > -1 ?
               readValue(keyBucket.getValue(bucketSearchResult.itemIndex), atomicOperation) :
               null;
@@ -348,7 +385,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
               keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false);
 
-              keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer);
+              keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
             }
 
             releasePageFromWrite(atomicOperation, keyBucketCacheEntry);
@@ -439,6 +476,177 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * Builds the tree from entries which are sorted in ascending order of keys, if the tree is empty. Leaf buckets are filled one
+   * after another up to the given fill factor, then non-leaf buckets are built level by level from the bottom to the root. So every
+   * page is written only once, instead of look ups and splits of buckets which are caused by insertion of entries one by one.
+   * <p>
+   * Buckets below the root are written by several atomic operations, each of them contains up to {@link
+   * #BULK_LOAD_PAGES_PER_OPERATION} buckets, so changes of big trees are not accumulated in memory. Those buckets are not reachable
+   * till the root bucket is written by the last atomic operation, so the tree stays empty if load is interrupted. The tree is
+   * locked exclusively during the whole load.
+   *
+   * @param entries    Entries sorted in ascending order of keys, keys have to be unique and not <code>null</code>.
+   * @param fillFactor Percent of space of buckets which is filled during load, the rest of space is left for later insertions.
+   *
+   * @return <code>true</code> if entries are loaded, <code>false</code> if the tree is not empty, entries are not fetched from the
+   * iterator in such case.
+   */
+  public boolean bulkLoad(Iterator<Map.Entry<K, V>> entries, int fillFactor) {
+    if (fillFactor < 1 || fillFactor > 100)
+      throw new IllegalArgumentException("Fill factor should be between 1 and 100 but passed value is " + fillFactor);
+
+    startOperation();
+    try {
+      acquireExclusiveLock();
+      try {
+        // buckets below the root are not reachable till the end of load, so exclusive lock of the tree is enough to protect them
+        // and atomic operations do not acquire lock of the component, which may be acquired by the other thread which waits for
+        // the exclusive lock
+        OAtomicOperation atomicOperation = startBulkLoadOperation();
+        try {
+          if (!isEmpty(atomicOperation)) {
+            endAtomicOperation(false, null);
+            return false;
+          }
+
+          final int maxFilledSize = OSBTreeBucket.MAX_ENTRIES_SIZE / 100 * fillFactor;
+
+          // pages and first keys of buckets of the level which is built
+          List<Long> pages = new ArrayList<Long>();
+          List<K> firstKeys = new ArrayList<K>();
+
+          // entries of the leaf which is filled, they are put in the root if all entries fit in a single bucket
+          final List<OSBTreeBucket.SBTreeEntry<K, V>> leafEntries = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>();
+          final BucketSize leafSize = new BucketSize();
+
+          long treeSize = 0;
+          int pagesInOperation = 0;
+          K lastKey = null;
+
+          while (entries.hasNext()) {
+            final Map.Entry<K, V> entry = entries.next();
+
+            K key = entry.getKey();
+            if (key == null)
+              throw new OSBTreeException("Null keys can not be bulk loaded", this);
+
+            final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
+            if (keySize > MAX_KEY_SIZE)
+              throw new OTooBigIndexKeyException(
+                  "Key size is more than allowed, operation was canceled. Current key size " + keySize + ", allowed  "
+                      + MAX_KEY_SIZE, getName());
+
+            key = keySerializer.preprocess(key, (Object[]) keyTypes);
+            checkNormalizedKeySize(key);
+            if (lastKey != null && comparator.compare(lastKey, key) >= 0)
+              throw new OSBTreeException(
+                  "Keys of bulk loaded entries should be unique and sorted in ascending order, but key " + key + " follows key "
+                      + lastKey, this);
+            lastKey = key;
+
+            final V value = entry.getValue();
+            final boolean createLinkToTheValue = valueSerializer.getObjectSize(value) > MAX_EMBEDDED_VALUE_SIZE;
+            final long valueLink = createLinkToTheValue ? createLinkToTheValue(value, atomicOperation) : -1;
+
+            final OSBTreeValue<V> treeValue = new OSBTreeValue<V>(createLinkToTheValue, valueLink,
+                createLinkToTheValue ? null : value);
+
+            final int valueSize;
+            if (valueSerializer.isFixedLength())
+              valueSize = valueSerializer.getFixedLength();
+            else if (createLinkToTheValue)
+              valueSize = OLongSerializer.LONG_SIZE;
+            else
+              valueSize = valueSerializer.getObjectSize(value);
+
+            final int filledSize = leafSize.add(key, keySize, OByteSerializer.BYTE_SIZE + valueSize);
+            if (!leafEntries.isEmpty() && filledSize > maxFilledSize) {
+              final long leftSibling = pages.isEmpty() ? -1 : pages.get(pages.size() - 1);
+              pages.add(writeBulkLoadedLeaf(leafEntries, leftSibling, atomicOperation));
+              firstKeys.add(leafEntries.get(0).key);
+
+              leafEntries.clear();
+              leafSize.clear();
+              leafSize.add(key, keySize, OByteSerializer.BYTE_SIZE + valueSize);
+
+              pagesInOperation++;
+              if (pagesInOperation >= BULK_LOAD_PAGES_PER_OPERATION) {
+                endAtomicOperation(false, null);
+                atomicOperation = startBulkLoadOperation();
+                pagesInOperation = 0;
+              }
+            }
+
+            leafEntries.add(new OSBTreeBucket.SBTreeEntry<K, V>(-1, -1, key, treeValue));
+            treeSize++;
+          }
+
+          if (!pages.isEmpty()) {
+            pages.add(writeBulkLoadedLeaf(leafEntries, pages.get(pages.size() - 1), atomicOperation));
+            firstKeys.add(leafEntries.get(0).key);
+          }
+
+          if (treeSize > 0) {
+            if (pages.isEmpty()) {
+              writeRootBucket(true, leafEntries, treeSize, atomicOperation);
+            } else {
+              while (!fitsInBucket(firstKeys)) {
+                final List<Long> parentPages = new ArrayList<Long>();
+                final List<K> parentFirstKeys = new ArrayList<K>();
+
+                int start = 0;
+                while (start < pages.size()) {
+                  final int end = nextBulkLoadedChildren(firstKeys, start, maxFilledSize);
+
+                  final OCacheEntry cacheEntry = addPage(atomicOperation, fileId);
+                  try {
+                    final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, false, keySerializer, keyTypes,
+                        valueSerializer, keyNormalizer);
+                    addAllBulkLoaded(bucket, nonLeafEntries(pages, firstKeys, start, end));
+                  } finally {
+                    releasePageFromWrite(atomicOperation, cacheEntry);
+                  }
+
+                  parentPages.add(cacheEntry.getPageIndex());
+                  parentFirstKeys.add(firstKeys.get(start));
+                  start = end;
+
+                  pagesInOperation++;
+                  if (pagesInOperation >= BULK_LOAD_PAGES_PER_OPERATION) {
+                    endAtomicOperation(false, null);
+                    atomicOperation = startBulkLoadOperation();
+                    pagesInOperation = 0;
+                  }
+                }
+
+                pages = parentPages;
+                firstKeys = parentFirstKeys;
+              }
+
+              writeRootBucket(false, nonLeafEntries(pages, firstKeys, 0, pages.size()), treeSize, atomicOperation);
+            }
+          }
+
+          endAtomicOperation(false, null);
+          return true;
+        } catch (IOException e) {
+          rollback(e);
+          throw OException.wrapException(new OSBTreeException("Error during bulk load of sbtree with name " + getName(), this), e);
+        } catch (RuntimeException e) {
+          rollback(e);
+          throw e;
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Error during bulk load of sbtree with name " + getName(), this), e);
+      } finally {
+        releaseExclusiveLock();
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
   public void close(boolean flush) {
     startOperation();
     try {
@@ -484,7 +692,8 @@ public class OSBTree<K, V> extends ODurableComponent {
         }
 
         try {
-          OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer);
+          OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer,
+              keyNormalizer);
 
           rootBucket.setTreeSize(0);
 
@@ -598,6 +807,7 @@ public class OSBTree<K, V> extends ODurableComponent {
           nullBucketFileId = openFile(atomicOperation, name + nullFileExtension);
 
         this.keySerializer = keySerializer;
+        this.keyNormalizer = compressKeys ? OKeyNormalizer.create(keySerializer, this.keyTypes) : null;
         this.valueSerializer = valueSerializer;
       } catch (IOException e) {
         throw OException.wrapException(new OSBTreeException("Exception during loading of sbtree " + name, this), e);
@@ -620,7 +830,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
           OCacheEntry rootCacheEntry = loadPageForRead(atomicOperation, fileId, ROOT_INDEX, false);
           try {
-            OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+            OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+                keyNormalizer);
             return rootBucket.getTreeSize();
           } finally {
             releasePageFromRead(atomicOperation, rootCacheEntry);
@@ -719,7 +930,8 @@ public class OSBTree<K, V> extends ODurableComponent {
     V removedValue;
     OCacheEntry keyBucketCacheEntry = loadPageForWrite(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false);
     try {
-      OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer);
+      OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(keyBucketCacheEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
 
       final OSBTreeValue<V> removed = keyBucket.getEntry(bucketSearchResult.itemIndex).value;
       final V value = readValue(removed, atomicOperation);
@@ -820,7 +1032,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
           final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, searchResult.getLastPathItem(), false);
           try {
-            OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+            OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                keyNormalizer);
             return bucket.getKey(searchResult.itemIndex);
           } finally {
             releasePageFromRead(atomicOperation, cacheEntry);
@@ -860,7 +1073,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
           final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, searchResult.getLastPathItem(), false);
           try {
-            OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+            OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                keyNormalizer);
             return bucket.getKey(searchResult.itemIndex);
           } finally {
             releasePageFromRead(atomicOperation, cacheEntry);
@@ -982,6 +1196,21 @@ public class OSBTree<K, V> extends ODurableComponent {
       throw new OSBTreeException("Null keys are not supported.", this);
   }
 
+  /**
+   * Buckets contain normalized keys if keys are compressed. Normalized key may be longer than serialized one, strings for example
+   * take up to 3 bytes per character instead of 2, so its size is checked separately.
+   */
+  private void checkNormalizedKeySize(K key) {
+    if (keyNormalizer == null)
+      return;
+
+    final int normalizedKeySize = keyNormalizer.normalize(key).length;
+    if (normalizedKeySize > MAX_KEY_SIZE)
+      throw new OTooBigIndexKeyException(
+          "Key size is more than allowed, operation was canceled. Current normalized key size " + normalizedKeySize + ", allowed  "
+              + MAX_KEY_SIZE, getName());
+  }
+
   private void removeLinkedValue(long removedLink, OAtomicOperation atomicOperation) throws IOException {
     long nextPage = removedLink;
     do {
@@ -1004,7 +1233,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     OCacheEntry rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
 
-    OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+    OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+        keyNormalizer);
     try {
       prevFreeListItem = rootBucket.getValuesFreeListFirstIndex();
       rootBucket.setValuesFreeListFirstIndex(pageIndex);
@@ -1090,7 +1320,7 @@ public class OSBTree<K, V> extends ODurableComponent {
     long freeListFirstIndex;
     OSBTreeBucket<K, V> rootBucket;
     try {
-      rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+      rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
       freeListFirstIndex = rootBucket.getValuesFreeListFirstIndex();
     } finally {
       releasePageFromRead(atomicOperation, rootCacheEntry);
@@ -1103,7 +1333,7 @@ public class OSBTree<K, V> extends ODurableComponent {
         long nextFreeListIndex = valuePage.getNextFreeListPage();
 
         rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
-        rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+        rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
         try {
           rootBucket.setValuesFreeListFirstIndex(nextFreeListIndex);
         } finally {
@@ -1132,7 +1362,8 @@ public class OSBTree<K, V> extends ODurableComponent {
   private void updateSize(long diffSize, OAtomicOperation atomicOperation) throws IOException {
     OCacheEntry rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
     try {
-      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
       rootBucket.setTreeSize(rootBucket.getTreeSize() + diffSize);
     } finally {
       releasePageFromWrite(atomicOperation, rootCacheEntry);
@@ -1142,13 +1373,144 @@ public class OSBTree<K, V> extends ODurableComponent {
   private void setSize(long size, OAtomicOperation atomicOperation) throws IOException {
     OCacheEntry rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
     try {
-      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer);
+      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
       rootBucket.setTreeSize(size);
     } finally {
       releasePageFromWrite(atomicOperation, rootCacheEntry);
     }
   }
 
+  private OAtomicOperation startBulkLoadOperation() throws IOException {
+    return atomicOperationsManager.startAtomicOperation((String) null, true);
+  }
+
+  private boolean isEmpty(OAtomicOperation atomicOperation) throws IOException {
+    if (getFilledUpTo(atomicOperation, fileId) != 1)
+      return false;
+
+    final OCacheEntry rootCacheEntry = loadPageForRead(atomicOperation, fileId, ROOT_INDEX, false);
+    try {
+      final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
+      return rootBucket.isLeaf() && rootBucket.isEmpty() && rootBucket.getTreeSize() == 0;
+    } finally {
+      releasePageFromRead(atomicOperation, rootCacheEntry);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if non-leaf bucket which refers to children with given first keys fits in a single page.
+   */
+  private boolean fitsInBucket(List<K> firstKeys) {
+    final BucketSize bucketSize = new BucketSize();
+    for (int i = 1; i < firstKeys.size(); i++) {
+      if (bucketSize.add(firstKeys.get(i)) > OSBTreeBucket.MAX_ENTRIES_SIZE)
+        return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Finds children of the next non-leaf bucket built by {@link #bulkLoad(Iterator, int)}. Every bucket refers to two children at
+   * least, so the last child is never left alone.
+   *
+   * @return index of the first child which does not belong to the bucket which starts from the given child.
+   */
+  private int nextBulkLoadedChildren(List<K> firstKeys, int start, int maxFilledSize) {
+    final BucketSize bucketSize = new BucketSize();
+
+    int end = start + 2;
+    int filledSize = bucketSize.add(firstKeys.get(start + 1));
+
+    while (end < firstKeys.size()) {
+      filledSize = bucketSize.add(firstKeys.get(end));
+      if (filledSize > maxFilledSize)
+        break;
+
+      end++;
+    }
+
+    // size of the bucket together with the last child is already calculated if the last child is left alone
+    if (end == firstKeys.size() - 1) {
+      if (filledSize <= OSBTreeBucket.MAX_ENTRIES_SIZE)
+        end++;
+      else
+        end--;
+    }
+
+    return end;
+  }
+
+  /**
+   * Writes new leaf bucket filled by {@link #bulkLoad(Iterator, int)} and links it with its left sibling.
+   *
+   * @return index of the page of the bucket.
+   */
+  private long writeBulkLoadedLeaf(List<OSBTreeBucket.SBTreeEntry<K, V>> entries, long leftSibling,
+      OAtomicOperation atomicOperation) throws IOException {
+    final long pageIndex;
+
+    final OCacheEntry cacheEntry = addPage(atomicOperation, fileId);
+    try {
+      final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
+      bucket.setLeftSibling(leftSibling);
+      addAllBulkLoaded(bucket, entries);
+
+      pageIndex = cacheEntry.getPageIndex();
+    } finally {
+      releasePageFromWrite(atomicOperation, cacheEntry);
+    }
+
+    if (leftSibling >= 0) {
+      final OCacheEntry leftCacheEntry = loadPageForWrite(atomicOperation, fileId, leftSibling, false);
+      try {
+        final OSBTreeBucket<K, V> leftBucket = new OSBTreeBucket<K, V>(leftCacheEntry, keySerializer, keyTypes, valueSerializer,
+            keyNormalizer);
+        leftBucket.setRightSibling(pageIndex);
+      } finally {
+        releasePageFromWrite(atomicOperation, leftCacheEntry);
+      }
+    }
+
+    return pageIndex;
+  }
+
+  private void addAllBulkLoaded(OSBTreeBucket<K, V> bucket, List<OSBTreeBucket.SBTreeEntry<K, V>> entries) throws IOException {
+    bucket.addAll(entries);
+
+    if (bucket.size() != entries.size())
+      throw new OSBTreeException("Entries with keys from " + entries.get(0).key + " to " + entries.get(entries.size() - 1).key
+          + " do not fit in a single bucket", this);
+  }
+
+  private List<OSBTreeBucket.SBTreeEntry<K, V>> nonLeafEntries(List<Long> pages, List<K> firstKeys, int start, int end) {
+    final List<OSBTreeBucket.SBTreeEntry<K, V>> entries = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>(end - start - 1);
+    for (int i = start + 1; i < end; i++)
+      entries.add(new OSBTreeBucket.SBTreeEntry<K, V>(pages.get(i - 1), pages.get(i), firstKeys.get(i), null));
+
+    return entries;
+  }
+
+  private void writeRootBucket(boolean isLeaf, List<OSBTreeBucket.SBTreeEntry<K, V>> entries, long treeSize,
+      OAtomicOperation atomicOperation) throws IOException {
+    final OCacheEntry rootCacheEntry = loadPageForWrite(atomicOperation, fileId, ROOT_INDEX, false);
+    try {
+      OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
+      final long freeListPage = rootBucket.getValuesFreeListFirstIndex();
+
+      rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, keyNormalizer);
+      rootBucket.setTreeSize(treeSize);
+      rootBucket.setValuesFreeListFirstIndex(freeListPage);
+      addAllBulkLoaded(rootBucket, entries);
+    } finally {
+      releasePageFromWrite(atomicOperation, rootCacheEntry);
+    }
+  }
+
   private OSBTreeCursor<K, V> iterateEntriesMinorDesc(K key, boolean inclusive, OAtomicOperation atomicOperation)
       throws IOException {
     key = keySerializer.preprocess(key, (Object[]) keyTypes);
@@ -1289,7 +1651,7 @@ public class OSBTree<K, V> extends ODurableComponent {
     OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
     int itemIndex = 0;
     try {
-      OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+      OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
 
       while (true) {
         if (!bucket.isLeaf()) {
@@ -1337,7 +1699,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
         cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-        bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+        bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
       }
     } finally {
       releasePageFromRead(atomicOperation, cacheEntry);
@@ -1351,7 +1713,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-    OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+    OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
 
     int itemIndex = bucket.size() - 1;
     try {
@@ -1402,7 +1764,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
         cacheEntry = loadPageForRead(atomicOperation, fileId, bucketIndex, false);
 
-        bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+        bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
         if (itemIndex == OSBTreeBucket.MAX_PAGE_SIZE_BYTES + 1)
           itemIndex = bucket.size() - 1;
       }
@@ -1505,7 +1867,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     OCacheEntry bucketEntry = loadPageForWrite(atomicOperation, fileId, pageIndex, false);
     try {
-      OSBTreeBucket<K, V> bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, keySerializer, keyTypes, valueSerializer);
+      OSBTreeBucket<K, V> bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, keySerializer, keyTypes, valueSerializer,
+          keyNormalizer);
 
       final boolean splitLeaf = bucketToSplit.isLeaf();
       final int bucketSize = bucketToSplit.size();
@@ -1538,7 +1901,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer);
+          valueSerializer, keyNormalizer);
       newRightBucket.addAll(rightEntries);
 
       bucketToSplit.shrink(indexToSplit);
@@ -1554,7 +1917,7 @@ public class OSBTree<K, V> extends ODurableComponent {
         if (rightSiblingPageIndex >= 0) {
           final OCacheEntry rightSiblingBucketEntry = loadPageForWrite(atomicOperation, fileId, rightSiblingPageIndex, false);
           OSBTreeBucket<K, V> rightSiblingBucket = new OSBTreeBucket<K, V>(rightSiblingBucketEntry, keySerializer, keyTypes,
-              valueSerializer);
+              valueSerializer, keyNormalizer);
           try {
             rightSiblingBucket.setLeftSibling(rightBucketEntry.getPageIndex());
           } finally {
@@ -1566,7 +1929,8 @@ public class OSBTree<K, V> extends ODurableComponent {
       long parentIndex = path.get(path.size() - 2);
       OCacheEntry parentCacheEntry = loadPageForWrite(atomicOperation, fileId, parentIndex, false);
       try {
-        OSBTreeBucket<K, V> parentBucket = new OSBTreeBucket<K, V>(parentCacheEntry, keySerializer, keyTypes, valueSerializer);
+        OSBTreeBucket<K, V> parentBucket = new OSBTreeBucket<K, V>(parentCacheEntry, keySerializer, keyTypes, valueSerializer,
+            keyNormalizer);
         OSBTreeBucket.SBTreeEntry<K, V> parentEntry = new OSBTreeBucket.SBTreeEntry<K, V>(pageIndex,
             rightBucketEntry.getPageIndex(), separationKey, null);
 
@@ -1585,7 +1949,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
           insertionIndex = bucketSearchResult.itemIndex;
 
-          parentBucket = new OSBTreeBucket<K, V>(parentCacheEntry, keySerializer, keyTypes, valueSerializer);
+          parentBucket = new OSBTreeBucket<K, V>(parentCacheEntry, keySerializer, keyTypes, valueSerializer, keyNormalizer);
         }
 
       } finally {
@@ -1628,7 +1992,7 @@ public class OSBTree<K, V> extends ODurableComponent {
     OCacheEntry rightBucketEntry = addPage(atomicOperation, fileId);
     try {
       OSBTreeBucket<K, V> newLeftBucket = new OSBTreeBucket<K, V>(leftBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer);
+          valueSerializer, keyNormalizer);
       newLeftBucket.addAll(leftEntries);
 
       if (splitLeaf)
@@ -1640,7 +2004,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer);
+          valueSerializer, keyNormalizer);
       newRightBucket.addAll(rightEntries);
 
       if (splitLeaf)
@@ -1649,7 +2013,7 @@ public class OSBTree<K, V> extends ODurableComponent {
       releasePageFromWrite(atomicOperation, rightBucketEntry);
     }
 
-    bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, false, keySerializer, keyTypes, valueSerializer);
+    bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, false, keySerializer, keyTypes, valueSerializer, keyNormalizer);
 
     bucketToSplit.setTreeSize(treeSize);
     bucketToSplit.setValuesFreeListFirstIndex(freeListPage);
@@ -1675,6 +2039,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   private BucketSearchResult findBucket(K key, OAtomicOperation atomicOperation) throws IOException {
     long pageIndex = ROOT_INDEX;
+    final byte[] normalizedKey = keyNormalizer != null ? keyNormalizer.normalize(key) : null;
     final ArrayList<Long> path = new ArrayList<Long>();
 
     while (true) {
@@ -1685,32 +2050,27 @@ public class OSBTree<K, V> extends ODurableComponent {
 
       path.add(pageIndex);
       final OCacheEntry bucketEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
-      final OSBTreeBucket.SBTreeEntry<K, V> entry;
       try {
-        final OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(bucketEntry, keySerializer, keyTypes, valueSerializer);
-        final int index = keyBucket.find(key);
+        final OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(bucketEntry, keySerializer, keyTypes, valueSerializer,
+            keyNormalizer);
+        final int index = normalizedKey != null ? keyBucket.find(normalizedKey) : keyBucket.find(key);
 
         if (keyBucket.isLeaf())
           return new BucketSearchResult(index, path);
 
+        // search key is not less than key of found entry and is less than key of entry at insertion point
         if (index >= 0)
-          entry = keyBucket.getEntry(index);
+          pageIndex = keyBucket.getRight(index);
         else {
           final int insertionIndex = -index - 1;
           if (insertionIndex >= keyBucket.size())
-            entry = keyBucket.getEntry(insertionIndex - 1);
+            pageIndex = keyBucket.getRight(insertionIndex - 1);
           else
-            entry = keyBucket.getEntry(insertionIndex);
+            pageIndex = keyBucket.getLeft(insertionIndex);
         }
-
       } finally {
         releasePageFromRead(atomicOperation, bucketEntry);
       }
-
-      if (comparator.compare(key, entry.key) >= 0)
-        pageIndex = entry.rightChild;
-      else
-        pageIndex = entry.leftChild;
     }
   }
 
@@ -1819,6 +2179,60 @@ public class OSBTree<K, V> extends ODurableComponent {
     K next(int prefetchSize);
   }
 
+  /**
+   * Calculates space which is occupied by entries of bucket together with their positions if entries are added to the bucket in
+   * ascending order of keys during {@link #bulkLoad(Iterator, int)}.
+   */
+  private final class BucketSize {
+    private byte[] firstKey;
+    private int    prefixSize;
+    private int    entries;
+    private int    entriesSize;
+
+    /**
+     * Adds entry of non-leaf bucket.
+     *
+     * @return size of entries of bucket.
+     */
+    int add(K key) {
+      return add(key, -1, 2 * OLongSerializer.LONG_SIZE);
+    }
+
+    /**
+     * @param keySize  Size of serialized key or <code>-1</code> if it is not calculated yet.
+     * @param tailSize Size of the rest of entry, value of entry of leaf bucket or children of entry of non-leaf bucket.
+     *
+     * @return size of entries of bucket.
+     */
+    int add(K key, int keySize, int tailSize) {
+      entries++;
+
+      if (keyNormalizer == null) {
+        entriesSize += (keySize >= 0 ? keySize : keySerializer.getObjectSize(key, (Object[]) keyTypes)) + tailSize
+            + OIntegerSerializer.INT_SIZE;
+        return entriesSize;
+      }
+
+      final byte[] normalizedKey = keyNormalizer.normalize(key);
+      if (firstKey == null) {
+        firstKey = normalizedKey;
+        prefixSize = normalizedKey.length;
+      } else
+        prefixSize = OKeyNormalizer.commonPrefix(firstKey, normalizedKey, prefixSize);
+
+      // size of key, key itself, rest of entry and position of entry, prefix is stored once together with its size
+      entriesSize += OIntegerSerializer.INT_SIZE + normalizedKey.length + tailSize + OIntegerSerializer.INT_SIZE;
+      return entriesSize - entries * prefixSize + prefixSize + OIntegerSerializer.INT_SIZE;
+    }
+
+    void clear() {
+      firstKey = null;
+      prefixSize = 0;
+      entries = 0;
+      entriesSize = 0;
+    }
+  }
+
   private static class BucketSearchResult {
     private final int             itemIndex;
     private final ArrayList<Long> path;
@@ -1893,7 +2307,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
               final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
               try {
-                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                    keyNormalizer);
 
                 if (itemIndex >= bucket.size()) {
                   pageIndex = bucket.getRightSibling();
@@ -2024,7 +2439,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
               final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
               try {
-                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                    keyNormalizer);
 
                 if (itemIndex >= bucket.size()) {
                   pageIndex = bucket.getRightSibling();
@@ -2167,7 +2583,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
               final OCacheEntry cacheEntry = loadPageForRead(atomicOperation, fileId, pageIndex, false);
               try {
-                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer);
+                final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                    keyNormalizer);
 
                 if (itemIndex >= bucket.size()) {
                   itemIndex = bucket.size() - 1;
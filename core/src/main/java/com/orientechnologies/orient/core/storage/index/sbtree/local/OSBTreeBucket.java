@@ -36,6 +36,10 @@ import java.util.Comparator;
 import java.util.List;
 
 /**
+ * Bucket of {@link OSBTree}. Keys of bucket are stored either in the form produced by key serializer or, if {@link OKeyNormalizer}
+ * is passed to the bucket, in normalized form. In the latter case common prefix of all normalized keys of bucket is stored once at
+ * the end of the page, entries contain only the rest of the keys and keys are compared as byte arrays without deserialization.
+ *
  * @author Andrey Lomakin (a.lomakin-at-orientdb.com)
  * @since 8/7/13
  */
@@ -60,6 +64,18 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   private static final int POSITIONS_ARRAY_OFFSET = FREE_VALUES_LIST_OFFSET + OLongSerializer.LONG_SIZE;
 
+  /**
+   * Maximum amount of bytes which may be occupied by entries of bucket together with their positions.
+   */
+  static final int MAX_ENTRIES_SIZE = MAX_PAGE_SIZE_BYTES - POSITIONS_ARRAY_OFFSET;
+
+  /**
+   * Size of common prefix of normalized keys, the prefix itself is stored just before this field.
+   */
+  private static final int PREFIX_SIZE_OFFSET = MAX_PAGE_SIZE_BYTES - OIntegerSerializer.INT_SIZE;
+
+  private static final byte[] EMPTY_PREFIX = new byte[0];
+
   private final boolean isLeaf;
 
   private final OBinarySerializer<K> keySerializer;
@@ -67,19 +83,32 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   private final OType[] keyTypes;
 
+  private final OKeyNormalizer<K> keyNormalizer;
+
   private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
-  @SuppressFBWarnings("EI_EXPOSE_REP2")
   public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
       OBinarySerializer<V> valueSerializer) throws IOException {
+    this(cacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, null);
+  }
+
+  @SuppressFBWarnings("EI_EXPOSE_REP2")
+  OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
+      OBinarySerializer<V> valueSerializer, OKeyNormalizer<K> keyNormalizer) throws IOException {
     super(cacheEntry);
 
     this.isLeaf = isLeaf;
     this.keySerializer = keySerializer;
     this.keyTypes = keyTypes;
     this.valueSerializer = valueSerializer;
+    this.keyNormalizer = keyNormalizer;
+
+    if (keyNormalizer != null) {
+      setIntValue(PREFIX_SIZE_OFFSET, 0);
+      setIntValue(FREE_POINTER_OFFSET, PREFIX_SIZE_OFFSET);
+    } else
+      setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
 
-    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
     setIntValue(SIZE_OFFSET, 0);
 
     setByteValue(IS_LEAF_OFFSET, (byte) (isLeaf ? 1 : 0));
@@ -93,15 +122,21 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     setByteValue(VALUE_SERIALIZER_OFFSET, this.valueSerializer.getId());
   }
 
-  @SuppressFBWarnings("EI_EXPOSE_REP2")
   public OSBTreeBucket(OCacheEntry cacheEntry, OBinarySerializer<K> keySerializer, OType[] keyTypes,
       OBinarySerializer<V> valueSerializer) {
+    this(cacheEntry, keySerializer, keyTypes, valueSerializer, null);
+  }
+
+  @SuppressFBWarnings("EI_EXPOSE_REP2")
+  OSBTreeBucket(OCacheEntry cacheEntry, OBinarySerializer<K> keySerializer, OType[] keyTypes, OBinarySerializer<V> valueSerializer,
+      OKeyNormalizer<K> keyNormalizer) {
     super(cacheEntry);
     this.keyTypes = keyTypes;
 
     this.isLeaf = getByteValue(IS_LEAF_OFFSET) > 0;
     this.keySerializer = keySerializer;
     this.valueSerializer = valueSerializer;
+    this.keyNormalizer = keyNormalizer;
   }
 
   public void setTreeSize(long size) throws IOException {
@@ -125,6 +160,9 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public int find(K key) {
+    if (keyNormalizer != null)
+      return find(keyNormalizer.normalize(key));
+
     int low = 0;
     int high = size() - 1;
 
@@ -143,9 +181,52 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return -(low + 1); // key not found.
   }
 
+  /**
+   * Finds key which is normalized by {@link OKeyNormalizer} of this bucket.
+   *
+   * @see #find(Object)
+   */
+  int find(byte[] key) {
+    final int size = size();
+    final byte[] prefix = getPrefix();
+
+    final int prefixCmp = OKeyNormalizer.compare(key, 0, prefix, 0);
+    if (prefixCmp < 0)
+      return -1;
+    if (prefixCmp > 0)
+      return -(size + 1);
+
+    int low = 0;
+    int high = size - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+
+      // key which is not longer than prefix is equal to all keys of bucket
+      final int cmp = key.length > prefix.length ? compareSuffix(mid, key, prefix.length) : 0;
+
+      if (cmp < 0)
+        low = mid + 1;
+      else if (cmp > 0)
+        high = mid - 1;
+      else
+        return mid; // key found
+    }
+    return -(low + 1); // key not found.
+  }
+
+  private int compareSuffix(int entryIndex, byte[] key, int keyOffset) {
+    int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
+    if (!isLeaf)
+      entryPosition += 2 * OLongSerializer.LONG_SIZE;
+
+    final byte[] suffix = getBinaryValue(entryPosition + OIntegerSerializer.INT_SIZE, getIntValue(entryPosition));
+    return OKeyNormalizer.compare(suffix, 0, key, keyOffset);
+  }
+
   public long remove(int entryIndex) throws IOException {
     int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
-    int keySize = getObjectSizeInDirectMemory(keySerializer, entryPosition);
+    int keySize = getKeySize(entryPosition);
 
     int entrySize;
     long linkValue = -1;
@@ -203,8 +284,8 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
     if (isLeaf) {
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
-      entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
+      K key = readKey(entryPosition);
+      entryPosition += getKeySize(entryPosition);
 
       boolean isLinkValue = getByteValue(entryPosition) > 0;
       long link = -1;
@@ -223,7 +304,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
       long rightChild = getLongValue(entryPosition);
       entryPosition += OLongSerializer.LONG_SIZE;
 
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
+      K key = readKey(entryPosition);
 
       return new SBTreeEntry<K, V>(leftChild, rightChild, key, null);
     }
@@ -242,7 +323,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
     // skip key
-    entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
+    entryPosition += getKeySize(entryPosition);
 
     boolean isLinkValue = getByteValue(entryPosition) > 0;
     long link = -1;
@@ -262,7 +343,25 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     if (!isLeaf)
       entryPosition += 2 * OLongSerializer.LONG_SIZE;
 
-    return deserializeFromDirectMemory(keySerializer, entryPosition);
+    return readKey(entryPosition);
+  }
+
+  /**
+   * @return index of the left child of entry of non-leaf bucket.
+   */
+  public long getLeft(int entryIndex) {
+    assert !isLeaf;
+
+    return getLongValue(getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET));
+  }
+
+  /**
+   * @return index of the right child of entry of non-leaf bucket.
+   */
+  public long getRight(int entryIndex) {
+    assert !isLeaf;
+
+    return getLongValue(getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET) + OLongSerializer.LONG_SIZE);
   }
 
   public boolean isLeaf() {
@@ -270,11 +369,38 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public void addAll(List<SBTreeEntry<K, V>> entries) throws IOException {
+    if (keyNormalizer != null) {
+      final List<byte[]> keys = new ArrayList<byte[]>(entries.size());
+      for (SBTreeEntry<K, V> entry : entries)
+        keys.add(keyNormalizer.normalize(entry.key));
+
+      if (isEmpty() && !keys.isEmpty())
+        setPrefix(commonPrefix(keys));
+
+      for (int i = 0; i < entries.size(); i++)
+        addNormalizedEntry(i, entries.get(i), keys.get(i), false);
+
+      return;
+    }
+
     for (int i = 0; i < entries.size(); i++)
       addEntry(i, entries.get(i), false);
   }
 
   public void shrink(int newSize) throws IOException {
+    if (keyNormalizer != null) {
+      final List<RawEntry> rawEntries = new ArrayList<RawEntry>(newSize);
+      for (int i = 0; i < newSize; i++)
+        rawEntries.add(getRawEntry(i));
+
+      final List<byte[]> keys = new ArrayList<byte[]>(newSize);
+      for (RawEntry rawEntry : rawEntries)
+        keys.add(rawEntry.key);
+
+      rewrite(keys.isEmpty() ? EMPTY_PREFIX : commonPrefix(keys), rawEntries);
+      return;
+    }
+
     List<SBTreeEntry<K, V>> treeEntries = new ArrayList<SBTreeEntry<K, V>>(newSize);
 
     for (int i = 0; i < newSize; i++) {
@@ -292,6 +418,9 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public boolean addEntry(int index, SBTreeEntry<K, V> treeEntry, boolean updateNeighbors) throws IOException {
+    if (keyNormalizer != null)
+      return addNormalizedEntry(index, treeEntry, keyNormalizer.normalize(treeEntry.key), updateNeighbors);
+
     final int keySize = keySerializer.getObjectSize(treeEntry.key, (Object[]) keyTypes);
     int valueSize = 0;
     int entrySize = keySize;
@@ -366,9 +495,222 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return true;
   }
 
+  private boolean addNormalizedEntry(int index, SBTreeEntry<K, V> treeEntry, byte[] key, boolean updateNeighbors)
+      throws IOException {
+    final int tailSize;
+    if (isLeaf)
+      tailSize = OByteSerializer.BYTE_SIZE + getValueSize(treeEntry.value);
+    else
+      tailSize = 2 * OLongSerializer.LONG_SIZE;
+
+    byte[] prefix = getPrefix();
+    final int commonPrefix = OKeyNormalizer.commonPrefix(prefix, key, prefix.length);
+    if (commonPrefix < prefix.length) {
+      // key does not start with prefix of bucket, so prefix is shortened and the rest of it is moved to the entries
+      final int size = size();
+      final List<RawEntry> rawEntries = new ArrayList<RawEntry>(size);
+      int entriesSize = 0;
+      for (int i = 0; i < size; i++) {
+        final RawEntry rawEntry = getRawEntry(i);
+        entriesSize += rawEntry.key.length - commonPrefix + rawEntry.tail.length + 2 * OIntegerSerializer.INT_SIZE;
+        rawEntries.add(rawEntry);
+      }
+
+      final int newEntrySize = key.length - commonPrefix + tailSize + 2 * OIntegerSerializer.INT_SIZE;
+      if (entriesSize + newEntrySize + commonPrefix + OIntegerSerializer.INT_SIZE > MAX_ENTRIES_SIZE)
+        return false;
+
+      prefix = new byte[commonPrefix];
+      System.arraycopy(key, 0, prefix, 0, commonPrefix);
+      rewrite(prefix, rawEntries);
+    }
+
+    final int suffixSize = key.length - prefix.length;
+    final int entrySize = OIntegerSerializer.INT_SIZE + suffixSize + tailSize;
+
+    int size = size();
+    int freePointer = getIntValue(FREE_POINTER_OFFSET);
+    if (freePointer - entrySize < (size + 1) * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET)
+      return false;
+
+    if (index <= size - 1) {
+      moveData(POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE,
+          POSITIONS_ARRAY_OFFSET + (index + 1) * OIntegerSerializer.INT_SIZE, (size - index) * OIntegerSerializer.INT_SIZE);
+    }
+
+    freePointer -= entrySize;
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer);
+    setIntValue(POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE, freePointer);
+    setIntValue(SIZE_OFFSET, size + 1);
+
+    final byte[] suffix = new byte[suffixSize];
+    System.arraycopy(key, prefix.length, suffix, 0, suffixSize);
+
+    if (isLeaf) {
+      freePointer += setIntValue(freePointer, suffixSize);
+      freePointer += setBinaryValue(freePointer, suffix);
+      freePointer += setByteValue(freePointer, treeEntry.value.isLink() ? (byte) 1 : (byte) 0);
+
+      byte[] serializedValue = new byte[tailSize - OByteSerializer.BYTE_SIZE];
+      if (treeEntry.value.isLink())
+        OLongSerializer.INSTANCE.serializeNative(treeEntry.value.getLink(), serializedValue, 0);
+      else
+        valueSerializer.serializeNativeObject(treeEntry.value.getValue(), serializedValue, 0);
+
+      setBinaryValue(freePointer, serializedValue);
+    } else {
+      freePointer += setLongValue(freePointer, treeEntry.leftChild);
+      freePointer += setLongValue(freePointer, treeEntry.rightChild);
+      freePointer += setIntValue(freePointer, suffixSize);
+      setBinaryValue(freePointer, suffix);
+
+      size++;
+
+      if (updateNeighbors && size > 1) {
+        if (index < size - 1) {
+          final int nextEntryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + (index + 1) * OIntegerSerializer.INT_SIZE);
+          setLongValue(nextEntryPosition, treeEntry.rightChild);
+        }
+
+        if (index > 0) {
+          final int prevEntryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + (index - 1) * OIntegerSerializer.INT_SIZE);
+          setLongValue(prevEntryPosition + OLongSerializer.LONG_SIZE, treeEntry.leftChild);
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private int getValueSize(OSBTreeValue<V> value) {
+    if (valueSerializer.isFixedLength())
+      return valueSerializer.getFixedLength();
+
+    if (value.isLink())
+      return OLongSerializer.LONG_SIZE;
+
+    return valueSerializer.getObjectSize(value.getValue());
+  }
+
+  /**
+   * @return size of the key which is stored at given position.
+   */
+  private int getKeySize(int keyPosition) {
+    if (keyNormalizer != null)
+      return OIntegerSerializer.INT_SIZE + getIntValue(keyPosition);
+
+    return getObjectSizeInDirectMemory(keySerializer, keyPosition);
+  }
+
+  private K readKey(int keyPosition) {
+    if (keyNormalizer != null)
+      return keyNormalizer.denormalize(readNormalizedKey(getPrefix(), keyPosition));
+
+    return deserializeFromDirectMemory(keySerializer, keyPosition);
+  }
+
+  private byte[] readNormalizedKey(byte[] prefix, int keyPosition) {
+    final int suffixSize = getIntValue(keyPosition);
+
+    final byte[] key = new byte[prefix.length + suffixSize];
+    System.arraycopy(prefix, 0, key, 0, prefix.length);
+    if (suffixSize > 0)
+      System.arraycopy(getBinaryValue(keyPosition + OIntegerSerializer.INT_SIZE, suffixSize), 0, key, prefix.length, suffixSize);
+
+    return key;
+  }
+
+  private byte[] getPrefix() {
+    final int prefixSize = getIntValue(PREFIX_SIZE_OFFSET);
+    if (prefixSize == 0)
+      return EMPTY_PREFIX;
+
+    return getBinaryValue(PREFIX_SIZE_OFFSET - prefixSize, prefixSize);
+  }
+
+  private void setPrefix(byte[] prefix) throws IOException {
+    assert isEmpty();
+
+    setIntValue(PREFIX_SIZE_OFFSET, prefix.length);
+    setBinaryValue(PREFIX_SIZE_OFFSET - prefix.length, prefix);
+    setIntValue(FREE_POINTER_OFFSET, PREFIX_SIZE_OFFSET - prefix.length);
+  }
+
+  private static byte[] commonPrefix(List<byte[]> keys) {
+    final byte[] first = keys.get(0);
+
+    int prefixSize = first.length;
+    for (int i = 1; i < keys.size() && prefixSize > 0; i++)
+      prefixSize = OKeyNormalizer.commonPrefix(first, keys.get(i), prefixSize);
+
+    final byte[] prefix = new byte[prefixSize];
+    System.arraycopy(first, 0, prefix, 0, prefixSize);
+    return prefix;
+  }
+
+  /**
+   * @return entry of bucket with normalized key in the form which does not depend on prefix of bucket.
+   */
+  private RawEntry getRawEntry(int entryIndex) {
+    final int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
+    final byte[] prefix = getPrefix();
+
+    if (isLeaf) {
+      final byte[] key = readNormalizedKey(prefix, entryPosition);
+      final int tailPosition = entryPosition + getKeySize(entryPosition);
+
+      final int valueSize;
+      if (valueSerializer.isFixedLength())
+        valueSize = valueSerializer.getFixedLength();
+      else if (getByteValue(tailPosition) > 0)
+        valueSize = OLongSerializer.LONG_SIZE;
+      else
+        valueSize = getObjectSizeInDirectMemory(valueSerializer, tailPosition + OByteSerializer.BYTE_SIZE);
+
+      return new RawEntry(key, getBinaryValue(tailPosition, OByteSerializer.BYTE_SIZE + valueSize));
+    }
+
+    return new RawEntry(readNormalizedKey(prefix, entryPosition + 2 * OLongSerializer.LONG_SIZE),
+        getBinaryValue(entryPosition, 2 * OLongSerializer.LONG_SIZE));
+  }
+
+  /**
+   * Replaces content of bucket by given entries, keys of entries should start with given prefix.
+   */
+  private void rewrite(byte[] prefix, List<RawEntry> rawEntries) throws IOException {
+    setIntValue(SIZE_OFFSET, 0);
+    setPrefix(prefix);
+
+    int freePointer = PREFIX_SIZE_OFFSET - prefix.length;
+    for (int i = 0; i < rawEntries.size(); i++) {
+      final RawEntry rawEntry = rawEntries.get(i);
+
+      final byte[] suffix = new byte[rawEntry.key.length - prefix.length];
+      System.arraycopy(rawEntry.key, prefix.length, suffix, 0, suffix.length);
+
+      freePointer -= OIntegerSerializer.INT_SIZE + suffix.length + rawEntry.tail.length;
+      setIntValue(POSITIONS_ARRAY_OFFSET + i * OIntegerSerializer.INT_SIZE, freePointer);
+
+      int position = freePointer;
+      if (isLeaf) {
+        position += setIntValue(position, suffix.length);
+        position += setBinaryValue(position, suffix);
+        setBinaryValue(position, rawEntry.tail);
+      } else {
+        position += setBinaryValue(position, rawEntry.tail);
+        position += setIntValue(position, suffix.length);
+        setBinaryValue(position, suffix);
+      }
+    }
+
+    setIntValue(FREE_POINTER_OFFSET, freePointer);
+    setIntValue(SIZE_OFFSET, rawEntries.size());
+  }
+
   public int updateValue(int index, OSBTreeValue<V> value) throws IOException {
     int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
-    entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
+    entryPosition += getKeySize(entryPosition);
     boolean isLinkValue = getByteValue(entryPosition) > 0;
 
     entryPosition += OByteSerializer.BYTE_SIZE;
@@ -420,6 +762,19 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     return getLongValue(RIGHT_SIBLING_OFFSET);
   }
 
+  /**
+   * Entry of bucket with normalized key, the tail contains value of entry of leaf bucket or children of entry of non-leaf bucket.
+   */
+  private static final class RawEntry {
+    private final byte[] key;
+    private final byte[] tail;
+
+    private RawEntry(byte[] key, byte[] tail) {
+      this.key = key;
+      this.tail = tail;
+    }
+  }
+
   public static final class SBTreeEntry<K, V> implements Comparable<SBTreeEntry<K, V>> {
     private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
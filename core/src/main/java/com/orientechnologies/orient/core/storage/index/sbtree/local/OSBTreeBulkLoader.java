@@ -0,0 +1,381 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.index.OIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Collects entries of {@link OSBTree} and loads them into the tree sorted by key, so the tree is built bottom-up by {@link
+ * OSBTree#bulkLoad(Iterator, int)} instead of insertion of entries one by one.
+ * <p>
+ * Entries are kept in memory until <code>maxInMemory</code> entries are added, then they are sorted and written to a temporary
+ * file (a <i>run</i>) in {@link Orient#getTempPath()}. Runs are merged when the tree is loaded. Entries with equal keys are passed
+ * to the validator in the order of their addition, the same way as they would be passed if they were put in the tree one by one,
+ * so only one entry for each key is loaded. If the tree is not empty when entries are loaded, entries are put in the tree one by
+ * one in ascending order of keys.
+ * <p>
+ * Instances of this class are not thread safe.
+ */
+public class OSBTreeBulkLoader<K, V> implements AutoCloseable {
+  private static final int MAX_KEY_SIZE = OGlobalConfiguration.SBTREE_MAX_KEY_SIZE.getValueAsInteger();
+
+  private final OSBTree<K, V>        tree;
+  private final OBinarySerializer<K> keySerializer;
+  private final OBinarySerializer<V> valueSerializer;
+  private final OType[]              keyTypes;
+  private final int                  maxInMemory;
+  private final int                  fillFactor;
+
+  private final OIndexEngine.Validator<K, V> validator;
+
+  private final Comparator<Map.Entry<K, V>> comparator = (first, second) -> ODefaultComparator.INSTANCE
+      .compare(first.getKey(), second.getKey());
+
+  private List<Map.Entry<K, V>> buffer = new ArrayList<Map.Entry<K, V>>();
+  private final List<File>      runs   = new ArrayList<File>();
+
+  private boolean nullKeyAdded;
+  private V       nullKeyValue;
+
+  /**
+   * @param tree        Tree which is loaded.
+   * @param maxInMemory Maximum amount of entries which are kept in memory before they are written to the temporary file, zero or
+   *                    negative means that entries are never written to the disk.
+   * @param fillFactor  Percent of space of buckets of the tree which is filled during load.
+   * @param validator   Validator of entries with equal keys, it is called for every entry with the value of the previous entry with
+   *                    the same key, <code>null</code> means that the value of the last added entry is loaded.
+   */
+  public OSBTreeBulkLoader(OSBTree<K, V> tree, int maxInMemory, int fillFactor, OIndexEngine.Validator<K, V> validator) {
+    this.tree = tree;
+    this.validator = validator;
+    this.keySerializer = tree.getKeySerializer();
+    this.valueSerializer = tree.getValueSerializer();
+    this.keyTypes = tree.getKeyTypes();
+    this.maxInMemory = maxInMemory;
+    this.fillFactor = fillFactor;
+  }
+
+  /**
+   * Adds entry which will be loaded in the tree.
+   *
+   * @throws OTooBigIndexKeyException if key is bigger than allowed by {@link OGlobalConfiguration#SBTREE_MAX_KEY_SIZE}.
+   */
+  public void add(K key, V value) {
+    if (buffer == null)
+      throw new IllegalStateException("Entries are already loaded");
+
+    if (key == null) {
+      // value of null key is not kept in the buckets of the tree, so it is validated immediately and put as usual
+      if (validator == null) {
+        nullKeyValue = value;
+        nullKeyAdded = true;
+      } else {
+        final Object result = validator.validate(null, nullKeyValue, value);
+        if (result != OIndexEngine.Validator.IGNORE) {
+          //noinspection unchecked
+          nullKeyValue = (V) result;
+          nullKeyAdded = true;
+        }
+      }
+
+      return;
+    }
+
+    final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
+    if (keySize > MAX_KEY_SIZE)
+      throw new OTooBigIndexKeyException(
+          "Key size is more than allowed, operation was canceled. Current key size " + keySize + ", allowed  " + MAX_KEY_SIZE,
+          tree.getName());
+
+    buffer.add(new AbstractMap.SimpleImmutableEntry<K, V>(keySerializer.preprocess(key, (Object[]) keyTypes), value));
+    if (maxInMemory > 0 && buffer.size() >= maxInMemory)
+      spill();
+  }
+
+  /**
+   * Loads added entries in the tree.
+   *
+   * @return amount of loaded entries.
+   */
+  public long load() {
+    if (buffer == null)
+      throw new IllegalStateException("Entries are already loaded");
+
+    final List<Run<K, V>> sources = new ArrayList<Run<K, V>>(runs.size() + 1);
+    for (File run : runs)
+      sources.add(new FileRun(run));
+
+    buffer.sort(comparator);
+    sources.add(new MemoryRun<K, V>(buffer.iterator()));
+    buffer = null;
+
+    try {
+      final ValidatedEntries entries = new ValidatedEntries(sources);
+      if (!tree.bulkLoad(entries, fillFactor)) {
+        OLogManager.instance().warn(this, "SBTree '%s' is not empty, entries are put in the tree one by one", tree.getName());
+
+        while (entries.hasNext()) {
+          final Map.Entry<K, V> entry = entries.next();
+          put(entry.getKey(), entry.getValue());
+        }
+      }
+
+      long loaded = entries.count;
+      if (nullKeyAdded) {
+        put(null, nullKeyValue);
+        loaded++;
+      }
+
+      return loaded;
+    } finally {
+      for (Run<K, V> source : sources)
+        source.close();
+    }
+  }
+
+  /**
+   * @return amount of sorted runs written to the disk.
+   */
+  public int getSpilledRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Releases collected entries and deletes temporary files.
+   */
+  @Override
+  public void close() {
+    for (File run : runs) {
+      if (!run.delete() && run.exists())
+        OLogManager.instance().warn(this, "Cannot delete temporary file %s", run);
+    }
+
+    runs.clear();
+    buffer = null;
+  }
+
+  private void put(K key, V value) {
+    if (validator == null)
+      tree.put(key, value);
+    else
+      tree.validatedPut(key, value, validator);
+  }
+
+  private void spill() {
+    buffer.sort(comparator);
+
+    final File dir = new File(Orient.getTempPath());
+    final File run;
+    try {
+      //noinspection ResultOfMethodCallIgnored
+      dir.mkdirs();
+      run = File.createTempFile("sbtree_", ".tmp", dir);
+    } catch (IOException e) {
+      throw OException.wrapException(new OSBTreeException("Cannot create temporary file in " + dir, tree), e);
+    }
+
+    runs.add(run);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+      out.writeInt(buffer.size());
+      for (Map.Entry<K, V> entry : buffer) {
+        final byte[] key = new byte[keySerializer.getObjectSize(entry.getKey(), (Object[]) keyTypes)];
+        keySerializer.serializeNativeObject(entry.getKey(), key, 0, (Object[]) keyTypes);
+
+        final byte[] value = new byte[valueSerializer.getObjectSize(entry.getValue())];
+        valueSerializer.serializeNativeObject(entry.getValue(), value, 0);
+
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value.length);
+        out.write(value);
+      }
+    } catch (IOException e) {
+      throw OException.wrapException(new OSBTreeException("Cannot write temporary file " + run, tree), e);
+    }
+
+    buffer = new ArrayList<Map.Entry<K, V>>();
+  }
+
+  /**
+   * Merges runs and passes entries with equal keys to the validator.
+   */
+  private final class ValidatedEntries implements Iterator<Map.Entry<K, V>> {
+    private final PriorityQueue<Run<K, V>> queue;
+
+    private Map.Entry<K, V> next;
+    private long            count;
+
+    private ValidatedEntries(List<Run<K, V>> sources) {
+      // runs are ordered by their position when keys are equal, so entries with equal keys are validated in order of addition
+      this.queue = new PriorityQueue<Run<K, V>>(sources.size() + 1, (first, second) -> {
+        final int result = comparator.compare(first.current, second.current);
+        if (result != 0)
+          return result;
+
+        return Integer.compare(first.order, second.order);
+      });
+
+      for (int i = 0; i < sources.size(); i++) {
+        final Run<K, V> source = sources.get(i);
+        source.order = i;
+
+        if (source.advance())
+          queue.add(source);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && !queue.isEmpty()) {
+        final K key = queue.peek().current.getKey();
+
+        boolean found = false;
+        V value = null;
+        while (!queue.isEmpty() && ODefaultComparator.INSTANCE.compare(queue.peek().current.getKey(), key) == 0) {
+          final Run<K, V> source = queue.poll();
+          final V newValue = source.current.getValue();
+
+          if (validator == null) {
+            value = newValue;
+            found = true;
+          } else {
+            final Object result = validator.validate(key, value, newValue);
+            if (result != OIndexEngine.Validator.IGNORE) {
+              //noinspection unchecked
+              value = (V) result;
+              found = true;
+            }
+          }
+
+          if (source.advance())
+            queue.add(source);
+        }
+
+        if (found)
+          next = new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+      }
+
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+
+      final Map.Entry<K, V> result = next;
+      next = null;
+      count++;
+
+      return result;
+    }
+  }
+
+  private abstract static class Run<K, V> {
+    private Map.Entry<K, V> current;
+    private int             order;
+
+    boolean advance() {
+      current = fetch();
+      return current != null;
+    }
+
+    abstract Map.Entry<K, V> fetch();
+
+    void close() {
+    }
+  }
+
+  private static final class MemoryRun<K, V> extends Run<K, V> {
+    private final Iterator<Map.Entry<K, V>> iterator;
+
+    private MemoryRun(Iterator<Map.Entry<K, V>> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    Map.Entry<K, V> fetch() {
+      return iterator.hasNext() ? iterator.next() : null;
+    }
+  }
+
+  private final class FileRun extends Run<K, V> {
+    private final File            file;
+    private       DataInputStream in;
+    private       boolean         opened;
+    private       int             left;
+
+    private FileRun(File file) {
+      this.file = file;
+    }
+
+    @Override
+    Map.Entry<K, V> fetch() {
+      try {
+        if (!opened) {
+          in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+          left = in.readInt();
+          opened = true;
+        }
+
+        if (left == 0) {
+          close();
+          return null;
+        }
+
+        left--;
+
+        final byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        final byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+
+        return new AbstractMap.SimpleImmutableEntry<K, V>(keySerializer.deserializeNativeObject(key, 0),
+            valueSerializer.deserializeNativeObject(value, 0));
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Cannot read temporary file " + file, tree), e);
+      }
+    }
+
+    @Override
+    void close() {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException e) {
+          OLogManager.instance().warn(this, "Cannot close temporary file %s", e, file);
+        }
+        in = null;
+      }
+    }
+  }
+}
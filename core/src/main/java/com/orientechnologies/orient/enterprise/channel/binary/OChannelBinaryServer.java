@@ -25,6 +25,8 @@ import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 
 import com.orientechnologies.orient.core.config.OContextConfiguration;
@@ -46,4 +48,20 @@ public class OChannelBinaryServer extends OChannelBinary {
     in = new DataInputStream(inStream);
     connected();
   }
+
+  /**
+   * Creates channel which exchanges data through passed in streams instead of streams of the socket. Streams are used as is, so
+   * they should do buffering themselves.
+   */
+  public OChannelBinaryServer(final Socket iSocket, final InputStream iInStream, final OutputStream iOutStream,
+      final OContextConfiguration iConfig) throws IOException {
+    super(iSocket, iConfig);
+
+    inStream = iInStream;
+    outStream = iOutStream;
+
+    out = new DataOutputStream(outStream);
+    in = new DataInputStream(inStream);
+    connected();
+  }
 }
@@ -188,6 +188,63 @@ public class OByteBufferPoolTest {
     byteBufferPool.checkMemoryLeaks();
   }
 
+  @Test
+  public void testThreadCache() throws Exception {
+    final ODirectMemoryAllocator allocator = new ODirectMemoryAllocator();
+    final OByteBufferPool byteBufferPool = new OByteBufferPool(42, allocator, 2, 2);
+
+    final ByteBuffer bufferOne = byteBufferPool.acquireDirect(false);
+    final ByteBuffer bufferTwo = byteBufferPool.acquireDirect(false);
+    final ByteBuffer bufferThree = byteBufferPool.acquireDirect(false);
+
+    Assert.assertEquals(3, byteBufferPool.getThreadCacheMisses());
+    Assert.assertEquals(3, byteBufferPool.getPoolMisses());
+    Assert.assertEquals(126, allocator.getMemoryConsumption());
+
+    byteBufferPool.release(bufferOne);
+    byteBufferPool.release(bufferTwo);
+    Assert.assertEquals(2, byteBufferPool.getPoolSize());
+
+    // THREAD CACHE IS FULL, HALF OF IT IS MOVED TO THE SHARED POOL
+    byteBufferPool.release(bufferThree);
+    Assert.assertEquals(3, byteBufferPool.getPoolSize());
+    Assert.assertEquals(126, allocator.getMemoryConsumption());
+
+    final List<ByteBuffer> buffers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      buffers.add(byteBufferPool.acquireDirect(true));
+    }
+
+    Assert.assertEquals(2, byteBufferPool.getThreadCacheHits());
+    Assert.assertEquals(4, byteBufferPool.getThreadCacheMisses());
+    Assert.assertEquals(1, byteBufferPool.getPoolHits());
+    Assert.assertEquals(3, byteBufferPool.getPoolMisses());
+    Assert.assertEquals(0, byteBufferPool.getPoolSize());
+    Assert.assertEquals(126, allocator.getMemoryConsumption());
+
+    for (ByteBuffer buffer : buffers) {
+      assertBufferIsClear(buffer);
+    }
+
+    // BUFFERS MAY BE RELEASED BY ANOTHER THREAD
+    final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    executorService.submit(() -> {
+      for (ByteBuffer buffer : buffers) {
+        byteBufferPool.release(buffer);
+      }
+    }).get();
+    executorService.shutdown();
+
+    Assert.assertEquals(3, byteBufferPool.getPoolSize());
+
+    byteBufferPool.clear();
+
+    Assert.assertEquals(0, allocator.getMemoryConsumption());
+    Assert.assertEquals(0, byteBufferPool.getPoolSize());
+
+    byteBufferPool.checkMemoryLeaks();
+  }
+
   @Test
   @Ignore
   public void mtTest() throws Exception {
@@ -0,0 +1,122 @@
+package com.orientechnologies.common.directmemory;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OMemoryBudgetManagerTest {
+  private static final long MB = 1024 * 1024;
+
+  @Before
+  public void before() {
+    OGlobalConfiguration.MEMORY_BUDGET.setValue(100L);
+  }
+
+  @After
+  public void after() {
+    OGlobalConfiguration.MEMORY_BUDGET.setValue(OGlobalConfiguration.MEMORY_BUDGET.getDefValue());
+  }
+
+  @Test
+  public void testPoolsAreShrunkToFitBudget() {
+    final OMemoryBudgetManager manager = new OMemoryBudgetManager();
+    final TestPool readCache = new TestPool("read", 80 * MB);
+    final TestPool writeCache = new TestPool("write", 40 * MB);
+
+    manager.registerPool(readCache);
+    manager.registerPool(writeCache);
+
+    Assert.assertEquals(100 * MB, manager.getCommittedMemory());
+    Assert.assertEquals(60 * MB, readCache.getMemoryLimit());
+    Assert.assertEquals(40 * MB, writeCache.getMemoryLimit());
+
+    manager.unregisterPool(writeCache);
+    Assert.assertEquals(80 * MB, readCache.getMemoryLimit());
+  }
+
+  @Test
+  public void testQueryMemoryReservation() {
+    final OMemoryBudgetManager manager = new OMemoryBudgetManager();
+    final TestPool readCache = new TestPool("read", 80 * MB);
+    final TestPool writeCache = new TestPool("write", 40 * MB);
+
+    manager.registerPool(readCache);
+    manager.registerPool(writeCache);
+
+    Assert.assertTrue(manager.reserveQueryMemory(50 * MB));
+    Assert.assertEquals(50 * MB, manager.getQueryMemory());
+    Assert.assertEquals(20 * MB, readCache.getMemoryLimit());
+    Assert.assertEquals(30 * MB, writeCache.getMemoryLimit());
+
+    // POOLS CAN NOT GO BELOW A QUARTER OF THEIR CONFIGURED SIZE
+    Assert.assertFalse(manager.reserveQueryMemory(30 * MB));
+    Assert.assertEquals(1, manager.getDeniedQueryReservations());
+    Assert.assertEquals(50 * MB, manager.getQueryMemory());
+    Assert.assertEquals(100 * MB, manager.getCommittedMemory());
+
+    manager.releaseQueryMemory(50 * MB);
+    Assert.assertEquals(0, manager.getQueryMemory());
+    Assert.assertEquals(100 * MB, manager.getCommittedMemory());
+  }
+
+  @Test
+  public void testDisabledBudget() {
+    OGlobalConfiguration.MEMORY_BUDGET.setValue(0L);
+
+    final OMemoryBudgetManager manager = new OMemoryBudgetManager();
+    final TestPool readCache = new TestPool("read", 80 * MB);
+    manager.registerPool(readCache);
+
+    Assert.assertTrue(manager.reserveQueryMemory(1024 * MB));
+    Assert.assertEquals(80 * MB, readCache.getMemoryLimit());
+    Assert.assertEquals(1104 * MB, manager.getCommittedMemory());
+
+    manager.releaseQueryMemory(1024 * MB);
+    Assert.assertEquals(0, manager.getQueryMemory());
+  }
+
+  private static final class TestPool implements OMemoryPool {
+    private final String name;
+    private final long   configuredLimit;
+    private       long   limit;
+
+    private TestPool(String name, long configuredLimit) {
+      this.name = name;
+      this.configuredLimit = configuredLimit;
+      this.limit = configuredLimit;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public long getUsedMemory() {
+      return limit;
+    }
+
+    @Override
+    public long getMemoryLimit() {
+      return limit;
+    }
+
+    @Override
+    public long shrink(long amount) {
+      final long newLimit = Math.max(configuredLimit / 4, limit - amount);
+      final long released = limit - newLimit;
+      limit = newLimit;
+      return released;
+    }
+
+    @Override
+    public long grow(long amount) {
+      final long newLimit = amount >= configuredLimit - limit ? configuredLimit : limit + amount;
+      final long granted = newLimit - limit;
+      limit = newLimit;
+      return granted;
+    }
+  }
+}
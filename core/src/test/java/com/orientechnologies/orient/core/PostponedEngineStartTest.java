@@ -457,6 +457,11 @@ public class PostponedEngineStartTest {
           return new long[0];
         }
 
+        @Override
+        public long[][] getClusterDataSplits(int clusterId, int maxSplits) {
+          return new long[0][];
+        }
+
         @Override
         public <V> V callInLock(Callable<V> iCallable, boolean iExclusiveLock) {
           return null;
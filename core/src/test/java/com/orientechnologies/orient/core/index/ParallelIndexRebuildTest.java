@@ -0,0 +1,95 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+
+public class ParallelIndexRebuildTest {
+  private static final int RECORDS = 10000;
+
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() {
+    OGlobalConfiguration.INDEX_REBUILD_THREADS.setValue(4);
+
+    db = new ODatabaseDocumentTx("memory:" + ParallelIndexRebuildTest.class.getSimpleName());
+    db.create();
+
+    OClass clazz = db.getMetadata().getSchema().createClass("Person");
+    clazz.createProperty("id", OType.INTEGER);
+    clazz.createProperty("group", OType.STRING);
+    clazz.addCluster("Person_extra");
+
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Person");
+      doc.field("id", i);
+      doc.field("group", "group" + (i % 10));
+      db.save(doc);
+    }
+  }
+
+  @After
+  public void after() {
+    db.drop();
+    OGlobalConfiguration.INDEX_REBUILD_THREADS.setValue(OGlobalConfiguration.INDEX_REBUILD_THREADS.getDefValue());
+  }
+
+  @Test
+  public void testCreateAndRebuild() {
+    OClass clazz = db.getMetadata().getSchema().getClass("Person");
+    OIndex<?> uniqueIndex = clazz.createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+    OIndex<?> notUniqueIndex = clazz.createIndex("Person.group", OClass.INDEX_TYPE.NOTUNIQUE, "group");
+
+    assertIndexes(uniqueIndex, notUniqueIndex);
+
+    Assert.assertEquals(RECORDS, uniqueIndex.rebuild());
+    Assert.assertEquals(RECORDS, notUniqueIndex.rebuild());
+
+    assertIndexes(uniqueIndex, notUniqueIndex);
+  }
+
+  @Test
+  public void testDuplicatedKey() {
+    ODocument doc = new ODocument("Person");
+    doc.field("id", RECORDS / 2);
+    db.save(doc);
+
+    try {
+      db.getMetadata().getSchema().getClass("Person").createIndex("Person.id", OClass.INDEX_TYPE.UNIQUE, "id");
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Throwable cause = e;
+      while (cause != null && !(cause instanceof ORecordDuplicatedException))
+        cause = cause.getCause();
+
+      Assert.assertNotNull(cause);
+    }
+
+    //database of the current thread is restored after failure of the build
+    Assert.assertTrue(ODatabaseRecordThreadLocal.instance().isDefined());
+    Assert.assertEquals(RECORDS + 1, db.countClass("Person"));
+  }
+
+  private void assertIndexes(OIndex<?> uniqueIndex, OIndex<?> notUniqueIndex) {
+    Assert.assertEquals(RECORDS, uniqueIndex.getSize());
+    Assert.assertEquals(RECORDS, notUniqueIndex.getSize());
+
+    for (int i = 0; i < RECORDS; i += 97) {
+      Assert.assertNotNull(uniqueIndex.get(i));
+    }
+    for (int i = 0; i < 10; i++) {
+      Assert.assertEquals(RECORDS / 10, ((Collection<?>) notUniqueIndex.get("group" + i)).size());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.orientechnologies.orient.core.metadata.schema.clusterselection;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OThreadClusterSelectionStrategyTest {
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() {
+    db = new ODatabaseDocumentTx("memory:" + OThreadClusterSelectionStrategyTest.class.getSimpleName());
+    db.create();
+  }
+
+  @After
+  public void after() {
+    db.drop();
+  }
+
+  @Test
+  public void testSameClusterPerThread() throws Exception {
+    OClass clazz = db.getMetadata().getSchema().createClass("Person", 2);
+    clazz.setClusterSelection(OThreadClusterSelectionStrategy.NAME);
+
+    Assert.assertEquals(OThreadClusterSelectionStrategy.NAME, clazz.getClusterSelection().getName());
+
+    final int[] clusterIds = clazz.getClusterIds();
+    Assert.assertEquals(2, clusterIds.length);
+
+    db.begin();
+    ODocument first = db.save(new ODocument("Person"));
+    ODocument second = db.save(new ODocument("Person"));
+    db.commit();
+
+    final int clusterId = first.getIdentity().getClusterId();
+    Assert.assertEquals(clusterId, second.getIdentity().getClusterId());
+
+    Assert.assertEquals(clusterId, clazz.getClusterSelection().getCluster(clazz, clusterIds, null));
+  }
+
+  @Test
+  public void testThreadsAreSpreadBetweenClusters() throws Exception {
+    OClass clazz = db.getMetadata().getSchema().createClass("Person", 2);
+    final int[] clusterIds = clazz.getClusterIds();
+
+    final OClusterSelectionStrategy strategy = new OThreadClusterSelectionStrategy();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final CyclicBarrier barrier = new CyclicBarrier(2);
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        futures.add(executor.submit(() -> {
+          // THE BARRIER KEEPS BOTH THREADS ALIVE, SO THE POOL CAN NOT RUN THE TWO TASKS ON THE SAME THREAD
+          final int cluster = strategy.getCluster(clazz, clusterIds, null);
+          barrier.await();
+          Assert.assertEquals(cluster, strategy.getCluster(clazz, clusterIds, null));
+          return cluster;
+        }));
+      }
+
+      final Set<Integer> selected = new HashSet<>();
+      for (Future<Integer> future : futures)
+        selected.add(future.get());
+
+      Assert.assertEquals(new HashSet<>(Arrays.asList(clusterIds[0], clusterIds[1])), selected);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
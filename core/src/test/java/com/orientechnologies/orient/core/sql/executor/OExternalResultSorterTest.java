@@ -0,0 +1,56 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+public class OExternalResultSorterTest {
+
+  @Test
+  public void testInMemory() {
+    OExternalResultSorter sorter = new OExternalResultSorter(Comparator.comparing(x -> x.<Integer>getProperty("val")), 0);
+    fill(sorter, 100);
+    sorter.sort();
+    Assert.assertEquals(0, sorter.getSpilledRuns());
+    checkSorted(sorter, 100);
+    sorter.close();
+  }
+
+  @Test
+  public void testSpill() {
+    OExternalResultSorter sorter = new OExternalResultSorter(Comparator.comparing(x -> x.<Integer>getProperty("val")), 7);
+    fill(sorter, 100);
+    sorter.sort();
+    Assert.assertEquals(15, sorter.getSpilledRuns());
+    checkSorted(sorter, 100);
+    sorter.close();
+    Assert.assertEquals(0, sorter.getSpilledRuns());
+  }
+
+  private void fill(OExternalResultSorter sorter, int size) {
+    Random random = new Random(42);
+    for (int i = 0; i < size; i++) {
+      OResultInternal item = new OResultInternal();
+      item.setProperty("val", random.nextInt(1000));
+      item.setProperty("name", "name" + i);
+      item.setMetadata("meta", i);
+      sorter.add(item);
+    }
+  }
+
+  private void checkSorted(OExternalResultSorter sorter, int size) {
+    int last = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      Assert.assertTrue(sorter.hasNext());
+      OResult item = sorter.next();
+      int val = item.getProperty("val");
+      Assert.assertTrue(val >= last);
+      Assert.assertNotNull(item.getProperty("name"));
+      Assert.assertNotNull(item.getMetadata("meta"));
+      last = val;
+    }
+    Assert.assertFalse(sorter.hasNext());
+  }
+}
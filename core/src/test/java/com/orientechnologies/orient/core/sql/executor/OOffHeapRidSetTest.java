@@ -0,0 +1,90 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class OOffHeapRidSetTest {
+
+  @Test
+  public void testOnHeap() {
+    OOffHeapRidSet set = new OOffHeapRidSet(0, 1024 * 1024);
+    fill(set, 10000);
+    Assert.assertEquals(0, set.getOffHeapMemoryUsage());
+    check(set, 10000);
+    set.close();
+  }
+
+  @Test
+  public void testOffHeap() {
+    OOffHeapRidSet set = new OOffHeapRidSet(100, 16 * 1024 * 1024);
+    fill(set, 10000);
+    Assert.assertTrue(set.getOffHeapMemoryUsage() > 0);
+    check(set, 10000);
+
+    for (int i = 0; i < 10000; i += 2) {
+      Assert.assertTrue(set.remove(rid(i)));
+      Assert.assertFalse(set.remove(rid(i)));
+    }
+    Assert.assertEquals(5000, set.size());
+    for (int i = 0; i < 10000; i++) {
+      Assert.assertEquals(i % 2 == 1, set.contains(rid(i)));
+    }
+
+    set.close();
+    Assert.assertEquals(0, set.getOffHeapMemoryUsage());
+    Assert.assertTrue(set.isEmpty());
+  }
+
+  @Test
+  public void testOffHeapLimit() {
+    // THE LIMIT ALLOWS ONLY THE SMALLEST TABLE, THE REST GOES BACK ON HEAP
+    OOffHeapRidSet set = new OOffHeapRidSet(100, 4096 * 8);
+    fill(set, 10000);
+    Assert.assertEquals(4096 * 8, set.getOffHeapMemoryUsage());
+    check(set, 10000);
+    set.close();
+  }
+
+  @Test
+  public void testBigRids() {
+    OOffHeapRidSet set = new OOffHeapRidSet(1, 1024 * 1024);
+    ORID big = new ORecordId(Short.MAX_VALUE, 5);
+    Assert.assertTrue(set.add(new ORecordId(1, 1)));
+    Assert.assertTrue(set.add(big));
+    Assert.assertTrue(set.add(new ORecordId(1, 2)));
+    Assert.assertFalse(set.add(big));
+    Assert.assertTrue(set.contains(big));
+    Assert.assertEquals(3, set.size());
+    set.close();
+  }
+
+  private void fill(OOffHeapRidSet set, int size) {
+    for (int i = 0; i < size; i++) {
+      Assert.assertTrue(set.add(rid(i)));
+      Assert.assertFalse(set.add(rid(i)));
+    }
+  }
+
+  private void check(OOffHeapRidSet set, int size) {
+    Assert.assertEquals(size, set.size());
+    for (int i = 0; i < size; i++) {
+      Assert.assertTrue(set.contains(rid(i)));
+    }
+    Assert.assertFalse(set.contains(rid(size)));
+
+    Set<ORID> iterated = new HashSet<>();
+    for (ORID rid : set) {
+      Assert.assertTrue(iterated.add(rid));
+    }
+    Assert.assertEquals(size, iterated.size());
+  }
+
+  private static ORID rid(int i) {
+    return new ORecordId(i % 20, i * 7L);
+  }
+}
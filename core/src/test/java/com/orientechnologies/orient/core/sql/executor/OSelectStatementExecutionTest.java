@@ -1,9 +1,11 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OProperty;
@@ -12,6 +14,7 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OClusterPositionMapBucket;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -3607,4 +3610,235 @@ public class OSelectStatementExecutionTest {
     }
   }
 
+  @Test
+  public void testParallelSubPlans() {
+    String parent = "testParallelSubPlans_parent";
+    OClass parentClass = db.getMetadata().getSchema().createClass(parent);
+    parentClass.createProperty("name", OType.STRING);
+    for (int i = 0; i < 6; i++) {
+      String child = "testParallelSubPlans_child" + i;
+      OClass childClass = db.getMetadata().getSchema().createClass(child, parentClass);
+      childClass.createIndex(child + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+      for (int j = 0; j < 50; j++) {
+        ODocument doc = db.newInstance(child);
+        doc.setProperty("name", "name" + (j % 5));
+        doc.save();
+      }
+    }
+
+    OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(4);
+    try {
+      try (OResultSet result = db.query("select from " + parent + " where name = 'name1'")) {
+        OInternalExecutionPlan plan = (OInternalExecutionPlan) result.getExecutionPlan().get();
+        Assert.assertTrue(plan.getSteps().get(0) instanceof ParallelExecStep);
+        Set<ORID> rids = new HashSet<>();
+        while (result.hasNext()) {
+          OResult item = result.next();
+          Assert.assertEquals("name1", item.getProperty("name"));
+          rids.add(item.getIdentity().get());
+        }
+        Assert.assertEquals(60, rids.size());
+      }
+
+      try (OResultSet result = db.query("select from " + parent + " where name = 'name1' limit 7")) {
+        for (int i = 0; i < 7; i++) {
+          Assert.assertTrue(result.hasNext());
+          result.next();
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.getDefValue());
+    }
+  }
+
+  @Test
+  public void testParallelSubPlansResultsLoadLinks() {
+    String parent = "testParallelSubPlansResultsLoadLinks_parent";
+    OClass parentClass = db.getMetadata().getSchema().createClass(parent);
+    parentClass.createProperty("name", OType.STRING);
+    String target = "testParallelSubPlansResultsLoadLinks_target";
+    db.getMetadata().getSchema().createClass(target);
+    for (int i = 0; i < 4; i++) {
+      String child = "testParallelSubPlansResultsLoadLinks_child" + i;
+      OClass childClass = db.getMetadata().getSchema().createClass(child, parentClass);
+      childClass.createIndex(child + ".name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+      for (int j = 0; j < 10; j++) {
+        ODocument linked = db.newInstance(target);
+        linked.setProperty("value", child + j);
+        linked.save();
+
+        ODocument doc = db.newInstance(child);
+        doc.setProperty("name", "name" + (j % 2));
+        doc.setProperty("link", linked);
+        doc.save();
+      }
+    }
+
+    OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(4);
+    try {
+      List<OResult> items = new ArrayList<>();
+      try (OResultSet result = db.query("select from " + parent + " where name = ?", "name1")) {
+        Assert.assertTrue(result.getExecutionPlan().get().getSteps().get(0) instanceof ParallelExecStep);
+        while (result.hasNext()) {
+          items.add(result.next());
+        }
+
+        // ALL THE JOBS ARE OVER, THE LINKS ARE LOADED AFTERWARDS
+        Set<String> values = new HashSet<>();
+        for (OResult item : items) {
+          OElement linked = ((OIdentifiable) item.getProperty("link")).getRecord();
+          values.add(linked.getProperty("value"));
+        }
+        Assert.assertEquals(20, values.size());
+      }
+      Assert.assertTrue(db.isActiveOnCurrentThread());
+    } finally {
+      OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.getDefValue());
+    }
+  }
+
+  @Test
+  public void testOrderBySpillToDisk() {
+    String className = "testOrderBySpillToDisk";
+    db.getMetadata().getSchema().createClass(className);
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("name", "name" + ((i * 37) % 100));
+      doc.setProperty("surname", "surname" + i);
+      doc.save();
+    }
+
+    OGlobalConfiguration.QUERY_ORDER_BY_MAX_IN_MEMORY.setValue(7);
+    try {
+      try (OResultSet result = db.query("select from " + className + " order by name")) {
+        String last = null;
+        for (int i = 0; i < 100; i++) {
+          Assert.assertTrue(result.hasNext());
+          OResult item = result.next();
+          Assert.assertTrue(item.isElement());
+          Assert.assertTrue(item.getIdentity().get().isPersistent());
+          String name = item.getProperty("name");
+          Assert.assertNotNull(item.getProperty("surname"));
+          if (last != null) {
+            Assert.assertTrue(last.compareTo(name) <= 0);
+          }
+          last = name;
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try (OResultSet result = db.query("select name from " + className + " order by name desc")) {
+        String last = null;
+        for (int i = 0; i < 100; i++) {
+          Assert.assertTrue(result.hasNext());
+          String name = result.next().getProperty("name");
+          if (last != null) {
+            Assert.assertTrue(last.compareTo(name) >= 0);
+          }
+          last = name;
+        }
+        Assert.assertFalse(result.hasNext());
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_ORDER_BY_MAX_IN_MEMORY.setValue(OGlobalConfiguration.QUERY_ORDER_BY_MAX_IN_MEMORY.getDefValue());
+    }
+  }
+
+  @Test
+  public void testOrderByTopK() {
+    String className = "testOrderByTopK";
+    db.getMetadata().getSchema().createClass(className);
+    for (int i = 0; i < 100; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("name", "name" + (i % 10));
+      doc.setProperty("seq", i);
+      doc.save();
+    }
+
+    try (OResultSet result = db.query("select from " + className + " order by name desc, seq skip 3 limit 5")) {
+      Assert.assertTrue(
+          result.getExecutionPlan().get().getSteps().stream().anyMatch(step -> step instanceof TopKOrderByStep));
+      int[] expected = { 39, 49, 59, 69, 79 };
+      for (int i = 0; i < expected.length; i++) {
+        Assert.assertTrue(result.hasNext());
+        OResult item = result.next();
+        Assert.assertEquals("name9", item.getProperty("name"));
+        Assert.assertEquals(expected[i], (int) item.getProperty("seq"));
+      }
+      Assert.assertFalse(result.hasNext());
+    }
+
+    try (OResultSet result = db.query("select from " + className + " order by name limit 0")) {
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test
+  public void testGroupBySpillToDisk() {
+    String className = "testGroupBySpillToDisk";
+    db.getMetadata().getSchema().createClass(className);
+    for (int i = 0; i < 500; i++) {
+      ODocument doc = db.newInstance(className);
+      doc.setProperty("type", "type" + (i % 50));
+      doc.setProperty("val", i);
+      doc.save();
+    }
+
+    OGlobalConfiguration.QUERY_GROUP_BY_MAX_IN_MEMORY.setValue(3);
+    try (OResultSet result = db.query("select type, count(*) as count, sum(val) as total from " + className + " group by type")) {
+      Map<String, Long> totals = new HashMap<>();
+      while (result.hasNext()) {
+        OResult item = result.next();
+        String type = item.getProperty("type");
+        Assert.assertFalse(totals.containsKey(type));
+        Assert.assertEquals(10L, (long) item.getProperty("count"));
+        totals.put(type, ((Number) item.getProperty("total")).longValue());
+      }
+      Assert.assertEquals(50, totals.size());
+      for (int i = 0; i < 50; i++) {
+        Assert.assertEquals(10L * i + 2250L, (long) totals.get("type" + i));
+      }
+    } finally {
+      OGlobalConfiguration.QUERY_GROUP_BY_MAX_IN_MEMORY.setValue(OGlobalConfiguration.QUERY_GROUP_BY_MAX_IN_MEMORY.getDefValue());
+    }
+  }
+
+  @Test
+  public void testParallelClusterScan() {
+    String clusterName = "testParallelClusterScan";
+    int clusterId = db.addCluster(clusterName);
+    int records = OClusterPositionMapBucket.MAX_ENTRIES * 2 + 100;
+    for (int i = 0; i < records; i++) {
+      ODocument doc = new ODocument();
+      doc.setProperty("seq", i);
+      doc.save(clusterName);
+    }
+
+    long[][] splits = db.getClusterSplits(clusterName, 4);
+    Assert.assertEquals(3, splits.length);
+    Set<ORID> browsed = new HashSet<>();
+    for (long[] split : splits) {
+      for (ODocument doc : db.<ODocument>browseCluster(clusterName, split[0], split[1], false)) {
+        Assert.assertTrue(browsed.add(doc.getIdentity()));
+      }
+    }
+    Assert.assertEquals(records, browsed.size());
+
+    OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(4);
+    OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.setValue(0L);
+    try (OResultSet result = db.query("select from cluster:" + db.getClusterNameById(clusterId))) {
+      OInternalExecutionPlan plan = (OInternalExecutionPlan) result.getExecutionPlan().get();
+      Assert.assertTrue(plan.getSteps().get(0) instanceof ParallelFetchFromClusterExecutionStep);
+      Set<Integer> seqs = new HashSet<>();
+      while (result.hasNext()) {
+        Assert.assertTrue(seqs.add(result.next().getProperty("seq")));
+      }
+      Assert.assertEquals(records, seqs.size());
+    } finally {
+      OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.setValue(OGlobalConfiguration.QUERY_PARALLEL_SUB_PLANS.getDefValue());
+      OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS
+          .setValue(OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.getDefValue());
+    }
+  }
 }
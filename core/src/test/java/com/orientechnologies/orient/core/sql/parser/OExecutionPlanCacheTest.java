@@ -15,7 +15,10 @@ public class OExecutionPlanCacheTest {
     ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OExecutionPlanCacheTest");
     db.create();
     OExecutionPlanCache cache = OExecutionPlanCache.instance(db);
-    String stm = "SELECT FROM OUser";
+    String stm = "SELECT FROM " + testName;
+    String otherStm = "SELECT FROM OUser";
+
+    OClass clazz = db.getMetadata().getSchema().createClass(testName);
 
     /*
      * the cache has a mechanism that guarantees that if you are doing execution planning
@@ -29,21 +32,15 @@ public class OExecutionPlanCacheTest {
 
     //schema changes
     db.query(stm).close();
+    db.query(otherStm).close();
     cache = OExecutionPlanCache.instance(db);
     Assert.assertTrue(cache.contains(stm));
-
-    OClass clazz = db.getMetadata().getSchema().createClass(testName);
-    Assert.assertFalse(cache.contains(stm));
-
-    Thread.sleep(2);
-
-    //schema changes 2
-    db.query(stm).close();
-    cache = OExecutionPlanCache.instance(db);
-    Assert.assertTrue(cache.contains(stm));
+    Assert.assertTrue(cache.contains(otherStm));
 
     OProperty prop = clazz.createProperty("name", OType.STRING);
     Assert.assertFalse(cache.contains(stm));
+    //plans of other classes are not invalidated
+    Assert.assertTrue(cache.contains(otherStm));
 
     Thread.sleep(2);
 
@@ -54,9 +51,38 @@ public class OExecutionPlanCacheTest {
 
     prop.createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
     Assert.assertFalse(cache.contains(stm));
+    Assert.assertTrue(cache.contains(otherStm));
 
     db.close();
 
   }
 
+  @Test
+  public void testSubclassInvalidatesSuperclassPlans() throws InterruptedException {
+    String testName = "testSubclassInvalidatesSuperclassPlans";
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OExecutionPlanCacheTest2");
+    db.create();
+    try {
+      OClass parent = db.getMetadata().getSchema().createClass(testName);
+      OClass child = db.getMetadata().getSchema().createClass(testName + "Child", parent);
+      String stm = "SELECT FROM " + testName;
+      String clusterStm = "SELECT FROM cluster:ouser";
+
+      Thread.sleep(2);
+
+      db.query(stm).close();
+      db.query(clusterStm).close();
+      OExecutionPlanCache cache = OExecutionPlanCache.instance(db);
+      Assert.assertTrue(cache.contains(stm));
+      Assert.assertTrue(cache.contains(clusterStm));
+
+      child.createProperty("name", OType.STRING).createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
+      Assert.assertFalse(cache.contains(stm));
+      //dependencies of plans that do not fetch from a class are not known
+      Assert.assertFalse(cache.contains(clusterStm));
+    } finally {
+      db.drop();
+    }
+  }
+
 }
@@ -251,6 +251,11 @@ public class StorageNamingTests {
       return new long[0];
     }
 
+    @Override
+    public long[][] getClusterDataSplits(int clusterId, int maxSplits) {
+      return new long[0][];
+    }
+
     @Override
     public OPhysicalPosition[] higherPhysicalPositions(int clusterId, OPhysicalPosition physicalPosition) {
       return new OPhysicalPosition[0];
@@ -0,0 +1,172 @@
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.OChecksumMode;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import org.junit.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class OShardedReadCacheTest {
+  private static final int userDataSize = 8;
+  private static final int systemOffset = OIntegerSerializer.INT_SIZE + 3 * OLongSerializer.LONG_SIZE;
+  private static final int PAGE_SIZE    = userDataSize + systemOffset;
+  private static final int PAGES        = 5 * OShardedReadCache.PAGE_STRIPE;
+
+  private static final OByteBufferPool                              BUFFER_POOL = new OByteBufferPool(PAGE_SIZE);
+  private static final OClosableLinkedContainer<Long, OFileClassic> files       = new OClosableLinkedContainer<>(1024);
+
+  private static OLocalPaginatedStorage storageLocal;
+
+  private OShardedReadCache readCache;
+  private OWOWCache         writeCache;
+
+  @BeforeClass
+  public static void beforeClass() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.FALSE);
+
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    storageLocal = (OLocalPaginatedStorage) Orient.instance().getRunningEngine("plocal")
+        .createStorage(buildDirectory + "/OShardedReadCacheTest", null);
+    storageLocal.create(new OContextConfiguration());
+    storageLocal.close(true, false);
+  }
+
+  @AfterClass
+  public static void afterClass() throws IOException {
+    storageLocal.delete();
+    files.clear();
+    BUFFER_POOL.clear();
+
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.TRUE);
+    OGlobalConfiguration.STORAGE_EXCLUSIVE_FILE_ACCESS.setValue(Boolean.TRUE);
+  }
+
+  @Before
+  public void beforeMethod() throws Exception {
+    writeCache = new OWOWCache(PAGE_SIZE, BUFFER_POOL, null, -1, 1000 * PAGE_SIZE, storageLocal, false, files, 1,
+        OChecksumMode.StoreAndThrow);
+    writeCache.loadRegisteredFiles();
+
+    readCache = new OShardedReadCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 0, 0, 4);
+  }
+
+  @After
+  public void afterMethod() throws Exception {
+    readCache.deleteStorage(writeCache);
+    readCache.clear();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    final long fileId = readCache.addFile("shardedReadCacheTest.tst", writeCache);
+    fill(fileId);
+
+    //pages are spread between shards
+    int usedShards = 0;
+    for (O2QCache shard : readCache.getShards()) {
+      if (shard.getUsedMemory() > 0)
+        usedShards++;
+    }
+    Assert.assertTrue(usedShards > 1);
+
+    readCache.clear();
+    Assert.assertEquals(0, readCache.getUsedMemory());
+
+    for (int i = 0; i < PAGES; i++) {
+      assertPage(fileId, i, 1);
+    }
+  }
+
+  @Test
+  public void testBatchLoadDoesNotCrossShards() throws Exception {
+    final long fileId = readCache.addFile("shardedReadCacheTest.tst", writeCache);
+    fill(fileId);
+    readCache.clear();
+
+    final int stripe = OShardedReadCache.PAGE_STRIPE;
+    assertPage(fileId, stripe - 2, 8);
+
+    //only pages of the first stripe are loaded by the batch
+    Assert.assertEquals(2 * PAGE_SIZE, readCache.getUsedMemory());
+
+    assertPage(fileId, stripe, 1);
+    Assert.assertEquals(3 * PAGE_SIZE, readCache.getUsedMemory());
+  }
+
+  @Test
+  public void testReadAheadThreadsAreSharedByShards() {
+    final OShardedReadCache cache = new OShardedReadCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 8, 2, 4);
+    try {
+      final O2QCache[] shards = cache.getShards();
+      Assert.assertNotNull(shards[0].getReadAheadExecutor());
+      Assert.assertEquals(2, shards[0].getReadAheadExecutor().getMaximumPoolSize());
+
+      for (O2QCache shard : shards) {
+        Assert.assertSame(shards[0].getReadAheadExecutor(), shard.getReadAheadExecutor());
+      }
+    } finally {
+      cache.shutdown();
+    }
+
+    Assert.assertTrue(cache.getShards()[0].getReadAheadExecutor().isShutdown());
+  }
+
+  @Test
+  public void testTruncateAndCloseFile() throws Exception {
+    final long fileId = readCache.addFile("shardedReadCacheTest.tst", writeCache);
+    fill(fileId);
+
+    readCache.truncateFile(fileId, writeCache);
+    Assert.assertEquals(0, readCache.getUsedMemory());
+    Assert.assertEquals(0, writeCache.getFilledUpTo(fileId));
+
+    fill(fileId);
+    readCache.closeFile(fileId, true, writeCache);
+    Assert.assertEquals(0, readCache.getUsedMemory());
+  }
+
+  private void fill(long fileId) throws IOException {
+    for (int i = 0; i < PAGES; i++) {
+      final OCacheEntry cacheEntry = readCache.allocateNewPage(fileId, writeCache, true);
+      try {
+        Assert.assertEquals(i, cacheEntry.getPageIndex());
+
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+        buffer.position(systemOffset);
+        buffer.putLong(i);
+
+        cacheEntry.markDirty();
+      } finally {
+        readCache.releaseFromWrite(cacheEntry, writeCache);
+      }
+    }
+
+    writeCache.flush();
+  }
+
+  private void assertPage(long fileId, long pageIndex, int pageCount) throws IOException {
+    final OCacheEntry cacheEntry = readCache.loadForRead(fileId, pageIndex, false, writeCache, pageCount, true);
+    try {
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+      buffer.position(systemOffset);
+      Assert.assertEquals(pageIndex, buffer.getLong());
+    } finally {
+      readCache.releaseFromRead(cacheEntry, writeCache);
+    }
+  }
+}
@@ -689,6 +689,104 @@ public class ReadWriteDiskCacheTest {
     Assert.assertEquals(a1in.size(), 4);
   }
 
+  @Test
+  public void testSequentialReadAhead() throws Exception {
+    readBuffer.clear();
+    readBuffer = new O2QCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 8, 1);
+
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < 32; i++) {
+      OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer, true);
+      try {
+        byte[] userData = new byte[userDataSize];
+        for (int n = 0; n < userData.length; n++) {
+          userData[n] = (byte) (i + 1);
+        }
+
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+        buffer.position(systemOffset);
+        buffer.put(userData);
+
+        setLsn(buffer, new OLogSequenceNumber(1, i));
+
+        cacheEntry.markDirty();
+      } finally {
+        readBuffer.releaseFromWrite(cacheEntry, writeBuffer);
+      }
+    }
+
+    readBuffer.clear();
+    writeBuffer.flush();
+
+    LRUList a1in = readBuffer.getA1in();
+    Assert.assertEquals(a1in.size(), 0);
+
+    //fifth sequential read triggers read-ahead of the next 8 pages
+    for (int i = 0; i < 5; i++) {
+      OCacheEntry cacheEntry = readBuffer.loadForRead(fileId, i, false, writeBuffer, 1, true);
+      readBuffer.releaseFromRead(cacheEntry, writeBuffer);
+    }
+
+    final long end = System.currentTimeMillis() + 10000;
+    while (a1in.get(fileId, 12) == null && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+
+    Assert.assertEquals(a1in.size(), 13);
+    for (int i = 0; i < 13; i++) {
+      Assert.assertNotNull(a1in.get(fileId, i));
+    }
+    Assert.assertNull(a1in.get(fileId, 13));
+
+    OCacheEntry cacheEntry = readBuffer.loadForRead(fileId, 10, false, writeBuffer, 1, true);
+    try {
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getBufferDuplicate();
+      buffer.position(systemOffset);
+      byte[] userData = new byte[userDataSize];
+      buffer.get(userData);
+
+      byte[] expected = new byte[userDataSize];
+      Arrays.fill(expected, (byte) 11);
+      Assert.assertArrayEquals(expected, userData);
+    } finally {
+      readBuffer.releaseFromRead(cacheEntry, writeBuffer);
+    }
+  }
+
+  @Test
+  public void testReadAheadIsRejectedAfterShutdown() throws Exception {
+    readBuffer.clear();
+    readBuffer = new O2QCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 8, 1);
+
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < 32; i++) {
+      OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer, true);
+      try {
+        setLsn(cacheEntry.getCachePointer().getBufferDuplicate(), new OLogSequenceNumber(1, i));
+        cacheEntry.markDirty();
+      } finally {
+        readBuffer.releaseFromWrite(cacheEntry, writeBuffer);
+      }
+    }
+
+    readBuffer.clear();
+    writeBuffer.flush();
+    readBuffer.shutdown();
+
+    //read-ahead requests are rejected, pages are still loaded on demand
+    for (int i = 0; i < 16; i++) {
+      OCacheEntry cacheEntry = readBuffer.loadForRead(fileId, i, false, writeBuffer, 1, true);
+      Assert.assertNotNull(cacheEntry);
+      readBuffer.releaseFromRead(cacheEntry, writeBuffer);
+    }
+
+    LRUList a1in = readBuffer.getA1in();
+    Assert.assertEquals(a1in.size(), 16);
+    Assert.assertNull(a1in.get(fileId, 16));
+  }
+
   @Test
   public void testPrefetchPagesInA1inAmQueue() throws Exception {
     final long fileId = readBuffer.addFile(fileName, writeBuffer);
@@ -0,0 +1,63 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OUpdatePageRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class OParallelPageRestoreTest {
+
+  @Test
+  public void testChangesOfSamePageAreAppliedInOrder() throws Exception {
+    final Map<Long, List<OUpdatePageRecord>> applied = new ConcurrentHashMap<>();
+
+    final OParallelPageRestore restore = new OParallelPageRestore("test", 4, (fileId, pageIndex, updatePageRecord) -> {
+      Assert.assertEquals(1, fileId);
+      applied.computeIfAbsent(pageIndex, (k) -> new ArrayList<>()).add(updatePageRecord);
+    });
+
+    final Map<Long, List<OUpdatePageRecord>> submitted = new ConcurrentHashMap<>();
+    try {
+      for (int i = 0; i < 10000; i++) {
+        final long pageIndex = i % 16;
+        final OUpdatePageRecord record = new OUpdatePageRecord();
+        submitted.computeIfAbsent(pageIndex, (k) -> new ArrayList<>()).add(record);
+        restore.submit(1, pageIndex, record);
+      }
+
+      restore.await();
+    } finally {
+      restore.shutdown();
+    }
+
+    Assert.assertEquals(submitted.size(), applied.size());
+    for (Map.Entry<Long, List<OUpdatePageRecord>> entry : submitted.entrySet()) {
+      final List<OUpdatePageRecord> pageChanges = applied.get(entry.getKey());
+      Assert.assertEquals(entry.getValue().size(), pageChanges.size());
+      for (int i = 0; i < pageChanges.size(); i++)
+        Assert.assertSame(entry.getValue().get(i), pageChanges.get(i));
+    }
+  }
+
+  @Test
+  public void testFailureIsRethrown() throws Exception {
+    final OParallelPageRestore restore = new OParallelPageRestore("test", 2, (fileId, pageIndex, updatePageRecord) -> {
+      throw new IOException("page is broken");
+    });
+
+    try {
+      restore.submit(1, 1, new OUpdatePageRecord());
+      restore.await();
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("page is broken", e.getMessage());
+    } finally {
+      restore.shutdown();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class MappedReadOnlyStorageTest {
+  private static final int RECORDS = 10000;
+
+  private String dbPath;
+
+  @Before
+  public void before() {
+    String buildDirectory = System.getProperty("buildDirectory", ".");
+    dbPath = buildDirectory + File.separator + MappedReadOnlyStorageTest.class.getSimpleName();
+    OFileUtils.deleteRecursively(new File(dbPath));
+
+    final OrientDB orientDB = new OrientDB("embedded:" + dbPath, OrientDBConfig.defaultConfig());
+    orientDB.create("test", ODatabaseType.PLOCAL);
+    try (ODatabaseSession session = orientDB.open("test", "admin", "admin")) {
+      final OClass cls = session.createClass("Item");
+      cls.createProperty("value", OType.INTEGER).createIndex(OClass.INDEX_TYPE.UNIQUE);
+
+      for (int i = 0; i < RECORDS; i++) {
+        final OElement element = session.newElement("Item");
+        element.setProperty("value", i);
+        element.save();
+      }
+    }
+    orientDB.close();
+  }
+
+  @After
+  public void after() {
+    OFileUtils.deleteRecursively(new File(dbPath));
+  }
+
+  @Test
+  public void testReadAndProhibitWrite() {
+    OrientDB orientDB = new OrientDB("embedded:" + dbPath,
+        OrientDBConfig.builder().addConfig(OGlobalConfiguration.STORAGE_MAPPED_READ_ONLY, true).build());
+    try (ODatabaseSession session = orientDB.open("test", "admin", "admin")) {
+      final OLocalPaginatedStorage storage = (OLocalPaginatedStorage) ((ODatabaseDocumentInternal) session).getStorage();
+      Assert.assertTrue(storage.isMappedReadOnly());
+
+      Assert.assertEquals(RECORDS, session.countClass("Item"));
+      try (OResultSet result = session.query("select from Item where value = ?", RECORDS / 2)) {
+        Assert.assertEquals(RECORDS / 2, (int) result.next().getProperty("value"));
+        Assert.assertFalse(result.hasNext());
+      }
+
+      try {
+        final OElement element = session.newElement("Item");
+        element.setProperty("value", RECORDS);
+        element.save();
+        Assert.fail();
+      } catch (ODatabaseException e) {
+        Assert.assertTrue(e.getCause() instanceof OStorageException);
+      }
+    }
+    orientDB.close();
+
+    //storage opened in read-only mode can be modified once it is reopened in normal mode
+    orientDB = new OrientDB("embedded:" + dbPath, OrientDBConfig.defaultConfig());
+    try (ODatabaseSession session = orientDB.open("test", "admin", "admin")) {
+      final OElement element = session.newElement("Item");
+      element.setProperty("value", RECORDS);
+      element.save();
+
+      Assert.assertEquals(RECORDS + 1, session.countClass("Item"));
+    }
+    orientDB.close();
+  }
+}
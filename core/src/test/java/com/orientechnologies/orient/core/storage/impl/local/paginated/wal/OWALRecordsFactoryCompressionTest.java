@@ -0,0 +1,77 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import com.orientechnologies.orient.core.Orient;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+public class OWALRecordsFactoryCompressionTest {
+
+  @Before
+  public void before() {
+    Orient.instance();
+  }
+
+  @Test
+  public void testCompressedRecordIsRestored() {
+    final byte[] data = new byte[1024];
+    final ByteBuffer pointer = ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+
+    final OWALPageChangesPortion changes = new OWALPageChangesPortion(1024);
+    final byte[] value = new byte[512];
+    Arrays.fill(value, (byte) 7);
+    changes.setBinaryValue(pointer, value, 128);
+
+    final OUpdatePageRecord record = new OUpdatePageRecord(12, 100, OOperationUnitId.generateId(), changes,
+        new OLogSequenceNumber(12, 34));
+
+    final byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+    final byte[] compressed = OWALRecordsFactory.INSTANCE.compress(content);
+
+    Assert.assertNotNull(compressed);
+    Assert.assertTrue(compressed.length < content.length);
+
+    final OUpdatePageRecord restored = (OUpdatePageRecord) OWALRecordsFactory.INSTANCE.fromStream(compressed);
+    Assert.assertEquals(record, restored);
+
+    final byte[] restoredData = new byte[1024];
+    restored.getChanges().applyChanges(ByteBuffer.wrap(restoredData).order(ByteOrder.nativeOrder()));
+    Assert.assertArrayEquals(value, Arrays.copyOfRange(restoredData, 128, 128 + value.length));
+  }
+
+  @Test
+  public void testIncompressibleRecordIsNotCompressed() {
+    final byte[] data = new byte[1024];
+    final ByteBuffer pointer = ByteBuffer.wrap(data).order(ByteOrder.nativeOrder());
+
+    // ORIGINAL VALUES ARE LOGGED TOGETHER WITH THE NEW ONES, SO BOTH HAVE TO BE RANDOM
+    final Random random = new Random(42);
+    random.nextBytes(data);
+
+    final OWALPageChangesPortion changes = new OWALPageChangesPortion(1024);
+    final byte[] value = new byte[512];
+    random.nextBytes(value);
+    changes.setBinaryValue(pointer, value, 128);
+
+    final OUpdatePageRecord record = new OUpdatePageRecord(12, 100, OOperationUnitId.generateId(), changes,
+        new OLogSequenceNumber(12, 34));
+
+    Assert.assertNull(OWALRecordsFactory.INSTANCE.compress(OWALRecordsFactory.INSTANCE.toStream(record)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompressedRecordIdCannotBeRegistered() {
+    OWALRecordsFactory.INSTANCE.registerNewRecord((byte) 14, WriteAheadLogTest.TestRecord.class);
+  }
+
+  @Test
+  public void testSmallRecordIsNotCompressed() {
+    final byte[] content = OWALRecordsFactory.INSTANCE.toStream(new OCheckpointEndRecord());
+    Assert.assertNull(OWALRecordsFactory.INSTANCE.compress(content));
+  }
+}
@@ -13,8 +13,14 @@ import org.junit.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -51,6 +57,15 @@ public class WriteAheadLogTest {
   }
 
   private ODiskWriteAheadLog createWAL(int maxPagesCacheSize, int maxSegmentSize) throws IOException {
+    return createWAL(maxPagesCacheSize, maxSegmentSize, false);
+  }
+
+  private ODiskWriteAheadLog createWAL(int maxPagesCacheSize, int maxSegmentSize, boolean groupCommit) throws IOException {
+    return createWAL(maxPagesCacheSize, maxSegmentSize, groupCommit, 0);
+  }
+
+  private ODiskWriteAheadLog createWAL(int maxPagesCacheSize, int maxSegmentSize, boolean groupCommit, int compressionThreshold)
+      throws IOException {
     OLocalPaginatedStorage paginatedStorage = mock(OLocalPaginatedStorage.class);
     when(paginatedStorage.getName()).thenReturn("WriteAheadLogTest");
     when(paginatedStorage.getStoragePath()).thenReturn(Paths.get(testDir.getAbsolutePath()));
@@ -60,7 +75,8 @@ public class WriteAheadLogTest {
     when(paginatedStorage.getPerformanceStatisticManager())
         .thenReturn(new OPerformanceStatisticManager(paginatedStorage, Long.MAX_VALUE, -1));
 
-    return new ODiskWriteAheadLog(maxPagesCacheSize, -1, maxSegmentSize, null, true, paginatedStorage, 16 * OWALPage.PAGE_SIZE, 1);
+    return new ODiskWriteAheadLog(maxPagesCacheSize, -1, maxSegmentSize, null, true, paginatedStorage, 16 * OWALPage.PAGE_SIZE, 1,
+        groupCommit, 200, 4, compressionThreshold);
   }
 
   @After
@@ -104,6 +120,56 @@ public class WriteAheadLogTest {
     Assert.assertEquals(writeAheadLog.end(), end);
   }
 
+  @Test
+  public void testGroupCommit() throws Exception {
+    writeAheadLog.delete();
+    writeAheadLog = createWAL(100, 1024 * SEGMENT_SIZE, true);
+
+    final int threads = 8;
+    final int commits = 100;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(executor.submit(() -> {
+        startLatch.await();
+
+        for (int n = 0; n < commits; n++) {
+          final OLogSequenceNumber lsn = writeAheadLog.log(new TestRecord(-1, 1024 * SEGMENT_SIZE, 30, false, true));
+          writeAheadLog.flushOnCommit(lsn);
+
+          //commit is completed only once its records are synced
+          Assert.assertTrue(writeAheadLog.getFlushedLsn().compareTo(lsn) >= 0);
+        }
+
+        return null;
+      }));
+    }
+
+    startLatch.countDown();
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    //commits whose records were already flushed by other group commits do not wait, so they are not counted
+    Assert.assertTrue(writeAheadLog.getGroupCommitRequestCount() > 0);
+    Assert.assertTrue(writeAheadLog.getGroupCommitRequestCount() <= threads * commits);
+    Assert.assertTrue(writeAheadLog.getGroupCommitCount() > 0);
+    Assert.assertTrue(writeAheadLog.getGroupCommitCount() <= writeAheadLog.getGroupCommitRequestCount());
+    Assert.assertTrue(writeAheadLog.getMaxGroupCommitSize() <= 4);
+  }
+
+  @Test
+  public void testFlushOnCommitWithoutGroupCommit() throws Exception {
+    final OLogSequenceNumber lsn = writeAheadLog.log(new TestRecord(-1, SEGMENT_SIZE, 30, false, true));
+    writeAheadLog.flushOnCommit(lsn);
+
+    Assert.assertEquals(0, writeAheadLog.getGroupCommitRequestCount());
+    Assert.assertEquals(0, writeAheadLog.getGroupCommitCount());
+  }
+
   @Test
   public void testWriteSingleRecord() throws Exception {
     Assert.assertNull(writeAheadLog.end());
@@ -1297,6 +1363,49 @@ public class WriteAheadLogTest {
     assertLogContent(writeAheadLog, writtenRecords.subList(writtenRecords.size() / 2, writtenRecords.size()));
   }
 
+  @Test
+  public void testWriteCompressedRecordsAfterClose() throws Exception {
+    writeAheadLog.close();
+    writeAheadLog = createWAL(2, SEGMENT_SIZE, false, 256);
+
+    List<OWALRecord> writtenRecords = new ArrayList<>();
+    OLogSequenceNumber end = null;
+    long nextStart = 0;
+
+    final Random random = new Random();
+    for (int i = 0; i < 256; i++) {
+      final OWALRecord record;
+      if (i % 2 == 0) {
+        // REPEATED VALUES ARE COMPRESSED
+        final OWALPageChangesPortion changes = new OWALPageChangesPortion(ONE_KB);
+        final byte[] value = new byte[random.nextInt(ONE_KB / 2) + 1];
+        Arrays.fill(value, (byte) i);
+        changes.setBinaryValue(ByteBuffer.wrap(new byte[ONE_KB]).order(ByteOrder.nativeOrder()), value,
+            random.nextInt(ONE_KB - value.length));
+        record = new OUpdatePageRecord(i, i, OOperationUnitId.generateId(), changes, new OLogSequenceNumber(-1, -1));
+      } else {
+        // RANDOM VALUES ARE LOGGED AS THEY ARE
+        final TestRecord testRecord = new TestRecord(nextStart, SEGMENT_SIZE, random.nextInt(ONE_KB) + ONE_KB, false, true);
+        nextStart = testRecord.nextStart;
+        record = testRecord;
+      }
+
+      writtenRecords.add(record);
+      end = writeAheadLog.log(record);
+    }
+
+    Assert.assertTrue(writeAheadLog.getCompressedRecordsCount() > 0);
+    assertLogContent(writeAheadLog, writtenRecords);
+    Assert.assertEquals(writeAheadLog.end(), end);
+    writeAheadLog.close();
+
+    writeAheadLog = createWAL(2, SEGMENT_SIZE, false, 256);
+    Assert.assertEquals(writeAheadLog.end(), end);
+    Assert.assertEquals(writeAheadLog.getFlushedLsn(), end);
+
+    assertLogContent(writeAheadLog, writtenRecords);
+  }
+
   @Test
   public void testAppendMultipleRecordsAfterClose() throws Exception {
     List<OWALRecord> writtenRecords = new ArrayList<>();
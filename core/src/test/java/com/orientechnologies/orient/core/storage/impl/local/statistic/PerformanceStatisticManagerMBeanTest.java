@@ -26,7 +26,7 @@ public class PerformanceStatisticManagerMBeanTest {
     assertOperation(operations, "stopMonitoring");
 
     final MBeanAttributeInfo[] attributes = mBeanInfo.getAttributes();
-    Assert.assertEquals(attributes.length, 30);
+    Assert.assertEquals(attributes.length, 36);
 
     assertAttribute(attributes, "cacheHits", int.class);
     assertAttribute(attributes, "cacheHits_com1", int.class);
@@ -52,6 +52,14 @@ public class PerformanceStatisticManagerMBeanTest {
 
     assertAttribute(attributes, "fullCheckpointTime", long.class);
 
+    assertAttribute(attributes, "walGroupCommitCount", long.class);
+    assertAttribute(attributes, "walGroupCommitRequestCount", long.class);
+    assertAttribute(attributes, "walMaxGroupCommitSize", long.class);
+
+    assertAttribute(attributes, "walCompressedRecordsCount", long.class);
+    assertAttribute(attributes, "walCompressionRatio", long.class);
+    assertAttribute(attributes, "walCompressionTime", long.class);
+
     Assert.assertEquals(mBeanInfo.getConstructors().length, 0);
     Assert.assertEquals(mBeanInfo.getNotifications().length, 0);
   }
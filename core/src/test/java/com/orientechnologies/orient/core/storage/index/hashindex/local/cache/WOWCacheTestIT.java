@@ -172,6 +172,47 @@ public class WOWCacheTestIT {
     }
   }
 
+  @Test
+  public void testFlushOfSparsePages() throws IOException {
+    Random random = new Random();
+
+    long fileId = wowCache.addFile(fileName);
+    final String nativeFileName = wowCache.nativeFileNameById(fileId);
+
+    //allocate pages first, then change only part of them, so flushed pages are not continuous
+    for (int i = 0; i < 100; i++) {
+      final OCachePointer cachePointer = wowCache.load(fileId, i, 1, true, new OModifiableBoolean(), true)[0];
+      cachePointer.decrementReadersReferrer();
+    }
+    wowCache.flush();
+
+    byte[][] pageData = new byte[100][];
+    for (int i = 0; i < pageData.length; i++) {
+      if (i % 3 == 0 || i % 7 == 0) {
+        byte[] data = new byte[8];
+        random.nextBytes(data);
+        pageData[i] = data;
+
+        final OCachePointer cachePointer = wowCache.load(fileId, i, 1, false, new OModifiableBoolean(), true)[0];
+        cachePointer.acquireExclusiveLock();
+
+        ByteBuffer buffer = cachePointer.getBufferDuplicate();
+        buffer.position(systemOffset);
+        buffer.put(data);
+        cachePointer.releaseExclusiveLock();
+
+        wowCache.store(fileId, i, cachePointer);
+        cachePointer.decrementReadersReferrer();
+      }
+    }
+
+    wowCache.flush();
+
+    for (int i = 0; i < pageData.length; i++) {
+      assertFile(i, pageData[i] == null ? new byte[8] : pageData[i], new OLogSequenceNumber(0, 0), nativeFileName);
+    }
+  }
+
   @Test
   public void testDataUpdate() throws Exception {
     final NavigableMap<Long, byte[]> pageIndexDataMap = new TreeMap<>();
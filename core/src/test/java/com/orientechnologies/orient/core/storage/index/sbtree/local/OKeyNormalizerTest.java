@@ -0,0 +1,149 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
+import com.orientechnologies.orient.core.index.OAlwaysLessKey;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OSimpleKeySerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+public class OKeyNormalizerTest {
+  private static final OType[] TYPES = { OType.BOOLEAN, OType.BYTE, OType.SHORT, OType.INTEGER, OType.LONG, OType.FLOAT,
+      OType.DOUBLE, OType.DATETIME, OType.STRING, OType.LINK };
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void testSupportedKeys() {
+    Assert.assertNotNull(OKeyNormalizer.create(OStringSerializer.INSTANCE, new OType[] { OType.STRING }));
+    Assert.assertNotNull(OKeyNormalizer.create(OCompositeKeySerializer.INSTANCE, new OType[] { OType.STRING, OType.LINK }));
+
+    Assert.assertNull(OKeyNormalizer.create(OIntegerSerializer.INSTANCE, null));
+    Assert.assertNull(OKeyNormalizer.create(OStringSerializer.INSTANCE, new OType[] { OType.INTEGER }));
+    Assert.assertNull(OKeyNormalizer.create(new OSimpleKeySerializer<String>(), new OType[] { OType.STRING }));
+    Assert.assertNull(OKeyNormalizer.create(OCompositeKeySerializer.INSTANCE, new OType[] { OType.STRING, OType.DECIMAL }));
+  }
+
+  @Test
+  public void testOrderAndRoundTrip() {
+    for (OType type : TYPES) {
+      final OKeyNormalizer<OCompositeKey> normalizer = OKeyNormalizer.create(OCompositeKeySerializer.INSTANCE, new OType[] { type });
+      final List<Object> values = new ArrayList<Object>();
+      for (int i = 0; i < 200; i++)
+        values.add(randomValue(type));
+
+      for (Object first : values) {
+        final byte[] normalizedFirst = normalizer.normalize(new OCompositeKey(first));
+        Assert.assertEquals(new OCompositeKey(first), normalizer.denormalize(normalizedFirst));
+
+        for (Object second : values) {
+          final byte[] normalizedSecond = normalizer.normalize(new OCompositeKey(second));
+          Assert.assertEquals(type + " " + first + " " + second, Integer.signum(ODefaultComparator.INSTANCE.compare(first, second)),
+              Integer.signum(OKeyNormalizer.compare(normalizedFirst, 0, normalizedSecond, 0)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIntegralValuesAreNotTruncated() {
+    final OKeyNormalizer<OCompositeKey> normalizer = OKeyNormalizer
+        .create(OCompositeKeySerializer.INSTANCE, new OType[] { OType.INTEGER });
+
+    final byte[] expected = normalizer.normalize(new OCompositeKey(42));
+    Assert.assertArrayEquals(expected, normalizer.normalize(new OCompositeKey(42L)));
+    Assert.assertArrayEquals(expected, normalizer.normalize(new OCompositeKey(42.0)));
+    Assert.assertArrayEquals(expected, normalizer.normalize(new OCompositeKey(new BigDecimal("42.00"))));
+
+    for (Object value : new Object[] { Integer.MAX_VALUE + 1L, 42.5, new BigDecimal("42.5"), "42" }) {
+      try {
+        normalizer.normalize(new OCompositeKey(value));
+        Assert.fail(String.valueOf(value));
+      } catch (IllegalArgumentException e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void testCompositeKeys() {
+    final OKeyNormalizer<OCompositeKey> normalizer = OKeyNormalizer
+        .create(OCompositeKeySerializer.INSTANCE, new OType[] { OType.STRING, OType.INTEGER });
+
+    final List<OCompositeKey> keys = new ArrayList<OCompositeKey>();
+    for (String string : new String[] { null, "", "a", "ab", "abc", "b", "\u0000", "\u00ff", "\uffff" }) {
+      for (Integer integer : new Integer[] { null, Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE })
+        keys.add(compositeKey(string, integer));
+    }
+
+    for (OCompositeKey first : keys) {
+      final byte[] normalizedFirst = normalizer.normalize(first);
+      Assert.assertEquals(first, normalizer.denormalize(normalizedFirst));
+
+      for (OCompositeKey second : keys) {
+        Assert.assertEquals(first + " " + second, Integer.signum(first.compareTo(second)),
+            Integer.signum(OKeyNormalizer.compare(normalizedFirst, 0, normalizer.normalize(second), 0)));
+      }
+
+      //partial keys are equal to all keys which start from them
+      final OCompositeKey partialKey = compositeKey(first.getKeys().get(0));
+      Assert.assertEquals(0, OKeyNormalizer.compare(normalizer.normalize(partialKey), 0, normalizedFirst, 0));
+
+      final OCompositeKey lessKey = compositeKey(first.getKeys().get(0), new OAlwaysLessKey());
+      Assert.assertTrue(OKeyNormalizer.compare(normalizer.normalize(lessKey), 0, normalizedFirst, 0) < 0);
+
+      final OCompositeKey greaterKey = compositeKey(first.getKeys().get(0), new OAlwaysGreaterKey());
+      Assert.assertTrue(OKeyNormalizer.compare(normalizer.normalize(greaterKey), 0, normalizedFirst, 0) > 0);
+    }
+  }
+
+  private static OCompositeKey compositeKey(Object... items) {
+    final OCompositeKey compositeKey = new OCompositeKey();
+    for (Object item : items)
+      compositeKey.addKey(item);
+
+    return compositeKey;
+  }
+
+  private Object randomValue(OType type) {
+    switch (type) {
+    case BOOLEAN:
+      return random.nextBoolean();
+    case BYTE:
+      return (byte) random.nextInt();
+    case SHORT:
+      return (short) random.nextInt();
+    case INTEGER:
+      return random.nextInt(20) == 0 ? Integer.MIN_VALUE : random.nextInt();
+    case LONG:
+      return random.nextLong();
+    case FLOAT:
+      return random.nextInt(20) == 0 ? -0.0f : (random.nextFloat() - 0.5f) * random.nextInt();
+    case DOUBLE:
+      return random.nextInt(20) == 0 ? Double.NEGATIVE_INFINITY : (random.nextDouble() - 0.5) * random.nextLong();
+    case DATETIME:
+      return new Date(random.nextLong() / 1000);
+    case STRING:
+      final char[] chars = new char[random.nextInt(5)];
+      for (int i = 0; i < chars.length; i++)
+        chars[i] = random.nextBoolean() ? (char) ('a' + random.nextInt(3)) : (char) random.nextInt(Character.MAX_VALUE + 1);
+      return new String(chars);
+    case LINK:
+      return new ORecordId(random.nextInt(3), random.nextInt(3) - 1);
+    default:
+      throw new IllegalArgumentException();
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexEngine;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SBTreeBulkLoadTest {
+  private static final int KEYS_COUNT = 100000;
+
+  private ODatabaseDocumentTx             databaseDocumentTx;
+  private OSBTree<Integer, OIdentifiable> sbTree;
+
+  @Before
+  public void before() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    databaseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/sbTreeBulkLoadTest");
+    if (databaseDocumentTx.exists()) {
+      databaseDocumentTx.open("admin", "admin");
+      databaseDocumentTx.drop();
+    }
+
+    databaseDocumentTx.create();
+
+    sbTree = new OSBTree<Integer, OIdentifiable>("sbTree", ".sbt", ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage());
+    sbTree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, true);
+  }
+
+  @After
+  public void after() {
+    sbTree.delete();
+    databaseDocumentTx.drop();
+  }
+
+  @Test
+  public void testBulkLoadWithSpilledRuns() {
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (int i = 0; i < KEYS_COUNT; i++)
+      keys.add(i);
+    Collections.shuffle(keys, new Random(42));
+
+    try (OSBTreeBulkLoader<Integer, OIdentifiable> loader = new OSBTreeBulkLoader<Integer, OIdentifiable>(sbTree, 10000, 80,
+        null)) {
+      for (int key : keys)
+        loader.add(key, new ORecordId(key % 32000, key));
+      loader.add(null, new ORecordId(1, 1));
+
+      Assert.assertEquals(10, loader.getSpilledRuns());
+      Assert.assertEquals(KEYS_COUNT + 1, loader.load());
+    }
+
+    Assert.assertEquals(KEYS_COUNT + 1, sbTree.size());
+    assertKeys(0, KEYS_COUNT);
+    Assert.assertEquals(new ORecordId(1, 1), sbTree.get(null));
+
+    //tree is modified as usual after load
+    for (int i = KEYS_COUNT; i < 2 * KEYS_COUNT; i++)
+      sbTree.put(i, new ORecordId(i % 32000, i));
+
+    for (int i = 0; i < KEYS_COUNT / 2; i++)
+      Assert.assertNotNull(sbTree.remove(i));
+
+    Assert.assertEquals(KEYS_COUNT * 3 / 2 + 1, sbTree.size());
+    assertKeys(KEYS_COUNT / 2, 2 * KEYS_COUNT);
+  }
+
+  @Test
+  public void testBulkLoadInRoot() {
+    try (OSBTreeBulkLoader<Integer, OIdentifiable> loader = new OSBTreeBulkLoader<Integer, OIdentifiable>(sbTree, 0, 90, null)) {
+      for (int i = 9; i >= 0; i--)
+        loader.add(i, new ORecordId(i, i));
+
+      Assert.assertEquals(10, loader.load());
+    }
+
+    Assert.assertEquals(10, sbTree.size());
+    assertKeys(0, 10);
+  }
+
+  @Test
+  public void testDuplicatedKeys() {
+    //the first value of the key is kept the same way as unique index does
+    final OIndexEngine.Validator<Integer, OIdentifiable> validator = (key, oldValue, newValue) -> oldValue == null ?
+        newValue :
+        OIndexEngine.Validator.IGNORE;
+
+    try (OSBTreeBulkLoader<Integer, OIdentifiable> loader = new OSBTreeBulkLoader<Integer, OIdentifiable>(sbTree, 100, 90,
+        validator)) {
+      for (int i = 0; i < 1000; i++)
+        loader.add(i % 10, new ORecordId(i % 10, i));
+
+      Assert.assertEquals(10, loader.load());
+    }
+
+    for (int i = 0; i < 10; i++)
+      Assert.assertEquals(new ORecordId(i, i), sbTree.get(i));
+  }
+
+  @Test
+  public void testNotEmptyTree() {
+    sbTree.put(10000, new ORecordId(10000, 10000));
+
+    try (OSBTreeBulkLoader<Integer, OIdentifiable> loader = new OSBTreeBulkLoader<Integer, OIdentifiable>(sbTree, 1000, 90,
+        null)) {
+      for (int i = 0; i < 10000; i++)
+        loader.add(i, new ORecordId(i % 32000, i));
+
+      Assert.assertEquals(10000, loader.load());
+    }
+
+    Assert.assertEquals(10001, sbTree.size());
+    assertKeys(0, 10001);
+  }
+
+  @Test
+  public void testUniqueIndexCreation() {
+    final OClass cls = databaseDocumentTx.getMetadata().getSchema().createClass("Item");
+    cls.createProperty("value", OType.INTEGER);
+    cls.createProperty("group", OType.INTEGER);
+
+    for (int i = 0; i < KEYS_COUNT; i++)
+      new ODocument("Item").field("value", KEYS_COUNT - i).field("group", i % 10).save();
+
+    final OIndex<?> index = cls.createIndex("Item.value", OClass.INDEX_TYPE.UNIQUE, "value");
+    Assert.assertEquals(KEYS_COUNT, index.getSize());
+    Assert.assertEquals(1, index.getFirstKey());
+    Assert.assertEquals(KEYS_COUNT, index.getLastKey());
+
+    for (int i = 1; i <= KEYS_COUNT; i += 1000) {
+      final ODocument document = ((OIdentifiable) index.get(i)).getRecord();
+      Assert.assertEquals(i, (int) document.field("value"));
+    }
+
+    try {
+      cls.createIndex("Item.group", OClass.INDEX_TYPE.UNIQUE, "group");
+      Assert.fail();
+    } catch (RuntimeException e) {
+      Throwable cause = e;
+      while (cause != null && !(cause instanceof ORecordDuplicatedException))
+        cause = cause.getCause();
+
+      Assert.assertNotNull(cause);
+    }
+  }
+
+  private void assertKeys(int from, int to) {
+    Assert.assertEquals(from, (int) sbTree.firstKey());
+    Assert.assertEquals(to - 1, (int) sbTree.lastKey());
+
+    for (int i = from; i < to; i++)
+      Assert.assertEquals(new ORecordId(i % 32000, i), sbTree.get(i));
+
+    final OSBTree.OSBTreeCursor<Integer, OIdentifiable> cursor = sbTree.iterateEntriesMajor(from, true, true);
+    int expected = from;
+    Map.Entry<Integer, OIdentifiable> entry = cursor.next(-1);
+    while (entry != null) {
+      Assert.assertEquals(expected, (int) entry.getKey());
+      expected++;
+      entry = cursor.next(-1);
+    }
+    Assert.assertEquals(to, expected);
+
+    final OSBTree.OSBTreeCursor<Integer, OIdentifiable> descCursor = sbTree.iterateEntriesMinor(to - 1, true, false);
+    expected = to - 1;
+    entry = descCursor.next(-1);
+    while (entry != null) {
+      Assert.assertEquals(expected, (int) entry.getKey());
+      expected--;
+      entry = descCursor.next(-1);
+    }
+    Assert.assertEquals(from - 1, expected);
+  }
+}
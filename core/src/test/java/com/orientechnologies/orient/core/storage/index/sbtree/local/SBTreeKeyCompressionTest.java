@@ -0,0 +1,179 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.local;
+
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SBTreeKeyCompressionTest {
+  private static final int KEYS_COUNT = 50000;
+
+  private ODatabaseDocumentTx databaseDocumentTx;
+  private final Random random = new Random(42);
+
+  @Before
+  public void before() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    databaseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/sbTreeKeyCompressionTest");
+    if (databaseDocumentTx.exists()) {
+      databaseDocumentTx.open("admin", "admin");
+      databaseDocumentTx.drop();
+    }
+
+    databaseDocumentTx.create();
+  }
+
+  @After
+  public void after() {
+    databaseDocumentTx.drop();
+  }
+
+  @Test
+  public void testCompositeKeys() {
+    final OSBTree<OCompositeKey, OIdentifiable> sbTree = new OSBTree<OCompositeKey, OIdentifiable>("compositeTree", ".sbt", ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage(), true);
+    sbTree.create(OCompositeKeySerializer.INSTANCE, OLinkSerializer.INSTANCE, new OType[] { OType.STRING, OType.INTEGER }, 2,
+        false);
+
+    final TreeMap<OCompositeKey, OIdentifiable> expected = new TreeMap<OCompositeKey, OIdentifiable>();
+    for (int i = 0; i < KEYS_COUNT; i++) {
+      final OCompositeKey key = new OCompositeKey(prefixedString(), random.nextInt(100));
+      final ORecordId value = new ORecordId(i % 32000, i);
+
+      sbTree.put(key, value);
+      expected.put(key, value);
+    }
+
+    final List<OCompositeKey> keys = new ArrayList<OCompositeKey>(expected.keySet());
+    Collections.shuffle(keys, random);
+    for (OCompositeKey key : keys.subList(0, keys.size() / 2)) {
+      Assert.assertEquals(expected.remove(key), sbTree.remove(key));
+      Assert.assertNull(sbTree.get(key));
+    }
+
+    assertTree(sbTree, expected);
+
+    //partial keys select all entries which start from them
+    for (int i = 0; i < 100; i++) {
+      final String string = prefixedString();
+      final OCompositeKey partialKey = new OCompositeKey(string);
+
+      final OSBTree.OSBTreeCursor<OCompositeKey, OIdentifiable> cursor = sbTree
+          .iterateEntriesBetween(partialKey, true, partialKey, true, true);
+      final Iterator<Map.Entry<OCompositeKey, OIdentifiable>> expectedIterator = expected
+          .subMap(new OCompositeKey(string, Integer.MIN_VALUE), true, new OCompositeKey(string, Integer.MAX_VALUE), true).entrySet()
+          .iterator();
+
+      Map.Entry<OCompositeKey, OIdentifiable> entry = cursor.next(-1);
+      while (entry != null) {
+        final Map.Entry<OCompositeKey, OIdentifiable> expectedEntry = expectedIterator.next();
+        Assert.assertEquals(expectedEntry.getKey(), entry.getKey());
+        Assert.assertEquals(expectedEntry.getValue(), entry.getValue());
+
+        entry = cursor.next(-1);
+      }
+      Assert.assertFalse(expectedIterator.hasNext());
+    }
+
+    sbTree.delete();
+  }
+
+  @Test
+  public void testBulkLoad() {
+    final OSBTree<String, OIdentifiable> sbTree = new OSBTree<String, OIdentifiable>("stringTree", ".sbt", ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage(), true);
+    sbTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, new OType[] { OType.STRING }, 1, false);
+
+    final TreeMap<String, OIdentifiable> expected = new TreeMap<String, OIdentifiable>();
+    for (int i = 0; i < KEYS_COUNT; i++)
+      expected.put(prefixedString(), new ORecordId(i % 32000, i));
+
+    Assert.assertTrue(sbTree.bulkLoad(expected.entrySet().iterator(), 90));
+    assertTree(sbTree, expected);
+
+    //tree is modified as usual after load
+    for (int i = 0; i < KEYS_COUNT; i++) {
+      final String key = prefixedString();
+      final ORecordId value = new ORecordId(i % 32000, i);
+
+      sbTree.put(key, value);
+      expected.put(key, value);
+    }
+
+    assertTree(sbTree, expected);
+    sbTree.delete();
+  }
+
+  @Test
+  public void testNormalizedKeySizeIsChecked() {
+    final OSBTree<String, OIdentifiable> sbTree = new OSBTree<String, OIdentifiable>("stringTree", ".sbt", ".nbt",
+        (OAbstractPaginatedStorage) databaseDocumentTx.getStorage(), true);
+    sbTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, new OType[] { OType.STRING }, 1, false);
+
+    final char[] chars = new char[4000];
+    Arrays.fill(chars, 'a');
+    sbTree.put(new String(chars), new ORecordId(1, 1));
+
+    //serialized key takes 2 bytes per character, normalized one takes 3 bytes per character
+    Arrays.fill(chars, '\u4e00');
+    try {
+      sbTree.put(new String(chars), new ORecordId(1, 2));
+      Assert.fail();
+    } catch (OTooBigIndexKeyException e) {
+      //expected
+    }
+
+    Assert.assertEquals(1, sbTree.size());
+    sbTree.delete();
+  }
+
+  private String prefixedString() {
+    //long common prefixes are typical for keys of real indexes
+    return "http://www.example.com/" + random.nextInt(10) + "/item/" + random.nextInt(KEYS_COUNT);
+  }
+
+  private static <K> void assertTree(OSBTree<K, OIdentifiable> sbTree, TreeMap<K, OIdentifiable> expected) {
+    Assert.assertEquals(expected.size(), sbTree.size());
+    Assert.assertEquals(expected.firstKey(), sbTree.firstKey());
+    Assert.assertEquals(expected.lastKey(), sbTree.lastKey());
+
+    for (Map.Entry<K, OIdentifiable> entry : expected.entrySet())
+      Assert.assertEquals(entry.getValue(), sbTree.get(entry.getKey()));
+
+    final OSBTree.OSBTreeCursor<K, OIdentifiable> cursor = sbTree.iterateEntriesMajor(expected.firstKey(), true, true);
+    final Iterator<Map.Entry<K, OIdentifiable>> expectedIterator = expected.entrySet().iterator();
+    Map.Entry<K, OIdentifiable> entry = cursor.next(-1);
+    while (entry != null) {
+      final Map.Entry<K, OIdentifiable> expectedEntry = expectedIterator.next();
+      Assert.assertEquals(expectedEntry.getKey(), entry.getKey());
+      Assert.assertEquals(expectedEntry.getValue(), entry.getValue());
+
+      entry = cursor.next(-1);
+    }
+    Assert.assertFalse(expectedIterator.hasNext());
+
+    final OSBTree.OSBTreeCursor<K, OIdentifiable> descCursor = sbTree.iterateEntriesMinor(expected.lastKey(), true, false);
+    final Iterator<K> expectedDescIterator = expected.descendingKeySet().iterator();
+    entry = descCursor.next(-1);
+    while (entry != null) {
+      Assert.assertEquals(expectedDescIterator.next(), entry.getKey());
+      entry = descCursor.next(-1);
+    }
+    Assert.assertFalse(expectedDescIterator.hasNext());
+  }
+}
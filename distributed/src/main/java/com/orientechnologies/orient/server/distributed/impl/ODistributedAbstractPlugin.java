@@ -83,7 +83,6 @@ import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.DISTRIBUTED_CHECKINTEGRITY_LAST_TX;
 import static com.orientechnologies.orient.server.distributed.impl.ODistributedDatabaseImpl.DISTRIBUTED_SYNC_JSON_FILENAME;
@@ -119,6 +118,7 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
   protected OClusterOwnershipAssignmentStrategy clusterAssignmentStrategy = new ODefaultClusterOwnershipAssignmentStrategy(this);
 
   protected static final int                            DEPLOY_DB_MAX_RETRIES  = 10;
+  protected static final int                            CHUNK_MAX_RETRIES      = 10;
   protected              ConcurrentMap<String, Member>  activeNodes            = new ConcurrentHashMap<String, Member>();
   protected              ConcurrentMap<String, String>  activeNodesNamesByUuid = new ConcurrentHashMap<String, String>();
   protected              ConcurrentMap<String, String>  activeNodesUuidByName  = new ConcurrentHashMap<String, String>();
@@ -1473,36 +1473,19 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
   }
 
   /**
-   * Installs a database from the network.
+   * Installs a database from the network. The chunks are requested by a separate thread and restored as they arrive, keeping in
+   * memory up to {@link OGlobalConfiguration#DISTRIBUTED_DEPLOYDB_TASK_BUFFERED_CHUNKS} chunks ahead of the restore.
    */
   protected void installDatabaseFromNetwork(final String dbPath, final String databaseName,
       final ODistributedDatabaseImpl distrDatabase, final String iNode, final ODistributedDatabaseChunk firstChunk,
       final boolean delta, final File uniqueClustersBackupDirectory, final OModifiableDistributedConfiguration cfg) {
 
-    final String fileName = Orient.getTempPath() + "install_" + databaseName + "_server" + getLocalNodeId() + ".zip";
-
     final String localNodeName = nodeName;
 
-    ODistributedServerLog
-        .info(this, localNodeName, iNode, DIRECTION.IN, "Copying remote database '%s' to: %s", databaseName, fileName);
+    ODistributedServerLog.info(this, localNodeName, iNode, DIRECTION.IN, "Copying remote database '%s'", databaseName);
 
-    final File file = new File(fileName);
-    if (file.exists())
-      file.delete();
-
-    try {
-      file.getParentFile().mkdirs();
-      file.createNewFile();
-    } catch (IOException e) {
-      throw OException.wrapException(new ODistributedException("Error on creating temp database file to install locally"), e);
-    }
-
-    // DELETE ANY PREVIOUS .COMPLETED FILE
-    final File completedFile = new File(file.getAbsolutePath() + ".completed");
-    if (completedFile.exists())
-      completedFile.delete();
-
-    final AtomicReference<ODistributedMomentum> momentum = new AtomicReference<ODistributedMomentum>();
+    final ODistributedDatabaseChunkInputStream in = new ODistributedDatabaseChunkInputStream(
+        OGlobalConfiguration.DISTRIBUTED_DEPLOYDB_TASK_BUFFERED_CHUNKS.getValueAsInteger());
 
     try {
       Thread t = new Thread(new Runnable() {
@@ -1512,51 +1495,43 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
             Thread.currentThread().setName("OrientDB installDatabase node=" + nodeName + " db=" + databaseName);
             ODistributedDatabaseChunk chunk = firstChunk;
 
-            momentum.set(chunk.getMomentum());
-
-            final OutputStream fOut = new FileOutputStream(fileName, false);
-            try {
-
-              long fileSize = writeDatabaseChunk(1, chunk, fOut);
-              for (int chunkNum = 2; !chunk.last; chunkNum++) {
-                final ODistributedResponse response = sendRequest(databaseName, null, OMultiValue.getSingletonList(iNode),
-                    new OCopyDatabaseChunkTask(chunk.filePath, chunkNum, chunk.offset + chunk.buffer.length, false),
-                    getNextMessageIdCounter(), ODistributedRequest.EXECUTION_MODE.RESPONSE, null, null, null);
-
-                final Object result = response.getPayload();
-                if (result instanceof Boolean)
-                  continue;
-                else if (result instanceof Exception) {
-                  ODistributedServerLog
-                      .error(this, nodeName, iNode, DIRECTION.IN, "error on installing database %s in %s (chunk #%d)",
-                          (Exception) result, databaseName, dbPath, chunkNum);
-                } else if (result instanceof ODistributedDatabaseChunk) {
-                  chunk = (ODistributedDatabaseChunk) result;
-                  fileSize += writeDatabaseChunk(chunkNum, chunk, fOut);
-                }
+            long fileSize = writeDatabaseChunk(1, chunk, in);
+            int retry = 0;
+            // STOP AS SOON AS THE RESTORE CLOSES THE STREAM, IT DOES NOT NEED THE REMAINING CHUNKS
+            for (int chunkNum = 2; !chunk.last && !in.isClosed(); ) {
+              // THE CHUNKS ARE REQUESTED BY OFFSET, SO A FAILED CHUNK IS REQUESTED AGAIN FROM THE SAME POSITION
+              final ODistributedResponse response = sendRequest(databaseName, null, OMultiValue.getSingletonList(iNode),
+                  new OCopyDatabaseChunkTask(chunk.filePath, chunkNum, chunk.offset + chunk.buffer.length, false),
+                  getNextMessageIdCounter(), ODistributedRequest.EXECUTION_MODE.RESPONSE, null, null, null);
+
+              final Object result = response.getPayload();
+              if (result instanceof ODistributedDatabaseChunk) {
+                chunk = (ODistributedDatabaseChunk) result;
+                fileSize += writeDatabaseChunk(chunkNum, chunk, in);
+                chunkNum++;
+                retry = 0;
+                continue;
               }
 
-              fOut.flush();
+              if (result instanceof Exception)
+                ODistributedServerLog
+                    .error(this, nodeName, iNode, DIRECTION.IN, "error on installing database %s in %s (chunk #%d)",
+                        (Exception) result, databaseName, dbPath, chunkNum);
 
-              // CREATE THE .COMPLETED FILE TO SIGNAL EOF
-              new File(file.getAbsolutePath() + ".completed").createNewFile();
+              if (++retry > CHUNK_MAX_RETRIES)
+                throw new ODistributedException(
+                    "Cannot transfer chunk #" + chunkNum + " of database '" + databaseName + "' from server '" + iNode + "'");
+            }
 
-              ODistributedServerLog.info(this, nodeName, null, DIRECTION.NONE, "Database copied correctly, size=%s",
-                  OFileUtils.getSizeAsString(fileSize));
+            in.complete();
 
-            } finally {
-              try {
-                fOut.flush();
-                fOut.close();
-              } catch (IOException e) {
-              }
-            }
+            ODistributedServerLog.info(this, nodeName, null, DIRECTION.NONE, "Database copied correctly, size=%s",
+                OFileUtils.getSizeAsString(fileSize));
 
           } catch (Exception e) {
             ODistributedServerLog
-                .error(this, nodeName, null, DIRECTION.NONE, "Error on transferring database '%s' to '%s'", e, databaseName,
-                    fileName);
-            throw OException.wrapException(new ODistributedException("Error on transferring database"), e);
+                .error(this, nodeName, null, DIRECTION.NONE, "Error on transferring database '%s'", e, databaseName);
+            in.fail(e);
           }
         }
       });
@@ -1564,12 +1539,11 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
       t.start();
 
     } catch (Exception e) {
-      ODistributedServerLog
-          .error(this, nodeName, null, DIRECTION.NONE, "Error on transferring database '%s' to '%s'", e, databaseName, fileName);
+      ODistributedServerLog.error(this, nodeName, null, DIRECTION.NONE, "Error on transferring database '%s'", e, databaseName);
       throw OException.wrapException(new ODistributedException("Error on transferring database"), e);
     }
 
-    final ODatabaseDocumentInternal db = installDatabaseOnLocalNode(databaseName, dbPath, iNode, fileName, delta,
+    final ODatabaseDocumentInternal db = installDatabaseOnLocalNode(databaseName, dbPath, iNode, in, delta,
         uniqueClustersBackupDirectory, cfg);
 
     if (db == null)
@@ -1888,82 +1862,25 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
     }
   }
 
-  protected long writeDatabaseChunk(final int iChunkId, final ODistributedDatabaseChunk chunk, final OutputStream out)
-      throws IOException {
+  protected long writeDatabaseChunk(final int iChunkId, final ODistributedDatabaseChunk chunk,
+      final ODistributedDatabaseChunkInputStream out) throws InterruptedException {
 
     ODistributedServerLog
         .info(this, nodeName, null, DIRECTION.NONE, "- writing chunk #%d offset=%d size=%s", iChunkId, chunk.offset,
             OFileUtils.getSizeAsString(chunk.buffer.length));
-    out.write(chunk.buffer);
+    out.append(chunk.buffer);
 
     return chunk.buffer.length;
   }
 
   protected ODatabaseDocumentInternal installDatabaseOnLocalNode(final String databaseName, final String dbPath, final String iNode,
-      final String iDatabaseCompressedFile, final boolean delta, final File uniqueClustersBackupDirectory,
+      final InputStream in, final boolean delta, final File uniqueClustersBackupDirectory,
       final OModifiableDistributedConfiguration cfg) {
     ODistributedServerLog.info(this, nodeName, iNode, DIRECTION.IN, "Installing database '%s' to: %s...", databaseName, dbPath);
 
     try {
-      final File f = new File(iDatabaseCompressedFile);
-      final File fCompleted = new File(iDatabaseCompressedFile + ".completed");
-
       new File(dbPath).mkdirs();
 
-      // USES A CUSTOM WRAPPER OF IS TO WAIT FOR FILE IS WRITTEN (ASYNCH)
-      final FileInputStream in = new FileInputStream(f) {
-        @Override
-        public int read() throws IOException {
-          while (true) {
-            final int read = super.read();
-            if (read > -1)
-              return read;
-
-            if (fCompleted.exists())
-              return 0;
-
-            try {
-              Thread.sleep(100);
-            } catch (InterruptedException e) {
-            }
-          }
-        }
-
-        @Override
-        public int read(final byte[] b, final int off, final int len) throws IOException {
-          while (true) {
-            final int read = super.read(b, off, len);
-            if (read > 0)
-              return read;
-
-            if (fCompleted.exists())
-              return 0;
-
-            try {
-              Thread.sleep(100);
-            } catch (InterruptedException e) {
-            }
-          }
-        }
-
-        @Override
-        public int available() throws IOException {
-          while (true) {
-            final int avail = super.available();
-            if (avail > 0)
-              return avail;
-
-            if (fCompleted.exists())
-              return 0;
-
-            try {
-              Thread.sleep(100);
-            } catch (InterruptedException e) {
-            }
-          }
-        }
-      };
-
       try {
         final ODistributedAbstractPlugin me = this;
         executeInDistributedDatabaseLock(databaseName, 20000, cfg, new OCallable<Void, OModifiableDistributedConfiguration>() {
@@ -2009,8 +1926,6 @@ public abstract class ODistributedAbstractPlugin extends OServerPluginAbstract
         });
       } finally {
         in.close();
-        f.delete();
-        fCompleted.delete();
       }
 
       ODatabaseDocumentInternal database = serverInstance.openDatabase(databaseName);
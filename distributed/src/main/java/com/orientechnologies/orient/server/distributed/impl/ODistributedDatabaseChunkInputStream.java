@@ -0,0 +1,152 @@
+/*
+ *
+ *  *  Copyright 2010-2018 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.distributed.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream of the database chunks received from the network during a database deployment.
+ * <p>
+ * The thread which transfers the chunks appends them with {@link #append(byte[])}, waiting while the stream already buffers as
+ * many chunks as its capacity, while the restore reads them from this stream as they arrive, so the database does not need to be
+ * copied on the local disk before being installed.
+ */
+public class ODistributedDatabaseChunkInputStream extends InputStream {
+  private static final byte[] END_OF_STREAM = new byte[0];
+
+  private final BlockingQueue<byte[]> chunks;
+
+  private volatile boolean   closed;
+  private volatile Exception failure;
+
+  private byte[]  current;
+  private int     position;
+  private boolean ended;
+
+  public ODistributedDatabaseChunkInputStream(final int capacity) {
+    chunks = new ArrayBlockingQueue<byte[]>(Math.max(1, capacity) + 1);
+  }
+
+  /**
+   * Appends a chunk to the stream, waiting for space to become available.
+   *
+   * @return false if the stream has been closed by the reader, so nobody is waiting for the chunk anymore
+   */
+  public boolean append(final byte[] chunk) throws InterruptedException {
+    if (chunk.length == 0)
+      return !closed;
+
+    return offer(chunk);
+  }
+
+  /**
+   * Signals that all the chunks have been appended.
+   */
+  public void complete() throws InterruptedException {
+    offer(END_OF_STREAM);
+  }
+
+  /**
+   * Signals that the transfer failed, the reader receives the exception as cause of an {@link IOException}.
+   */
+  public void fail(final Exception e) {
+    failure = e;
+    // MAKE ROOM FOR THE END OF STREAM, THE BUFFERED CHUNKS ARE USELESS NOW
+    chunks.clear();
+    chunks.offer(END_OF_STREAM);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fetch())
+      return -1;
+
+    return current[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0)
+      return 0;
+
+    if (!fetch())
+      return -1;
+
+    final int read = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, read);
+    position += read;
+    return read;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : current.length - position;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    chunks.clear();
+  }
+
+  private boolean offer(final byte[] chunk) throws InterruptedException {
+    while (!closed) {
+      if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS))
+        return true;
+    }
+    return false;
+  }
+
+  private boolean fetch() throws IOException {
+    if (current != null && position < current.length)
+      return true;
+
+    if (ended || closed)
+      return false;
+
+    try {
+      current = chunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Database deployment has been interrupted");
+    }
+    position = 0;
+
+    if (current == END_OF_STREAM) {
+      ended = true;
+      current = null;
+
+      final Exception e = failure;
+      if (e != null)
+        throw new IOException("Error on transferring database chunks", e);
+      return false;
+    }
+    return true;
+  }
+}
@@ -1440,6 +1440,11 @@ public class ODistributedStorage implements OStorage, OFreezableStorageComponent
     return wrapped.getClusterDataRange(currentClusterId);
   }
 
+  @Override
+  public long[][] getClusterDataSplits(final int clusterId, final int maxSplits) {
+    return wrapped.getClusterDataSplits(clusterId, maxSplits);
+  }
+
   @Override
   public <V> V callInLock(final Callable<V> iCallable, final boolean iExclusiveLock) {
     return wrapped.callInLock(iCallable, iExclusiveLock);
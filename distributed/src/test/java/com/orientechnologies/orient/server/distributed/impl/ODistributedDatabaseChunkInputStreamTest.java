@@ -0,0 +1,75 @@
+package com.orientechnologies.orient.server.distributed.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ODistributedDatabaseChunkInputStreamTest {
+
+  @Test
+  public void testReadChunksAsTheyArrive() throws Exception {
+    final ODistributedDatabaseChunkInputStream in = new ODistributedDatabaseChunkInputStream(2);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> producer = executor.submit(() -> {
+        for (int i = 0; i < 10; i++) {
+          byte[] chunk = new byte[100];
+          for (int j = 0; j < chunk.length; j++)
+            chunk[j] = (byte) (i * chunk.length + j);
+          Assert.assertTrue(in.append(chunk));
+        }
+        in.complete();
+        return null;
+      });
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[64];
+      int read;
+      while ((read = in.read(buffer, 0, buffer.length)) > -1)
+        out.write(buffer, 0, read);
+
+      producer.get();
+
+      byte[] content = out.toByteArray();
+      Assert.assertEquals(1000, content.length);
+      for (int i = 0; i < content.length; i++)
+        Assert.assertEquals((byte) i, content[i]);
+      Assert.assertEquals(-1, in.read());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    final ODistributedDatabaseChunkInputStream in = new ODistributedDatabaseChunkInputStream(2);
+    in.append(new byte[] { 1, 2 });
+    in.fail(new IllegalStateException("chunk lost"));
+
+    try {
+      in.read();
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  @Test
+  public void testCloseStopsTheProducer() throws Exception {
+    final ODistributedDatabaseChunkInputStream in = new ODistributedDatabaseChunkInputStream(1);
+    Assert.assertTrue(in.append(new byte[] { 1 }));
+    Assert.assertTrue(in.append(new byte[] { 2 }));
+
+    in.close();
+
+    Assert.assertTrue(in.isClosed());
+    Assert.assertFalse(in.append(new byte[] { 3 }));
+    Assert.assertEquals(-1, in.read());
+  }
+}
@@ -32,11 +32,13 @@ import com.orientechnologies.orient.server.config.OServerCommandConfiguration;
 import com.orientechnologies.orient.server.config.OServerParameterConfiguration;
 import com.orientechnologies.orient.server.network.protocol.OBeforeDatabaseOpenNetworkEventListener;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommand;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -53,6 +55,7 @@ public class OServerNetworkListener extends Thread {
   private OServer                                       server;
   private int                                           protocolVersion = -1;
   private List<OBeforeDatabaseOpenNetworkEventListener> beforeDatabaseOpenNetworkEventListener = new ArrayList<OBeforeDatabaseOpenNetworkEventListener>();
+  private OServerNioDispatcher                          nioDispatcher;
 
   public OServerNetworkListener(final OServer iServer, final OServerSocketFactory iSocketFactory, final String iHostName,
       final String iHostPortRange, final String iProtocolName, final Class<? extends ONetworkProtocol> iProtocol,
@@ -73,10 +76,19 @@ public class OServerNetworkListener extends Thread {
       throw OException.wrapException(new ONetworkProtocolException(message), e);
     }
 
-    listen(iHostName, iHostPortRange, iProtocolName, iProtocol);
+    readParameters(iServer.getContextConfiguration(), iParameters);
+
+    // NON-BLOCKING TRANSPORT IS SUPPORTED ONLY BY THE BINARY PROTOCOL OVER PLAIN SOCKETS
+    final boolean nio = configuration.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_NIO) && ONetworkProtocolBinary.class
+        .isAssignableFrom(iProtocol) && socketFactory instanceof ODefaultServerSocketFactory;
+
+    listen(iHostName, iHostPortRange, iProtocolName, iProtocol, nio);
     protocolType = iProtocol;
 
-    readParameters(iServer.getContextConfiguration(), iParameters);
+    if (nio) {
+      nioDispatcher = new OServerNioDispatcher(server, iHostName + ":" + serverSocket.getLocalPort(), configuration);
+      nioDispatcher.start();
+    }
 
     if (iCommands != null) {
       for (int i = 0; i < iCommands.length; ++i) {
@@ -167,6 +179,9 @@ public class OServerNetworkListener extends Thread {
   public void shutdown() {
     this.active = false;
 
+    if (nioDispatcher != null)
+      nioDispatcher.shutdown();
+
     if (serverSocket != null)
       try {
         serverSocket.close();
@@ -215,7 +230,10 @@ public class OServerNetworkListener extends Thread {
           final ONetworkProtocol protocol = constructor.newInstance(server);
 
           // CONFIGURE THE PROTOCOL FOR THE INCOMING CONNECTION
-          protocol.config(this, server, socket, configuration);
+          if (nioDispatcher != null)
+            nioDispatcher.register(socket.getChannel(), (ONetworkProtocolBinary) protocol, this, configuration);
+          else
+            protocol.config(this, server, socket, configuration);
 
         } catch (Exception e) {
           if (active)
@@ -325,19 +343,25 @@ public class OServerNetworkListener extends Thread {
    *
    * @param iHostPortRange
    * @param iHostName
+   * @param nio            if <code>true</code> socket is created by {@link ServerSocketChannel}, so accepted sockets may be served by
+   *                       {@link OServerNioDispatcher}
    */
   private void listen(final String iHostName, final String iHostPortRange, final String iProtocolName,
-      Class<? extends ONetworkProtocol> protocolClass) {
+      Class<? extends ONetworkProtocol> protocolClass, final boolean nio) {
 
     for (int port : getPorts(iHostPortRange)) {
       inboundAddr = new InetSocketAddress(iHostName, port);
       try {
-        serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
+        if (nio)
+          serverSocket = createChannelServerSocket(port, InetAddress.getByName(iHostName));
+        else
+          serverSocket = socketFactory.createServerSocket(port, 0, InetAddress.getByName(iHostName));
 
         if (serverSocket.isBound()) {
           OLogManager.instance().info(this,
               "Listening $ANSI{green " + iProtocolName + "} connections on $ANSI{green " + inboundAddr.getAddress().getHostAddress()
-                  + ":" + inboundAddr.getPort() + "} (protocol v." + protocolVersion + ", socket=" + socketFactory.getName() + ")");
+                  + ":" + inboundAddr.getPort() + "} (protocol v." + protocolVersion + ", socket=" + socketFactory.getName() + (nio ? ", nio" : "")
+                  + ")");
 
           return;
         }
@@ -359,6 +383,18 @@ public class OServerNetworkListener extends Thread {
     throw new OSystemException("Unable to listen for connections using the configured ports '%s' on host '%s'");
   }
 
+  private static ServerSocket createChannelServerSocket(final int port, final InetAddress address) throws IOException {
+    final ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+    try {
+      final ServerSocket socket = serverSocketChannel.socket();
+      socket.bind(new InetSocketAddress(address, port));
+      return socket;
+    } catch (IOException e) {
+      serverSocketChannel.close();
+      throw e;
+    }
+  }
+
   /**
    * Initializes connection parameters by the reading XML configuration. If not specified, get the parameters defined as global
    * configuration.
@@ -0,0 +1,316 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryServer;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connection of the binary protocol served by {@link OServerNioDispatcher}. While connection waits for the next request it is
+ * watched by the selector of the dispatcher and does not hold any thread or buffer. Once data arrive, requests are read and
+ * executed by a worker of the dispatcher from the buffer acquired from {@link OByteBufferPool}, the buffer is returned back to the
+ * pool when all received data are processed.
+ * <p>
+ * The binary protocol does not prefix requests with their length, so a request can not be buffered by the selector thread till it is
+ * complete. If a request is received partially, the worker waits for the rest of it no longer than
+ * {@link OGlobalConfiguration#NETWORK_BINARY_NIO_READ_TIMEOUT} at a time, and for the client to accept a response no longer than
+ * {@link OGlobalConfiguration#NETWORK_SOCKET_TIMEOUT}. Once a wait times out the connection is dropped, so stalled clients release
+ * the worker instead of holding it.
+ */
+final class OServerNioConnection implements Runnable {
+  /**
+   * Maximum amount of requests received together which are executed by a worker before the connection is queued again, so
+   * other connections are not starved.
+   */
+  private static final int MAX_REQUESTS_PER_DISPATCH = 16;
+
+  private final OServerNioDispatcher   dispatcher;
+  private final SocketChannel          socketChannel;
+  private final long                   readTimeout;
+  private final long                   writeTimeout;
+  private final ChannelInputStream     inputStream  = new ChannelInputStream();
+  private final ChannelOutputStream    outputStream = new ChannelOutputStream();
+  private final ONetworkProtocolBinary protocol;
+  private volatile boolean             closed;
+  private volatile Selector            waitSelector;
+
+  /**
+   * Key of the selector of the dispatcher, accessed only by the selector thread.
+   */
+  SelectionKey key;
+
+  OServerNioConnection(final OServerNioDispatcher dispatcher, final SocketChannel socketChannel,
+      final ONetworkProtocolBinary protocol, final OServerNetworkListener listener, final OServer server,
+      final OContextConfiguration configuration) throws IOException {
+    this.dispatcher = dispatcher;
+    this.socketChannel = socketChannel;
+    this.protocol = protocol;
+    this.readTimeout = configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_NIO_READ_TIMEOUT);
+    this.writeTimeout = configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_SOCKET_TIMEOUT);
+
+    socketChannel.configureBlocking(false);
+    protocol.config(listener, server, new OChannelBinaryServer(socketChannel.socket(), inputStream, outputStream, configuration));
+  }
+
+  SocketChannel getSocketChannel() {
+    return socketChannel;
+  }
+
+  ONetworkProtocolBinary getProtocol() {
+    return protocol;
+  }
+
+  /**
+   * Executes requests which are received by the connection, it is called by a worker of the dispatcher once data are available.
+   */
+  @Override
+  public void run() {
+    boolean open = true;
+    try {
+      for (int i = 0; i < MAX_REQUESTS_PER_DISPATCH && open; i++) {
+        open = protocol.handleRequest();
+
+        if (inputStream.available() == 0)
+          break;
+      }
+    } catch (RuntimeException | Error e) {
+      OLogManager.instance().error(this, "Error on serving of connection %s", e, socketChannel);
+      open = false;
+    }
+
+    if (!open || !socketChannel.isOpen()) {
+      close();
+      return;
+    }
+
+    if (inputStream.available() > 0)
+      dispatcher.execute(this);
+    else {
+      inputStream.releaseBuffer();
+      dispatcher.resume(this);
+    }
+  }
+
+  /**
+   * Closes the connection, it is called only when the connection is not served by a worker.
+   */
+  void close() {
+    try {
+      protocol.shutdown();
+    } catch (RuntimeException e) {
+      OLogManager.instance().debug(this, "Error on closing of connection %s", e, socketChannel);
+    }
+
+    try {
+      socketChannel.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on closing of connection %s", e, socketChannel);
+    }
+
+    inputStream.releaseBuffer();
+    dispatcher.wakeup();
+  }
+
+  /**
+   * Waits till the channel is ready for the passed in operation using the selector of the current thread. If the timeout elapses
+   * the channel is closed, because the request or the response is transferred only partially and the connection can not be used
+   * any more.
+   */
+  private void waitFor(final int operation, final long timeout) throws IOException {
+    final Selector selector = dispatcher.getThreadSelector();
+    final SelectionKey waitKey = socketChannel.register(selector, operation);
+    waitSelector = selector;
+    try {
+      final long deadline = System.currentTimeMillis() + timeout;
+      long remaining = timeout;
+
+      while (selector.select(remaining) == 0) {
+        if (closed || !socketChannel.isOpen())
+          throw new ClosedChannelException();
+
+        remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          final SocketTimeoutException exception = new SocketTimeoutException(
+              "Timeout on waiting of the client " + socketChannel.getRemoteAddress() + ", connection is dropped");
+          socketChannel.close();
+          throw exception;
+        }
+      }
+
+      selector.selectedKeys().clear();
+    } finally {
+      waitSelector = null;
+      waitKey.cancel();
+      selector.selectNow();
+    }
+  }
+
+  private final class ChannelInputStream extends InputStream {
+    /**
+     * Buffer is accessed only by the thread which serves the connection.
+     */
+    private ByteBuffer buffer;
+
+    @Override
+    public int read() throws IOException {
+      if (!fill())
+        return -1;
+
+      return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      if (len == 0)
+        return 0;
+
+      if (!fill())
+        return -1;
+
+      final int size = Math.min(len, buffer.remaining());
+      buffer.get(b, off, size);
+      return size;
+    }
+
+    @Override
+    public int available() {
+      return buffer == null ? 0 : buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+      // buffer is released by the thread which serves the connection, here that thread is only woken up if it waits for data
+      closed = true;
+
+      final Selector selector = waitSelector;
+      if (selector != null)
+        selector.wakeup();
+    }
+
+    private boolean fill() throws IOException {
+      if (buffer != null && buffer.hasRemaining())
+        return true;
+
+      if (buffer == null)
+        buffer = OByteBufferPool.instance().acquireDirect(false);
+
+      buffer.clear();
+
+      int read;
+      while ((read = socketChannel.read(buffer)) == 0)
+        waitFor(SelectionKey.OP_READ, readTimeout);
+
+      buffer.flip();
+      return read > 0;
+    }
+
+    private void releaseBuffer() {
+      if (buffer != null) {
+        OByteBufferPool.instance().release(buffer);
+        buffer = null;
+      }
+    }
+  }
+
+  /**
+   * Output stream may be used by several threads at once, for example by the worker and by the thread which pushes data to the
+   * client, so all methods are synchronized.
+   */
+  private final class ChannelOutputStream extends OutputStream {
+    private ByteBuffer buffer;
+
+    @Override
+    public synchronized void write(final int b) throws IOException {
+      prepareBuffer();
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        prepareBuffer();
+
+        final int size = Math.min(len, buffer.remaining());
+        buffer.put(b, off, size);
+
+        off += size;
+        len -= size;
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      if (buffer == null)
+        return;
+
+      try {
+        writeBuffer();
+      } finally {
+        releaseBuffer();
+      }
+    }
+
+    @Override
+    public synchronized void close() {
+      releaseBuffer();
+    }
+
+    private void prepareBuffer() throws IOException {
+      if (buffer == null) {
+        buffer = OByteBufferPool.instance().acquireDirect(false);
+        buffer.clear();
+      } else if (!buffer.hasRemaining())
+        writeBuffer();
+    }
+
+    private void writeBuffer() throws IOException {
+      buffer.flip();
+
+      while (buffer.hasRemaining()) {
+        if (socketChannel.write(buffer) == 0)
+          waitFor(SelectionKey.OP_WRITE, writeTimeout);
+      }
+
+      buffer.clear();
+    }
+
+    private void releaseBuffer() {
+      if (buffer != null) {
+        OByteBufferPool.instance().release(buffer);
+        buffer = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.OUncaughtExceptionHandler;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.enterprise.channel.binary.ONetworkProtocolException;
+import com.orientechnologies.orient.server.OServer;
+import com.orientechnologies.orient.server.network.protocol.binary.ONetworkProtocolBinary;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking transport of the binary protocol. Connections which wait for the next request are watched by a single selector
+ * thread, once a connection receives data it is passed to the bounded pool of workers which read and execute requests. So the
+ * amount of threads does not depend on the amount of open connections but only on the amount of requests executed at the same
+ * time.
+ *
+ * @see OGlobalConfiguration#NETWORK_BINARY_NIO
+ * @see OGlobalConfiguration#NETWORK_BINARY_NIO_WORKERS
+ */
+public class OServerNioDispatcher extends Thread {
+  /**
+   * Interval (in ms) of checks of connections which were shut down while they were waiting for requests.
+   */
+  private static final long SHUTDOWN_CHECK_INTERVAL = 1000;
+
+  private final OServer                     server;
+  private final Selector                    selector;
+  private final ExecutorService             workers;
+  private final Queue<OServerNioConnection> pendingConnections = new ConcurrentLinkedQueue<OServerNioConnection>();
+  private final List<Selector>              threadSelectors    = new ArrayList<Selector>();
+  private final ThreadLocal<Selector>       threadSelector     = new ThreadLocal<Selector>();
+  private volatile boolean                  active             = true;
+
+  public OServerNioDispatcher(final OServer server, final String name, final OContextConfiguration configuration) {
+    super(server.getThreadGroup(), "OrientDB binary NIO dispatcher at " + name);
+    setDaemon(true);
+    setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+
+    this.server = server;
+
+    try {
+      selector = Selector.open();
+    } catch (IOException e) {
+      throw OException.wrapException(new ONetworkProtocolException("Error on creation of selector of non-blocking transport"), e);
+    }
+
+    int workersCount = configuration.getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_NIO_WORKERS);
+    if (workersCount <= 0)
+      workersCount = 8 * Runtime.getRuntime().availableProcessors();
+
+    workers = new ThreadPoolExecutor(workersCount, workersCount, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<Runnable>(), new WorkerThreadFactory(server.getThreadGroup(), name));
+  }
+
+  /**
+   * Passes the accepted connection to the transport, the protocol is configured but its thread is not started.
+   */
+  public void register(final SocketChannel socketChannel, final ONetworkProtocolBinary protocol,
+      final OServerNetworkListener listener, final OContextConfiguration configuration) throws IOException {
+    final OServerNioConnection connection = new OServerNioConnection(this, socketChannel, protocol, listener, server,
+        configuration);
+    resume(connection);
+  }
+
+  public void shutdown() {
+    active = false;
+    selector.wakeup();
+
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(SHUTDOWN_CHECK_INTERVAL, TimeUnit.MILLISECONDS))
+        workers.shutdownNow();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (active) {
+        registerPendingConnections();
+
+        selector.select(SHUTDOWN_CHECK_INTERVAL);
+
+        final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          final SelectionKey key = iterator.next();
+          iterator.remove();
+
+          if (!key.isValid())
+            continue;
+
+          // CONNECTION IS NOT WATCHED TILL THE WORKER EXECUTES ALL RECEIVED REQUESTS
+          key.interestOps(0);
+          execute((OServerNioConnection) key.attachment());
+        }
+
+        closeShutDownConnections();
+      }
+    } catch (IOException | RuntimeException e) {
+      if (active)
+        OLogManager.instance().error(this, "Error in the selector of non-blocking transport", e);
+    } finally {
+      closeConnections();
+    }
+  }
+
+  /**
+   * Queues the connection to be executed by a worker.
+   */
+  void execute(final OServerNioConnection connection) {
+    try {
+      workers.execute(connection);
+    } catch (RejectedExecutionException e) {
+      // TRANSPORT IS SHUT DOWN
+      connection.close();
+    }
+  }
+
+  /**
+   * Queues the connection to be watched by the selector again, it is called once all received requests are executed.
+   */
+  void resume(final OServerNioConnection connection) {
+    if (!active) {
+      connection.close();
+      return;
+    }
+
+    pendingConnections.add(connection);
+    selector.wakeup();
+  }
+
+  void wakeup() {
+    selector.wakeup();
+  }
+
+  /**
+   * @return selector which is used by the current thread to wait for the channel which is served by it.
+   */
+  Selector getThreadSelector() throws IOException {
+    Selector result = threadSelector.get();
+    if (result == null) {
+      result = Selector.open();
+      threadSelector.set(result);
+
+      synchronized (threadSelectors) {
+        threadSelectors.add(result);
+      }
+    }
+
+    return result;
+  }
+
+  private void registerPendingConnections() {
+    OServerNioConnection connection;
+    while ((connection = pendingConnections.poll()) != null) {
+      try {
+        if (connection.key == null)
+          connection.key = connection.getSocketChannel().register(selector, SelectionKey.OP_READ, connection);
+        else
+          connection.key.interestOps(SelectionKey.OP_READ);
+      } catch (IOException | CancelledKeyException e) {
+        connection.close();
+      }
+    }
+  }
+
+  /**
+   * Closes connections which were shut down by the server while they were waiting for requests, for example by
+   * {@link com.orientechnologies.orient.server.OClientConnectionManager#kill(int)}.
+   */
+  private void closeShutDownConnections() {
+    for (SelectionKey key : selector.keys()) {
+      if (key.isValid() && key.interestOps() == SelectionKey.OP_READ) {
+        final OServerNioConnection connection = (OServerNioConnection) key.attachment();
+        if (connection.getProtocol().isShutdownFlag()) {
+          key.cancel();
+          connection.close();
+        }
+      }
+    }
+  }
+
+  private void closeConnections() {
+    for (SelectionKey key : selector.keys()) {
+      final OServerNioConnection connection = (OServerNioConnection) key.attachment();
+      if (!key.isValid() || key.interestOps() == SelectionKey.OP_READ)
+        connection.close();
+      else
+        // CONNECTION IS CLOSED BY THE WORKER ONCE CURRENT REQUEST IS EXECUTED
+        connection.getProtocol().sendShutdown();
+    }
+
+    OServerNioConnection connection;
+    while ((connection = pendingConnections.poll()) != null)
+      connection.close();
+
+    try {
+      selector.close();
+    } catch (IOException e) {
+      OLogManager.instance().debug(this, "Error on closing of selector of non-blocking transport", e);
+    }
+
+    synchronized (threadSelectors) {
+      for (Selector threadSelector : threadSelectors) {
+        try {
+          threadSelector.close();
+        } catch (IOException e) {
+          OLogManager.instance().debug(this, "Error on closing of selector of non-blocking transport", e);
+        }
+      }
+
+      threadSelectors.clear();
+    }
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final ThreadGroup   threadGroup;
+    private final String        name;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private WorkerThreadFactory(final ThreadGroup threadGroup, final String name) {
+      this.threadGroup = threadGroup;
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+      final Thread thread = new Thread(threadGroup, r);
+      thread.setDaemon(true);
+      thread.setName("OrientDB binary NIO worker #" + counter.incrementAndGet() + " at " + name);
+      thread.setUncaughtExceptionHandler(new OUncaughtExceptionHandler());
+      return thread;
+    }
+  }
+}
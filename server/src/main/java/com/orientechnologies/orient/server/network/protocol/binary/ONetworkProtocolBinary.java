@@ -113,15 +113,47 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
   public void config(final OServerNetworkListener iListener, final OServer iServer, final Socket iSocket,
       final OContextConfiguration iConfig) throws IOException {
 
-    OChannelBinaryServer channel = new OChannelBinaryServer(iSocket, iConfig);
-    initVariables(iServer, channel);
+    config(iListener, iServer, new OChannelBinaryServer(iSocket, iConfig));
+    start();
+  }
+
+  /**
+   * Configures the protocol for the connection served by the non-blocking transport. The protocol thread is not started, requests
+   * are executed by {@link #handleRequest()} instead.
+   */
+  public void config(final OServerNetworkListener iListener, final OServer iServer, final OChannelBinaryServer iChannel)
+      throws IOException {
+    initVariables(iServer, iChannel);
 
     // SEND PROTOCOL VERSION
     channel.writeShort((short) getVersion());
 
     channel.flush();
-    start();
-    setName("OrientDB (" + iSocket.getLocalSocketAddress() + ") <- BinaryClient (" + iSocket.getRemoteSocketAddress() + ")");
+    setName("OrientDB (" + channel.socket.getLocalSocketAddress() + ") <- BinaryClient (" + channel.socket.getRemoteSocketAddress()
+        + ")");
+  }
+
+  /**
+   * Reads and executes a single request in the current thread, it is used by the non-blocking transport instead of the loop of
+   * the protocol thread.
+   *
+   * @return <code>false</code> if the connection was shut down and should not be served any more.
+   */
+  public boolean handleRequest() {
+    try {
+      execute();
+    } catch (Exception e) {
+      OLogManager.instance().debug(this, "Error on serving of request", e);
+    } finally {
+      ODatabaseRecordThreadLocal.instance().remove();
+    }
+
+    if (isShutdownFlag()) {
+      shutdown();
+      return false;
+    }
+
+    return true;
   }
 
   @Override
@@ -0,0 +1,112 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.ORemoteConnectionManager;
+import com.orientechnologies.orient.client.remote.OStorageRemote;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ORequestPipeliningTest {
+  private static final int SESSIONS = 16;
+  private static final int MAX_POOL = 2;
+
+  private OServer  server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(SESSIONS);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(MAX_POOL);
+
+    server = new OServer(false);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    orientDB = new OrientDB("remote:localhost", "root", "root", OrientDBConfig.defaultConfig());
+    orientDB.create(ORequestPipeliningTest.class.getSimpleName(), ODatabaseType.MEMORY);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_PIPELINED_REQUESTS.setValue(1);
+    OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL.setValue(100);
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(server.getDatabaseDirectory()));
+    Orient.instance().startup();
+  }
+
+  @Test
+  public void testConcurrentSessionsShareConnections() throws Exception {
+    final List<ODatabaseSession> sessions = new ArrayList<ODatabaseSession>();
+    for (int i = 0; i < SESSIONS; i++)
+      sessions.add(orientDB.open(ORequestPipeliningTest.class.getSimpleName(), "admin", "admin"));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(SESSIONS);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < SESSIONS; i++) {
+        final int sessionIndex = i;
+        final ODatabaseSession session = sessions.get(i);
+
+        futures.add(executor.submit(() -> {
+          session.activateOnCurrentThread();
+          for (int n = 0; n < 20; n++) {
+            session.save(new ODocument("V").field("session", sessionIndex).field("n", n));
+
+            // RESPONSES OF DIFFERENT SIZE AND ERRORS ARE READ BY THE RIGHT REQUESTS
+            try (OResultSet resultSet = session.query("select count(*) as count from V where session = ?", sessionIndex)) {
+              Assert.assertEquals(n + 1L, (long) resultSet.next().getProperty("count"));
+            }
+
+            try {
+              session.command("select from NotExistingClass").close();
+              Assert.fail();
+            } catch (OCommandExecutionException e) {
+              // EXPECTED
+            }
+          }
+          return null;
+        }));
+      }
+
+      for (Future<Void> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    final ORemoteConnectionManager connectionManager = ((OStorageRemote) ((ODatabaseDocumentInternal) sessions.get(0))
+        .getStorage()).connectionManager;
+    for (String url : connectionManager.getURLs())
+      Assert.assertTrue(connectionManager.getCreatedInstancesInPool(url) <= MAX_POOL);
+
+    for (ODatabaseSession session : sessions) {
+      session.activateOnCurrentThread();
+      session.close();
+    }
+  }
+}
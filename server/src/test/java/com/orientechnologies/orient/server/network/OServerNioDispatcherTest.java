@@ -0,0 +1,152 @@
+package com.orientechnologies.orient.server.network;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OServerNioDispatcherTest {
+  private static final int SESSIONS = 64;
+
+  private OServer  server;
+  private OrientDB orientDB;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.NETWORK_BINARY_NIO.setValue(true);
+    OGlobalConfiguration.NETWORK_BINARY_NIO_WORKERS.setValue(2);
+    OGlobalConfiguration.NETWORK_BINARY_NIO_READ_TIMEOUT.setValue(200);
+
+    server = new OServer(false);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    orientDB = new OrientDB("remote:localhost", "root", "root", OrientDBConfig.defaultConfig());
+    orientDB.create(OServerNioDispatcherTest.class.getSimpleName(), ODatabaseType.MEMORY);
+  }
+
+  @After
+  public void after() {
+    orientDB.close();
+    server.shutdown();
+
+    OGlobalConfiguration.NETWORK_BINARY_NIO.setValue(false);
+    OGlobalConfiguration.NETWORK_BINARY_NIO_WORKERS.setValue(0);
+    OGlobalConfiguration.NETWORK_BINARY_NIO_READ_TIMEOUT.setValue(OGlobalConfiguration.NETWORK_BINARY_NIO_READ_TIMEOUT.getDefValue());
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(server.getDatabaseDirectory()));
+    Orient.instance().startup();
+  }
+
+  @Test
+  public void testManySessionsServedByFewWorkers() throws Exception {
+    final List<ODatabaseSession> sessions = new ArrayList<ODatabaseSession>();
+    for (int i = 0; i < SESSIONS; i++)
+      sessions.add(orientDB.open(OServerNioDispatcherTest.class.getSimpleName(), "admin", "admin"));
+
+    // CONNECTIONS ARE NOT SERVED BY THREADS OF THE PROTOCOL
+    for (Thread thread : Thread.getAllStackTraces().keySet())
+      Assert.assertFalse(thread.getName(), thread.getName().contains("<- BinaryClient"));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < SESSIONS; i++) {
+        final int sessionIndex = i;
+        final ODatabaseSession session = sessions.get(i);
+
+        futures.add(executor.submit(() -> {
+          session.activateOnCurrentThread();
+          for (int n = 0; n < 10; n++)
+            session.save(new ODocument("V").field("session", sessionIndex).field("n", n));
+
+          try (OResultSet resultSet = session.query("select count(*) as count from V where session = ?", sessionIndex)) {
+            Assert.assertEquals(10L, (long) resultSet.next().getProperty("count"));
+          }
+          return null;
+        }));
+      }
+
+      for (Future<Void> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    for (ODatabaseSession session : sessions) {
+      session.activateOnCurrentThread();
+      session.close();
+    }
+  }
+
+  @Test
+  public void testStalledClientsAreDropped() throws Exception {
+    // AS MANY STALLED CLIENTS AS WORKERS, EACH ONE SENDS ONLY A PART OF THE REQUEST
+    final List<Socket> stalled = new ArrayList<Socket>();
+    try {
+      for (int i = 0; i < 2; i++) {
+        final Socket socket = new Socket("localhost", 2424);
+        socket.setSoTimeout(10000);
+        stalled.add(socket);
+
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        in.readShort();
+
+        final OutputStream out = socket.getOutputStream();
+        out.write(new byte[] { OChannelBinaryProtocol.REQUEST_DB_OPEN, 0, 0 });
+        out.flush();
+      }
+
+      for (Socket socket : stalled)
+        Assert.assertEquals(-1, socket.getInputStream().read());
+
+      final long start = System.currentTimeMillis();
+      try (ODatabaseSession session = orientDB.open(OServerNioDispatcherTest.class.getSimpleName(), "admin", "admin")) {
+        session.save(new ODocument("V").field("stalled", true));
+      }
+      Assert.assertTrue(System.currentTimeMillis() - start < OGlobalConfiguration.NETWORK_SOCKET_TIMEOUT.getValueAsInteger());
+    } finally {
+      for (Socket socket : stalled)
+        socket.close();
+    }
+  }
+
+  @Test
+  public void testRecordsLargerThanBuffer() {
+    final char[] chars = new char[300 * 1024];
+    Arrays.fill(chars, 'a');
+    final String value = new String(chars);
+
+    try (ODatabaseSession session = orientDB.open(OServerNioDispatcherTest.class.getSimpleName(), "admin", "admin")) {
+      final ODocument document = new ODocument("V").field("value", value);
+      session.save(document);
+
+      session.getLocalCache().clear();
+      final ODocument loaded = session.load(document.getIdentity());
+      Assert.assertEquals(value, loaded.field("value"));
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.orientechnologies.orient.server.query;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.message.ORemoteResultSet;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseType;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.CLIENT_CHANNEL_MAX_POOL;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.NETWORK_LOCK_TIMEOUT;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH;
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES;
+import static org.junit.Assert.*;
+
+public class RemoteResultSetPrefetchTest {
+
+  private static final String SERVER_DIRECTORY = "./target/prefetch";
+  private static final int    RECORDS          = 1000;
+
+  private OServer           server;
+  private OrientDB          orientDB;
+  private ODatabaseDocument session;
+  private ORID              firstRid;
+
+  @Before
+  public void before() throws Exception {
+    OGlobalConfiguration.CLASS_MINIMUM_CLUSTERS.setValue(1);
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    orientDB = new OrientDB("remote:localhost", "root", "root", OrientDBConfig.defaultConfig());
+    orientDB.create(RemoteResultSetPrefetchTest.class.getSimpleName(), ODatabaseType.MEMORY);
+    session = orientDB.open(RemoteResultSetPrefetchTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+    for (int i = 0; i < RECORDS; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("n", i);
+      session.save(doc);
+      if (firstRid == null)
+        firstRid = doc.getIdentity();
+    }
+
+    QUERY_REMOTE_RESULTSET_PAGE_SIZE.setValue(10);
+    QUERY_REMOTE_RESULTSET_PREFETCH.setValue(true);
+  }
+
+  @Test
+  public void testAllPagesAreReceived() {
+    try (OResultSet res = session.query("select from Some order by n")) {
+      for (int i = 0; i < RECORDS; i++) {
+        assertTrue(res.hasNext());
+        OResult item = res.next();
+        assertEquals(i, (int) item.getProperty("n"));
+
+        // OTHER REQUESTS ARE EXECUTED WHILE THE NEXT PAGE IS REQUESTED
+        if (i % 100 == 0) {
+          session.getLocalCache().clear();
+          assertEquals(0, (int) session.<ODocument>load(firstRid).field("n"));
+        }
+      }
+      assertFalse(res.hasNext());
+    }
+  }
+
+  @Test
+  public void testPageSizeLimitedByMemory() {
+    QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES.setValue(1);
+
+    try (OResultSet res = session.query("select from Some order by n")) {
+      for (int i = 0; i < RECORDS; i++) {
+        assertTrue(res.hasNext());
+        assertEquals(i, (int) res.next().getProperty("n"));
+
+        // THE SECOND PAGE IS RECEIVED, SO THE SIZE OF RECORDS IS KNOWN
+        if (i == 20)
+          assertEquals(1, ((ORemoteResultSet) res).getPageSize());
+      }
+      assertFalse(res.hasNext());
+    }
+  }
+
+  @Test
+  public void testPrefetchDoesNotExhaustPool() {
+    final int maxPool = 4;
+    final OrientDB poolLimited = new OrientDB("remote:localhost", "root", "root",
+        OrientDBConfig.builder().addConfig(CLIENT_CHANNEL_MAX_POOL, maxPool).addConfig(NETWORK_LOCK_TIMEOUT, 2000).build());
+    try (ODatabaseDocument db = poolLimited.open(RemoteResultSetPrefetchTest.class.getSimpleName(), "admin", "admin")) {
+      final List<OResultSet> results = new ArrayList<>();
+      try {
+        for (int i = 0; i < maxPool * 2; i++) {
+          final OResultSet res = db.query("select from Some order by n");
+          assertTrue(res.hasNext());
+          assertEquals(0, (int) res.next().getProperty("n"));
+          results.add(res);
+
+          // REQUESTS OF THE SAME THREAD STILL GET A CHANNEL
+          db.getLocalCache().clear();
+          assertEquals(0, (int) db.<ODocument>load(firstRid).field("n"));
+        }
+
+        for (OResultSet res : results) {
+          for (int i = 1; i < RECORDS; i++) {
+            assertTrue(res.hasNext());
+            assertEquals(i, (int) res.next().getProperty("n"));
+          }
+          assertFalse(res.hasNext());
+        }
+      } finally {
+        for (OResultSet res : results)
+          res.close();
+      }
+    } finally {
+      poolLimited.close();
+      session.activateOnCurrentThread();
+    }
+  }
+
+  @Test
+  public void testCloseWithRequestedPage() {
+    for (int i = 0; i < 3; i++) {
+      try (OResultSet res = session.query("select from Some order by n")) {
+        assertTrue(res.hasNext());
+        assertEquals(0, (int) res.next().getProperty("n"));
+      }
+    }
+
+    try (OResultSet res = session.query("select count(*) as count from Some")) {
+      assertEquals((long) RECORDS, (long) res.next().getProperty("count"));
+    }
+  }
+
+  @After
+  public void after() {
+    QUERY_REMOTE_RESULTSET_PAGE_SIZE.setValue(QUERY_REMOTE_RESULTSET_PAGE_SIZE.getDefValue());
+    QUERY_REMOTE_RESULTSET_PREFETCH.setValue(false);
+    QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES.setValue(QUERY_REMOTE_RESULTSET_PREFETCH_MAX_PAGE_BYTES.getDefValue());
+    session.close();
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+}